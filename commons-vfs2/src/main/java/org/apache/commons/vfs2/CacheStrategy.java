@@ -34,7 +34,15 @@ public enum CacheStrategy {
      * Refresh the data every time you call a method on the fileObject. You'll use this only if you really need the
      * latest info as this setting is a major performance loss.
      */
-    ON_CALL("oncall");
+    ON_CALL("oncall"),
+
+    /**
+     * Refresh the data when you call a method on the fileObject and the data is older than the time to live of its
+     * file system, see {@link org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder#setCacheTimeToLive}.
+     *
+     * @since 2.3
+     */
+    ON_TIMEOUT("ontimeout");
 
     /**
      * Cache strategy name
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+
+/**
+ * Several standard copy policies.
+ *
+ * @since 2.3
+ */
+public final class CopyPolicies {
+    /**
+     * A {@link CopyPolicy} that always overwrites existing files.
+     */
+    public static final CopyPolicy ALWAYS = new CopyPolicy() {
+        @Override
+        public boolean isCopyRequired(final FileObject srcFile, final FileObject destFile) {
+            return true;
+        }
+    };
+
+    /**
+     * A {@link CopyPolicy} that never overwrites existing files.
+     */
+    public static final CopyPolicy SKIP_IF_EXISTS = new CopyPolicy() {
+        @Override
+        public boolean isCopyRequired(final FileObject srcFile, final FileObject destFile) {
+            return false;
+        }
+    };
+
+    /**
+     * A {@link CopyPolicy} that keeps existing files of the same size which have not been modified before the source
+     * file.
+     * <p>
+     * Copies get the time they were written as last modified time, so a copy is only kept as long as the source file
+     * has not been modified after it was copied.
+     */
+    public static final CopyPolicy SKIP_IF_SAME_SIZE_AND_LAST_MODIFIED = new CopyPolicy() {
+        @Override
+        public boolean isCopyRequired(final FileObject srcFile, final FileObject destFile)
+                throws FileSystemException {
+            final FileContent srcContent = srcFile.getContent();
+            final FileContent destContent = destFile.getContent();
+            return srcContent.getSize() != destContent.getSize()
+                    || srcContent.getLastModifiedTime() > destContent.getLastModifiedTime();
+        }
+    };
+
+    /**
+     * A {@link CopyPolicy} that keeps existing files with the same content.
+     * <p>
+     * The checksums of the provider are compared if both files provide one, see
+     * {@link AbstractFileObject#getChecksum()}. Otherwise the files are compared as by
+     * {@link #SKIP_IF_SAME_SIZE_AND_LAST_MODIFIED}, as reading both files to compare their content would cost as much
+     * as copying the source file.
+     */
+    public static final CopyPolicy SKIP_IF_SAME_CHECKSUM = new CopyPolicy() {
+        @Override
+        public boolean isCopyRequired(final FileObject srcFile, final FileObject destFile) throws Exception {
+            final String srcChecksum = getChecksum(srcFile);
+            final String destChecksum = srcChecksum != null ? getChecksum(destFile) : null;
+            if (srcChecksum != null && destChecksum != null) {
+                return !srcChecksum.equals(destChecksum);
+            }
+            return SKIP_IF_SAME_SIZE_AND_LAST_MODIFIED.isCopyRequired(srcFile, destFile);
+        }
+    };
+
+    /**
+     * Prevent the class from being instantiated.
+     */
+    private CopyPolicies() {
+    }
+
+    private static String getChecksum(final FileObject file) throws FileSystemException {
+        final AbstractFileObject<?> abstractFile = FileObjectUtils.getAbstractFileObject(file);
+        return abstractFile != null ? abstractFile.getChecksum() : null;
+    }
+}
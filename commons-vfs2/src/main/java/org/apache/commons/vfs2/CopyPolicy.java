@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+/**
+ * Decides whether {@link org.apache.commons.vfs2.util.FileObjectUtils#copyFrom(FileObject, FileObject, FileSelector,
+ * CopyPolicy)} overwrites an existing file.
+ *
+ * @see CopyPolicies
+ * @since 2.3
+ */
+public interface CopyPolicy {
+    /**
+     * Determines if a file has to be copied over an existing file. Is called before any stream is opened, and only if
+     * the destination file exists and has the same type as the source file.
+     * <p>
+     * The policy is called concurrently if the files are copied concurrently.
+     *
+     * @param srcFile The file to copy.
+     * @param destFile The existing file.
+     * @return true if the file has to be copied, false to keep the existing file.
+     * @throws Exception if the files cannot be compared.
+     */
+    boolean isCopyRequired(FileObject srcFile, FileObject destFile) throws Exception;
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+import java.util.List;
+
+/**
+ * Listens for changes to files, which are received in batches.
+ * <p>
+ * A file system passes the events to {@link #filesChanged(List)} instead of the single event methods of
+ * {@link FileListener}. When the events are delivered by a {@link org.apache.commons.vfs2.events.FileEventDispatcher},
+ * a batch holds all the events for this listener which were queued together. Otherwise each batch holds a single event.
+ *
+ * @since 2.3
+ */
+public interface FileBatchListener extends FileListener {
+    /**
+     * Called with a batch of events, in the order they were fired.
+     * <p>
+     * Each event is a {@link org.apache.commons.vfs2.events.CreateEvent}, a
+     * {@link org.apache.commons.vfs2.events.DeleteEvent} or a {@link org.apache.commons.vfs2.events.ChangedEvent}, and
+     * {@link org.apache.commons.vfs2.events.AbstractFileChangeEvent#notify(FileListener)} calls the matching single
+     * event method.
+     *
+     * @param events The events, not to be modified.
+     * @throws Exception if an error occurs.
+     */
+    void filesChanged(List<FileChangeEvent> events) throws Exception;
+}
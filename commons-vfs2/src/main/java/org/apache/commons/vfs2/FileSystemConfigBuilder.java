@@ -16,6 +16,9 @@
  */
 package org.apache.commons.vfs2;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Abstract class which has the right to fill FileSystemOptions.
  */
@@ -29,6 +32,9 @@ public abstract class FileSystemConfigBuilder {
     /** The prefix to use when resolving system properties */
     private final String prefix;
 
+    /** The handles of the options looked up so far, by name */
+    private final ConcurrentMap<String, OptionHandle> handles = new ConcurrentHashMap<>();
+
     /**
      * Construct builder with default prefix.
      *
@@ -96,7 +102,7 @@ public abstract class FileSystemConfigBuilder {
      * @since 1.0
      */
     protected void setParam(final FileSystemOptions opts, final String name, final Object value) {
-        opts.setOption(getConfigClass(), name, value);
+        opts.setOption(getHandle(name).key, value);
     }
 
     /**
@@ -113,7 +119,45 @@ public abstract class FileSystemConfigBuilder {
             return null;
         }
 
-        return opts.getOption(getConfigClass(), name);
+        return opts.getOption(getHandle(name).key);
+    }
+
+    /**
+     * Sets an option through its handle.
+     *
+     * @param <T> The type of the option value.
+     * @param opts the file system options to modify
+     * @param option the handle of the option
+     * @param value the value to set
+     *
+     * @since 2.3
+     */
+    protected <T> void setParam(final FileSystemOptions opts, final Option<T> option, final T value) {
+        opts.setOption(option.handle.key, value);
+    }
+
+    /**
+     * Gets an option through its handle.
+     *
+     * @param <T> The type of the option value.
+     * @param opts file system options to work with
+     * @param option the handle of the option
+     * @param defaultValue value to return if option is not present
+     * @return the option in {@code opts} or system properties, otherwise {@code defaultValue}
+     * @throws IllegalArgumentException if the system property is not a valid value.
+     *
+     * @since 2.3
+     */
+    protected <T> T getParam(final FileSystemOptions opts, final Option<T> option, final T defaultValue) {
+        if (opts != null) {
+            final Object value = opts.getOption(option.handle.key);
+            if (value != null) {
+                return option.type.cast(value);
+            }
+        }
+        final String str = System.getProperty(option.handle.propertyKey);
+        final T value = str != null ? option.valueOf(str) : null;
+        return value != null ? value : defaultValue;
     }
 
     /**
@@ -126,7 +170,7 @@ public abstract class FileSystemConfigBuilder {
      * @since 1.0
      */
     protected boolean hasParam(final FileSystemOptions opts, final String name) {
-        return opts != null && opts.hasOption(getConfigClass(), name);
+        return opts != null && opts.hasOption(getHandle(name).key);
     }
 
     /**
@@ -139,7 +183,7 @@ public abstract class FileSystemConfigBuilder {
      * @since 2.0
      */
     protected boolean hasObject(final FileSystemOptions opts, final String name) {
-        return hasParam(opts, name) || System.getProperties().containsKey(toPropertyKey(name));
+        return hasParam(opts, name) || System.getProperties().containsKey(getHandle(name).propertyKey);
     }
 
     /**
@@ -673,7 +717,88 @@ public abstract class FileSystemConfigBuilder {
      * @since 2.1
      */
     private String getProperty(final String name) {
-        return System.getProperty(toPropertyKey(name));
+        return System.getProperty(getHandle(name).propertyKey);
+    }
+
+    /**
+     * Creates the typed handle of an option. A builder keeps the handles of the options it reads, so that they are
+     * neither looked up by name nor cast on each access.
+     *
+     * @param <T> The type of the option value.
+     * @param name The option name.
+     * @param type The type of the option value. The value of a system property is converted to a String, Boolean,
+     *            Integer, Long or enumeration type, and ignored for other types.
+     * @return The handle.
+     * @since 2.3
+     */
+    protected final <T> Option<T> createOption(final String name, final Class<T> type) {
+        return new Option<>(getHandle(name), type);
+    }
+
+    /**
+     * Returns the handle of an option, which is created once per name.
+     *
+     * @param name The option name.
+     * @return The handle.
+     */
+    private OptionHandle getHandle(final String name) {
+        final OptionHandle handle = handles.get(name);
+        if (handle != null) {
+            return handle;
+        }
+        final OptionHandle newHandle = new OptionHandle(
+                new FileSystemOptions.FileSystemOptionKey(getConfigClass(), name), toPropertyKey(name));
+        final OptionHandle previous = handles.putIfAbsent(name, newHandle);
+        return previous != null ? previous : newHandle;
+    }
+
+    /**
+     * The key of an option in the {@link FileSystemOptions} and in the system properties, so that looking up an option
+     * does not create them each time.
+     */
+    private static final class OptionHandle {
+        private final FileSystemOptions.FileSystemOptionKey key;
+        private final String propertyKey;
+
+        OptionHandle(final FileSystemOptions.FileSystemOptionKey key, final String propertyKey) {
+            this.key = key;
+            this.propertyKey = propertyKey;
+        }
+    }
+
+    /**
+     * The typed handle of an option, see {@link FileSystemConfigBuilder#createOption(String, Class)}.
+     *
+     * @param <T> The type of the option value.
+     * @since 2.3
+     */
+    protected static final class Option<T> {
+        private final OptionHandle handle;
+        private final Class<T> type;
+
+        private Option(final OptionHandle handle, final Class<T> type) {
+            this.handle = handle;
+            this.type = type;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private T valueOf(final String str) {
+            final Object value;
+            if (type == String.class) {
+                value = str;
+            } else if (type == Boolean.class) {
+                value = Boolean.valueOf(str);
+            } else if (type == Integer.class) {
+                value = Integer.valueOf(str);
+            } else if (type == Long.class) {
+                value = Long.valueOf(str);
+            } else if (type.isEnum()) {
+                value = Enum.valueOf((Class) type, str);
+            } else {
+                return null;
+            }
+            return type.cast(value);
+        }
     }
 
 }
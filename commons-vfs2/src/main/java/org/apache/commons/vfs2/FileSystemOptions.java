@@ -17,6 +17,8 @@
 package org.apache.commons.vfs2;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.SortedMap;
@@ -30,6 +32,9 @@ import java.util.TreeMap;
  * <p>
  * To use the options, pass them to {@link FileSystemManager#resolveFile(String,FileSystemOptions)}. From there, the
  * options apply to all files that are resolved relative to that file.
+ * <p>
+ * A file system keeps a {@link #snapshot() snapshot} of its options, which can no longer be modified and which is
+ * cheaper to compare and to look up.
  *
  * @see org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder
  * @see org.apache.commons.vfs2.provider.ftp.FtpFileSystemConfigBuilder
@@ -46,6 +51,12 @@ public final class FileSystemOptions implements Cloneable {
     /** The options */
     private final Map<FileSystemOptionKey, Object> options;
 
+    /** The options of a snapshot, hashed for faster lookups, null if this instance can be modified */
+    private final Map<FileSystemOptionKey, Object> frozenOptions;
+
+    /** The hash code of a snapshot */
+    private final int frozenHash;
+
     /**
      * Creates a new instance.
      */
@@ -55,12 +66,20 @@ public final class FileSystemOptions implements Cloneable {
 
     protected FileSystemOptions(final Map<FileSystemOptionKey, Object> options) {
         this.options = options;
+        this.frozenOptions = null;
+        this.frozenHash = 0;
+    }
+
+    private FileSystemOptions(final FileSystemOptions source) {
+        this.options = Collections.unmodifiableSortedMap(new TreeMap<>(source.options));
+        this.frozenOptions = new HashMap<>(source.options);
+        this.frozenHash = source.hashCode();
     }
 
     /**
      * Keys in the options Map.
      */
-    private static final class FileSystemOptionKey implements Comparable<FileSystemOptionKey> {
+    static final class FileSystemOptionKey implements Comparable<FileSystemOptionKey> {
         /** Constant used to create hashcode */
         private static final int HASH = 29;
 
@@ -70,11 +89,14 @@ public final class FileSystemOptions implements Cloneable {
         /** The option name */
         private final String name;
 
+        private final int hash;
+
         // TODO: the parameter name suggests that the class should only be a
         // a FileSystem, however some of the tests pass in DefaultFileSystemConfigBuilder
-        private FileSystemOptionKey(final Class<? extends FileSystem> fileSystemClass, final String name) {
+        FileSystemOptionKey(final Class<? extends FileSystem> fileSystemClass, final String name) {
             this.fileSystemClass = fileSystemClass;
             this.name = name;
+            this.hash = HASH * fileSystemClass.hashCode() + name.hashCode();
         }
 
         @Override
@@ -97,7 +119,7 @@ public final class FileSystemOptions implements Cloneable {
 
             final FileSystemOptionKey that = (FileSystemOptionKey) o;
 
-            if (!fileSystemClass.equals(that.fileSystemClass)) {
+            if (hash != that.hash || !fileSystemClass.equals(that.fileSystemClass)) {
                 return false;
             }
             if (!name.equals(that.name)) {
@@ -109,10 +131,7 @@ public final class FileSystemOptions implements Cloneable {
 
         @Override
         public int hashCode() {
-            int result;
-            result = fileSystemClass.hashCode();
-            result = HASH * result + name.hashCode();
-            return result;
+            return hash;
         }
 
         @Override
@@ -122,17 +141,51 @@ public final class FileSystemOptions implements Cloneable {
     }
 
     void setOption(final Class<? extends FileSystem> fileSystemClass, final String name, final Object value) {
-        options.put(new FileSystemOptionKey(fileSystemClass, name), value);
+        setOption(new FileSystemOptionKey(fileSystemClass, name), value);
     }
 
     Object getOption(final Class<? extends FileSystem> fileSystemClass, final String name) {
-        final FileSystemOptionKey key = new FileSystemOptionKey(fileSystemClass, name);
-        return options.get(key);
+        return getOption(new FileSystemOptionKey(fileSystemClass, name));
     }
 
     boolean hasOption(final Class<? extends FileSystem> fileSystemClass, final String name) {
-        final FileSystemOptionKey key = new FileSystemOptionKey(fileSystemClass, name);
-        return options.containsKey(key);
+        return hasOption(new FileSystemOptionKey(fileSystemClass, name));
+    }
+
+    void setOption(final FileSystemOptionKey key, final Object value) {
+        if (frozenOptions != null) {
+            throw new UnsupportedOperationException("The options of a snapshot cannot be modified.");
+        }
+        options.put(key, value);
+    }
+
+    Object getOption(final FileSystemOptionKey key) {
+        return frozenOptions != null ? frozenOptions.get(key) : options.get(key);
+    }
+
+    boolean hasOption(final FileSystemOptionKey key) {
+        return frozenOptions != null ? frozenOptions.containsKey(key) : options.containsKey(key);
+    }
+
+    /**
+     * Returns a snapshot of these options. A snapshot cannot be modified, and its hash code is computed once.
+     *
+     * @return a snapshot, this instance if it is a snapshot already.
+     * @since 2.3
+     */
+    public FileSystemOptions snapshot() {
+        return frozenOptions != null ? this : new FileSystemOptions(this);
+    }
+
+    /**
+     * Tells whether these options are a snapshot, which cannot be modified.
+     *
+     * @return true if this is a snapshot.
+     * @see #snapshot()
+     * @since 2.3
+     */
+    public boolean isSnapshot() {
+        return frozenOptions != null;
     }
 
     public int compareTo(final FileSystemOptions other) {
@@ -186,6 +239,9 @@ public final class FileSystemOptions implements Cloneable {
 
     @Override
     public int hashCode() {
+        if (frozenOptions != null) {
+            return frozenHash;
+        }
         final int prime = 31;
         int result = 1;
         if (options == null) {
@@ -212,11 +268,16 @@ public final class FileSystemOptions implements Cloneable {
             return false;
         }
         final FileSystemOptions other = (FileSystemOptions) obj;
+        if (frozenOptions != null && other.frozenOptions != null && frozenHash != other.frozenHash) {
+            return false;
+        }
         return compareTo(other) == 0;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The clone of a snapshot can be modified.
      *
      * @since 2.0
      */
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+/**
+ * An enumerated type to deal with the various locking strategies used by file objects.
+ *
+ * @since 2.3
+ */
+public enum LockStrategy {
+    /**
+     * Serialize all metadata access (type, children, parent, content) on the file system instance. This is the
+     * traditional behavior: one slow remote call blocks every other thread using the same file system.
+     */
+    FILE_SYSTEM("filesystem"),
+
+    /**
+     * Guard the metadata of each file object with its own read/write lock. Threads reading cached information of the
+     * same file proceed concurrently and threads working on different files do not block each other.
+     * <p>
+     * Providers which serialize access to a shared connection on their own (for example FTP) still do so, and release
+     * the file system before following a symbolic link to a file that has a lock of its own.
+     */
+    READ_WRITE("readwrite");
+
+    /**
+     * Lock strategy name
+     */
+    private final String realName;
+
+    private LockStrategy(final String name) {
+        this.realName = name;
+    }
+
+    /**
+     * Returns the name of the strategy.
+     *
+     * @return the name of the strategy.
+     */
+    @Override
+    public String toString() {
+        return realName;
+    }
+
+    /**
+     * Returns the name of the strategy.
+     *
+     * @return the name of the strategy.
+     */
+    public String getName() {
+        return realName;
+    }
+}
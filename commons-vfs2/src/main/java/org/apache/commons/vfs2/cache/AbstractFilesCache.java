@@ -16,15 +16,279 @@
  */
 package org.apache.commons.vfs2.cache;
 
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FilesCache;
 import org.apache.commons.vfs2.provider.AbstractVfsComponent;
 
 /**
  * Abstract base class for FilesCache implementations.
+ * <p>
+ * It keeps the statistics of the cache, as a whole and per file system. Implementations report their lookups, puts
+ * and evictions through {@link #recordGet}, {@link #recordPut} and {@link #recordEviction}.
  */
 public abstract class AbstractFilesCache extends AbstractVfsComponent implements FilesCache {
+    /**
+     * The counters of the whole cache or of a file system.
+     */
+    private static final class Counters {
+        private final StripedCounter hits = new StripedCounter();
+        private final StripedCounter misses = new StripedCounter();
+        private final StripedCounter puts = new StripedCounter();
+        private final StripedCounter evictions = new StripedCounter();
+
+        private FilesCacheStatistics snapshot(final long size) {
+            return new FilesCacheStatistics(hits.sum(), misses.sum(), puts.sum(), evictions.sum(), size);
+        }
+    }
+
+    /**
+     * Weakly references a file system as the key of its counters, so that the counters recreated by a lookup after the
+     * file system was cleared do not keep it from being collected.
+     */
+    private static final class FileSystemReference extends WeakReference<FileSystem> {
+        private final int hash;
+
+        private FileSystemReference(final FileSystem fileSystem, final ReferenceQueue<FileSystem> queue) {
+            super(fileSystem, queue);
+            this.hash = System.identityHashCode(fileSystem);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileSystemReference)) {
+                return false;
+            }
+            final FileSystem fileSystem = get();
+            return fileSystem != null && fileSystem == ((FileSystemReference) obj).get();
+        }
+    }
+
+    /**
+     * The statistics MBean, reading the statistics when asked.
+     */
+    private final class StatisticsMXBean implements FilesCacheStatisticsMXBean {
+        @Override
+        public long getHitCount() {
+            return getStatistics().getHitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return getStatistics().getMissCount();
+        }
+
+        @Override
+        public double getHitRate() {
+            return getStatistics().getHitRate();
+        }
+
+        @Override
+        public long getPutCount() {
+            return getStatistics().getPutCount();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return getStatistics().getEvictionCount();
+        }
+
+        @Override
+        public long getSize() {
+            return getStatistics().getSize();
+        }
+    }
+
+    private final Counters totals = new Counters();
+
+    private final ConcurrentMap<FileSystemReference, Counters> fileSystemCounters = new ConcurrentHashMap<>();
+
+    /** The keys of the counters whose file system was collected */
+    private final ReferenceQueue<FileSystem> collectedFileSystems = new ReferenceQueue<>();
+
+    /** The name of the registered statistics MBean, guarded by this */
+    private ObjectName statisticsMBeanName;
+
     // @Override - commented in FilesCache interface
     public void touchFile(final FileObject file) {
     }
+
+    /**
+     * Returns the statistics of the whole cache.
+     * <p>
+     * The cache of a manager is reached with {@code ((AbstractFilesCache) manager.getFilesCache()).getStatistics()}.
+     *
+     * @return the statistics.
+     * @since 2.3
+     */
+    public FilesCacheStatistics getStatistics() {
+        return totals.snapshot(getFileCount());
+    }
+
+    /**
+     * Returns the statistics of the files of a file system, since it was last cleared from this cache.
+     *
+     * @param fileSystem The file system.
+     * @return the statistics.
+     * @since 2.3
+     */
+    public FilesCacheStatistics getStatistics(final FileSystem fileSystem) {
+        final Counters counters = fileSystemCounters.get(new FileSystemReference(fileSystem, null));
+        if (counters == null) {
+            return new FilesCacheStatistics(0, 0, 0, 0, getFileCount(fileSystem));
+        }
+        return counters.snapshot(getFileCount(fileSystem));
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return the number of files, or -1 if unknown.
+     * @since 2.3
+     */
+    protected long getFileCount() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of cached files of a file system.
+     *
+     * @param fileSystem The file system.
+     * @return the number of files, or -1 if unknown.
+     * @since 2.3
+     */
+    protected long getFileCount(final FileSystem fileSystem) {
+        return -1;
+    }
+
+    /**
+     * Records a lookup.
+     *
+     * @param fileSystem The file system of the file looked up.
+     * @param hit true if the file has been found.
+     * @since 2.3
+     */
+    protected void recordGet(final FileSystem fileSystem, final boolean hit) {
+        if (hit) {
+            totals.hits.increment();
+            getCounters(fileSystem).hits.increment();
+        } else {
+            totals.misses.increment();
+            getCounters(fileSystem).misses.increment();
+        }
+    }
+
+    /**
+     * Records that a file has been added.
+     *
+     * @param fileSystem The file system of the file.
+     * @since 2.3
+     */
+    protected void recordPut(final FileSystem fileSystem) {
+        totals.puts.increment();
+        getCounters(fileSystem).puts.increment();
+    }
+
+    /**
+     * Records that the cache dropped a file by itself.
+     *
+     * @param fileSystem The file system of the file.
+     * @since 2.3
+     */
+    protected void recordEviction(final FileSystem fileSystem) {
+        totals.evictions.increment();
+        getCounters(fileSystem).evictions.increment();
+    }
+
+    /**
+     * Drops the statistics of a file system, to be called when the file system is cleared from the cache.
+     *
+     * @param fileSystem The file system.
+     * @since 2.3
+     */
+    protected void clearStatistics(final FileSystem fileSystem) {
+        fileSystemCounters.remove(new FileSystemReference(fileSystem, null));
+    }
+
+    private Counters getCounters(final FileSystem fileSystem) {
+        Counters counters = fileSystemCounters.get(new FileSystemReference(fileSystem, null));
+        if (counters == null) {
+            // Drop the counters of the file systems collected meanwhile
+            Reference<? extends FileSystem> collected;
+            while ((collected = collectedFileSystems.poll()) != null) {
+                fileSystemCounters.remove(collected);
+            }
+
+            final Counters newCounters = new Counters();
+            counters = fileSystemCounters.putIfAbsent(new FileSystemReference(fileSystem, collectedFileSystems),
+                    newCounters);
+            if (counters == null) {
+                counters = newCounters;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Registers the statistics of this cache with the platform MBean server, until this cache is closed.
+     *
+     * @param name The object name of the MBean, for example
+     *            {@code "org.apache.commons.vfs2:type=FilesCache,name=default"}.
+     * @throws FileSystemException if the MBean could not be registered.
+     * @see FilesCacheStatisticsMXBean
+     * @since 2.3
+     */
+    public synchronized void registerStatisticsMBean(final String name) throws FileSystemException {
+        unregisterStatisticsMBean();
+        try {
+            final ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StatisticsMXBean(), objectName);
+            statisticsMBeanName = objectName;
+        } catch (final JMException e) {
+            throw new FileSystemException("vfs.cache/register-mbean.error", name, e);
+        }
+    }
+
+    /**
+     * Unregisters the statistics MBean registered by {@link #registerStatisticsMBean(String)}, if any.
+     *
+     * @since 2.3
+     */
+    public synchronized void unregisterStatisticsMBean() {
+        if (statisticsMBeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(statisticsMBeanName);
+        } catch (final JMException e) {
+            // already unregistered
+        }
+        statisticsMBeanName = null;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        unregisterStatisticsMBean();
+        fileSystemCounters.clear();
+    }
 }
@@ -48,12 +48,17 @@ public class DefaultFilesCache extends AbstractFilesCache {
     public void putFile(final FileObject file) {
         final Map<FileName, FileObject> files = getOrCreateFilesystemCache(file.getFileSystem());
         files.put(file.getName(), file);
+        recordPut(file.getFileSystem());
     }
 
     @Override
     public boolean putFileIfAbsent(final FileObject file) {
         final ConcurrentMap<FileName, FileObject> files = getOrCreateFilesystemCache(file.getFileSystem());
-        return files.putIfAbsent(file.getName(), file) == null;
+        if (files.putIfAbsent(file.getName(), file) != null) {
+            return false;
+        }
+        recordPut(file.getFileSystem());
+        return true;
     }
 
     @Override
@@ -62,10 +67,13 @@ public class DefaultFilesCache extends AbstractFilesCache {
         final Map<FileName, FileObject> files = filesystemCache.get(filesystem);
         if (files == null) {
             // cache for filesystem is not known => file is not cached:
+            recordGet(filesystem, false);
             return null;
         }
 
-        return files.get(name); // or null
+        final FileObject file = files.get(name); // or null
+        recordGet(filesystem, file != null);
+        return file;
     }
 
     @Override
@@ -75,6 +83,22 @@ public class DefaultFilesCache extends AbstractFilesCache {
         if (files != null) {
             files.clear(); // help GC
         }
+        clearStatistics(filesystem);
+    }
+
+    @Override
+    protected long getFileCount() {
+        long count = 0;
+        for (final Map<FileName, FileObject> files : filesystemCache.values()) {
+            count += files.size();
+        }
+        return count;
+    }
+
+    @Override
+    protected long getFileCount(final FileSystem filesystem) {
+        final Map<FileName, FileObject> files = filesystemCache.get(filesystem);
+        return files == null ? 0 : files.size();
     }
 
     protected ConcurrentMap<FileName, FileObject> getOrCreateFilesystemCache(final FileSystem filesystem) {
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+/**
+ * The statistics of a {@link AbstractFilesCache}, as a whole or for a single file system.
+ * <p>
+ * The counters are taken while the cache is in use and are therefore not necessarily consistent with each other.
+ *
+ * @see AbstractFilesCache#getStatistics()
+ * @since 2.3
+ */
+public final class FilesCacheStatistics {
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long size;
+
+    /**
+     * Creates new statistics.
+     *
+     * @param hitCount The number of lookups which found a file.
+     * @param missCount The number of lookups which did not find a file.
+     * @param putCount The number of files added.
+     * @param evictionCount The number of files dropped by the cache itself.
+     * @param size The number of cached files, or -1 if unknown.
+     */
+    public FilesCacheStatistics(final long hitCount, final long missCount, final long putCount,
+            final long evictionCount, final long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of lookups which found a file.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which did not find a file.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of lookups.
+     *
+     * @return the sum of the hit and miss counts.
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the ratio of lookups which found a file.
+     *
+     * @return the hit rate, 1 if there was no lookup.
+     */
+    public double getHitRate() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the number of files added to the cache.
+     *
+     * @return the put count.
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Returns the number of files dropped by the cache itself, because of its bounds or because they have been garbage
+     * collected. Files removed by {@link org.apache.commons.vfs2.FilesCache#removeFile} or
+     * {@link org.apache.commons.vfs2.FilesCache#clear} are not counted.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return the size, or -1 if the cache does not know it.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "FilesCacheStatistics[hitCount=" + hitCount + ", missCount=" + missCount + ", putCount=" + putCount
+                + ", evictionCount=" + evictionCount + ", size=" + size + "]";
+    }
+}
@@ -90,6 +90,7 @@ public class LRUFilesCache extends AbstractFilesCache {
 
                 // System.err.println(">>> " + size() + " removeLRU:" + linkEntry.getKey().toString());
                 if (super.removeLRU(linkEntry)) {
+                    recordEviction(filesystem);
                     try {
                         // force detach
                         file.close();
@@ -136,6 +137,7 @@ public class LRUFilesCache extends AbstractFilesCache {
         } finally {
             writeLock.unlock();
         }
+        recordPut(file.getFileSystem());
     }
 
     @Override
@@ -151,6 +153,7 @@ public class LRUFilesCache extends AbstractFilesCache {
             }
 
             files.put(name, file);
+            recordPut(file.getFileSystem());
             return true;
         } finally {
             writeLock.unlock();
@@ -161,12 +164,15 @@ public class LRUFilesCache extends AbstractFilesCache {
     public FileObject getFile(final FileSystem filesystem, final FileName name) {
         final Map<FileName, FileObject> files = getOrCreateFilesystemCache(filesystem);
 
+        final FileObject file;
         readLock.lock();
         try {
-            return files.get(name);
+            file = files.get(name);
         } finally {
             readLock.unlock();
         }
+        recordGet(filesystem, file != null);
+        return file;
     }
 
     @Override
@@ -181,6 +187,7 @@ public class LRUFilesCache extends AbstractFilesCache {
         } finally {
             writeLock.unlock();
         }
+        clearStatistics(filesystem);
     }
 
     protected Map<FileName, FileObject> getOrCreateFilesystemCache(final FileSystem filesystem) {
@@ -214,6 +221,34 @@ public class LRUFilesCache extends AbstractFilesCache {
         }
     }
 
+    @Override
+    protected long getFileCount() {
+        readLock.lock();
+        try {
+            long count = 0;
+            for (final Map<FileName, FileObject> files : filesystemCache.values()) {
+                count += files.size();
+            }
+            return count;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    protected long getFileCount(final FileSystem filesystem) {
+        final Map<FileName, FileObject> files = filesystemCache.get(filesystem);
+        if (files == null) {
+            return 0;
+        }
+        readLock.lock();
+        try {
+            return files.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     @Override
     public void touchFile(final FileObject file) {
         // this moves the file back on top
@@ -40,6 +40,7 @@ public class NullFilesCache extends AbstractFilesCache {
 
     @Override
     public FileObject getFile(final FileSystem filesystem, final FileName name) {
+        recordGet(filesystem, false);
         return null;
     }
 
@@ -50,4 +51,14 @@ public class NullFilesCache extends AbstractFilesCache {
     @Override
     public void removeFile(final FileSystem filesystem, final FileName name) {
     }
+
+    @Override
+    protected long getFileCount() {
+        return 0;
+    }
+
+    @Override
+    protected long getFileCount(final FileSystem filesystem) {
+        return 0;
+    }
 }
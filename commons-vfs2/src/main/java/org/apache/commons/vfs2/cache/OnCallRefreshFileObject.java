@@ -17,7 +17,9 @@
 package org.apache.commons.vfs2.cache;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.commons.vfs2.CopyPolicy;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
@@ -25,6 +27,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.impl.DecoratedFileObject;
+import org.apache.commons.vfs2.util.CloseableIterator;
 
 /**
  * This decorator refreshes the fileObject data on every call.
@@ -34,142 +37,172 @@ public class OnCallRefreshFileObject extends DecoratedFileObject {
         super(fileObject);
     }
 
+    /**
+     * Called before every call delegated to the file object.
+     *
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    protected void refreshBeforeCall() throws FileSystemException {
+        refresh();
+    }
+
     @Override
     public void close() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.close();
     }
 
     @Override
     public void copyFrom(final FileObject srcFile, final FileSelector selector) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.copyFrom(srcFile, selector);
     }
 
+    @Override
+    public void copyFrom(final FileObject srcFile, final FileSelector selector, final CopyPolicy policy)
+            throws FileSystemException {
+        refreshBeforeCall();
+        super.copyFrom(srcFile, selector, policy);
+    }
+
     @Override
     public void createFile() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.createFile();
     }
 
     @Override
     public void createFolder() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.createFolder();
     }
 
     @Override
     public boolean delete() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.delete();
     }
 
     @Override
     public int delete(final FileSelector selector) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.delete(selector);
     }
 
     @Override
     public boolean exists() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.exists();
     }
 
     @Override
     public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected)
             throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.findFiles(selector, depthwise, selected);
     }
 
+    @Override
+    public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected,
+            final ForkJoinPool pool) throws FileSystemException {
+        refreshBeforeCall();
+        super.findFiles(selector, depthwise, selected, pool);
+    }
+
     @Override
     public FileObject[] findFiles(final FileSelector selector) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.findFiles(selector);
     }
 
     @Override
     public FileObject getChild(final String name) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.getChild(name);
     }
 
     @Override
     public FileObject[] getChildren() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.getChildren();
     }
 
+    @Override
+    public CloseableIterator<FileObject> iterateChildren() throws FileSystemException {
+        refreshBeforeCall();
+        return super.iterateChildren();
+    }
+
     @Override
     public FileContent getContent() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.getContent();
     }
 
     @Override
     public FileType getType() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.getType();
     }
 
     @Override
     public boolean isExecutable() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.isExecutable();
     }
 
     @Override
     public boolean isHidden() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.isHidden();
     }
 
     @Override
     public boolean isReadable() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.isReadable();
     }
 
     @Override
     public boolean isWriteable() throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.isWriteable();
     }
 
     @Override
     public boolean setExecutable(final boolean executable, final boolean ownerOnly) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.setExecutable(executable, ownerOnly);
     }
 
     @Override
     public boolean setReadable(final boolean readable, final boolean ownerOnly) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.setReadable(readable, ownerOnly);
     }
 
     @Override
     public boolean setWritable(final boolean writable, final boolean ownerOnly) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.setWritable(writable, ownerOnly);
     }
 
     @Override
     public void moveTo(final FileObject destFile) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         super.moveTo(destFile);
     }
 
     @Override
     public FileObject resolveFile(final String name, final NameScope scope) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.resolveFile(name, scope);
     }
 
     @Override
     public FileObject resolveFile(final String path) throws FileSystemException {
-        refresh();
+        refreshBeforeCall();
         return super.resolveFile(path);
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+
+/**
+ * This decorator refreshes the fileObject data on a call if it is older than a time to live.
+ *
+ * @since 2.3
+ */
+public class OnTimeoutRefreshFileObject extends OnCallRefreshFileObject {
+    private final long timeToLiveNanos;
+
+    /**
+     * The time of the last refresh, from {@link #nanoTime()}
+     */
+    private final AtomicLong lastRefresh;
+
+    /**
+     * Creates a new decorator.
+     *
+     * @param fileObject The decorated file object.
+     * @param timeToLive The time in milliseconds the data of the file object is used before it is refreshed.
+     */
+    public OnTimeoutRefreshFileObject(final FileObject fileObject, final long timeToLive) {
+        super(fileObject);
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        this.lastRefresh = new AtomicLong(nanoTime());
+    }
+
+    /**
+     * Returns the current time of the clock the time to live is measured with. Called by the constructor.
+     *
+     * @return The time in nanoseconds, {@link System#nanoTime()} by default.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    protected void refreshBeforeCall() throws FileSystemException {
+        final long last = lastRefresh.get();
+        final long now = nanoTime();
+        // only one of the threads finding the data expired refreshes it
+        if (now - last >= timeToLiveNanos && lastRefresh.compareAndSet(last, now)) {
+            super.refresh();
+        }
+    }
+
+    @Override
+    public void refresh() throws FileSystemException {
+        super.refresh();
+        lastRefresh.set(nanoTime());
+    }
+}
@@ -19,107 +19,84 @@ package org.apache.commons.vfs2.cache;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystem;
-import org.apache.commons.vfs2.VfsLog;
-import org.apache.commons.vfs2.util.Messages;
 
 /**
  * This implementation caches every file as long as it is strongly reachable by the java vm. As soon as the vm needs
  * memory - every softly reachable file will be discarded.
+ * <p>
+ * The cache does not lock: the files of each file system are kept in a concurrent map, and the references cleared by
+ * the garbage collector are removed from the maps in small batches by the calls to the cache.
  *
  * @see SoftReference
  */
 public class SoftRefFilesCache extends AbstractFilesCache {
-    private static final int TIMEOUT = 1000;
+    /**
+     * Maximum number of cleared references removed by a single call to the cache.
+     */
+    private static final int MAX_DRAIN = 64;
 
     private static final Log log = LogFactory.getLog(SoftRefFilesCache.class);
 
-    private final ConcurrentMap<FileSystem, Map<FileName, Reference<FileObject>>> fileSystemCache = new ConcurrentHashMap<>();
-    private final Map<Reference<FileObject>, FileSystemAndNameKey> refReverseMap = new HashMap<>(100);
+    private final ConcurrentMap<FileSystem, ConcurrentMap<FileName, Reference<FileObject>>> fileSystemCache =
+            new ConcurrentHashMap<>();
     private final ReferenceQueue<FileObject> refQueue = new ReferenceQueue<>();
 
-    private volatile SoftRefReleaseThread softRefReleaseThread = null; // @GuardedBy("lock")
-
-    private final Lock lock = new ReentrantLock();
+    /**
+     * A reference knowing the file system and name it is cached under, so that it can be removed from the cache once
+     * it has been cleared.
+     */
+    interface KeyedReference {
+        FileSystemAndNameKey getKey();
+    }
 
     /**
-     * This thread will listen on the ReferenceQueue and remove the entry in the filescache as soon as the vm removes
-     * the reference
+     * A soft reference to a cached file.
      */
-    private final class SoftRefReleaseThread extends Thread {
-        private volatile boolean requestEnd; // used for inter-thread communication
+    private static final class SoftFileReference extends SoftReference<FileObject> implements KeyedReference {
+        private final FileSystemAndNameKey key;
 
-        private SoftRefReleaseThread() {
-            setName(SoftRefReleaseThread.class.getName());
-            setDaemon(true);
+        private SoftFileReference(final FileObject file, final ReferenceQueue<FileObject> refqueue) {
+            super(file, refqueue);
+            this.key = new FileSystemAndNameKey(file.getFileSystem(), file.getName());
         }
 
         @Override
-        public void run() {
-            loop: while (!requestEnd && !Thread.currentThread().isInterrupted()) {
-                try {
-                    final Reference<?> ref = refQueue.remove(TIMEOUT);
-                    if (ref == null) {
-                        continue;
-                    }
-
-                    lock.lock();
-                    try {
-                        final FileSystemAndNameKey key = refReverseMap.get(ref);
-
-                        if (key != null && removeFile(key)) {
-                            close(key.getFileSystem());
-                        }
-                    } finally {
-                        lock.unlock();
-                    }
-                } catch (final InterruptedException e) {
-                    if (!requestEnd) {
-                        VfsLog.warn(getLogger(), log,
-                                Messages.getString("vfs.impl/SoftRefReleaseThread-interrupt.info"));
-                    }
-                    break loop;
-                }
-            }
+        public FileSystemAndNameKey getKey() {
+            return key;
         }
     }
 
     public SoftRefFilesCache() {
     }
 
-    private void startThread() {
-        // Double Checked Locking is allowed when volatile
-        if (softRefReleaseThread != null) {
-            return;
-        }
-
-        synchronized (lock) {
-            if (softRefReleaseThread == null) {
-                softRefReleaseThread = new SoftRefReleaseThread();
-                softRefReleaseThread.start();
+    /**
+     * Removes the entries of the references cleared by the garbage collector, at most {@link #MAX_DRAIN} at a time.
+     * <p>
+     * References not created as {@link KeyedReference} cannot be found here; their entries are removed when they are
+     * looked up.
+     */
+    private void drainQueue() {
+        for (int i = 0; i < MAX_DRAIN; i++) {
+            final Reference<? extends FileObject> ref = refQueue.poll();
+            if (ref == null) {
+                return;
             }
-        }
-    }
-
-    private void endThread() {
-        synchronized (lock) {
-            final SoftRefReleaseThread thread = softRefReleaseThread;
-            softRefReleaseThread = null;
-            if (thread != null) {
-                thread.requestEnd = true;
-                thread.interrupt();
+            if (ref instanceof KeyedReference) {
+                final FileSystemAndNameKey key = ((KeyedReference) ref).getKey();
+                final ConcurrentMap<FileName, Reference<FileObject>> files = fileSystemCache
+                        .get(key.getFileSystem());
+                if (files != null && files.remove(key.getFileName(), ref)) {
+                    recordEviction(key.getFileSystem());
+                }
             }
         }
     }
@@ -130,21 +107,11 @@ public class SoftRefFilesCache extends AbstractFilesCache {
             log.debug("putFile: " + this.getSafeName(fileObject));
         }
 
-        final Map<FileName, Reference<FileObject>> files = getOrCreateFilesystemCache(fileObject.getFileSystem());
-
-        final Reference<FileObject> ref = createReference(fileObject, refQueue);
-        final FileSystemAndNameKey key = new FileSystemAndNameKey(fileObject.getFileSystem(), fileObject.getName());
+        drainQueue();
 
-        lock.lock();
-        try {
-            final Reference<FileObject> old = files.put(fileObject.getName(), ref);
-            if (old != null) {
-                refReverseMap.remove(old);
-            }
-            refReverseMap.put(ref, key);
-        } finally {
-            lock.unlock();
-        }
+        final ConcurrentMap<FileName, Reference<FileObject>> files = getOrCreateFiles(fileObject.getFileSystem());
+        files.put(fileObject.getName(), createReference(fileObject, refQueue));
+        recordPut(fileObject.getFileSystem());
     }
 
     private String getSafeName(final FileName fileName) {
@@ -161,153 +128,131 @@ public class SoftRefFilesCache extends AbstractFilesCache {
             log.debug("putFile: " + this.getSafeName(fileObject));
         }
 
-        final Map<FileName, Reference<FileObject>> files = getOrCreateFilesystemCache(fileObject.getFileSystem());
+        drainQueue();
 
+        final ConcurrentMap<FileName, Reference<FileObject>> files = getOrCreateFiles(fileObject.getFileSystem());
+        final FileName name = fileObject.getName();
         final Reference<FileObject> ref = createReference(fileObject, refQueue);
-        final FileSystemAndNameKey key = new FileSystemAndNameKey(fileObject.getFileSystem(), fileObject.getName());
-
-        lock.lock();
-        try {
-            if (files.containsKey(fileObject.getName()) && files.get(fileObject.getName()).get() != null) {
+        while (true) {
+            final Reference<FileObject> old = files.putIfAbsent(name, ref);
+            if (old == null) {
+                recordPut(fileObject.getFileSystem());
+                return true;
+            }
+            if (old.get() != null) {
                 return false;
             }
-            final Reference<FileObject> old = files.put(fileObject.getName(), ref);
-            if (old != null) {
-                refReverseMap.remove(old);
+            // the cached file has been collected
+            if (files.replace(name, old, ref)) {
+                recordEviction(fileObject.getFileSystem());
+                recordPut(fileObject.getFileSystem());
+                return true;
             }
-            refReverseMap.put(ref, key);
-            return true;
-        } finally {
-            lock.unlock();
         }
     }
 
     protected Reference<FileObject> createReference(final FileObject file, final ReferenceQueue<FileObject> refqueue) {
-        return new SoftReference<>(file, refqueue);
+        return new SoftFileReference(file, refqueue);
     }
 
     @Override
     public FileObject getFile(final FileSystem fileSystem, final FileName fileName) {
-        final Map<FileName, Reference<FileObject>> files = getOrCreateFilesystemCache(fileSystem);
+        drainQueue();
 
-        lock.lock();
-        try {
-            final Reference<FileObject> ref = files.get(fileName);
-            if (ref == null) {
-                return null;
-            }
-
-            final FileObject fo = ref.get();
-            if (fo == null) {
-                removeFile(fileSystem, fileName);
-            }
-            return fo;
-        } finally {
-            lock.unlock();
+        final ConcurrentMap<FileName, Reference<FileObject>> files = fileSystemCache.get(fileSystem);
+        if (files == null) {
+            recordGet(fileSystem, false);
+            return null;
         }
-    }
 
-    @Override
-    public void clear(final FileSystem fileSystem) {
-        final Map<FileName, Reference<FileObject>> files = getOrCreateFilesystemCache(fileSystem);
-
-        lock.lock();
-        try {
-            final Iterator<FileSystemAndNameKey> iterKeys = refReverseMap.values().iterator();
-            while (iterKeys.hasNext()) {
-                final FileSystemAndNameKey key = iterKeys.next();
-                if (key.getFileSystem() == fileSystem) {
-                    iterKeys.remove();
-                    files.remove(key.getFileName());
-                }
-            }
+        final Reference<FileObject> ref = files.get(fileName);
+        if (ref == null) {
+            recordGet(fileSystem, false);
+            return null;
+        }
 
-            if (files.size() < 1) {
-                close(fileSystem);
-            }
-        } finally {
-            lock.unlock();
+        final FileObject fo = ref.get();
+        if (fo == null && files.remove(fileName, ref)) {
+            recordEviction(fileSystem);
         }
+        recordGet(fileSystem, fo != null);
+        return fo;
     }
 
-    /**
-     * Called while the lock is held
-     *
-     * @param fileSystem The file system to close.
-     */
-    private void close(final FileSystem fileSystem) {
+    @Override
+    public void clear(final FileSystem fileSystem) {
         if (log.isDebugEnabled()) {
             log.debug("close fs: " + fileSystem.getRootName());
         }
 
         fileSystemCache.remove(fileSystem);
-        if (fileSystemCache.size() < 1) {
-            endThread();
-        }
-        /*
-         * This is not thread-safe as another thread might be opening the file system ((DefaultFileSystemManager)
-         * getContext().getFileSystemManager()) ._closeFileSystem(filesystem);
-         */
+        clearStatistics(fileSystem);
     }
 
     @Override
     public void close() {
         super.close();
 
-        endThread();
-
-        lock.lock();
-        try {
-            fileSystemCache.clear();
-
-            refReverseMap.clear();
-        } finally {
-            lock.unlock();
+        fileSystemCache.clear();
+        while (refQueue.poll() != null) {
+            // discard
         }
     }
 
     @Override
     public void removeFile(final FileSystem fileSystem, final FileName fileName) {
-        if (removeFile(new FileSystemAndNameKey(fileSystem, fileName))) {
-            close(fileSystem);
-        }
-    }
-
-    private boolean removeFile(final FileSystemAndNameKey key) {
         if (log.isDebugEnabled()) {
-            log.debug("removeFile: " + this.getSafeName(key.getFileName()));
+            log.debug("removeFile: " + this.getSafeName(fileName));
         }
 
-        final Map<?, ?> files = getOrCreateFilesystemCache(key.getFileSystem());
-
-        lock.lock();
-        try {
-            final Object ref = files.remove(key.getFileName());
-            if (ref != null) {
-                refReverseMap.remove(ref);
-            }
+        drainQueue();
 
-            return files.size() < 1;
-        } finally {
-            lock.unlock();
+        final ConcurrentMap<FileName, Reference<FileObject>> files = fileSystemCache.get(fileSystem);
+        if (files != null) {
+            files.remove(fileName);
         }
     }
 
-    protected Map<FileName, Reference<FileObject>> getOrCreateFilesystemCache(final FileSystem fileSystem) {
-        if (fileSystemCache.size() < 1) {
-            startThread();
+    @Override
+    protected long getFileCount() {
+        long count = 0;
+        for (final Map<FileName, Reference<FileObject>> files : fileSystemCache.values()) {
+            count += files.size();
         }
+        return count;
+    }
 
-        Map<FileName, Reference<FileObject>> files;
+    @Override
+    protected long getFileCount(final FileSystem fileSystem) {
+        final Map<FileName, Reference<FileObject>> files = fileSystemCache.get(fileSystem);
+        return files == null ? 0 : files.size();
+    }
 
-        do {
-            files = fileSystemCache.get(fileSystem);
-            if (files != null) {
-                break;
-            }
-            files = new HashMap<>();
-        } while (fileSystemCache.putIfAbsent(fileSystem, files) == null);
+    /**
+     * Returns the map of the cached files of a file system.
+     *
+     * @param fileSystem The file system.
+     * @return The map of the file names to the references of the files.
+     */
+    protected Map<FileName, Reference<FileObject>> getOrCreateFilesystemCache(final FileSystem fileSystem) {
+        return getOrCreateFiles(fileSystem);
+    }
 
+    /**
+     * Returns the concurrent map of the cached files of a file system.
+     * <p>
+     * The map is kept until the file system is cleared from the cache, even when it gets empty, so that concurrent
+     * calls never put files into a map which is no longer used.
+     */
+    private ConcurrentMap<FileName, Reference<FileObject>> getOrCreateFiles(final FileSystem fileSystem) {
+        ConcurrentMap<FileName, Reference<FileObject>> files = fileSystemCache.get(fileSystem);
+        if (files == null) {
+            final ConcurrentMap<FileName, Reference<FileObject>> newFiles = new ConcurrentHashMap<>();
+            files = fileSystemCache.putIfAbsent(fileSystem, newFiles);
+            if (files == null) {
+                files = newFiles;
+            }
+        }
         return files;
     }
 }
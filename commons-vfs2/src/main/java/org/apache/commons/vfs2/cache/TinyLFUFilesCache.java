@@ -0,0 +1,513 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+
+/**
+ * This implementation caches files up to a maximum estimated heap weight shared by all file systems, and evicts them
+ * using a frequency aware policy (W-TinyLFU).
+ * <p>
+ * New files enter a small LRU admission window. Files leaving the window are only kept if they have been used more
+ * often than the least recently used file of the main LRU segment, which is evicted instead. The use of the files is
+ * counted approximately by a count-min sketch which is aged periodically. So files seen once, for example while
+ * scanning a large directory tree, do not flush files which are used over and over.
+ * <p>
+ * Reading a file does not lock: the use of the file is recorded in a lossy buffer which is replayed against the
+ * eviction policy by whichever thread obtains the eviction lock next. Evicted files are only dropped from the cache,
+ * they are not closed.
+ *
+ * @since 2.3
+ */
+public class TinyLFUFilesCache extends AbstractFilesCache {
+    /** The default maximum weight, 16 MiB */
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 16L * 1024 * 1024;
+
+    /** Estimated heap size of a cached file object and its bookkeeping, without its name */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    /** Size of the read buffer, a power of two */
+    private static final int READ_BUFFER_SIZE = 128;
+
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    /** Percentage of the maximum weight used by the admission window */
+    private static final int WINDOW_PERCENT = 1;
+
+    private static final int WINDOW = 0;
+    private static final int MAIN = 1;
+    private static final int REMOVED = 2;
+
+    /**
+     * A cached file, linked into the window or the main segment.
+     */
+    private static final class Node {
+        private final FileSystem fileSystem;
+        private final FileName name;
+        private final FileObject file;
+        private final long weight;
+        private final int hash;
+
+        // guarded by evictionLock
+        private int queue = WINDOW;
+        private Node prev;
+        private Node next;
+
+        private Node(final FileObject file, final long weight) {
+            this.fileSystem = file.getFileSystem();
+            this.name = file.getName();
+            this.file = file;
+            this.weight = weight;
+            this.hash = 31 * System.identityHashCode(fileSystem) + name.hashCode();
+        }
+
+        /**
+         * Creates the sentinel of a {@link NodeList}.
+         */
+        private Node() {
+            this.fileSystem = null;
+            this.name = null;
+            this.file = null;
+            this.weight = 0;
+            this.hash = 0;
+        }
+    }
+
+    /**
+     * A doubly linked LRU list of nodes, the least recently used node first.
+     */
+    private static final class NodeList {
+        private final Node head = new Node();
+        private long weight;
+
+        private NodeList() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        private Node first() {
+            return head.next == head ? null : head.next;
+        }
+
+        private void addLast(final Node node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        private void remove(final Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        private void moveToLast(final Node node) {
+            remove(node);
+            addLast(node);
+        }
+
+        private void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+    }
+
+    /**
+     * A count-min sketch with four 4-bit counters per file, halved once the number of increments reaches ten times
+     * its width, so that past popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size;
+
+        private FrequencySketch(final int maximumSize) {
+            int length = 16;
+            while (length < maximumSize && length < (1 << 30)) {
+                length <<= 1;
+            }
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * length;
+        }
+
+        private int frequency(final int hash) {
+            final int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(hash, i);
+                final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        private void increment(final int hash) {
+            final int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(hash, i);
+                final int offset = (start + i) << 2;
+                final long mask = 0xfL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size == sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size /= 2;
+        }
+
+        private int indexOf(final int hash, final int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+    }
+
+    /** The FileSystem cache */
+    private final ConcurrentMap<FileSystem, ConcurrentMap<FileName, Node>> filesystemCache = new ConcurrentHashMap<>(
+            10);
+
+    private final long maximumWeight;
+    private final long maximumWindowWeight;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // guarded by evictionLock
+    private final NodeList window = new NodeList();
+    private final NodeList main = new NodeList();
+    private final FrequencySketch sketch;
+
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicInteger readCount = new AtomicInteger();
+
+    /**
+     * Default constructor. Uses a maximum weight of 16 MiB.
+     */
+    public TinyLFUFilesCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Creates a cache bounded by the estimated heap weight of the cached files.
+     *
+     * @param maximumWeight the maximum weight in bytes of all cached files, see {@link #weigh(FileObject)}.
+     */
+    public TinyLFUFilesCache(final long maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.maximumWindowWeight = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maximumWeight / ENTRY_OVERHEAD));
+    }
+
+    /**
+     * Estimates the heap size of a cached file.
+     * <p>
+     * The default estimate is a fixed overhead for the file object plus two bytes per character of its URI.
+     *
+     * @param file The file.
+     * @return The weight in bytes, at least 1.
+     */
+    protected long weigh(final FileObject file) {
+        return ENTRY_OVERHEAD + 2L * file.getName().getURI().length();
+    }
+
+    /**
+     * Returns the maximum weight of the cached files.
+     *
+     * @return the maximum weight in bytes.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the current weight of the cached files.
+     *
+     * @return the weight in bytes.
+     */
+    public long getWeight() {
+        evictionLock.lock();
+        try {
+            return window.weight + main.weight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void putFile(final FileObject file) {
+        final Node node = new Node(file, Math.max(1, weigh(file)));
+        final Node old = getOrCreateFilesystemCache(file.getFileSystem()).put(node.name, node);
+        recordPut(node.fileSystem);
+        add(node, old);
+    }
+
+    @Override
+    public boolean putFileIfAbsent(final FileObject file) {
+        final Node node = new Node(file, Math.max(1, weigh(file)));
+        if (getOrCreateFilesystemCache(file.getFileSystem()).putIfAbsent(node.name, node) != null) {
+            return false;
+        }
+        recordPut(node.fileSystem);
+        add(node, null);
+        return true;
+    }
+
+    @Override
+    public FileObject getFile(final FileSystem filesystem, final FileName name) {
+        final ConcurrentMap<FileName, Node> files = filesystemCache.get(filesystem);
+        if (files == null) {
+            recordGet(filesystem, false);
+            return null;
+        }
+        final Node node = files.get(name);
+        if (node == null) {
+            recordGet(filesystem, false);
+            return null;
+        }
+        recordGet(filesystem, true);
+        recordRead(node);
+        return node.file;
+    }
+
+    @Override
+    public void touchFile(final FileObject file) {
+        getFile(file.getFileSystem(), file.getName());
+    }
+
+    @Override
+    public void clear(final FileSystem filesystem) {
+        final ConcurrentMap<FileName, Node> files = filesystemCache.remove(filesystem);
+        clearStatistics(filesystem);
+        if (files == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            for (final Node node : files.values()) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        evictionLock.lock();
+        try {
+            filesystemCache.clear();
+            window.clear();
+            main.clear();
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                readBuffer.set(i, null);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeFile(final FileSystem filesystem, final FileName name) {
+        final ConcurrentMap<FileName, Node> files = filesystemCache.get(filesystem);
+        if (files == null) {
+            return;
+        }
+        final Node node = files.remove(name);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    protected long getFileCount() {
+        long count = 0;
+        for (final Map<FileName, Node> files : filesystemCache.values()) {
+            count += files.size();
+        }
+        return count;
+    }
+
+    @Override
+    protected long getFileCount(final FileSystem filesystem) {
+        final Map<FileName, Node> files = filesystemCache.get(filesystem);
+        return files == null ? 0 : files.size();
+    }
+
+    private ConcurrentMap<FileName, Node> getOrCreateFilesystemCache(final FileSystem filesystem) {
+        ConcurrentMap<FileName, Node> files = filesystemCache.get(filesystem);
+        if (files == null) {
+            final ConcurrentMap<FileName, Node> newFiles = new ConcurrentHashMap<>();
+            files = filesystemCache.putIfAbsent(filesystem, newFiles);
+            if (files == null) {
+                files = newFiles;
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Records a read in the lossy read buffer, and replays the buffer once it is full.
+     */
+    private void recordRead(final Node node) {
+        final int index = readCount.getAndIncrement() & READ_BUFFER_MASK;
+        readBuffer.lazySet(index, node);
+        if (index == READ_BUFFER_MASK && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // called with evictionLock held
+    private void drainReadBuffer() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            final Node node = readBuffer.getAndSet(i, null);
+            if (node == null) {
+                continue;
+            }
+            sketch.increment(node.hash);
+            if (node.prev == null) {
+                // published in the map but not linked yet, or already unlinked
+                continue;
+            }
+            if (node.queue == WINDOW) {
+                window.moveToLast(node);
+            } else if (node.queue == MAIN) {
+                main.moveToLast(node);
+            }
+        }
+    }
+
+    private void add(final Node node, final Node replaced) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            if (node.queue == REMOVED) {
+                // removed concurrently before it could be linked
+                return;
+            }
+            sketch.increment(node.hash);
+            window.addLast(node);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // called with evictionLock held
+    private void unlink(final Node node) {
+        if (node.queue == WINDOW && node.prev != null) {
+            window.remove(node);
+        } else if (node.queue == MAIN) {
+            main.remove(node);
+        }
+        node.queue = REMOVED;
+    }
+
+    // called with evictionLock held
+    private void evict() {
+        // move the files overflowing the window to the main segment, where they compete with its LRU file; the
+        // newest file always stays in the window
+        Node candidate = null;
+        while (window.weight > maximumWindowWeight && window.head.next != window.head.prev) {
+            final Node node = window.first();
+            window.remove(node);
+            node.queue = MAIN;
+            main.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (window.weight + main.weight > maximumWeight) {
+            final Node victim = main.first();
+            if (victim == null) {
+                evict(window.first());
+                continue;
+            }
+            if (candidate == null) {
+                evict(victim);
+            } else if (candidate == victim) {
+                candidate = nextOf(candidate);
+                evict(victim);
+            } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evict(victim);
+            } else {
+                final Node rejected = candidate;
+                candidate = nextOf(candidate);
+                evict(rejected);
+            }
+        }
+    }
+
+    private Node nextOf(final Node node) {
+        return node.next == main.head ? null : node.next;
+    }
+
+    // called with evictionLock held
+    private void evict(final Node node) {
+        unlink(node);
+        final ConcurrentMap<FileName, Node> files = filesystemCache.get(node.fileSystem);
+        if (files != null && files.remove(node.name, node)) {
+            recordEviction(node.fileSystem);
+        }
+    }
+}
@@ -30,8 +30,25 @@ import org.apache.commons.vfs2.FileObject;
  * @see java.lang.ref.WeakReference
  */
 public class WeakRefFilesCache extends SoftRefFilesCache {
+    /**
+     * A weak reference to a cached file.
+     */
+    private static final class WeakFileReference extends WeakReference<FileObject> implements KeyedReference {
+        private final FileSystemAndNameKey key;
+
+        private WeakFileReference(final FileObject file, final ReferenceQueue<FileObject> refqueue) {
+            super(file, refqueue);
+            this.key = new FileSystemAndNameKey(file.getFileSystem(), file.getName());
+        }
+
+        @Override
+        public FileSystemAndNameKey getKey() {
+            return key;
+        }
+    }
+
     @Override
     protected Reference<FileObject> createReference(final FileObject file, final ReferenceQueue<FileObject> refqueue) {
-        return new WeakReference<>(file, refqueue);
+        return new WeakFileReference(file, refqueue);
     }
 }
@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileBatchListener;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.util.Messages;
+
+/**
+ * Delivers the events of file systems to their listeners from background threads.
+ * <p>
+ * The thread firing an event only queues it, along with the listeners registered for the file at that time, so that
+ * slow listeners do not hold up file operations. The listeners are spread over stripes, each with a queue and a thread
+ * of its own, so that firing threads do not all contend for a single queue. A listener always belongs to the same
+ * stripe, and receives its events in the order they were fired, in batches of the events queued together. A
+ * {@link FileBatchListener} receives each batch in a single call.
+ * <p>
+ * The queues are bounded: once the queue of a stripe is full, firing an event for its listeners waits for room.
+ * <p>
+ * With a coalescing window, a stripe waits that long after the first event of a batch for more events, and drops a
+ * change event for a file which already has a create or change event in the batch.
+ * <p>
+ * Set it with {@link org.apache.commons.vfs2.impl.DefaultFileSystemManager#setFileEventDispatcher}, which closes it
+ * with the manager.
+ *
+ * @since 2.3
+ */
+public class FileEventDispatcher {
+    /** The default capacity of the queue of a stripe */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private static final Log LOG = LogFactory.getLog(FileEventDispatcher.class);
+
+    /**
+     * Queued to end the thread of a stripe.
+     */
+    private static final Delivery CLOSE = new Delivery(null, null);
+
+    /**
+     * How long a firing thread waits for room in a queue before checking whether the dispatcher was closed, in
+     * milliseconds.
+     */
+    private static final long OFFER_TIMEOUT = 100;
+
+    private final Stripe[] stripes;
+
+    private final int capacity;
+
+    private final long coalescingWindowNanos;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a dispatcher with a queue of {@link #DEFAULT_CAPACITY} events per stripe, which does not coalesce events.
+     */
+    public FileEventDispatcher() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    /**
+     * Creates a dispatcher with a stripe per available processor.
+     *
+     * @param capacity The maximum number of queued events of a stripe, which is also the maximum size of a batch.
+     * @param coalescingWindow The time in milliseconds to wait for more events after the first event of a batch, 0 to
+     *            deliver the events as soon as possible without coalescing them.
+     */
+    public FileEventDispatcher(final int capacity, final long coalescingWindow) {
+        this(capacity, coalescingWindow, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param capacity The maximum number of queued events of a stripe, which is also the maximum size of a batch.
+     * @param coalescingWindow The time in milliseconds to wait for more events after the first event of a batch, 0 to
+     *            deliver the events as soon as possible without coalescing them.
+     * @param stripeCount The number of stripes, each started with a thread once it has events to deliver.
+     */
+    public FileEventDispatcher(final int capacity, final long coalescingWindow, final int stripeCount) {
+        this.capacity = capacity;
+        this.coalescingWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, coalescingWindow));
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+
+    /**
+     * Queues an event for its listeners. Once the dispatcher is closed, the listeners are notified by the calling
+     * thread, after the events still queued for them.
+     * <p>
+     * An event fired by a listener, from a thread of the dispatcher, is queued if there is room left, and delivered at
+     * once otherwise, as that thread cannot wait for room which it may have to make itself.
+     *
+     * @param event The event.
+     * @param listeners The listeners of the file, not to be modified afterwards.
+     */
+    public void dispatch(final AbstractFileChangeEvent event, final FileListener[] listeners) {
+        Stripe stripe = null;
+        boolean sameStripe = true;
+        for (final FileListener listener : listeners) {
+            final Stripe listenerStripe = getStripe(listener);
+            if (stripe == null) {
+                stripe = listenerStripe;
+            } else if (listenerStripe != stripe) {
+                sameStripe = false;
+                break;
+            }
+        }
+        if (stripe == null) {
+            return;
+        }
+        if (sameStripe) {
+            stripe.dispatch(new Delivery(event, listeners));
+            return;
+        }
+
+        // Split the listeners by stripe, in their order
+        final Map<Stripe, List<FileListener>> listenersByStripe = new LinkedHashMap<>();
+        for (final FileListener listener : listeners) {
+            final Stripe listenerStripe = getStripe(listener);
+            List<FileListener> stripeListeners = listenersByStripe.get(listenerStripe);
+            if (stripeListeners == null) {
+                stripeListeners = new ArrayList<>();
+                listenersByStripe.put(listenerStripe, stripeListeners);
+            }
+            stripeListeners.add(listener);
+        }
+        for (final Map.Entry<Stripe, List<FileListener>> entry : listenersByStripe.entrySet()) {
+            final List<FileListener> stripeListeners = entry.getValue();
+            entry.getKey().dispatch(
+                    new Delivery(event, stripeListeners.toArray(new FileListener[stripeListeners.size()])));
+        }
+    }
+
+    /**
+     * Waits until the events queued so far are delivered.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        for (final Stripe stripe : stripes) {
+            stripe.flush();
+        }
+    }
+
+    /**
+     * Delivers the queued events and stops the threads. Events fired afterwards are delivered by the firing thread.
+     */
+    public void close() {
+        synchronized (stripes) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (final Stripe stripe : stripes) {
+            stripe.stop();
+        }
+        for (final Stripe stripe : stripes) {
+            stripe.deliverRemaining(null);
+        }
+    }
+
+    /**
+     * Returns the number of events waiting to be delivered.
+     *
+     * @return The number of events.
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.queue.size();
+        }
+        return size;
+    }
+
+    private Stripe getStripe(final FileListener listener) {
+        final int hash = listener.hashCode();
+        return stripes[((hash ^ hash >>> 16) & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private boolean isDispatcherThread() {
+        final Thread current = Thread.currentThread();
+        for (final Stripe stripe : stripes) {
+            if (stripe.thread == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notifies the listeners of a batch.
+     */
+    private void deliver(final List<Delivery> batch) {
+        // Group the events by listener, in the order they were fired
+        final Map<FileListener, List<FileChangeEvent>> eventsByListener = new LinkedHashMap<>();
+        for (final Delivery delivery : batch) {
+            for (final FileListener listener : delivery.listeners) {
+                List<FileChangeEvent> events = eventsByListener.get(listener);
+                if (events == null) {
+                    events = new ArrayList<>();
+                    eventsByListener.put(listener, events);
+                }
+                events.add(delivery.event);
+            }
+        }
+
+        for (final Map.Entry<FileListener, List<FileChangeEvent>> entry : eventsByListener.entrySet()) {
+            final FileListener listener = entry.getKey();
+            final List<FileChangeEvent> events = coalesce(entry.getValue());
+            if (listener instanceof FileBatchListener) {
+                try {
+                    ((FileBatchListener) listener).filesChanged(Collections.unmodifiableList(events));
+                } catch (final Exception e) {
+                    LOG.warn(Messages.getString("vfs.provider/notify-listener.warn",
+                            new Object[] { events.get(0).getFile() }), e);
+                }
+            } else {
+                for (final FileChangeEvent event : events) {
+                    try {
+                        ((AbstractFileChangeEvent) event).notify(listener);
+                    } catch (final Exception e) {
+                        LOG.warn(Messages.getString("vfs.provider/notify-listener.warn",
+                                new Object[] { event.getFile() }), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the change events of files which already have a create or change event.
+     */
+    private List<FileChangeEvent> coalesce(final List<FileChangeEvent> events) {
+        if (coalescingWindowNanos == 0 || events.size() < 2) {
+            return events;
+        }
+        final List<FileChangeEvent> coalesced = new ArrayList<>(events.size());
+        final Map<FileName, FileChangeEvent> lastEvents = new HashMap<>();
+        for (final FileChangeEvent event : events) {
+            final FileName name = event.getFile().getName();
+            final FileChangeEvent last = lastEvents.get(name);
+            if (event instanceof ChangedEvent && (last instanceof CreateEvent || last instanceof ChangedEvent)) {
+                continue;
+            }
+            lastEvents.put(name, event);
+            coalesced.add(event);
+        }
+        return coalesced;
+    }
+
+    /**
+     * The queue and thread delivering the events of some of the listeners.
+     */
+    private final class Stripe implements Runnable {
+        private final int index;
+
+        private final BlockingQueue<Delivery> queue;
+
+        /**
+         * Guards the start of the thread, the delivered count and the deliveries once closed, and is notified when a
+         * batch is delivered.
+         */
+        private final Object lock = new Object();
+
+        private volatile Thread thread;
+
+        private final AtomicLong queuedCount = new AtomicLong();
+
+        private long deliveredCount;
+
+        private Stripe(final int index) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void dispatch(final Delivery delivery) {
+            if (!closed) {
+                start();
+                final boolean waitForRoom = !isDispatcherThread();
+                try {
+                    while (!closed) {
+                        if (queue.offer(delivery)
+                                || waitForRoom && queue.offer(delivery, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                            if (closed && queue.remove(delivery)) {
+                                // Queued while closing, after the thread may have ended
+                                break;
+                            }
+                            queuedCount.incrementAndGet();
+                            return;
+                        }
+                        if (!waitForRoom) {
+                            deliver(Collections.singletonList(delivery));
+                            return;
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    deliver(Collections.singletonList(delivery));
+                    return;
+                }
+            }
+            deliverRemaining(delivery);
+        }
+
+        private void start() {
+            if (thread == null) {
+                synchronized (lock) {
+                    if (thread == null && !closed) {
+                        final Thread newThread = new Thread(this, "VFS file event dispatcher #" + index);
+                        newThread.setDaemon(true);
+                        thread = newThread;
+                        newThread.start();
+                    }
+                }
+            }
+        }
+
+        private void flush() throws InterruptedException {
+            final long target = queuedCount.get();
+            synchronized (lock) {
+                while (deliveredCount < target && thread != null && thread.isAlive()) {
+                    lock.wait(100);
+                }
+            }
+        }
+
+        /**
+         * Makes the thread end once it has delivered the events queued so far.
+         */
+        private void stop() {
+            final Thread current;
+            synchronized (lock) {
+                // No thread starts once closed
+                current = thread;
+            }
+            if (current == null) {
+                return;
+            }
+            try {
+                queue.put(CLOSE);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                current.interrupt();
+            }
+        }
+
+        /**
+         * Delivers the events left in the queue once the thread has ended, then the given one, so that it does not
+         * overtake them.
+         *
+         * @param delivery The event fired after the close, or null.
+         */
+        private void deliverRemaining(final Delivery delivery) {
+            if (isDispatcherThread()) {
+                // Waiting for the threads, or draining their queues, would hold them up
+                if (delivery != null) {
+                    deliver(Collections.singletonList(delivery));
+                }
+                return;
+            }
+            final Thread current = thread;
+            if (current != null) {
+                try {
+                    current.join();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (lock) {
+                final List<Delivery> remaining = new ArrayList<>();
+                queue.drainTo(remaining);
+                remaining.remove(CLOSE);
+                if (delivery != null) {
+                    remaining.add(delivery);
+                }
+                deliver(remaining);
+            }
+        }
+
+        @Override
+        public void run() {
+            final List<Delivery> batch = new ArrayList<>();
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    if (coalescingWindowNanos > 0) {
+                        final long deadline = System.nanoTime() + coalescingWindowNanos;
+                        long remaining = coalescingWindowNanos;
+                        while (remaining > 0 && batch.size() < capacity) {
+                            final Delivery delivery = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                            if (delivery == null) {
+                                break;
+                            }
+                            batch.add(delivery);
+                            remaining = deadline - System.nanoTime();
+                        }
+                    }
+                    queue.drainTo(batch, capacity - batch.size());
+
+                    final boolean close = batch.remove(CLOSE);
+                    deliver(batch);
+                    synchronized (lock) {
+                        deliveredCount += batch.size();
+                        lock.notifyAll();
+                    }
+                    batch.clear();
+                    if (close) {
+                        return;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                // Stopped.
+            }
+        }
+    }
+
+    /**
+     * An event with the listeners to notify.
+     */
+    private static final class Delivery {
+        private final AbstractFileChangeEvent event;
+        private final FileListener[] listeners;
+
+        private Delivery(final AbstractFileChangeEvent event, final FileListener[] listeners) {
+            this.event = event;
+            this.listeners = listeners;
+        }
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.commons.vfs2.impl;
 import java.net.URL;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.commons.vfs2.CopyPolicy;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -29,6 +31,8 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.operations.FileOperations;
+import org.apache.commons.vfs2.util.CloseableIterator;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 
 /**
  * Base class to build a fileObject decoration.
@@ -61,6 +65,21 @@ public class DecoratedFileObject implements FileObject {
         decoratedFileObject.copyFrom(srcFile, selector);
     }
 
+    /**
+     * Copies another file to the decorated file, keeping the existing files the policy allows to keep.
+     *
+     * @param srcFile The FileObject to copy.
+     * @param selector The FileSelector.
+     * @param policy The CopyPolicy.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#copyFrom(FileObject, FileObject, FileSelector, CopyPolicy)
+     */
+    public void copyFrom(final FileObject srcFile, final FileSelector selector, final CopyPolicy policy)
+            throws FileSystemException {
+        FileObjectUtils.copyFrom(decoratedFileObject, srcFile, selector, policy);
+    }
+
     @Override
     public void createFile() throws FileSystemException {
         decoratedFileObject.createFile();
@@ -102,6 +121,22 @@ public class DecoratedFileObject implements FileObject {
         decoratedFileObject.findFiles(selector, depthwise, selected);
     }
 
+    /**
+     * Traverses the descendants of the decorated file using a fork/join pool, and builds a list of selected files.
+     *
+     * @param selector The FileSelector.
+     * @param depthwise if true files are added after their descendants, before otherwise.
+     * @param selected A List of the located FileObjects.
+     * @param pool The pool to run the traversal in.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#findFiles(FileObject, FileSelector, boolean, List, ForkJoinPool)
+     */
+    public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected,
+            final ForkJoinPool pool) throws FileSystemException {
+        FileObjectUtils.findFiles(decoratedFileObject, selector, depthwise, selected, pool);
+    }
+
     @Override
     public FileObject getChild(final String name) throws FileSystemException {
         return decoratedFileObject.getChild(name);
@@ -112,6 +147,18 @@ public class DecoratedFileObject implements FileObject {
         return decoratedFileObject.getChildren();
     }
 
+    /**
+     * Lists the children of the decorated file incrementally.
+     *
+     * @return an iterator over the children, which has to be closed if it is not consumed to the end.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#iterateChildren(FileObject)
+     */
+    public CloseableIterator<FileObject> iterateChildren() throws FileSystemException {
+        return FileObjectUtils.iterateChildren(decoratedFileObject);
+    }
+
     @Override
     public FileContent getContent() throws FileSystemException {
         return decoratedFileObject.getContent();
@@ -16,12 +16,21 @@
  */
 package org.apache.commons.vfs2.impl;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileListener;
 import org.apache.commons.vfs2.FileMonitor;
 import org.apache.commons.vfs2.FileName;
@@ -36,7 +45,7 @@ import org.apache.commons.vfs2.provider.AbstractFileSystem;
  *
  * <h2>Design:</h2>
  *
- * There is a Map of monitors known as FileMonitorAgents. With the thread running, each FileMonitorAgent object is asked
+ * There is a Map of monitors known as FileMonitorAgents. With the threads running, each FileMonitorAgent object is asked
  * to "check" on the file it is responsible for. To do this check, the cache is cleared.
  * <ul>
  * <li>If the file existed before the refresh and it no longer exists, a delete event is fired.</li>
@@ -48,10 +57,18 @@ import org.apache.commons.vfs2.provider.AbstractFileSystem;
  * be accurately checked when there are new children.
  * <p>
  * New files are detected during each "check" as each file does a check for new children. If new children are found,
- * create events are fired recursively if recursive descent is enabled.
+ * create events are fired recursively if recursive descent is enabled. When the provider reports last modified times,
+ * the children of a folder are only listed again once the last modified time of the folder changes.
+ * <p>
+ * A file that does not change is checked less and less often, up to {@link #getMaxDelay()} between checks. Once it
+ * changes, it is checked every {@link #getDelay()} again.
+ * <p>
+ * The agents are spread over a number of worker threads, one by default. Each worker keeps its agents in a queue
+ * ordered by the time of their next check, which is the delay after their previous check. Adding and removing files
+ * does not block the workers, so that large numbers of files can be monitored.
  * <p>
  * For performance reasons, added a delay that increases as the number of files monitored increases. The default is a
- * delay of 1 second for every 1000 files processed.
+ * delay of 1 second for every 1000 files processed by a worker.
  *
  * <h2>Example usage:</h2>
  *
@@ -74,25 +91,47 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
 
     private static final int DEFAULT_MAX_FILES = 1000;
 
+    private static final int DEFAULT_THREAD_COUNT = 1;
+
+    /**
+     * The coarsest resolution of last modified times, in milliseconds.
+     */
+    private static final long TIMESTAMP_RESOLUTION = 2000;
+
+    /**
+     * How long {@link #stop()} waits for the threads to end, in milliseconds.
+     */
+    private static final long STOP_TIMEOUT = 10000;
+
     /**
      * Map from FileName to FileObject being monitored.
      */
-    private final Map<FileName, FileMonitorAgent> monitorMap = new HashMap<>();
+    private final ConcurrentMap<FileName, FileMonitorAgent> monitorMap = new ConcurrentHashMap<>();
 
     /**
-     * The low priority thread used for checking the files being monitored.
+     * The low priority thread used for checking the files being monitored, it runs the first shard.
      */
     private Thread monitorThread;
 
+    /**
+     * The low priority threads running the other shards.
+     */
+    private Thread[] workerThreads;
+
+    /**
+     * The agents to check, spread over the workers. Null until the monitor runs.
+     */
+    private volatile Shard[] shards;
+
     /**
      * File objects to be removed from the monitor map.
      */
-    private final Stack<FileObject> deleteStack = new Stack<>();
+    private final Queue<FileObject> deleteQueue = new ConcurrentLinkedQueue<>();
 
     /**
      * File objects to be added to the monitor map.
      */
-    private final Stack<FileObject> addStack = new Stack<>();
+    private final Queue<FileObject> addQueue = new ConcurrentLinkedQueue<>();
 
     /**
      * A flag used to determine if the monitor thread should be running.
@@ -114,6 +153,16 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      */
     private int checksPerRun = DEFAULT_MAX_FILES;
 
+    /**
+     * The longest delay between checks of a file that does not change, 0 to always use the delay.
+     */
+    private long maxDelay;
+
+    /**
+     * The number of worker threads.
+     */
+    private int threadCount = DEFAULT_THREAD_COUNT;
+
     /**
      * A listener object that if set, is notified on file creation and deletion.
      */
@@ -146,7 +195,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      *
      * @return The FileListener.
      */
-    FileListener getFileListener() {
+    protected FileListener getFileListener() {
         return this.listener;
     }
 
@@ -178,28 +227,30 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      * @param file The FileObject to add.
      */
     private void doAddFile(final FileObject file) {
-        synchronized (this.monitorMap) {
-            if (this.monitorMap.get(file.getName()) == null) {
-                this.monitorMap.put(file.getName(), new FileMonitorAgent(this, file));
-
-                try {
-                    if (this.listener != null) {
-                        file.getFileSystem().addListener(file, this.listener);
-                    }
+        if (this.monitorMap.containsKey(file.getName())) {
+            return;
+        }
+        final FileMonitorAgent agent = new FileMonitorAgent(this, file);
+        if (this.monitorMap.putIfAbsent(file.getName(), agent) != null) {
+            return;
+        }
+        schedule(agent, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getDelay()));
 
-                    if (file.getType().hasChildren() && this.recursive) {
-                        // Traverse the children
-                        final FileObject[] children = file.getChildren();
-                        for (final FileObject element : children) {
-                            this.addFile(element); // Add depth first
-                        }
-                    }
+        try {
+            if (this.listener != null) {
+                file.getFileSystem().addListener(file, this.listener);
+            }
 
-                } catch (final FileSystemException fse) {
-                    LOG.error(fse.getLocalizedMessage(), fse);
+            if (file.getType().hasChildren() && this.recursive) {
+                // Traverse the children
+                final FileObject[] children = file.getChildren();
+                for (final FileObject element : children) {
+                    this.addFile(element); // Add depth first
                 }
-
             }
+
+        } catch (final FileSystemException fse) {
+            LOG.error(fse.getLocalizedMessage(), fse);
         }
     }
 
@@ -210,23 +261,20 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      */
     @Override
     public void removeFile(final FileObject file) {
-        synchronized (this.monitorMap) {
-            final FileName fn = file.getName();
-            if (this.monitorMap.get(fn) != null) {
-                FileObject parent;
-                try {
-                    parent = file.getParent();
-                } catch (final FileSystemException fse) {
-                    parent = null;
-                }
-
-                this.monitorMap.remove(fn);
+        final FileName fn = file.getName();
+        // The agent stays in its schedule until its next check, where it is dropped.
+        if (this.monitorMap.remove(fn) != null) {
+            FileObject parent;
+            try {
+                parent = file.getParent();
+            } catch (final FileSystemException fse) {
+                parent = null;
+            }
 
-                if (parent != null) { // Not the root
-                    final FileMonitorAgent parentAgent = this.monitorMap.get(parent.getName());
-                    if (parentAgent != null) {
-                        parentAgent.resetChildrenList();
-                    }
+            if (parent != null) { // Not the root
+                final FileMonitorAgent parentAgent = this.monitorMap.get(parent.getName());
+                if (parentAgent != null) {
+                    parentAgent.resetChildrenList();
                 }
             }
         }
@@ -238,7 +286,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      * @param file The FileObject to be removed from being monitored.
      */
     protected void queueRemoveFile(final FileObject file) {
-        this.deleteStack.push(file);
+        this.deleteQueue.offer(file);
     }
 
     /**
@@ -263,6 +311,29 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
         }
     }
 
+    /**
+     * Get the longest delay between two checks of a file that does not change.
+     *
+     * @return The longest delay, at least {@link #getDelay()}.
+     * @since 2.3
+     */
+    public long getMaxDelay() {
+        return Math.max(maxDelay, delay);
+    }
+
+    /**
+     * Set the longest delay between two checks of a file that does not change. Each check that finds no change
+     * doubles the delay before the next check of the file, up to this value. A change resets it to
+     * {@link #getDelay()}.
+     *
+     * @param maxDelay The longest delay, a value not greater than {@link #getDelay()} checks every file at each
+     *            delay, which is the default.
+     * @since 2.3
+     */
+    public void setMaxDelay(final long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
     /**
      * get the number of files to check per run.
      *
@@ -281,100 +352,333 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
         this.checksPerRun = checksPerRun;
     }
 
+    /**
+     * Get the number of threads checking the files.
+     *
+     * @return The number of threads.
+     * @since 2.3
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Set the number of threads checking the files, which is used when the monitor is started.
+     *
+     * @param threadCount The number of threads, a value less than 1 uses a single thread.
+     * @since 2.3
+     */
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = Math.max(threadCount, 1);
+    }
+
     /**
      * Queues a file for addition to be monitored.
      *
      * @param file The FileObject to add.
      */
     protected void queueAddFile(final FileObject file) {
-        this.addStack.push(file);
+        this.addQueue.offer(file);
+    }
+
+    /**
+     * Notifies the listener of this monitor of changes found by a subclass, which calls it without holding its own
+     * locks. Each file is refreshed first, along with its parent if it was created or deleted.
+     *
+     * @param events The changes, in the order they were found.
+     * @since 2.3
+     */
+    protected void fireEvents(final List<PendingEvent> events) {
+        final FileListener fileListener = getFileListener();
+        for (final PendingEvent event : events) {
+            final FileObject file = event.file;
+            try {
+                file.refresh();
+                if (event.kind != PendingEvent.Kind.CHANGED) {
+                    final FileObject parent = file.getParent();
+                    if (parent != null) {
+                        parent.refresh();
+                    }
+                }
+            } catch (final FileSystemException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+
+            // Add listener so that it can be triggered
+            final AbstractFileSystem fileSystem = (AbstractFileSystem) file.getFileSystem();
+            if (fileListener != null) {
+                fileSystem.addListener(file, fileListener);
+            }
+            try {
+                switch (event.kind) {
+                case CREATED:
+                    fileSystem.fireFileCreated(file);
+                    break;
+                case DELETED:
+                    fileSystem.fireFileDeleted(file);
+                    break;
+                default:
+                    fileSystem.fireFileChanged(file);
+                    break;
+                }
+            } finally {
+                if (fileListener != null) {
+                    fileSystem.removeListener(file, fileListener);
+                }
+            }
+        }
     }
 
     /**
-     * Starts monitoring the files that have been added.
+     * Starts monitoring the files that have been added. A stopped monitor can be started again, and then reports the
+     * changes made in the meantime.
      */
-    public void start() {
+    public synchronized void start() {
+        final Shard[] current = getShards();
         if (this.monitorThread == null) {
+            this.shouldRun = true;
             this.monitorThread = new Thread(this);
             this.monitorThread.setDaemon(true);
             this.monitorThread.setPriority(Thread.MIN_PRIORITY);
+
+            this.workerThreads = new Thread[current.length - 1];
+            for (int i = 0; i < this.workerThreads.length; i++) {
+                final Shard shard = current[i + 1];
+                this.workerThreads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        checkShard(shard);
+                    }
+                }, "VFS file monitor " + (i + 1));
+                this.workerThreads[i].setDaemon(true);
+                this.workerThreads[i].setPriority(Thread.MIN_PRIORITY);
+            }
+            this.monitorThread.start();
+            for (final Thread workerThread : this.workerThreads) {
+                workerThread.start();
+            }
         }
-        this.monitorThread.start();
     }
 
     /**
-     * Stops monitoring the files that have been added.
+     * Stops monitoring the files that have been added, and waits a while for the threads to end, unless called by one
+     * of them.
      */
     public void stop() {
-        this.shouldRun = false;
+        final List<Thread> threads = new ArrayList<>();
+        synchronized (this) {
+            this.shouldRun = false;
+            if (this.monitorThread != null) {
+                // Wake up the threads, so that they are gone before a later start.
+                threads.add(this.monitorThread);
+                threads.addAll(Arrays.asList(this.workerThreads));
+                for (final Thread thread : threads) {
+                    thread.interrupt();
+                }
+                this.monitorThread = null;
+                this.workerThreads = null;
+            }
+        }
+
+        // Outside of the lock, which the threads may take before they end
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT);
+        for (final Thread thread : threads) {
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (thread == Thread.currentThread() || remaining <= 0) {
+                continue;
+            }
+            try {
+                thread.join(remaining);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the shards on first use, and schedules the files added so far for an immediate check.
+     *
+     * @return The shards.
+     */
+    private synchronized Shard[] getShards() {
+        if (this.shards == null) {
+            final Shard[] newShards = new Shard[this.threadCount];
+            for (int i = 0; i < newShards.length; i++) {
+                newShards[i] = new Shard();
+            }
+            this.shards = newShards;
+            final long now = System.nanoTime();
+            for (final FileMonitorAgent agent : this.monitorMap.values()) {
+                schedule(agent, now);
+            }
+        }
+        return this.shards;
+    }
+
+    /**
+     * Queues an agent in its shard, unless it is already queued or the monitor does not run yet.
+     *
+     * @param agent The agent.
+     * @param nextCheck The {@link System#nanoTime()} of the next check.
+     */
+    private void schedule(final FileMonitorAgent agent, final long nextCheck) {
+        final Shard[] current = this.shards;
+        if (current != null && agent.scheduled.compareAndSet(false, true)) {
+            agent.nextCheck = nextCheck;
+            final int hash = agent.file.getName().hashCode() & Integer.MAX_VALUE;
+            current[hash % current.length].queue.offer(agent);
+        }
     }
 
     /**
      * Asks the agent for each file being monitored to check its file for changes.
+     * <p>
+     * This runs the first shard of agents, the other shards are run by the worker threads created by {@link #start()}.
      */
     @Override
     public void run() {
-        mainloop: while (!monitorThread.isInterrupted() && this.shouldRun) {
-            // For each entry in the map
-            Object[] fileNames;
-            synchronized (this.monitorMap) {
-                fileNames = this.monitorMap.keySet().toArray();
-            }
-            for (int iterFileNames = 0; iterFileNames < fileNames.length; iterFileNames++) {
-                final FileName fileName = (FileName) fileNames[iterFileNames];
-                FileMonitorAgent agent;
-                synchronized (this.monitorMap) {
-                    agent = this.monitorMap.get(fileName);
-                }
-                if (agent != null) {
-                    agent.check();
-                }
+        checkShard(getShards()[0]);
+    }
 
-                if (getChecksPerRun() > 0 && (iterFileNames + 1) % getChecksPerRun() == 0) {
-                    try {
-                        Thread.sleep(getDelay());
-                    } catch (final InterruptedException e) {
-                        // Woke up.
-                    }
-                }
+    /**
+     * Checks the agents of a shard as they become due, until the monitor is stopped.
+     *
+     * @param shard The shard.
+     */
+    private void checkShard(final Shard shard) {
+        final Thread thread = Thread.currentThread();
+        int checks = 0;
+        while (!thread.isInterrupted() && this.shouldRun) {
+            final FileMonitorAgent agent;
+            try {
+                // Wake up at least once per delay to notice a stop.
+                agent = shard.queue.poll(getDelay(), TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                // Stopped.
+                break;
+            }
+            if (agent == null) {
+                continue;
+            }
+            agent.scheduled.set(false);
 
-                if (monitorThread.isInterrupted() || !this.shouldRun) {
-                    continue mainloop;
-                }
+            // Removed files are dropped from the schedule here
+            if (this.monitorMap.get(agent.file.getName()) == agent) {
+                final long interval = agent.nextInterval(agent.check());
+                schedule(agent, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interval));
             }
 
-            while (!this.addStack.empty()) {
-                this.addFile(this.addStack.pop());
+            FileObject file;
+            while ((file = this.addQueue.poll()) != null) {
+                this.addFile(file);
             }
 
-            while (!this.deleteStack.empty()) {
-                this.removeFile(this.deleteStack.pop());
+            while ((file = this.deleteQueue.poll()) != null) {
+                this.removeFile(file);
             }
 
-            try {
-                Thread.sleep(getDelay());
-            } catch (final InterruptedException e) {
-                continue;
+            if (getChecksPerRun() > 0 && ++checks % getChecksPerRun() == 0) {
+                try {
+                    Thread.sleep(getDelay());
+                } catch (final InterruptedException e) {
+                    // Stopped.
+                    break;
+                }
             }
         }
+    }
+
+    /**
+     * A change found by a subclass while holding its own locks, fired by {@link DefaultFileMonitor#fireEvents(List)}
+     * once they are released.
+     *
+     * @since 2.3
+     */
+    protected static final class PendingEvent {
+        /**
+         * The kinds of changes.
+         */
+        public enum Kind {
+            /** The file was created. */
+            CREATED,
+            /** The file was deleted. */
+            DELETED,
+            /** The file was changed. */
+            CHANGED
+        }
+
+        private final FileObject file;
+        private final Kind kind;
 
-        this.shouldRun = true;
+        /**
+         * Creates a change.
+         *
+         * @param file The changed file.
+         * @param kind The kind of change.
+         */
+        public PendingEvent(final FileObject file, final Kind kind) {
+            this.file = file;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * The agents checked by one thread, ordered by the time of their next check.
+     */
+    private static final class Shard {
+        private final DelayQueue<FileMonitorAgent> queue = new DelayQueue<>();
     }
 
     /**
      * File monitor agent.
      */
-    private static final class FileMonitorAgent {
+    private static final class FileMonitorAgent implements Delayed {
         private final FileObject file;
         private final DefaultFileMonitor fm;
 
+        /**
+         * The {@link System#nanoTime()} of the next check.
+         */
+        private volatile long nextCheck;
+
+        /**
+         * Whether the agent is in the queue of its shard.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * The delay before the next check, 0 until the first check.
+         */
+        private long interval;
+
         private boolean exists;
         private long timestamp;
-        private Map<FileName, Object> children;
+
+        /**
+         * The sorted base names of the children, or null if unknown.
+         */
+        private String[] children;
+
+        /**
+         * The last modified time of the folder when its children were listed, -1 to list them at the next check.
+         */
+        private long childrenTimestamp = -1;
+
+        /**
+         * The time the children were listed.
+         */
+        private long childrenListed;
+
+        /**
+         * Whether an unchanged last modified time of the folder means that its children did not change.
+         */
+        private final boolean trustTimestamp;
 
         private FileMonitorAgent(final DefaultFileMonitor fm, final FileObject file) {
             this.fm = fm;
             this.file = file;
+            this.trustTimestamp = file.getFileSystem().hasCapability(Capability.GET_LAST_MODIFIED);
 
             this.refresh();
             this.resetChildrenList();
@@ -395,18 +699,66 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
             }
         }
 
-        private void resetChildrenList() {
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(this.nextCheck - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            if (other instanceof FileMonitorAgent) {
+                // Compare the difference, as the nano time may overflow
+                final long diff = this.nextCheck - ((FileMonitorAgent) other).nextCheck;
+                return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        /**
+         * Returns the delay before the next check, which backs off while the file does not change.
+         *
+         * @param changed Whether the last check found a change.
+         * @return The delay.
+         */
+        private long nextInterval(final boolean changed) {
+            final long delay = this.fm.getDelay();
+            if (changed || this.interval == 0) {
+                this.interval = delay;
+            } else {
+                this.interval = Math.min(Math.max(this.interval, delay) * 2, this.fm.getMaxDelay());
+            }
+            return this.interval;
+        }
+
+        private synchronized void resetChildrenList() {
             try {
                 if (this.file.getType().hasChildren()) {
-                    this.children = new HashMap<>();
-                    final FileObject[] childrenList = this.file.getChildren();
-                    for (final FileObject element : childrenList) {
-                        this.children.put(element.getName(), new Object()); // null?
-                    }
+                    this.children = getBaseNames(this.file.getChildren());
                 }
             } catch (final FileSystemException fse) {
                 this.children = null;
             }
+            // Not known to match a last modified time
+            this.childrenTimestamp = -1;
+        }
+
+        private static String[] getBaseNames(final FileObject[] files) {
+            final String[] names = new String[files.length];
+            for (int i = 0; i < files.length; i++) {
+                names[i] = files[i].getName().getBaseName();
+            }
+            Arrays.sort(names);
+            return names;
+        }
+
+        /**
+         * Tells if the children are known to be the same as at the last listing. As some file systems only keep
+         * seconds, or even two seconds, the last modified time is only trusted once the listing is older than that.
+         */
+        private boolean isChildrenListUpToDate() {
+            return this.trustTimestamp && this.children != null && this.childrenTimestamp != -1
+                    && this.childrenTimestamp == this.timestamp
+                    && this.childrenListed - this.childrenTimestamp > TIMESTAMP_RESOLUTION;
         }
 
         /**
@@ -455,54 +807,46 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
 
         /**
          * Only checks for new children. If children are removed, they'll eventually be checked.
+         *
+         * @return true if new children were found.
          */
-        private void checkForNewChildren() {
+        private boolean checkForNewChildren() {
             try {
-                if (this.file.getType().hasChildren()) {
+                if (this.file.getType().hasChildren() && !isChildrenListUpToDate()) {
+                    final long listed = System.currentTimeMillis();
                     final FileObject[] newChildren = this.file.getChildren();
-                    if (this.children != null) {
-                        // See which new children are not listed in the current children map.
-                        final Map<FileName, Object> newChildrenMap = new HashMap<>();
-                        final Stack<FileObject> missingChildren = new Stack<>();
-
-                        for (int i = 0; i < newChildren.length; i++) {
-                            newChildrenMap.put(newChildren[i].getName(), new Object()); // null ?
-                            // If the child's not there
-                            if (!this.children.containsKey(newChildren[i].getName())) {
-                                missingChildren.push(newChildren[i]);
-                            }
-                        }
-
-                        this.children = newChildrenMap;
-
-                        // If there were missing children
-                        if (!missingChildren.empty()) {
-
-                            while (!missingChildren.empty()) {
-                                final FileObject child = missingChildren.pop();
-                                this.fireAllCreate(child);
-                            }
-                        }
-
-                    } else {
-                        // First set of children - Break out the cigars
-                        if (newChildren.length > 0) {
-                            this.children = new HashMap<>();
-                        }
-                        for (final FileObject element : newChildren) {
-                            this.children.put(element.getName(), new Object()); // null?
-                            this.fireAllCreate(element);
+                    final String[] previousChildren = this.children;
+                    this.children = getBaseNames(newChildren);
+                    this.childrenTimestamp = this.timestamp;
+                    this.childrenListed = listed;
+
+                    // See which new children are not listed in the current children.
+                    // With no previous children, this is the first set of children.
+                    boolean created = false;
+                    for (final FileObject child : newChildren) {
+                        if (previousChildren == null
+                                || Arrays.binarySearch(previousChildren, child.getName().getBaseName()) < 0) {
+                            this.fireAllCreate(child);
+                            created = true;
                         }
                     }
+                    return created;
                 }
             } catch (final FileSystemException fse) {
                 LOG.error(fse.getLocalizedMessage(), fse);
             }
+            return false;
         }
 
-        private void check() {
+        /**
+         * Checks the file for changes.
+         *
+         * @return true if the file or its children changed.
+         */
+        private synchronized boolean check() {
             this.refresh();
 
+            boolean changed = false;
             try {
                 // If the file existed and now doesn't
                 if (this.exists && !this.file.exists()) {
@@ -520,11 +864,14 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
 
                     // Remove from map
                     this.fm.queueRemoveFile(this.file);
+                    changed = true;
                 } else if (this.exists && this.file.exists()) {
 
                     // Check the timestamp to see if it has been modified
-                    if (this.timestamp != this.file.getContent().getLastModifiedTime()) {
-                        this.timestamp = this.file.getContent().getLastModifiedTime();
+                    final long lastModified = this.file.getContent().getLastModifiedTime();
+                    if (this.timestamp != lastModified) {
+                        this.timestamp = lastModified;
+                        changed = true;
                         // Fire change event
 
                         // Don't fire if it's a folder because new file children
@@ -537,6 +884,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                 } else if (!this.exists && this.file.exists()) {
                     this.exists = this.file.exists();
                     this.timestamp = this.file.getContent().getLastModifiedTime();
+                    changed = true;
                     // Don't fire if it's a folder because new file children
                     // and deleted files in a folder have their own event triggered.
                     if (!this.file.getType().hasChildren()) {
@@ -544,11 +892,14 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                     }
                 }
 
-                this.checkForNewChildren();
+                if (this.checkForNewChildren()) {
+                    changed = true;
+                }
 
             } catch (final FileSystemException fse) {
                 LOG.error(fse.getLocalizedMessage(), fse);
             }
+            return changed;
         }
 
     }
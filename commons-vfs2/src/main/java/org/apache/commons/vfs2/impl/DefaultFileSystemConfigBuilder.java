@@ -20,6 +20,7 @@ import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.LockStrategy;
 import org.apache.commons.vfs2.UserAuthenticator;
 
 /**
@@ -29,6 +30,15 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
     /** The default FileSystemConfigBuilder */
     private static final DefaultFileSystemConfigBuilder BUILDER = new DefaultFileSystemConfigBuilder();
 
+    /** The default maximum number of bytes copied concurrently */
+    private static final long DEFAULT_COPY_MAX_BYTES_IN_FLIGHT = 64L * 1024 * 1024;
+
+    /** The default time in milliseconds the data of a file is used before it is refreshed */
+    private static final long DEFAULT_CACHE_TIME_TO_LIVE = 1000;
+
+    /** The default maximum number of missing files remembered per file system */
+    private static final int DEFAULT_NEGATIVE_CACHE_MAX_SIZE = 10000;
+
     /**
      * Gets the singleton builder.
      *
@@ -59,6 +69,165 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (UserAuthenticator) getParam(opts, "userAuthenticator");
     }
 
+    /**
+     * Sets the strategy used by the file objects of a file system to guard their cached metadata.
+     *
+     * @param opts The FileSystemOptions.
+     * @param lockStrategy The LockStrategy.
+     * @since 2.3
+     */
+    public void setLockStrategy(final FileSystemOptions opts, final LockStrategy lockStrategy) {
+        setParam(opts, "lockStrategy", lockStrategy);
+    }
+
+    /**
+     * @see #setLockStrategy
+     * @param opts The FileSystemOptions.
+     * @return The LockStrategy, {@link LockStrategy#FILE_SYSTEM} if none has been set.
+     * @since 2.3
+     */
+    public LockStrategy getLockStrategy(final FileSystemOptions opts) {
+        return getEnum(LockStrategy.class, opts, "lockStrategy", LockStrategy.FILE_SYSTEM);
+    }
+
+    /**
+     * Sets whether {@link org.apache.commons.vfs2.FileObject#getChild(String)} ignores the case of child names.
+     *
+     * @param opts The FileSystemOptions.
+     * @param caseInsensitive true to match child names ignoring case.
+     * @since 2.3
+     */
+    public void setChildLookupCaseInsensitive(final FileSystemOptions opts, final boolean caseInsensitive) {
+        setParam(opts, "childLookupCaseInsensitive", caseInsensitive);
+    }
+
+    /**
+     * @see #setChildLookupCaseInsensitive
+     * @param opts The FileSystemOptions.
+     * @return true if child names are matched ignoring case, false by default.
+     * @since 2.3
+     */
+    public boolean isChildLookupCaseInsensitive(final FileSystemOptions opts) {
+        return getBoolean(opts, "childLookupCaseInsensitive", false);
+    }
+
+    /**
+     * Sets the number of files {@link org.apache.commons.vfs2.FileObject#copyFrom} copies concurrently into a file of
+     * this file system. A value of 1 or less copies the files one by one on the calling thread.
+     *
+     * @param opts The FileSystemOptions.
+     * @param parallelism The number of threads.
+     * @since 2.3
+     */
+    public void setCopyParallelism(final FileSystemOptions opts, final int parallelism) {
+        setParam(opts, "copyParallelism", Integer.valueOf(parallelism));
+    }
+
+    /**
+     * @see #setCopyParallelism
+     * @param opts The FileSystemOptions.
+     * @return The number of threads, 1 by default.
+     * @since 2.3
+     */
+    public int getCopyParallelism(final FileSystemOptions opts) {
+        return getInteger(opts, "copyParallelism", 1);
+    }
+
+    /**
+     * Sets the maximum number of bytes of the files being copied concurrently. Copying a larger file waits until all
+     * others are done.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxBytes The maximum number of bytes in flight.
+     * @see #setCopyParallelism
+     * @since 2.3
+     */
+    public void setCopyMaxBytesInFlight(final FileSystemOptions opts, final long maxBytes) {
+        setParam(opts, "copyMaxBytesInFlight", Long.valueOf(maxBytes));
+    }
+
+    /**
+     * @see #setCopyMaxBytesInFlight
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of bytes in flight, 64 MiB by default.
+     * @since 2.3
+     */
+    public long getCopyMaxBytesInFlight(final FileSystemOptions opts) {
+        return getLong(opts, "copyMaxBytesInFlight", DEFAULT_COPY_MAX_BYTES_IN_FLIGHT);
+    }
+
+    /**
+     * Sets the time in milliseconds the cached data of a file, like its type, size, last modified time and children, is
+     * used before it is refreshed. Only used with {@link org.apache.commons.vfs2.CacheStrategy#ON_TIMEOUT}.
+     *
+     * @param opts The FileSystemOptions.
+     * @param timeToLive The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setCacheTimeToLive(final FileSystemOptions opts, final long timeToLive) {
+        setParam(opts, "cacheTimeToLive", Long.valueOf(timeToLive));
+    }
+
+    /**
+     * @see #setCacheTimeToLive
+     * @param opts The FileSystemOptions.
+     * @return The time to live in milliseconds, 1000 by default.
+     * @since 2.3
+     */
+    public long getCacheTimeToLive(final FileSystemOptions opts) {
+        return getLong(opts, "cacheTimeToLive", DEFAULT_CACHE_TIME_TO_LIVE);
+    }
+
+    /**
+     * Sets the time in milliseconds a file found not to exist is reported as imaginary without asking the file system
+     * again. Creating the file through VFS forgets it at once. A value of 0 or less disables the negative cache.
+     * <p>
+     * A file created by another process is still reported as imaginary until its entry expires, even after a refresh.
+     * Unless the provider reports the type of the children while listing a folder, the listing may meanwhile return a
+     * child whose {@code exists()} is false.
+     * </p>
+     *
+     * @param opts The FileSystemOptions.
+     * @param timeToLive The time to live in milliseconds.
+     * @since 2.3
+     */
+    public void setNegativeCacheTimeToLive(final FileSystemOptions opts, final long timeToLive) {
+        setParam(opts, "negativeCacheTimeToLive", Long.valueOf(timeToLive));
+    }
+
+    /**
+     * @see #setNegativeCacheTimeToLive
+     * @param opts The FileSystemOptions.
+     * @return The time to live in milliseconds, 0 by default.
+     * @since 2.3
+     */
+    public long getNegativeCacheTimeToLive(final FileSystemOptions opts) {
+        return getLong(opts, "negativeCacheTimeToLive", 0);
+    }
+
+    /**
+     * Sets the maximum number of missing files the negative cache of a file system remembers. The oldest entries are
+     * dropped first.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxSize The maximum number of entries.
+     * @see #setNegativeCacheTimeToLive
+     * @since 2.3
+     */
+    public void setNegativeCacheMaxSize(final FileSystemOptions opts, final int maxSize) {
+        setParam(opts, "negativeCacheMaxSize", Integer.valueOf(maxSize));
+    }
+
+    /**
+     * @see #setNegativeCacheMaxSize
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of entries, 10000 by default.
+     * @since 2.3
+     */
+    public int getNegativeCacheMaxSize(final FileSystemOptions opts) {
+        return getInteger(opts, "negativeCacheMaxSize", DEFAULT_NEGATIVE_CACHE_MAX_SIZE);
+    }
+
     /**
      * Dummy class that implements FileSystem.
      */
@@ -28,6 +28,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -45,10 +51,16 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.FilesCache;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.cache.AbstractFilesCache;
+import org.apache.commons.vfs2.cache.FilesCacheStatistics;
 import org.apache.commons.vfs2.cache.SoftRefFilesCache;
+import org.apache.commons.vfs2.events.FileEventDispatcher;
+import org.apache.commons.vfs2.metrics.DefaultFileSystemMetrics;
+import org.apache.commons.vfs2.metrics.FileSystemMetrics;
 import org.apache.commons.vfs2.operations.FileOperationProvider;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileProvider;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.DefaultURLStreamHandler;
 import org.apache.commons.vfs2.provider.FileProvider;
 import org.apache.commons.vfs2.provider.FileReplicator;
@@ -56,6 +68,7 @@ import org.apache.commons.vfs2.provider.LocalFileProvider;
 import org.apache.commons.vfs2.provider.TemporaryFileStore;
 import org.apache.commons.vfs2.provider.UriParser;
 import org.apache.commons.vfs2.provider.VfsComponent;
+import org.apache.commons.vfs2.util.Messages;
 
 /**
  * The default file system manager implementation.
@@ -64,7 +77,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
     /**
      * Mapping from URI scheme to FileProvider.
      */
-    private final Map<String, FileProvider> providers = new HashMap<>();
+    private final Map<String, FileProvider> providers = new ConcurrentHashMap<>();
 
     /**
      * All components used by this manager.
@@ -145,6 +158,41 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     private VirtualFileProvider vfsProvider;
 
+    /**
+     * The names resolved so far, null if disabled.
+     */
+    private FileNameCache nameCache;
+
+    /**
+     * Receives the metrics of the file systems, null if disabled.
+     */
+    private FileSystemMetrics fileSystemMetrics;
+
+    /**
+     * Delivers the events of the file systems to their listeners, null to notify them synchronously.
+     */
+    private FileEventDispatcher fileEventDispatcher;
+
+    /**
+     * Time in milliseconds after which an idle file system is closed, 0 if idle file systems are kept.
+     */
+    private long fileSystemIdleTimeout;
+
+    /**
+     * Time in milliseconds between two checks for idle file systems, 0 to use the idle timeout.
+     */
+    private long fileSystemReaperInterval;
+
+    /**
+     * Closes the idle file systems, null if disabled.
+     */
+    private ScheduledExecutorService fileSystemReaper;
+
+    /**
+     * The number of idle file systems closed.
+     */
+    private final AtomicLong idleFileSystemsClosed = new AtomicLong();
+
     /**
      * Flag, if manager is initialized (after init() and before close()).
      */
@@ -212,7 +260,38 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public boolean hasProvider(final String scheme) {
-        return providers.containsKey(scheme);
+        return scheme != null && providers.containsKey(scheme);
+    }
+
+    /**
+     * Returns the provider registered for a scheme, letting {@link #loadProvider(String)} register it on first use.
+     *
+     * @param scheme The scheme.
+     * @return The provider, or null if there is none.
+     * @throws FileSystemException if the provider could not be created.
+     */
+    private FileProvider getProvider(final String scheme) throws FileSystemException {
+        if (scheme == null) {
+            return null;
+        }
+        final FileProvider provider = providers.get(scheme);
+        if (provider != null || !loadProvider(scheme)) {
+            return provider;
+        }
+        return providers.get(scheme);
+    }
+
+    /**
+     * Called when a scheme without a registered provider is used. Subclasses that defer the creation of their
+     * providers register the provider of the scheme here, with {@link #addProvider(String[], FileProvider)}.
+     *
+     * @param scheme The scheme.
+     * @return true if a provider was registered for the scheme.
+     * @throws FileSystemException if the provider could not be created.
+     * @since 2.3
+     */
+    protected boolean loadProvider(final String scheme) throws FileSystemException {
+        return false;
     }
 
     /**
@@ -293,6 +372,224 @@ public class DefaultFileSystemManager implements FileSystemManager {
         this.fileCacheStrategy = fileCacheStrategy;
     }
 
+    /**
+     * Sets the maximum number of names {@link #resolveName(FileName, String, NameScope)} remembers. Resolving the same
+     * name relative to the same base again then returns the same FileName instance without parsing it. A value of 0 or
+     * less, the default, disables the cache.
+     * <p>
+     * Can only be set before the FileSystemManager is initialized. The cache is cleared by {@link #close()}.
+     *
+     * @param maxSize The maximum number of names.
+     * @throws FileSystemException if the manager is already initialized.
+     * @since 2.3
+     */
+    public void setNameCacheMaxSize(final int maxSize) throws FileSystemException {
+        if (init) {
+            throw new FileSystemException("vfs.impl/already-inited.error");
+        }
+
+        this.nameCache = maxSize > 0 ? new FileNameCache(maxSize) : null;
+    }
+
+    /**
+     * Returns the statistics of the names cached by {@link #resolveName(FileName, String, NameScope)}.
+     *
+     * @return The statistics, or null if the cache is disabled.
+     * @see #setNameCacheMaxSize(int)
+     * @since 2.3
+     */
+    public FilesCacheStatistics getNameCacheStatistics() {
+        return nameCache != null ? nameCache.getStatistics() : null;
+    }
+
+    /**
+     * Returns the statistics of the files cache, for all file systems.
+     *
+     * @return The statistics, or null if the files cache does not keep statistics.
+     * @see AbstractFilesCache#getStatistics()
+     * @since 2.3
+     */
+    public FilesCacheStatistics getFilesCacheStatistics() {
+        return filesCache instanceof AbstractFilesCache ? ((AbstractFilesCache) filesCache).getStatistics() : null;
+    }
+
+    /**
+     * Returns the statistics of the files cache for the files of a file system.
+     *
+     * @param fileSystem The file system.
+     * @return The statistics, or null if the files cache does not keep statistics.
+     * @see AbstractFilesCache#getStatistics(FileSystem)
+     * @since 2.3
+     */
+    public FilesCacheStatistics getFilesCacheStatistics(final FileSystem fileSystem) {
+        return filesCache instanceof AbstractFilesCache
+                ? ((AbstractFilesCache) filesCache).getStatistics(fileSystem) : null;
+    }
+
+    /**
+     * Sets the time after which a file system which has no open stream and was not used is released, as
+     * {@link #closeIdleFileSystems(long)} does. A background thread looks for idle file systems. A value of 0 or less,
+     * the default, keeps the file systems open until {@link #closeFileSystem(FileSystem)} or {@link #close()} is
+     * called.
+     * <p>
+     * Can only be set before the FileSystemManager is initialized.
+     *
+     * @param idleTimeout The idle time in milliseconds.
+     * @throws FileSystemException if the manager is already initialized.
+     * @see #closeIdleFileSystems(long)
+     * @since 2.3
+     */
+    public void setFileSystemIdleTimeout(final long idleTimeout) throws FileSystemException {
+        if (init) {
+            throw new FileSystemException("vfs.impl/already-inited.error");
+        }
+
+        this.fileSystemIdleTimeout = idleTimeout;
+    }
+
+    /**
+     * Sets the time between two checks for idle file systems. The default is the
+     * {@linkplain #setFileSystemIdleTimeout(long) idle timeout}.
+     * <p>
+     * Can only be set before the FileSystemManager is initialized.
+     *
+     * @param interval The time in milliseconds.
+     * @throws FileSystemException if the manager is already initialized.
+     * @since 2.3
+     */
+    public void setFileSystemReaperInterval(final long interval) throws FileSystemException {
+        if (init) {
+            throw new FileSystemException("vfs.impl/already-inited.error");
+        }
+
+        this.fileSystemReaperInterval = interval;
+    }
+
+    /**
+     * Releases the file systems which have no open stream and were not used for a given time.
+     * <p>
+     * A file system which no file object uses anymore, see {@link AbstractFileSystem#isReleaseable()}, is closed. Any
+     * other idle file system stays open, so that the files, caches and listeners in use keep working, and only closes
+     * the link used to access its files, which is opened again when needed.
+     *
+     * @param idleTime The idle time in milliseconds.
+     * @return The number of file systems closed or whose link was closed.
+     * @since 2.3
+     */
+    public int closeIdleFileSystems(final long idleTime) {
+        if (!init) {
+            return 0;
+        }
+
+        int count = 0;
+        for (final FileProvider fileProvider : providers.values()) {
+            if (fileProvider instanceof AbstractFileProvider) {
+                for (final FileSystem fs : ((AbstractFileProvider) fileProvider).getIdleFileSystems(idleTime)) {
+                    if (closeIdleFileSystem((AbstractFileSystem) fs, idleTime)) {
+                        idleFileSystemsClosed.incrementAndGet();
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean closeIdleFileSystem(final AbstractFileSystem fs, final long idleTime) {
+        if (!fs.claimIdle(idleTime)) {
+            return false;
+        }
+        if (fs.isReleaseable()) {
+            closeFileSystem(fs);
+        } else {
+            fs.closeCommunicationLink();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of open file systems of the providers of this manager.
+     *
+     * @return The number of file systems.
+     * @since 2.3
+     */
+    public int getFileSystemCount() {
+        int count = 0;
+        for (final FileProvider fileProvider : providers.values()) {
+            if (fileProvider instanceof AbstractFileProvider) {
+                count += ((AbstractFileProvider) fileProvider).getFileSystemCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of file systems closed, or whose link was closed, because they were idle.
+     *
+     * @return The number of file systems.
+     * @see #setFileSystemIdleTimeout(long)
+     * @since 2.3
+     */
+    public long getIdleFileSystemsClosedCount() {
+        return idleFileSystemsClosed.get();
+    }
+
+    /**
+     * Sets the metrics which the file systems report the operations on their files to. Without metrics, the default,
+     * the operations are not measured.
+     * <p>
+     * Can only be set before the FileSystemManager is initialized.
+     *
+     * @param metrics The metrics, for instance a {@link DefaultFileSystemMetrics}, or null.
+     * @throws FileSystemException if the manager is already initialized.
+     * @since 2.3
+     */
+    public void setFileSystemMetrics(final FileSystemMetrics metrics) throws FileSystemException {
+        if (init) {
+            throw new FileSystemException("vfs.impl/already-inited.error");
+        }
+
+        this.fileSystemMetrics = metrics;
+    }
+
+    /**
+     * Returns the metrics which the file systems report the operations on their files to.
+     *
+     * @return The metrics, or null if the operations are not measured.
+     * @since 2.3
+     */
+    public FileSystemMetrics getFileSystemMetrics() {
+        return fileSystemMetrics;
+    }
+
+    /**
+     * Sets the dispatcher delivering the events of the file systems to their listeners. Without a dispatcher, the
+     * default, the listeners are notified by the thread firing the event. The dispatcher is closed with this manager.
+     * <p>
+     * Can only be set before the FileSystemManager is initialized.
+     *
+     * @param dispatcher The dispatcher, or null.
+     * @throws FileSystemException if the manager is already initialized.
+     * @since 2.3
+     */
+    public void setFileEventDispatcher(final FileEventDispatcher dispatcher) throws FileSystemException {
+        if (init) {
+            throw new FileSystemException("vfs.impl/already-inited.error");
+        }
+
+        this.fileEventDispatcher = dispatcher;
+    }
+
+    /**
+     * Returns the dispatcher delivering the events of the file systems to their listeners.
+     *
+     * @return The dispatcher, or null if the listeners are notified by the thread firing the event.
+     * @since 2.3
+     */
+    public FileEventDispatcher getFileEventDispatcher() {
+        return fileEventDispatcher;
+    }
+
     /**
      * Get the cache strategy used.
      *
@@ -502,9 +799,41 @@ public class DefaultFileSystemManager implements FileSystemManager {
         vfsProvider = new VirtualFileProvider();
         setupComponent(vfsProvider);
 
+        if (fileSystemIdleTimeout > 0) {
+            startFileSystemReaper();
+        }
+
         init = true;
     }
 
+    private void startFileSystemReaper() {
+        final long idleTimeout = fileSystemIdleTimeout;
+        final long interval = fileSystemReaperInterval > 0 ? fileSystemReaperInterval : idleTimeout;
+        fileSystemReaper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "VFS file system reaper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        fileSystemReaper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final int count = closeIdleFileSystems(idleTimeout);
+                    if (count > 0 && log.isDebugEnabled()) {
+                        log.debug(Messages.getString("vfs.impl/closed-idle-file-systems.debug",
+                                new Object[] { count }));
+                    }
+                } catch (final RuntimeException e) {
+                    // keep the reaper running
+                    log.warn(Messages.getString("vfs.impl/close-idle-file-systems.warn"), e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Closes the manager.
      * <p>
@@ -518,6 +847,16 @@ public class DefaultFileSystemManager implements FileSystemManager {
             return;
         }
 
+        if (fileSystemReaper != null) {
+            fileSystemReaper.shutdownNow();
+            fileSystemReaper = null;
+        }
+
+        // deliver the pending events while the file systems are open
+        if (fileEventDispatcher != null) {
+            fileEventDispatcher.close();
+        }
+
         // make sure all discovered components in
         // org.apache.commons.vfs2.impl.StandardFileSystemManager.configure(Element)
         // are closed here
@@ -547,6 +886,9 @@ public class DefaultFileSystemManager implements FileSystemManager {
 
         // collections with add()
         typeMap.clear();
+        if (nameCache != null) {
+            nameCache.clear();
+        }
 
         // should not happen, but make debugging easier:
         if (!components.isEmpty()) {
@@ -706,7 +1048,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
         final String scheme = UriParser.extractScheme(uri);
         if (scheme != null) {
             // An absolute URI - locate the provider
-            final FileProvider provider = providers.get(scheme);
+            final FileProvider provider = getProvider(scheme);
             if (provider != null) {
                 return provider.findFile(realBaseFile, uri, fileSystemOptions);
             }
@@ -764,6 +1106,19 @@ public class DefaultFileSystemManager implements FileSystemManager {
         if (base == null) {
             throw new FileSystemException("Invalid base filename.");
         }
+        final FileNameCache cache = nameCache;
+        if (cache == null) {
+            return doResolveName(base, name, scope);
+        }
+        final FileName resolved = cache.get(base, name, scope);
+        if (resolved != null) {
+            return resolved;
+        }
+        return cache.put(base, name, scope, doResolveName(base, name, scope));
+    }
+
+    private FileName doResolveName(final FileName base, final String name, final NameScope scope)
+            throws FileSystemException {
         final FileName realBase;
         if (VFS.isUriStyle() && base.isFile()) {
             realBase = base.getParent();
@@ -771,20 +1126,24 @@ public class DefaultFileSystemManager implements FileSystemManager {
             realBase = base;
         }
 
-        final StringBuilder buffer = new StringBuilder(name);
-
-        // Adjust separators
-        UriParser.fixSeparators(buffer);
-        String scheme = UriParser.extractScheme(buffer.toString());
+        // Adjust separators, this does not copy the name if there is nothing to adjust
+        final String fixedName = name.replace(UriParser.TRANS_SEPARATOR, FileName.SEPARATOR_CHAR);
+        String scheme = UriParser.extractScheme(fixedName);
 
         // Determine whether to prepend the base path
-        if (name.length() == 0 || (scheme == null && buffer.charAt(0) != FileName.SEPARATOR_CHAR)) {
+        final StringBuilder buffer;
+        if (name.length() == 0 || (scheme == null && fixedName.charAt(0) != FileName.SEPARATOR_CHAR)) {
             // Supplied path is not absolute
+            final String basePath = realBase.getPath();
+            buffer = new StringBuilder(basePath.length() + 1 + name.length());
+            buffer.append(basePath);
             if (!VFS.isUriStyle()) {
                 // when using uris the parent already do have the trailing "/"
-                buffer.insert(0, FileName.SEPARATOR_CHAR);
+                buffer.append(FileName.SEPARATOR_CHAR);
             }
-            buffer.insert(0, realBase.getPath());
+            buffer.append(fixedName);
+        } else {
+            buffer = new StringBuilder(fixedName);
         }
 
         // Normalise the path
@@ -803,7 +1162,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
             scheme = realBase.getScheme();
             fullPath = realBase.getRootURI() + resolvedPath;
         }
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider != null) {
             // TODO: extend the filename parser to be able to parse
             // only a pathname and take the missing informations from
@@ -843,7 +1202,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
         final String scheme = UriParser.extractScheme(uri);
         if (scheme != null) {
             // An absolute URI - locate the provider
-            final FileProvider provider = providers.get(scheme);
+            final FileProvider provider = getProvider(scheme);
             if (provider != null) {
                 return provider.parseUri(null, uri);
             }
@@ -894,7 +1253,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public FileObject createFileSystem(final String scheme, final FileObject file) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-provider.error", scheme, file);
         }
@@ -1020,8 +1379,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
     final class VfsStreamHandlerFactory implements URLStreamHandlerFactory {
         @Override
         public URLStreamHandler createURLStreamHandler(final String protocol) {
-            final FileProvider provider = providers.get(protocol);
-            if (provider != null) {
+            if (hasProvider(protocol)) {
                 return new DefaultURLStreamHandler(context);
             }
 
@@ -1037,9 +1395,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public String[] getSchemes() {
-        final String[] schemes = new String[providers.size()];
-        providers.keySet().toArray(schemes);
-        return schemes;
+        return providers.keySet().toArray(new String[0]);
     }
 
     /**
@@ -1051,7 +1407,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public Collection<Capability> getProviderCapabilities(final String scheme) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-scheme.error", scheme);
         }
@@ -1068,7 +1424,7 @@ public class DefaultFileSystemManager implements FileSystemManager {
      */
     @Override
     public FileSystemConfigBuilder getFileSystemConfigBuilder(final String scheme) throws FileSystemException {
-        final FileProvider provider = providers.get(scheme);
+        final FileProvider provider = getProvider(scheme);
         if (provider == null) {
             throw new FileSystemException("vfs.impl/unknown-scheme.error", scheme);
         }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.cache.FilesCacheStatistics;
+
+/**
+ * A bounded, concurrent memo of the names resolved by {@link DefaultFileSystemManager#resolveName}.
+ * <p>
+ * Once the cache is full, the oldest entries are dropped to make room for new ones.
+ */
+final class FileNameCache {
+    private final ConcurrentMap<Key, FileName> names = new ConcurrentHashMap<>();
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong putCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    FileNameCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    FileName get(final FileName base, final String name, final NameScope scope) {
+        final FileName resolved = names.get(new Key(base, name, scope));
+        if (resolved != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return resolved;
+    }
+
+    /**
+     * Adds a resolved name.
+     *
+     * @return The canonical name, which is the given one unless another thread added the same name first.
+     */
+    FileName put(final FileName base, final String name, final NameScope scope, final FileName resolved) {
+        final Key key = new Key(base, name, scope);
+        final FileName previous = names.putIfAbsent(key, resolved);
+        if (previous != null) {
+            return previous;
+        }
+        insertionOrder.offer(key);
+        putCount.incrementAndGet();
+        if (size.incrementAndGet() > maxSize) {
+            evict();
+        }
+        return resolved;
+    }
+
+    private void evict() {
+        while (size.get() > maxSize) {
+            final Key key = insertionOrder.poll();
+            if (key == null) {
+                return;
+            }
+            if (names.remove(key) != null) {
+                size.decrementAndGet();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    void clear() {
+        Key key;
+        while ((key = insertionOrder.poll()) != null) {
+            if (names.remove(key) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    FilesCacheStatistics getStatistics() {
+        return new FilesCacheStatistics(hitCount.get(), missCount.get(), putCount.get(), evictionCount.get(),
+                size.get());
+    }
+
+    /**
+     * The arguments of a resolveName call.
+     */
+    private static final class Key {
+        private final FileName base;
+        private final String name;
+        private final NameScope scope;
+        private final int hash;
+
+        Key(final FileName base, final String name, final NameScope scope) {
+            this.base = base;
+            this.name = name;
+            this.scope = scope;
+            this.hash = (31 * base.hashCode() + name.hashCode()) * 31 + scope.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) obj;
+            return hash == that.hash && scope == that.scope && name.equals(that.name) && base.equals(that.base);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
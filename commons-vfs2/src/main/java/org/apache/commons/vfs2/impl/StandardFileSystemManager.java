@@ -21,8 +21,13 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -42,13 +47,32 @@ import org.w3c.dom.NodeList;
  * <p>
  * Certain providers are only loaded and available if the dependent library is in your classpath. You have to configure
  * your debugging facility to log "debug" messages to see if a provider was skipped due to "unresolved externals".
+ * <p>
+ * With {@linkplain #setLazyProviders(boolean) lazy providers}, only the schemes of the providers are registered by
+ * {@link #init()}; a provider is checked for its dependencies and created the first time its scheme is used.
  */
 public class StandardFileSystemManager extends DefaultFileSystemManager {
+    /**
+     * The system property which enables {@linkplain #setLazyProviders(boolean) lazy providers} when set to true.
+     *
+     * @since 2.3
+     */
+    public static final String LAZY_PROVIDERS_PROPERTY = "org.apache.commons.vfs2.lazyProviders";
+
     private static final String CONFIG_RESOURCE = "providers.xml";
     private static final String PLUGIN_CONFIG_RESOURCE = "META-INF/vfs-providers.xml";
 
+    /** The scheme of the local file provider, which is never deferred. */
+    private static final String LOCAL_SCHEME = "file";
+
     private URL configUri;
     private ClassLoader classLoader;
+    private boolean lazyProviders = Boolean.getBoolean(LAZY_PROVIDERS_PROPERTY);
+
+    /**
+     * The definitions of the providers not created yet, by scheme.
+     */
+    private final Map<String, ProviderDefinition> deferredProviders = new ConcurrentHashMap<>();
 
     /**
      * Sets the configuration file for this manager.
@@ -81,6 +105,29 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Sets whether the providers are created the first time their scheme is used rather than by {@link #init()}. This
+     * saves the start-up time of the providers which are never used, along with the class path lookups of their
+     * dependencies. The local file provider and the default provider are always created by {@link #init()}.
+     * <p>
+     * The default is the value of the {@value #LAZY_PROVIDERS_PROPERTY} system property, false if not set.
+     *
+     * @param lazyProviders true to create the providers on first use.
+     * @since 2.3
+     */
+    public void setLazyProviders(final boolean lazyProviders) {
+        this.lazyProviders = lazyProviders;
+    }
+
+    /**
+     * @see #setLazyProviders(boolean)
+     * @return true if the providers are created on first use.
+     * @since 2.3
+     */
+    public boolean isLazyProviders() {
+        return lazyProviders;
+    }
+
     /**
      * Initializes this manager. Adds the providers and replicator.
      *
@@ -109,6 +156,93 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         super.init();
     }
 
+    /**
+     * Closes the manager, forgetting the providers not created yet.
+     */
+    @Override
+    public void close() {
+        super.close();
+        deferredProviders.clear();
+    }
+
+    /**
+     * Returns true if this manager has a provider for a particular scheme. A provider not created yet is created, so
+     * that a scheme whose required classes or schemes are missing is not reported.
+     *
+     * @param scheme The scheme to check.
+     * @return true if a provider is configured for this scheme, false otherwise.
+     */
+    @Override
+    public boolean hasProvider(final String scheme) {
+        if (super.hasProvider(scheme)) {
+            return true;
+        }
+        if (scheme == null || !deferredProviders.containsKey(scheme)) {
+            return false;
+        }
+        try {
+            return loadProvider(scheme);
+        } catch (final FileSystemException e) {
+            getLogger().warn(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the schemes currently available, including the schemes of the providers not created yet.
+     * <p>
+     * The providers not created yet are listed without checking their required classes and schemes, which would create
+     * them, so such a scheme may turn out to be unknown on first use.
+     *
+     * @return The array of scheme names.
+     */
+    @Override
+    public String[] getSchemes() {
+        if (deferredProviders.isEmpty()) {
+            return super.getSchemes();
+        }
+        final Set<String> schemes = new LinkedHashSet<>(Arrays.asList(super.getSchemes()));
+        schemes.addAll(deferredProviders.keySet());
+        return schemes.toArray(new String[schemes.size()]);
+    }
+
+    /**
+     * Creates and registers a deferred provider for the scheme.
+     *
+     * @param scheme The scheme.
+     * @return true if a provider is registered for the scheme.
+     * @throws FileSystemException if the provider could not be created.
+     */
+    @Override
+    protected synchronized boolean loadProvider(final String scheme) throws FileSystemException {
+        final ProviderDefinition definition = deferredProviders.get(scheme);
+        if (definition == null) {
+            // may have been created by another thread
+            return super.hasProvider(scheme);
+        }
+        if (!isAvailable(definition)) {
+            removeDeferred(definition);
+            return false;
+        }
+        final FileProvider provider = (FileProvider) createInstance(definition.className);
+        removeDeferred(definition);
+        addProvider(definition.schemes, provider);
+        return true;
+    }
+
+    /**
+     * Tests if a provider is registered or deferred for the scheme, without creating it.
+     */
+    private boolean isConfigured(final String scheme) {
+        return super.hasProvider(scheme) || deferredProviders.containsKey(scheme);
+    }
+
+    private void removeDeferred(final ProviderDefinition definition) {
+        for (final String scheme : definition.schemes) {
+            deferredProviders.remove(scheme);
+        }
+    }
+
     /**
      * Scans the classpath to find any droped plugin.
      * <p>
@@ -291,34 +425,31 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
      * @throws FileSystemException if an error occurs.
      */
     private void addProvider(final Element providerDef, final boolean isDefault) throws FileSystemException {
-        final String classname = providerDef.getAttribute("class-name");
-
-        // Make sure all required schemes are available
-        final String[] requiredSchemes = getRequiredSchemes(providerDef);
-        for (final String requiredScheme : requiredSchemes) {
-            if (!hasProvider(requiredScheme)) {
-                final String msg = Messages.getString("vfs.impl/skipping-provider-scheme.debug", classname,
-                        requiredScheme);
-                VfsLog.debug(getLogger(), getLogger(), msg);
-                return;
+        final ProviderDefinition definition = new ProviderDefinition(providerDef.getAttribute("class-name"),
+                getSchemas(providerDef), getRequiredSchemes(providerDef), getRequiredClasses(providerDef));
+
+        // Defer the provider until its scheme is used
+        if (lazyProviders && !isDefault && definition.schemes.length > 0
+                && !Arrays.asList(definition.schemes).contains(LOCAL_SCHEME)) {
+            for (final String scheme : definition.schemes) {
+                if (isConfigured(scheme)) {
+                    throw new FileSystemException("vfs.impl/multiple-providers-for-scheme.error", scheme);
+                }
+            }
+            for (final String scheme : definition.schemes) {
+                deferredProviders.put(scheme, definition);
             }
+            return;
         }
 
-        // Make sure all required classes are in classpath
-        final String[] requiredClasses = getRequiredClasses(providerDef);
-        for (final String requiredClass : requiredClasses) {
-            if (!findClass(requiredClass)) {
-                final String msg = Messages.getString("vfs.impl/skipping-provider.debug", classname, requiredClass);
-                VfsLog.debug(getLogger(), getLogger(), msg);
-                return;
-            }
+        if (!isAvailable(definition)) {
+            return;
         }
 
         // Create and register the provider
-        final FileProvider provider = (FileProvider) createInstance(classname);
-        final String[] schemas = getSchemas(providerDef);
-        if (schemas.length > 0) {
-            addProvider(schemas, provider);
+        final FileProvider provider = (FileProvider) createInstance(definition.className);
+        if (definition.schemes.length > 0) {
+            addProvider(definition.schemes, provider);
         }
 
         // Set as default, if required
@@ -327,6 +458,33 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         }
     }
 
+    /**
+     * Tests if the required schemes and classes of a provider are available. The deferred providers of the required
+     * schemes are created.
+     */
+    private boolean isAvailable(final ProviderDefinition definition) throws FileSystemException {
+        // Make sure all required schemes are available
+        for (final String requiredScheme : definition.requiredSchemes) {
+            if (!super.hasProvider(requiredScheme) && !loadProvider(requiredScheme)) {
+                final String msg = Messages.getString("vfs.impl/skipping-provider-scheme.debug", definition.className,
+                        requiredScheme);
+                VfsLog.debug(getLogger(), getLogger(), msg);
+                return false;
+            }
+        }
+
+        // Make sure all required classes are in classpath
+        for (final String requiredClass : definition.requiredClasses) {
+            if (!findClass(requiredClass)) {
+                final String msg = Messages.getString("vfs.impl/skipping-provider.debug", definition.className,
+                        requiredClass);
+                VfsLog.debug(getLogger(), getLogger(), msg);
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Adds a operationProvider from a operationProvider definition.
      */
@@ -336,7 +494,7 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         // Attach only to available schemas
         final String[] schemas = getSchemas(providerDef);
         for (final String schema : schemas) {
-            if (hasProvider(schema)) {
+            if (isConfigured(schema)) {
                 final FileOperationProvider operationProvider = (FileOperationProvider) createInstance(classname);
                 addOperationProvider(schema, operationProvider);
             }
@@ -452,4 +610,21 @@ public class StandardFileSystemManager extends DefaultFileSystemManager {
         return res;
     }
 
+    /**
+     * The parsed definition of a provider.
+     */
+    private static final class ProviderDefinition {
+        private final String className;
+        private final String[] schemes;
+        private final String[] requiredSchemes;
+        private final String[] requiredClasses;
+
+        ProviderDefinition(final String className, final String[] schemes, final String[] requiredSchemes,
+                final String[] requiredClasses) {
+            this.className = className;
+            this.schemes = schemes;
+            this.requiredSchemes = requiredSchemes;
+            this.requiredClasses = requiredClasses;
+        }
+    }
 }
@@ -17,13 +17,16 @@
 package org.apache.commons.vfs2.impl;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.commons.vfs2.CopyPolicy;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.util.CloseableIterator;
 
 /**
  * This decorator synchronize all access to the FileObject.
@@ -47,6 +50,14 @@ public class SynchronizedFileObject extends DecoratedFileObject {
         }
     }
 
+    @Override
+    public void copyFrom(final FileObject srcFile, final FileSelector selector, final CopyPolicy policy)
+            throws FileSystemException {
+        synchronized (this) {
+            super.copyFrom(srcFile, selector, policy);
+        }
+    }
+
     @Override
     public void createFile() throws FileSystemException {
         synchronized (this) {
@@ -90,6 +101,14 @@ public class SynchronizedFileObject extends DecoratedFileObject {
         }
     }
 
+    @Override
+    public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected,
+            final ForkJoinPool pool) throws FileSystemException {
+        synchronized (this) {
+            super.findFiles(selector, depthwise, selected, pool);
+        }
+    }
+
     @Override
     public FileObject[] findFiles(final FileSelector selector) throws FileSystemException {
         synchronized (this) {
@@ -111,6 +130,13 @@ public class SynchronizedFileObject extends DecoratedFileObject {
         }
     }
 
+    @Override
+    public CloseableIterator<FileObject> iterateChildren() throws FileSystemException {
+        synchronized (this) {
+            return super.iterateChildren();
+        }
+    }
+
     @Override
     public FileContent getContent() throws FileSystemException {
         synchronized (this) {
@@ -0,0 +1,567 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileMonitor;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.commons.vfs2.provider.local.LocalFileName;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.apache.commons.vfs2.util.Messages;
+
+/**
+ * A {@link FileMonitor} that is notified by the {@link WatchService} of the platform, such as inotify on Linux, for the
+ * files of the local provider.
+ * <p>
+ * Instead of listing every monitored folder at each pass, a local folder is registered once and its changes are
+ * reported as they happen. The creation and deletion of a monitored file are reported through a watch on its parent
+ * folder, so that files which do not exist yet can be monitored as well. When recursive, new sub folders are watched
+ * as they appear.
+ * <p>
+ * Files of other providers, and local files that cannot be watched, are polled as by {@link DefaultFileMonitor}. In
+ * both cases the listener receives the same create, delete and change events.
+ *
+ * <h2>Example usage:</h2>
+ *
+ * <pre>
+ * FileSystemManager fsManager = VFS.getManager();
+ * FileObject listendir = fsManager.resolveFile("/home/username/monitored/");
+ *
+ * DefaultFileMonitor fm = new WatchServiceFileMonitor(new CustomFileListener());
+ * fm.setRecursive(true);
+ * fm.addFile(listendir);
+ * fm.start();
+ * </pre>
+ *
+ * @since 2.3
+ */
+public class WatchServiceFileMonitor extends DefaultFileMonitor {
+    private static final Log LOG = LogFactory.getLog(WatchServiceFileMonitor.class);
+
+    /**
+     * Guards the watched directories.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Map from the key of a registration to the watched directory.
+     */
+    private final Map<WatchKey, WatchedDirectory> keys = new HashMap<>();
+
+    /**
+     * Map from a path to the watched directory. The directories are kept while the monitor is stopped, and registered
+     * again when it is started.
+     */
+    private final Map<Path, WatchedDirectory> directories = new HashMap<>();
+
+    private WatchService watchService;
+
+    /**
+     * The thread waiting for the events of the watch service.
+     */
+    private Thread watchThread;
+
+    /**
+     * Creates a monitor.
+     *
+     * @param listener The listener notified of the creation, deletion and changes of the monitored files.
+     */
+    public WatchServiceFileMonitor(final FileListener listener) {
+        super(listener);
+    }
+
+    /**
+     * Adds a file to be monitored. Local files are watched, other files are polled.
+     *
+     * @param file The FileObject to monitor.
+     */
+    @Override
+    public void addFile(final FileObject file) {
+        final Path path = toPath(file);
+        if (path != null) {
+            synchronized (lock) {
+                try {
+                    addLocalFile(file, path);
+                    return;
+                } catch (final IOException e) {
+                    LOG.warn(Messages.getString("vfs.impl/watch-file.warn", new Object[] { file }), e);
+                    removeLocalFile(path);
+                }
+            }
+        }
+        super.addFile(file);
+    }
+
+    /**
+     * Removes a file from being monitored.
+     *
+     * @param file The FileObject to remove from monitoring.
+     */
+    @Override
+    public void removeFile(final FileObject file) {
+        final Path path = toPath(file);
+        if (path != null) {
+            synchronized (lock) {
+                removeLocalFile(path);
+            }
+        }
+        super.removeFile(file);
+    }
+
+    /**
+     * Starts monitoring the files that have been added. When started again, the changes made while the monitor was
+     * stopped are reported.
+     */
+    @Override
+    public void start() {
+        super.start();
+        synchronized (lock) {
+            if (watchThread != null) {
+                return;
+            }
+            final WatchService service;
+            final List<PendingEvent> events = new ArrayList<>();
+            try {
+                service = getWatchService();
+            } catch (final IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+                return;
+            }
+            reregister(events);
+            watchThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    fireEvents(events);
+                    watch(service);
+                }
+            }, "VFS watch service file monitor");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+    }
+
+    /**
+     * Stops monitoring the files that have been added.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        synchronized (lock) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (final IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                watchService = null;
+            }
+            // The keys of the closed service are invalid, the directories are registered again by start().
+            keys.clear();
+            watchThread = null;
+        }
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            watchService = Paths.get("").getFileSystem().newWatchService();
+        }
+        return watchService;
+    }
+
+    /**
+     * Returns the path of a file of the local provider.
+     *
+     * @param file The file.
+     * @return The path, or null if the file is not local.
+     */
+    private static Path toPath(final FileObject file) {
+        try {
+            if (file.getName() instanceof LocalFileName && FileObjectUtils.isInstanceOf(file, LocalFile.class)) {
+                final LocalFileName name = (LocalFileName) file.getName();
+                return Paths.get(name.getRootFile() + name.getPathDecoded());
+            }
+        } catch (final FileSystemException | InvalidPathException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Watches a file and its direct children, as {@link DefaultFileMonitor#addFile(FileObject)} does.
+     */
+    private void addLocalFile(final FileObject file, final Path path) throws IOException {
+        watchFile(file, path);
+        if (file.getType().hasChildren()) {
+            for (final FileObject child : file.getChildren()) {
+                watchFile(child, path.resolve(child.getName().getBaseName()));
+            }
+        }
+    }
+
+    /**
+     * Watches a file for its creation, deletion and changes and, for a folder, its children.
+     */
+    private void watchFile(final FileObject file, final Path path) throws IOException {
+        final Path parentPath = path.getParent();
+        final FileObject parent = file.getParent();
+        if (parentPath != null && parent != null) {
+            watch(parentPath, parent).addName(path.getFileName().toString());
+        }
+        if (file.getType().hasChildren()) {
+            watch(path, file).watchAll();
+            if (isRecursive()) {
+                for (final FileObject child : file.getChildren()) {
+                    addLocalFile(child, path.resolve(child.getName().getBaseName()));
+                }
+            }
+        }
+    }
+
+    private WatchedDirectory watch(final Path path, final FileObject folder) throws IOException {
+        WatchedDirectory directory = directories.get(path);
+        if (directory == null) {
+            directory = new WatchedDirectory(path, folder);
+            register(directory);
+            directories.put(path, directory);
+        }
+        return directory;
+    }
+
+    private void register(final WatchedDirectory directory) throws IOException {
+        directory.key = directory.path.register(getWatchService(), StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        keys.put(directory.key, directory);
+    }
+
+    /**
+     * Registers the directories watched before the monitor was stopped with the current watch service, and compares
+     * their monitored children with the state on disk.
+     */
+    private void reregister(final List<PendingEvent> events) {
+        for (final WatchedDirectory directory : new ArrayList<>(directories.values())) {
+            if (directories.get(directory.path) != directory || keys.containsKey(directory.key)) {
+                // Gone with its parent, or registered while the monitor was stopped.
+                continue;
+            }
+            try {
+                register(directory);
+            } catch (final IOException e) {
+                // The directory is gone.
+                LOG.debug(e.getLocalizedMessage(), e);
+                unwatch(directory, events);
+                continue;
+            }
+            try {
+                for (final String name : getNames(directory)) {
+                    checkChild(directory, name, events);
+                }
+            } catch (final IOException e) {
+                LOG.error(Messages.getString("vfs.impl/watch-event.error", new Object[] { directory.path }), e);
+            }
+        }
+    }
+
+    private void removeLocalFile(final Path path) {
+        final WatchedDirectory parent = path.getParent() != null ? directories.get(path.getParent()) : null;
+        if (parent != null) {
+            parent.removeName(path.getFileName().toString());
+            release(parent);
+        }
+        final WatchedDirectory directory = directories.get(path);
+        if (directory != null) {
+            directory.unwatchAll();
+            release(directory);
+        }
+    }
+
+    /**
+     * Cancels the registration of a directory which has nothing left to watch.
+     */
+    private void release(final WatchedDirectory directory) {
+        if (!directory.all && directory.names.isEmpty()) {
+            cancel(directory);
+        }
+    }
+
+    private void cancel(final WatchedDirectory directory) {
+        if (directory.key != null) {
+            directory.key.cancel();
+            keys.remove(directory.key);
+        }
+        directories.remove(directory.path);
+    }
+
+    /**
+     * Waits for the events of the watch service until it is closed.
+     */
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                final List<PendingEvent> events = new ArrayList<>();
+                synchronized (lock) {
+                    handleEvents(key, events);
+                }
+                fireEvents(events);
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            // Stopped.
+        }
+    }
+
+    private void handleEvents(final WatchKey key, final List<PendingEvent> events) {
+        final WatchedDirectory directory = keys.get(key);
+        final List<WatchEvent<?>> watchEvents = key.pollEvents();
+        if (directory == null) {
+            // Cancelled.
+            return;
+        }
+        try {
+            // Events are reconciled with the state on disk, so repeated events for a name need a single check.
+            final Set<String> names = new LinkedHashSet<>();
+            for (final WatchEvent<?> event : watchEvents) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, compare all names.
+                    names.addAll(getNames(directory));
+                } else {
+                    names.add(((Path) event.context()).toString());
+                }
+            }
+            for (final String name : names) {
+                checkChild(directory, name, events);
+            }
+        } catch (final IOException e) {
+            LOG.error(Messages.getString("vfs.impl/watch-event.error", new Object[] { directory.path }), e);
+        }
+        if (!key.reset()) {
+            // The directory is gone.
+            unwatch(directory, events);
+        }
+    }
+
+    /**
+     * Returns the names of the monitored children of a directory, existing or known from the previous state.
+     */
+    private static Set<String> getNames(final WatchedDirectory directory) throws IOException {
+        final Set<String> names = new LinkedHashSet<>(directory.children.keySet());
+        if (directory.all) {
+            names.addAll(list(directory.path));
+        } else {
+            names.addAll(directory.names);
+        }
+        return names;
+    }
+
+    /**
+     * Compares the state of a child on disk with the previous one.
+     */
+    private void checkChild(final WatchedDirectory directory, final String name, final List<PendingEvent> events)
+            throws IOException {
+        if (!directory.isWatched(name)) {
+            return;
+        }
+        final Path path = directory.path.resolve(name);
+        final BasicFileAttributes attributes = readAttributes(path);
+        final FileTime previous = directory.children.get(name);
+        if (attributes == null) {
+            if (previous != null) {
+                directory.children.remove(name);
+                events.add(new PendingEvent(directory.getChild(name), PendingEvent.Kind.DELETED));
+                final WatchedDirectory subDirectory = directories.get(path);
+                if (subDirectory != null) {
+                    unwatch(subDirectory, events);
+                }
+            }
+        } else if (previous == null) {
+            directory.children.put(name, attributes.lastModifiedTime());
+            final FileObject child = directory.getChild(name);
+            if (!attributes.isDirectory()) {
+                events.add(new PendingEvent(child, PendingEvent.Kind.CREATED));
+            } else if (directory.all) {
+                // A new child folder is monitored as well.
+                events.add(new PendingEvent(child, PendingEvent.Kind.CREATED));
+                watchNewFolder(watch(path, child), events);
+            } else {
+                // Don't fire if it's a folder, as for a polled folder.
+                watch(path, child).watchAll();
+            }
+        } else if (!previous.equals(attributes.lastModifiedTime())) {
+            directory.children.put(name, attributes.lastModifiedTime());
+            // Don't fire if it's a folder because new file children
+            // and deleted files in a folder have their own event triggered.
+            if (!attributes.isDirectory()) {
+                events.add(new PendingEvent(directory.getChild(name), PendingEvent.Kind.CHANGED));
+            }
+        }
+    }
+
+    /**
+     * Watches a new folder. If recursive, its content is reported as created and its sub folders are watched.
+     */
+    private void watchNewFolder(final WatchedDirectory directory, final List<PendingEvent> events)
+            throws IOException {
+        directory.watchAll();
+        if (!isRecursive()) {
+            return;
+        }
+        for (final String name : new ArrayList<>(directory.children.keySet())) {
+            final FileObject child = directory.getChild(name);
+            events.add(new PendingEvent(child, PendingEvent.Kind.CREATED));
+            final Path path = directory.path.resolve(name);
+            if (Files.isDirectory(path)) {
+                watchNewFolder(watch(path, child), events);
+            }
+        }
+    }
+
+    /**
+     * Stops watching a directory which is gone, and reports its monitored children as deleted.
+     */
+    private void unwatch(final WatchedDirectory directory, final List<PendingEvent> events) {
+        cancel(directory);
+        for (final String name : directory.children.keySet()) {
+            try {
+                events.add(new PendingEvent(directory.getChild(name), PendingEvent.Kind.DELETED));
+            } catch (final FileSystemException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            final WatchedDirectory subDirectory = directories.get(directory.path.resolve(name));
+            if (subDirectory != null) {
+                unwatch(subDirectory, events);
+            }
+        }
+        directory.children.clear();
+    }
+
+    private static BasicFileAttributes readAttributes(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private static List<String> list(final Path path) throws IOException {
+        final List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (final Path entry : stream) {
+                names.add(entry.getFileName().toString());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * A registered directory, with the last modified time of its monitored children.
+     */
+    private static final class WatchedDirectory {
+        private final Path path;
+        private final FileObject folder;
+
+        /**
+         * The registration with the current watch service.
+         */
+        private WatchKey key;
+
+        /**
+         * Whether all children are monitored, or only the given names.
+         */
+        private boolean all;
+        private final Set<String> names = new HashSet<>();
+
+        /**
+         * Map from the name of an existing monitored child to its last modified time.
+         */
+        private final Map<String, FileTime> children = new HashMap<>();
+
+        private WatchedDirectory(final Path path, final FileObject folder) {
+            this.path = path;
+            this.folder = folder;
+        }
+
+        private boolean isWatched(final String name) {
+            return all || names.contains(name);
+        }
+
+        private void watchAll() throws IOException {
+            if (!all) {
+                all = true;
+                for (final String name : list(path)) {
+                    snapshot(name);
+                }
+            }
+        }
+
+        private void unwatchAll() {
+            all = false;
+            children.keySet().retainAll(names);
+        }
+
+        private void addName(final String name) {
+            if (names.add(name) && !all) {
+                snapshot(name);
+            }
+        }
+
+        private void removeName(final String name) {
+            names.remove(name);
+            if (!all) {
+                children.remove(name);
+            }
+        }
+
+        private void snapshot(final String name) {
+            final BasicFileAttributes attributes = readAttributes(path.resolve(name));
+            if (attributes != null) {
+                children.put(name, attributes.lastModifiedTime());
+            } else {
+                children.remove(name);
+            }
+        }
+
+        private FileObject getChild(final String name) throws FileSystemException {
+            return folder.resolveFile(UriParser.encode(name), NameScope.CHILD);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.util.Messages;
+
+/**
+ * Keeps counters and latency histograms of the operations on files, and the bytes read and written, per file system
+ * root.
+ * <p>
+ * The file systems with the same root URI, for instance with different options, share their metrics. The metrics of a
+ * root can be exported over JMX with {@link #registerMBeans(String)}.
+ *
+ * @since 2.3
+ */
+public class DefaultFileSystemMetrics implements FileSystemMetrics {
+    private static final Log LOG = LogFactory.getLog(DefaultFileSystemMetrics.class);
+
+    private static final MeteredOperation[] OPERATIONS = MeteredOperation.values();
+
+    private final ConcurrentMap<String, RootMetrics> roots = new ConcurrentHashMap<>();
+
+    /** The domain of the registered MBeans, null if not registered, guarded by this */
+    private String mbeanDomain;
+
+    /**
+     * Returns the metrics of the root of a file system, created on first use.
+     *
+     * @param fileSystem The file system.
+     * @return The recorder shared by the file systems with the same root URI.
+     */
+    @Override
+    public FileOperationRecorder getRecorder(final FileSystem fileSystem) {
+        final FileName rootName = fileSystem.getRootName();
+        final String rootURI = rootName.getFriendlyURI();
+        RootMetrics metrics = roots.get(rootURI);
+        if (metrics == null) {
+            final RootMetrics newMetrics = new RootMetrics(rootName.getScheme(), rootURI);
+            metrics = roots.putIfAbsent(rootURI, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+                registerMBean(metrics);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the root URIs with metrics, without password.
+     *
+     * @return The root URIs.
+     */
+    public Set<String> getRootURIs() {
+        return Collections.unmodifiableSet(roots.keySet());
+    }
+
+    /**
+     * Returns the statistics of an operation on the files of a root.
+     *
+     * @param rootURI The root URI, without password.
+     * @param operation The operation.
+     * @return The statistics, or null if there are no metrics for the root.
+     */
+    public FileOperationStatistics getStatistics(final String rootURI, final MeteredOperation operation) {
+        final RootMetrics metrics = roots.get(rootURI);
+        return metrics != null ? metrics.histograms[operation.ordinal()].snapshot() : null;
+    }
+
+    /**
+     * Returns the number of bytes read from the files of a root.
+     *
+     * @param rootURI The root URI, without password.
+     * @return The number of bytes.
+     */
+    public long getBytesRead(final String rootURI) {
+        final RootMetrics metrics = roots.get(rootURI);
+        return metrics != null ? metrics.bytesRead.get() : 0;
+    }
+
+    /**
+     * Returns the number of bytes written to the files of a root.
+     *
+     * @param rootURI The root URI, without password.
+     * @return The number of bytes.
+     */
+    public long getBytesWritten(final String rootURI) {
+        final RootMetrics metrics = roots.get(rootURI);
+        return metrics != null ? metrics.bytesWritten.get() : 0;
+    }
+
+    /**
+     * Registers an MBean with the platform MBean server for each root, including the roots used later on. The object
+     * names are {@code <domain>:type=FileSystemMetrics,scheme=<scheme>,root="<root URI>"}.
+     *
+     * @param domain The domain of the object names, for example {@code "org.apache.commons.vfs2"}.
+     * @see FileSystemMetricsMXBean
+     */
+    public synchronized void registerMBeans(final String domain) {
+        unregisterMBeans();
+        mbeanDomain = domain;
+        for (final RootMetrics metrics : roots.values()) {
+            registerMBean(metrics);
+        }
+    }
+
+    /**
+     * Unregisters the MBeans registered by {@link #registerMBeans(String)}, if any.
+     */
+    public synchronized void unregisterMBeans() {
+        if (mbeanDomain == null) {
+            return;
+        }
+        for (final RootMetrics metrics : roots.values()) {
+            if (metrics.mbeanName != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(metrics.mbeanName);
+                } catch (final JMException e) {
+                    // already unregistered
+                }
+                metrics.mbeanName = null;
+            }
+        }
+        mbeanDomain = null;
+    }
+
+    /**
+     * Forgets the metrics of all roots. The file systems keep recording into their current metrics, which are no longer
+     * reported.
+     */
+    public synchronized void clear() {
+        unregisterMBeans();
+        roots.clear();
+    }
+
+    private synchronized void registerMBean(final RootMetrics metrics) {
+        if (mbeanDomain == null || metrics.mbeanName != null) {
+            return;
+        }
+        String name = null;
+        try {
+            name = mbeanDomain + ":type=FileSystemMetrics,scheme=" + ObjectName.quote(metrics.scheme) + ",root="
+                    + ObjectName.quote(metrics.rootURI);
+            final ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics.new MXBean(), objectName);
+            metrics.mbeanName = objectName;
+        } catch (final JMException e) {
+            LOG.warn(Messages.getString("vfs.metrics/register-mbean.warn", new Object[] { name }), e);
+        }
+    }
+
+    /**
+     * A latency histogram with a bucket per power of two nanoseconds.
+     */
+    private static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalTime = new AtomicLong();
+        private final AtomicLong maxTime = new AtomicLong();
+
+        void record(final long nanos, final boolean failed) {
+            final long time = Math.max(0, nanos);
+            buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(time | 1));
+            totalTime.addAndGet(time);
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            long max = maxTime.get();
+            while (time > max && !maxTime.compareAndSet(max, time)) {
+                max = maxTime.get();
+            }
+        }
+
+        FileOperationStatistics snapshot() {
+            final long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            final long max = maxTime.get();
+            return new FileOperationStatistics(count, failures.get(), totalTime.get(), max,
+                    percentile(counts, count, 0.5, max), percentile(counts, count, 0.99, max));
+        }
+
+        private static long percentile(final long[] counts, final long count, final double quantile, final long max) {
+            final long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    final long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                    return Math.min(upperBound, max);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The metrics of a root.
+     */
+    private static final class RootMetrics implements FileOperationRecorder {
+        private final String scheme;
+        private final String rootURI;
+        private final Histogram[] histograms = new Histogram[OPERATIONS.length];
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+
+        /** The name of the registered MBean, guarded by the DefaultFileSystemMetrics */
+        private ObjectName mbeanName;
+
+        RootMetrics(final String scheme, final String rootURI) {
+            this.scheme = scheme;
+            this.rootURI = rootURI;
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+
+        @Override
+        public void recordOperation(final MeteredOperation operation, final long nanos, final boolean failed) {
+            histograms[operation.ordinal()].record(nanos, failed);
+        }
+
+        @Override
+        public void recordBytesRead(final long bytes) {
+            bytesRead.addAndGet(bytes);
+        }
+
+        @Override
+        public void recordBytesWritten(final long bytes) {
+            bytesWritten.addAndGet(bytes);
+        }
+
+        /**
+         * The MBean, reading the metrics when asked.
+         */
+        private final class MXBean implements FileSystemMetricsMXBean {
+            @Override
+            public String getScheme() {
+                return scheme;
+            }
+
+            @Override
+            public String getRootURI() {
+                return rootURI;
+            }
+
+            @Override
+            public long getBytesRead() {
+                return bytesRead.get();
+            }
+
+            @Override
+            public long getBytesWritten() {
+                return bytesWritten.get();
+            }
+
+            @Override
+            public Map<String, FileOperationStatistics> getOperations() {
+                final Map<String, FileOperationStatistics> operations = new LinkedHashMap<>();
+                for (final MeteredOperation operation : OPERATIONS) {
+                    operations.put(operation.name(), histograms[operation.ordinal()].snapshot());
+                }
+                return operations;
+            }
+        }
+    }
+}
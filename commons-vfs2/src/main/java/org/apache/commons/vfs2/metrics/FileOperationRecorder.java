@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+/**
+ * Receives the measurements of the operations on the files of a file system. Called concurrently.
+ *
+ * @see FileSystemMetrics#getRecorder(org.apache.commons.vfs2.FileSystem)
+ * @since 2.3
+ */
+public interface FileOperationRecorder {
+    /**
+     * Records an operation.
+     *
+     * @param operation The operation.
+     * @param nanos The duration of the operation in nanoseconds.
+     * @param failed true if the operation failed.
+     */
+    void recordOperation(MeteredOperation operation, long nanos, boolean failed);
+
+    /**
+     * Records the bytes read from a stream, when it is closed.
+     *
+     * @param bytes The number of bytes.
+     */
+    void recordBytesRead(long bytes);
+
+    /**
+     * Records the bytes written to a stream, when it is closed.
+     *
+     * @param bytes The number of bytes.
+     */
+    void recordBytesWritten(long bytes);
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+/**
+ * The statistics of an operation on the files of a file system, collected by {@link DefaultFileSystemMetrics}.
+ * <p>
+ * The percentiles come from a histogram with a bucket per power of two nanoseconds. They are the upper bound of their
+ * bucket, and therefore at most twice the actual value.
+ *
+ * @see DefaultFileSystemMetrics#getStatistics(String, MeteredOperation)
+ * @since 2.3
+ */
+public final class FileOperationStatistics {
+    private final long count;
+    private final long failureCount;
+    private final long totalTime;
+    private final long maxTime;
+    private final long medianTime;
+    private final long p99Time;
+
+    /**
+     * Creates new statistics.
+     *
+     * @param count The number of operations.
+     * @param failureCount The number of operations which failed.
+     * @param totalTime The time spent in the operations, in nanoseconds.
+     * @param maxTime The longest operation, in nanoseconds.
+     * @param medianTime The median duration, in nanoseconds.
+     * @param p99Time The 99th percentile of the duration, in nanoseconds.
+     */
+    public FileOperationStatistics(final long count, final long failureCount, final long totalTime,
+            final long maxTime, final long medianTime, final long p99Time) {
+        this.count = count;
+        this.failureCount = failureCount;
+        this.totalTime = totalTime;
+        this.maxTime = maxTime;
+        this.medianTime = medianTime;
+        this.p99Time = p99Time;
+    }
+
+    /**
+     * Returns the number of operations.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of operations which failed.
+     *
+     * @return the failure count.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the time spent in the operations.
+     *
+     * @return the total time in nanoseconds.
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Returns the mean duration of the operations.
+     *
+     * @return the mean time in nanoseconds, 0 if there was no operation.
+     */
+    public long getMeanTime() {
+        return count == 0 ? 0 : totalTime / count;
+    }
+
+    /**
+     * Returns the duration of the longest operation.
+     *
+     * @return the maximum time in nanoseconds.
+     */
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Returns the median duration of the operations.
+     *
+     * @return the median time in nanoseconds.
+     */
+    public long getMedianTime() {
+        return medianTime;
+    }
+
+    /**
+     * Returns the duration under which 99% of the operations completed.
+     *
+     * @return the 99th percentile in nanoseconds.
+     */
+    public long getP99Time() {
+        return p99Time;
+    }
+
+    @Override
+    public String toString() {
+        return "FileOperationStatistics[count=" + count + ", failureCount=" + failureCount + ", totalTime=" + totalTime
+                + ", maxTime=" + maxTime + ", medianTime=" + medianTime + ", p99Time=" + p99Time + "]";
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+import org.apache.commons.vfs2.FileSystem;
+
+/**
+ * Collects the metrics of the operations on the files of a file system manager.
+ * <p>
+ * Each file system asks for its recorder once, when it is initialized, and then reports the operations on its files to
+ * it. When a manager has no metrics, which is the default, file systems do not measure anything.
+ *
+ * @see org.apache.commons.vfs2.impl.DefaultFileSystemManager#setFileSystemMetrics(FileSystemMetrics)
+ * @see DefaultFileSystemMetrics
+ * @since 2.3
+ */
+public interface FileSystemMetrics {
+    /**
+     * Returns the recorder of a file system.
+     *
+     * @param fileSystem The file system.
+     * @return The recorder, or null to not measure the file system.
+     */
+    FileOperationRecorder getRecorder(FileSystem fileSystem);
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+/**
+ * The operations on files which are measured by {@link FileSystemMetrics}.
+ *
+ * @since 2.3
+ */
+public enum MeteredOperation {
+    /** Attaching a file, which usually fetches its metadata. */
+    ATTACH,
+
+    /** Determining the type of a file. */
+    GET_TYPE,
+
+    /** Listing the children of a folder. */
+    LIST,
+
+    /** Opening the content of a file for reading. */
+    OPEN_INPUT,
+
+    /** Opening the content of a file for writing. */
+    OPEN_OUTPUT,
+
+    /** Deleting a file. */
+    DELETE,
+
+    /** Renaming a file within its file system. */
+    RENAME
+}
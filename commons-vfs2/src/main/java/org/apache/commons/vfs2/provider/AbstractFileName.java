@@ -29,6 +29,7 @@ public abstract class AbstractFileName implements FileName {
 
     private final String scheme;
     private final String absPath;
+    private final FileNameStore.Node pathNode;
     private FileType type;
 
     // Cached stuff
@@ -40,19 +41,26 @@ public abstract class AbstractFileName implements FileName {
 
     private String key = null;
 
+    // Hash code of the key, only used with a FileNameStore
+    private int hash;
+
     public AbstractFileName(final String scheme, final String absPath, final FileType type) {
         this.rootUri = null;
         this.scheme = scheme;
         this.type = type;
+        final String path;
         if (absPath != null && absPath.length() > 0) {
             if (absPath.length() > 1 && absPath.endsWith("/")) {
-                this.absPath = absPath.substring(0, absPath.length() - 1);
+                path = absPath.substring(0, absPath.length() - 1);
             } else {
-                this.absPath = absPath;
+                path = absPath;
             }
         } else {
-            this.absPath = ROOT_PATH;
+            path = ROOT_PATH;
         }
+        final FileNameStore store = FileNameStore.getDefault();
+        this.pathNode = store != null ? store.intern(path) : null;
+        this.absPath = pathNode != null ? null : path;
     }
 
     @Override
@@ -66,11 +74,22 @@ public abstract class AbstractFileName implements FileName {
 
         final AbstractFileName that = (AbstractFileName) o;
 
+        if (pathNode != null && that.pathNode != null && !VFS.isUriStyle()) {
+            // Compare the parts of the key without building it
+            return hashCode() == that.hashCode() && pathNode.samePath(that.pathNode)
+                    && getRootURI().equals(that.getRootURI());
+        }
         return getKey().equals(that.getKey());
     }
 
     @Override
     public int hashCode() {
+        if (pathNode != null) {
+            if (hash == 0) {
+                hash = getKey().hashCode();
+            }
+            return hash;
+        }
         return getKey().hashCode();
     }
 
@@ -120,6 +139,9 @@ public abstract class AbstractFileName implements FileName {
      */
     @Override
     public String getBaseName() {
+        if (pathNode != null && !VFS.isUriStyle()) {
+            return pathNode.getBaseName();
+        }
         if (baseName == null) {
             final int idx = getPath().lastIndexOf(SEPARATOR_CHAR);
             if (idx == -1) {
@@ -140,9 +162,13 @@ public abstract class AbstractFileName implements FileName {
     @Override
     public String getPath() {
         if (VFS.isUriStyle()) {
-            return absPath + getUriTrailer();
+            return getAbsPath() + getUriTrailer();
         }
-        return absPath;
+        return getAbsPath();
+    }
+
+    private String getAbsPath() {
+        return pathNode != null ? pathNode.getPath() : absPath;
     }
 
     protected String getUriTrailer() {
@@ -157,6 +183,9 @@ public abstract class AbstractFileName implements FileName {
      */
     @Override
     public String getPathDecoded() throws FileSystemException {
+        if (pathNode != null) {
+            return UriParser.decode(getPath());
+        }
         if (decodedAbsPath == null) {
             decodedAbsPath = UriParser.decode(getPath());
         }
@@ -217,6 +246,9 @@ public abstract class AbstractFileName implements FileName {
      */
     @Override
     public String getURI() {
+        if (pathNode != null) {
+            return createURI();
+        }
         if (uri == null) {
             uri = createURI();
         }
@@ -233,6 +265,9 @@ public abstract class AbstractFileName implements FileName {
      * @return The key.
      */
     private String getKey() {
+        if (pathNode != null) {
+            return getURI();
+        }
         if (key == null) {
             key = getURI();
         }
@@ -252,7 +287,7 @@ public abstract class AbstractFileName implements FileName {
     private String createURI(final boolean useAbsolutePath, final boolean usePassword) {
         final StringBuilder buffer = new StringBuilder();
         appendRootUri(buffer, usePassword);
-        buffer.append(useAbsolutePath ? absPath : getPath());
+        buffer.append(useAbsolutePath ? getAbsPath() : getPath());
         return buffer.toString();
     }
 
@@ -353,18 +388,18 @@ public abstract class AbstractFileName implements FileName {
     @Override
     public String getExtension() {
         if (extension == null) {
-            getBaseName();
-            final int pos = baseName.lastIndexOf('.');
+            final String name = getBaseName();
+            final int pos = name.lastIndexOf('.');
             // if ((pos == -1) || (pos == baseName.length() - 1))
             // imario@ops.co.at: Review of patch from adagoubard@chello.nl
             // do not treat filenames like
             // .bashrc c:\windows\.java c:\windows\.javaws c:\windows\.jedit c:\windows\.appletviewer
             // as extension
-            if (pos < 1 || pos == baseName.length() - 1) {
+            if (pos < 1 || pos == name.length() - 1) {
                 // No extension
                 extension = "";
             } else {
-                extension = baseName.substring(pos + 1).intern();
+                extension = name.substring(pos + 1).intern();
             }
         }
         return extension;
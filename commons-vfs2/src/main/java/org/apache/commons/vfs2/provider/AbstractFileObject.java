@@ -29,11 +29,25 @@ import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.CopyPolicies;
+import org.apache.commons.vfs2.CopyPolicy;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileContentInfoFactory;
 import org.apache.commons.vfs2.FileName;
@@ -44,16 +58,29 @@ import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.LockStrategy;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.metrics.MeteredOperation;
 import org.apache.commons.vfs2.operations.DefaultFileOperations;
 import org.apache.commons.vfs2.operations.FileOperations;
+import org.apache.commons.vfs2.util.CloseableIterator;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * A partial file object implementation.
+ * <p>
+ * The cached metadata of a file object is guarded according to the {@link LockStrategy} of its file system: either by
+ * the monitor of the file system or by a read/write lock owned by the file object itself.
+ * <p>
+ * With read/write locks, a file may lock its children while holding its own lock, e.g. when children are resolved
+ * while listing, but never locks its parent: the parent folder is created before the file locks itself, and the parent
+ * and the listeners are notified of a creation or deletion once the file has released its lock. The monitor of the file
+ * system may be taken while holding the lock of a file, so a provider holding that monitor, e.g. to serialize the use
+ * of its connection, must not call another file object, such as the destination of a symbolic link, before releasing
+ * it.
  *
  * @param <AFS> An AbstractFileSystem subclass
  */
@@ -73,16 +100,36 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     private final AbstractFileName fileName;
     private final AFS fs;
 
-    private FileContent content;
+    /**
+     * Guards the cached info, null if the monitor of the file system is used instead.
+     */
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * The types this file was created with or deleted to, whose notification waits for the lock to be released.
+     */
+    private List<FileType> pendingChanges;
+
+    private volatile FileContent content;
     // Cached info
-    private boolean attached;
-    private FileType type;
+    private volatile boolean attached;
+    private volatile FileType type;
 
-    private FileObject parent;
+    /**
+     * Attributes provided by the file system, used before asking the provider.
+     */
+    private volatile FileStat stat;
+
+    private volatile FileObject parent;
     // Changed to hold only the name of the children and let the object
     // go into the global files cache
     // private FileObject[] children;
-    private FileName[] children;
+    private volatile FileName[] children;
+
+    /**
+     * Lookup table for {@link #getChild(String)}, built on demand from {@link #children}.
+     */
+    private volatile ChildIndex childIndex;
 
     private List<Object> objects;
 
@@ -100,9 +147,243 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     protected AbstractFileObject(final AbstractFileName name, final AFS fs) {
         this.fileName = name;
         this.fs = fs;
+        this.lock = fs.createFileObjectLock();
         fs.fileObjectHanded(this);
     }
 
+    /**
+     * Maps the base names of a list of children to their names.
+     */
+    private static final class ChildIndex {
+        private final FileName[] names;
+        private final boolean ignoreCase;
+        private final Map<String, FileName> index;
+
+        private ChildIndex(final FileName[] names, final boolean ignoreCase) {
+            this.names = names;
+            this.ignoreCase = ignoreCase;
+            this.index = new HashMap<>(Math.max(16, (int) (names.length / .75f) + 1));
+            for (final FileName name : names) {
+                final String key = key(name.getBaseName());
+                // the first match wins, as with a linear scan
+                if (!index.containsKey(key)) {
+                    index.put(key, name);
+                }
+            }
+        }
+
+        private String key(final String baseName) {
+            return ignoreCase ? baseName.toLowerCase(Locale.ROOT) : baseName;
+        }
+
+        private FileName get(final String baseName) {
+            return index.get(key(baseName));
+        }
+    }
+
+    /**
+     * Iterates the children of a file, given either as resolved files, as cached names or as a stream of base names.
+     */
+    private final class ChildIterator implements CloseableIterator<FileObject> {
+        private final FileObject[] objects;
+        private final FileName[] names;
+        private final CloseableIterator<String> stream;
+        private int index;
+        private boolean closed;
+
+        ChildIterator(final FileObject[] objects, final FileName[] names, final CloseableIterator<String> stream) {
+            this.objects = objects;
+            this.names = names;
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            final boolean next;
+            if (stream != null) {
+                next = stream.hasNext();
+            } else {
+                next = index < (objects != null ? objects.length : names.length);
+            }
+            if (!next) {
+                try {
+                    close();
+                } catch (final FileSystemException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public FileObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                if (stream != null) {
+                    return resolveFile(
+                            fs.getFileSystemManager().resolveName(fileName, stream.next(), NameScope.CHILD));
+                }
+                if (objects != null) {
+                    return objects[index++];
+                }
+                return resolveFile(names[index++]);
+            } catch (final FileSystemException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws FileSystemException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Traverses a file and its descendants as a fork/join task. Each child folder is traversed by a task of its own,
+     * the other children on the thread of the folder. Once the pool is done, the selected files are collected in the
+     * order of the children.
+     */
+    private static final class TraverseTask extends RecursiveAction {
+        private static final long serialVersionUID = 20181016L;
+
+        private final FileObject baseFolder;
+        private final FileObject file;
+        private final int depth;
+        private final FileSelector selector;
+        private final boolean depthwise;
+        private boolean included;
+        private TraverseTask[] children;
+
+        private TraverseTask(final FileObject baseFolder, final FileObject file, final int depth,
+                final FileSelector selector, final boolean depthwise) {
+            this.baseFolder = baseFolder;
+            this.file = file;
+            this.depth = depth;
+            this.selector = selector;
+            this.depthwise = depthwise;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                traverse();
+            } catch (final Exception e) {
+                throw new TraverseException(e);
+            }
+        }
+
+        private void traverse() throws Exception {
+            final DefaultFileSelectorInfo fileInfo = new DefaultFileSelectorInfo();
+            fileInfo.setBaseFolder(baseFolder);
+            fileInfo.setDepth(depth);
+            fileInfo.setFile(file);
+
+            // If the file is a folder, traverse it
+            if (file.getType().hasChildren() && selector.traverseDescendents(fileInfo)) {
+                // Let the pool add a thread while this one waits for the listing
+                final ListChildren listing = new ListChildren(file);
+                ForkJoinPool.managedBlock(listing);
+                final FileObject[] files = listing.getChildren();
+
+                // Traverse the children
+                children = new TraverseTask[files.length];
+                final List<TraverseTask> folders = new ArrayList<>();
+                for (int i = 0; i < files.length; i++) {
+                    children[i] = new TraverseTask(baseFolder, files[i], depth + 1, selector, depthwise);
+                    if (files[i].getType().hasChildren()) {
+                        folders.add(children[i]);
+                    } else {
+                        children[i].traverse();
+                    }
+                }
+                invokeAll(folders);
+            }
+
+            included = selector.includeFile(fileInfo);
+        }
+
+        /**
+         * Adds the selected files once the traversal is done.
+         */
+        private void collect(final List<FileObject> selected) {
+            if (included && !depthwise) {
+                // Add this file before its descendants
+                selected.add(file);
+            }
+            if (children != null) {
+                for (final TraverseTask child : children) {
+                    child.collect(selected);
+                }
+            }
+            if (included && depthwise) {
+                // Add this file after its descendants
+                selected.add(file);
+            }
+        }
+    }
+
+    /**
+     * Lists the children of a folder as an operation which may block a thread of a fork/join pool.
+     */
+    private static final class ListChildren implements ForkJoinPool.ManagedBlocker {
+        private final FileObject folder;
+        private FileObject[] children;
+        private FileSystemException exception;
+
+        private ListChildren(final FileObject folder) {
+            this.folder = folder;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                children = folder.getChildren();
+            } catch (final FileSystemException e) {
+                exception = e;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return children != null || exception != null;
+        }
+
+        private FileObject[] getChildren() throws FileSystemException {
+            if (exception != null) {
+                throw exception;
+            }
+            return children;
+        }
+    }
+
+    /**
+     * Carries the exception of a {@link TraverseTask} out of the pool.
+     */
+    private static final class TraverseException extends RuntimeException {
+        private static final long serialVersionUID = 20181016L;
+
+        TraverseException(final Throwable cause) {
+            super(cause);
+        }
+    }
+
     /**
      * Traverses a file.
      */
@@ -146,27 +427,48 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws FileSystemException if an error occurs.
      */
     private void attach() throws FileSystemException {
-        synchronized (fs) {
-            if (attached) {
-                return;
+        if (lock == null) {
+            synchronized (fs) {
+                attachLocked();
             }
+            return;
+        }
 
-            try {
-                // Attach and determine the file type
-                doAttach();
-                attached = true;
-                // now the type could already be injected by doAttach (e.g from parent to child)
-
-                /*
-                 * VFS-210: determine the type when really asked fore if (type == null) { setFileType(doGetType()); } if
-                 * (type == null) { setFileType(FileType.IMAGINARY); }
-                 */
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/get-type.error", exc, fileName);
-            }
+        if (attached) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            attachLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
-            // fs.fileAttached(this);
+    private void attachLocked() throws FileSystemException {
+        if (attached) {
+            return;
         }
+
+        final long start = fs.startOperation();
+        try {
+            // Attach and determine the file type
+            doAttach();
+            attached = true;
+            fs.markUsed();
+            fs.endOperation(MeteredOperation.ATTACH, start, true);
+            // now the type could already be injected by doAttach (e.g from parent to child)
+
+            /*
+             * VFS-210: determine the type when really asked fore if (type == null) { setFileType(doGetType()); } if
+             * (type == null) { setFileType(FileType.IMAGINARY); }
+             */
+        } catch (final Exception exc) {
+            fs.endOperation(MeteredOperation.ATTACH, start, false);
+            throw new FileSystemException("vfs.provider/get-type.error", exc, fileName);
+        }
+
+        // fs.fileAttached(this);
     }
 
     /**
@@ -188,6 +490,21 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void childrenChanged(final FileName childName, final FileType newType) throws Exception {
+        if (lock == null) {
+            // the caller holds the monitor of the file system
+            childrenChangedLocked(childName, newType);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            childrenChangedLocked(childName, newType);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void childrenChangedLocked(final FileName childName, final FileType newType) throws Exception {
         // TODO - this may be called when not attached
 
         if (children != null && childName != null && newType != null) {
@@ -261,6 +578,24 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void copyFrom(final FileObject file, final FileSelector selector) throws FileSystemException {
+        copyFrom(file, selector, CopyPolicies.ALWAYS);
+    }
+
+    /**
+     * Copies another file to this file, keeping the existing files the policy allows to keep.
+     * <p>
+     * Behaves like {@link #copyFrom(FileObject, FileSelector)}, but an existing file of the same type is only
+     * overwritten if the policy requires it. The policy is evaluated before any stream is opened.
+     *
+     * @param file The FileObject to copy.
+     * @param selector The FileSelector.
+     * @param policy The CopyPolicy.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#copyFrom(FileObject, FileObject, FileSelector, CopyPolicy)
+     */
+    public void copyFrom(final FileObject file, final FileSelector selector, final CopyPolicy policy)
+            throws FileSystemException {
         if (!file.exists()) {
             throw new FileSystemException("vfs.provider/copy-missing-file.error", file);
         }
@@ -269,30 +604,153 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         final ArrayList<FileObject> files = new ArrayList<>();
         file.findFiles(selector, false, files);
 
+        final ExecutorService executor = fs.getCopyExecutor();
+        if (executor != null) {
+            copyConcurrently(file, files, policy, executor);
+            return;
+        }
+
         // Copy everything across
         for (final FileObject srcFile : files) {
-            // Determine the destination file
-            final String relPath = file.getName().getRelativeName(srcFile.getName());
-            final FileObject destFile = resolveFile(relPath, NameScope.DESCENDENT_OR_SELF);
+            copyFile(file, srcFile, policy);
+        }
+    }
+
+    /**
+     * Copies the files on the threads of an executor. Folders are created on the calling thread before the files they
+     * contain are handed over, and handing over waits while the sizes of the files being copied exceed
+     * {@link AbstractFileSystem#getCopyMaxBytesInFlight()}.
+     */
+    private void copyConcurrently(final FileObject file, final List<FileObject> files, final CopyPolicy policy,
+            final ExecutorService executor) throws FileSystemException {
+        final int maxPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, fs.getCopyMaxBytesInFlight()));
+        final Semaphore bytesInFlight = new Semaphore(maxPermits);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<Future<?>> copies = new ArrayList<>();
+        FileSystemException failure = null;
+        try {
+            for (final FileObject srcFile : files) {
+                if (failed.get()) {
+                    break;
+                }
+                if (!srcFile.getType().hasContent()) {
+                    copyFile(file, srcFile, policy);
+                    continue;
+                }
 
-            // Clean up the destination file, if necessary
-            if (destFile.exists() && destFile.getType() != srcFile.getType()) {
-                // The destination file exists, and is not of the same type,
-                // so delete it
-                // TODO - add a pluggable policy for deleting and overwriting existing files
-                destFile.deleteAll();
+                final int permits = (int) Math.max(0, Math.min(maxPermits, srcFile.getContent().getSize()));
+                try {
+                    bytesInFlight.acquire(permits);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileSystemException("vfs.provider/copy-file.error", e, srcFile, this);
+                }
+                copies.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws FileSystemException {
+                        try {
+                            if (!failed.get()) {
+                                copyFile(file, srcFile, policy);
+                            }
+                            return null;
+                        } catch (final FileSystemException | RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        } finally {
+                            bytesInFlight.release(permits);
+                        }
+                    }
+                }));
+            }
+        } catch (final FileSystemException e) {
+            failure = e;
+        } finally {
+            // wait for the copies in flight, even if handing over failed
+            for (final Future<?> copy : copies) {
+                try {
+                    copy.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (failure == null) {
+                        failure = new FileSystemException("vfs.provider/copy-file.error", e, file, this);
+                    }
+                    break;
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof FileSystemException ? (FileSystemException) e.getCause()
+                                : new FileSystemException("vfs.provider/copy-file.error", e.getCause(), file, this);
+                    }
+                }
             }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
 
-            // Copy across
-            try {
-                if (srcFile.getType().hasContent()) {
+    /**
+     * Copies a file, or creates a folder, below this file.
+     */
+    private void copyFile(final FileObject file, final FileObject srcFile, final CopyPolicy policy)
+            throws FileSystemException {
+        // Determine the destination file
+        final String relPath = file.getName().getRelativeName(srcFile.getName());
+        final FileObject destFile = resolveFile(relPath, NameScope.DESCENDENT_OR_SELF);
+
+        // Clean up the destination file, if necessary
+        if (destFile.exists() && destFile.getType() != srcFile.getType()) {
+            // The destination file exists, and is not of the same type,
+            // so delete it
+            destFile.deleteAll();
+        }
+
+        // Copy across
+        try {
+            if (srcFile.getType().hasContent() && destFile.exists() && !policy.isCopyRequired(srcFile, destFile)) {
+                // Keep the existing file
+                return;
+            }
+
+            if (srcFile.getType().hasContent()) {
+                if (!FileObjectUtils.getAbstractFileObject(destFile).copyNatively(srcFile)) {
                     FileUtil.copyContent(srcFile, destFile);
-                } else if (srcFile.getType().hasChildren()) {
-                    destFile.createFolder();
                 }
-            } catch (final IOException e) {
-                throw new FileSystemException("vfs.provider/copy-file.error", e, srcFile, destFile);
+            } else if (srcFile.getType().hasChildren()) {
+                destFile.createFolder();
             }
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/copy-file.error", e, srcFile, destFile);
+        }
+    }
+
+    /**
+     * Copies a file of the same file system to this file using {@link #doCopy(FileObject)}.
+     *
+     * @return false if the file has to be copied through streams.
+     */
+    private boolean copyNatively(final FileObject srcFile) throws FileSystemException {
+        if (fs != srcFile.getFileSystem() || !fs.hasCapability(Capability.WRITE_CONTENT)) {
+            return false;
+        }
+
+        if (getType() == FileType.IMAGINARY) {
+            // Does not exist - make sure parent does
+            final FileObject parent = getParent();
+            if (parent != null) {
+                parent.createFolder();
+            }
+        }
+
+        try {
+            if (!doCopy(srcFile)) {
+                return false;
+            }
+            endOutput();
+            return true;
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/copy-file.error", exc, srcFile, this);
         }
     }
 
@@ -303,23 +761,40 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void createFile() throws FileSystemException {
-        synchronized (fs) {
-            try {
-                // VFS-210: We do not want to trunc any existing file, checking for its existence is
-                // still required
-                if (exists() && !isFile()) {
-                    throw new FileSystemException("vfs.provider/create-file.error", fileName);
-                }
+        if (lock == null) {
+            synchronized (fs) {
+                createParentFolder();
+                createFileLocked();
+            }
+            return;
+        }
 
-                if (!exists()) {
-                    getOutputStream().close();
-                    endOutput();
-                }
-            } catch (final RuntimeException re) {
-                throw re;
-            } catch (final Exception e) {
-                throw new FileSystemException("vfs.provider/create-file.error", fileName, e);
+        createParentFolder();
+        lock.writeLock().lock();
+        try {
+            createFileLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        firePendingChanges("vfs.provider/create-file.error");
+    }
+
+    private void createFileLocked() throws FileSystemException {
+        try {
+            // VFS-210: We do not want to trunc any existing file, checking for its existence is
+            // still required
+            if (exists() && !isFile()) {
+                throw new FileSystemException("vfs.provider/create-file.error", fileName);
+            }
+
+            if (!exists()) {
+                openOutputStream(false).close();
+                endOutput();
             }
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/create-file.error", fileName, e);
         }
     }
 
@@ -330,38 +805,64 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void createFolder() throws FileSystemException {
-        synchronized (fs) {
-            // VFS-210: we create a folder only if it does not already exist. So this check should be safe.
-            if (getType().hasChildren()) {
-                // Already exists as correct type
-                return;
-            }
-            if (getType() != FileType.IMAGINARY) {
-                throw new FileSystemException("vfs.provider/create-folder-mismatched-type.error", fileName);
+        if (lock == null) {
+            synchronized (fs) {
+                createParentFolder();
+                createFolderLocked();
             }
-            /*
-             * VFS-210: checking for writeable is not always possible as the security constraint might be more complex
-             * if (!isWriteable()) { throw new FileSystemException("vfs.provider/create-folder-read-only.error", name);
-             * }
-             */
+            return;
+        }
+
+        // Traverse up the hierarchy and make sure everything is a folder
+        createParentFolder();
+        lock.writeLock().lock();
+        try {
+            createFolderLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        firePendingChanges("vfs.provider/create-folder.error");
+    }
 
-            // Traverse up the hierarchy and make sure everything is a folder
+    /**
+     * Creates the parent folder of this file, if this file does not exist.
+     *
+     * @throws FileSystemException if an error occurs.
+     */
+    private void createParentFolder() throws FileSystemException {
+        if (getType() == FileType.IMAGINARY) {
+            // Does not exist - make sure parent does
             final FileObject parent = getParent();
             if (parent != null) {
                 parent.createFolder();
             }
+        }
+    }
 
-            try {
-                // Create the folder
-                doCreateFolder();
+    private void createFolderLocked() throws FileSystemException {
+        // VFS-210: we create a folder only if it does not already exist. So this check should be safe.
+        if (getType().hasChildren()) {
+            // Already exists as correct type
+            return;
+        }
+        if (getType() != FileType.IMAGINARY) {
+            throw new FileSystemException("vfs.provider/create-folder-mismatched-type.error", fileName);
+        }
+        /*
+         * VFS-210: checking for writeable is not always possible as the security constraint might be more complex if
+         * (!isWriteable()) { throw new FileSystemException("vfs.provider/create-folder-read-only.error", name); }
+         */
 
-                // Update cached info
-                handleCreate(FileType.FOLDER);
-            } catch (final RuntimeException re) {
-                throw re;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/create-folder.error", fileName, exc);
-            }
+        try {
+            // Create the folder
+            doCreateFolder();
+
+            // Update cached info
+            handleCreate(FileType.FOLDER);
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/create-folder.error", fileName, exc);
         }
     }
 
@@ -440,27 +941,48 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws FileSystemException if an error occurs.
      */
     private boolean deleteSelf() throws FileSystemException {
-        synchronized (fs) {
-            // Its possible to delete a read-only file if you have write-execute access to the directory
+        if (lock == null) {
+            synchronized (fs) {
+                return deleteSelfLocked();
+            }
+        }
 
-            /*
-             * VFS-210 if (getType() == FileType.IMAGINARY) { // File does not exist return false; }
-             */
+        final boolean deleted;
+        lock.writeLock().lock();
+        try {
+            deleted = deleteSelfLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        firePendingChanges("vfs.provider/delete.error");
+        return deleted;
+    }
 
-            try {
-                // Delete the file
-                doDelete();
+    private boolean deleteSelfLocked() throws FileSystemException {
+        // Its possible to delete a read-only file if you have write-execute access to the directory
 
-                // Update cached info
-                handleDelete();
-            } catch (final RuntimeException re) {
-                throw re;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/delete.error", exc, fileName);
-            }
+        /*
+         * VFS-210 if (getType() == FileType.IMAGINARY) { // File does not exist return false; }
+         */
 
-            return true;
+        final long start = fs.startOperation();
+        boolean deleted = false;
+        try {
+            // Delete the file
+            doDelete();
+            deleted = true;
+
+            // Update cached info
+            handleDelete();
+        } catch (final RuntimeException re) {
+            throw re;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/delete.error", exc, fileName);
+        } finally {
+            fs.endOperation(MeteredOperation.DELETE, start, deleted);
         }
+
+        return true;
     }
 
     /**
@@ -470,20 +992,38 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     private void detach() throws Exception {
-        synchronized (fs) {
-            if (attached) {
-                try {
-                    doDetach();
-                } finally {
-                    attached = false;
-                    setFileType(null);
-                    parent = null;
+        if (lock == null) {
+            synchronized (fs) {
+                detachLocked();
+            }
+            return;
+        }
+
+        if (!attached) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            detachLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
-                    // fs.fileDetached(this);
+    private void detachLocked() throws Exception {
+        if (attached) {
+            try {
+                doDetach();
+            } finally {
+                attached = false;
+                setFileType(null);
+                stat = null;
+                parent = null;
 
-                    removeChildrenCache();
-                    // children = null;
-                }
+                // fs.fileDetached(this);
+
+                removeChildrenCache();
+                // children = null;
             }
         }
     }
@@ -512,6 +1052,24 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         return new DefaultFileContent(this, getFileContentInfoFactory());
     }
 
+    /**
+     * Copies the content of another file of the same file system to this file, without transferring it through the
+     * client. Is only called when:
+     * <ul>
+     * <li>The source file has content and belongs to the same file system as this file.</li>
+     * <li>This file is not a folder, and its parent folder exists.</li>
+     * </ul>
+     * This implementation returns false, in which case the content is copied through streams.
+     *
+     * @param srcFile The file to copy, which might be decorated.
+     * @return true if the file has been copied, false if the provider cannot copy it natively.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected boolean doCopy(final FileObject srcFile) throws Exception {
+        return false;
+    }
+
     /**
      * Creates this file as a folder. Is only called when:
      * <ul>
@@ -567,6 +1125,22 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         return Collections.emptyMap();
     }
 
+    /**
+     * Returns a checksum of the content of this file computed by the file system. Is only called if {@link #doGetType}
+     * returns {@link FileType#FILE}.
+     * <p>
+     * Two files have the same content if their checksums are equal, so the checksum has to identify the algorithm.
+     * <p>
+     * This implementation always returns null.
+     *
+     * @return The checksum, or null if the file system does not provide one.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected String doGetChecksum() throws Exception {
+        return null;
+    }
+
     /**
      * Returns the certificates used to sign this file. Is only called if {@link #doGetType} does not return
      * {@link FileType#IMAGINARY}.
@@ -733,19 +1307,54 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     protected abstract String[] doListChildren() throws Exception;
 
     /**
-     * Lists the children of this file.
-     * <p>
-     * Is only called if {@link #doGetType} returns {@link FileType#FOLDER}.
+     * Lists the children of this file.
+     * <p>
+     * Is only called if {@link #doGetType} returns {@link FileType#FOLDER}.
+     * <p>
+     * The return value of this method is cached, so the implementation can be expensive.<br>
+     * Other than {@code doListChildren} you could return FileObject's to e.g. reinitialize the type of the file.
+     * <p>
+     * (Introduced for Webdav: "permission denied on resource" during getType())
+     *
+     * @return The children of this FileObject.
+     * @throws Exception if an error occurs.
+     */
+    protected FileObject[] doListChildrenResolved() throws Exception {
+        return null;
+    }
+
+    /**
+     * Lists the children of this file incrementally.
+     * <p>
+     * Is only called if the children of this file are not cached, and with the same lock held as
+     * {@code doListChildren}. Other than {@code doListChildren} the result is not cached, and the returned iterator is
+     * consumed without holding any lock. It yields the encoded base names of the children and is closed by the caller.
+     * <p>
+     * This implementation returns null, in which case {@link #iterateChildren()} falls back to {@link #getChildren()}.
+     *
+     * @return an iterator over the names of the children, or null if streaming is not supported or the file is not a
+     *         folder.
+     * @throws Exception if an error occurs.
+     * @since 2.3
+     */
+    protected CloseableIterator<String> doIterateChildren() throws Exception {
+        return null;
+    }
+
+    /**
+     * Lists the children of this file incrementally.
      * <p>
-     * The return value of this method is cached, so the implementation can be expensive.<br>
-     * Other than {@code doListChildren} you could return FileObject's to e.g. reinitialize the type of the file.
+     * Is called like {@link #doIterateChildren()}, before it. Other than {@code doIterateChildren} you could return
+     * FileObject's to e.g. reinitialize the type of the files from the listing.
      * <p>
-     * (Introduced for Webdav: "permission denied on resource" during getType())
+     * This implementation returns null, in which case {@link #doIterateChildren()} is called.
      *
-     * @return The children of this FileObject.
+     * @return an iterator over the children, or null if streaming resolved children is not supported or the file is
+     *         not a folder.
      * @throws Exception if an error occurs.
+     * @since 2.3
      */
-    protected FileObject[] doListChildrenResolved() throws Exception {
+    protected CloseableIterator<FileObject> doIterateChildrenResolved() throws Exception {
         return null;
     }
 
@@ -869,6 +1478,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void endOutput() throws Exception {
+        stat = null;
         if (getType() == FileType.IMAGINARY) {
             // File was created
             handleCreate(FileType.FILE);
@@ -947,6 +1557,50 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         }
     }
 
+    /**
+     * Traverses the descendants of this file using a fork/join pool, and builds a list of selected files. The pool is
+     * only used if the file system uses the {@link LockStrategy#READ_WRITE} lock strategy: with the default
+     * {@link LockStrategy#FILE_SYSTEM} strategy its files share a single lock, so this method traverses the tree on the
+     * calling thread like {@link #findFiles(FileSelector, boolean, List)}.
+     * <p>
+     * The child folders of each folder are traversed concurrently, so the {@code selector} must be thread-safe. The
+     * selected files are added in the same order as with {@link #findFiles(FileSelector, boolean, List)}, which, like
+     * the other operations on a tree of files, always traverses it on the calling thread.
+     *
+     * @param selector The FileSelector.
+     * @param depthwise if true files are added after their descendants, before otherwise.
+     * @param selected A List of the located FileObjects.
+     * @param pool The pool to run the traversal in, unused with the {@link LockStrategy#FILE_SYSTEM} lock strategy.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#findFiles(FileObject, FileSelector, boolean, List, ForkJoinPool)
+     */
+    public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected,
+            final ForkJoinPool pool) throws FileSystemException {
+        if (lock == null) {
+            // The listings would wait for each other.
+            findFiles(selector, depthwise, selected);
+            return;
+        }
+        try {
+            if (exists()) {
+                // Traverse starting at this file
+                final TraverseTask task = new TraverseTask(this, this, 0, selector, depthwise);
+                pool.invoke(task);
+                task.collect(selected);
+            }
+        } catch (final TraverseException e) {
+            // the pool might have wrapped the exception of the task into another one
+            Throwable cause = e;
+            while (cause instanceof TraverseException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw new FileSystemException("vfs.provider/find-files.error", fileName, cause);
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/find-files.error", fileName, e);
+        }
+    }
+
     /**
      * Returns the file system this file belongs to.
      *
@@ -965,16 +1619,57 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileObject getChild(final String name) throws FileSystemException {
-        // TODO - use a hashtable when there are a large number of children
-        final FileObject[] children = getChildren();
-        for (final FileObject element : children) {
-            final FileName child = element.getName();
-            // TODO - use a comparator to compare names
-            if (child.getBaseName().equals(name)) {
-                return resolveFile(child);
+        final FileName[] names = getChildNames();
+
+        // The index is only valid for the names it was built from, replacing the cached names invalidates it
+        ChildIndex index = childIndex;
+        if (index == null || index.names != names) {
+            index = new ChildIndex(names, fs.isChildLookupCaseInsensitive());
+            childIndex = index;
+        }
+
+        final FileName child = index.get(name);
+        return child == null ? null : resolveFile(child);
+    }
+
+    /**
+     * Returns the cached names of the children of this file, listing them if required.
+     *
+     * @return the names of the children, never null.
+     * @throws FileSystemException if an error occurs.
+     */
+    private FileName[] getChildNames() throws FileSystemException {
+        FileName[] names = getCachedChildNames();
+        if (names == null) {
+            // List through getChildren(), which a provider may override, e.g. to check that this file is a folder
+            final FileObject[] childrenObjects = getChildren();
+            names = getCachedChildNames();
+            if (names == null) {
+                // Refreshed in the meantime
+                names = extractNames(childrenObjects);
             }
         }
-        return null;
+        return names;
+    }
+
+    /**
+     * Returns the cached names of the children of this file.
+     *
+     * @return the names of the children, or null if they are not cached.
+     */
+    private FileName[] getCachedChildNames() {
+        if (lock == null) {
+            synchronized (fs) {
+                return attached ? children : null;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            return attached ? children : null;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -985,23 +1680,156 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileObject[] getChildren() throws FileSystemException {
-        synchronized (fs) {
-            // VFS-210
-            if (!fs.hasCapability(Capability.LIST_CHILDREN)) {
-                throw new FileNotFolderException(fileName);
+        // VFS-210
+        if (!fs.hasCapability(Capability.LIST_CHILDREN)) {
+            throw new FileNotFolderException(fileName);
+        }
+
+        /*
+         * VFS-210 if (!getType().hasChildren()) { throw new
+         * FileSystemException("vfs.provider/list-children-not-folder.error", name); }
+         */
+        if (lock == null) {
+            synchronized (fs) {
+                final FileObject[] childrenObjects = listChildrenLocked();
+                if (childrenObjects != null) {
+                    return childrenObjects;
+                }
+                return resolveFiles(children);
             }
+        }
 
-            /*
-             * VFS-210 if (!getType().hasChildren()) { throw new
-             * FileSystemException("vfs.provider/list-children-not-folder.error", name); }
-             */
-            attach();
+        // Use cached info, if present
+        FileName[] names;
+        lock.readLock().lock();
+        try {
+            names = attached ? children : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (names == null) {
+            lock.writeLock().lock();
+            try {
+                final FileObject[] childrenObjects = listChildrenLocked();
+                if (childrenObjects != null) {
+                    return childrenObjects;
+                }
+                names = children;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // the names are never modified once published, so they can be resolved without holding the lock
+        return resolveFiles(names);
+    }
+
+    /**
+     * Lists the children of the file incrementally.
+     * <p>
+     * Cached children are returned as they are. Otherwise the listing is streamed from {@link #doIterateChildren()}
+     * without being cached, or taken from {@link #getChildren()} if the provider does not support streaming.
+     *
+     * @return an iterator over the children, which has to be closed if it is not consumed to the end.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     * @see FileObjectUtils#iterateChildren(FileObject)
+     */
+    public CloseableIterator<FileObject> iterateChildren() throws FileSystemException {
+        // VFS-210
+        if (!fs.hasCapability(Capability.LIST_CHILDREN)) {
+            throw new FileNotFolderException(fileName);
+        }
 
+        final CloseableIterator<FileObject> iterator;
+        if (lock == null) {
+            synchronized (fs) {
+                iterator = iterateChildrenLocked();
+            }
+        } else {
             // Use cached info, if present
-            if (children != null) {
-                return resolveFiles(children);
+            final FileName[] names;
+            lock.readLock().lock();
+            try {
+                names = attached ? children : null;
+            } finally {
+                lock.readLock().unlock();
             }
+            if (names != null) {
+                return new ChildIterator(null, names, null);
+            }
+
+            lock.writeLock().lock();
+            try {
+                iterator = iterateChildrenLocked();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        if (iterator == null) {
+            return new ChildIterator(getChildren(), null, null);
+        }
+        return iterator;
+    }
+
+    /**
+     * Iterates the cached children, or starts streaming the listing.
+     *
+     * @return the iterator, or null if the provider does not support streaming.
+     * @throws FileSystemException if an error occurs.
+     */
+    private CloseableIterator<FileObject> iterateChildrenLocked() throws FileSystemException {
+        attach();
+
+        // Use cached info, if present
+        final FileName[] names = children;
+        if (names != null) {
+            return new ChildIterator(null, names, null);
+        }
 
+        final long start = fs.startOperation();
+        final CloseableIterator<FileObject> resolved;
+        final CloseableIterator<String> stream;
+        try {
+            resolved = doIterateChildrenResolved();
+            stream = resolved == null ? doIterateChildren() : null;
+        } catch (final FileSystemException exc) {
+            fs.endOperation(MeteredOperation.LIST, start, false);
+            throw exc;
+        } catch (final Exception exc) {
+            fs.endOperation(MeteredOperation.LIST, start, false);
+            throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+        }
+
+        if (resolved == null && stream == null) {
+            // getChildren() records the listing
+            return null;
+        }
+        fs.endOperation(MeteredOperation.LIST, start, true);
+        return resolved != null ? resolved : new ChildIterator(null, null, stream);
+    }
+
+    /**
+     * Makes sure the names of the children are cached.
+     *
+     * @return the children if the file system returned resolved children, null if they have to be resolved from the
+     *         cached names.
+     * @throws FileSystemException if an error occurs.
+     */
+    private FileObject[] listChildrenLocked() throws FileSystemException {
+        attach();
+
+        // Use cached info, if present
+        if (children != null) {
+            return null;
+        }
+
+        final long start = fs.startOperation();
+        boolean listed = false;
+        final String[] files;
+        try {
             // allow the filesystem to return resolved children. e.g. prefill type for webdav
             FileObject[] childrenObjects;
             try {
@@ -1015,11 +1843,11 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             }
 
             if (childrenObjects != null) {
+                listed = true;
                 return childrenObjects;
             }
 
             // List the children
-            final String[] files;
             try {
                 files = doListChildren();
             } catch (final FileSystemException exc) {
@@ -1028,28 +1856,52 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             } catch (final Exception exc) {
                 throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
             }
+            listed = true;
+        } finally {
+            fs.endOperation(MeteredOperation.LIST, start, listed);
+        }
 
-            if (files == null) {
-                // VFS-210
-                // honor the new doListChildren contract
-                // return null;
-                throw new FileNotFolderException(fileName);
-            } else if (files.length == 0) {
-                // No children
-                children = EMPTY_FILE_ARRAY;
-            } else {
-                // Create file objects for the children
-                final FileName[] cache = new FileName[files.length];
-                for (int i = 0; i < files.length; i++) {
-                    final String file = files[i];
-                    cache[i] = fs.getFileSystemManager().resolveName(fileName, file, NameScope.CHILD);
-                }
-                // VFS-285: only assign the children filenames after all of them have been
-                // resolved successfully to prevent an inconsistent internal state
-                children = cache;
+        if (files == null) {
+            // VFS-210
+            // honor the new doListChildren contract
+            // return null;
+            throw new FileNotFolderException(fileName);
+        } else if (files.length == 0) {
+            // No children
+            children = EMPTY_FILE_ARRAY;
+        } else {
+            // Create file objects for the children
+            final FileName[] cache = new FileName[files.length];
+            for (int i = 0; i < files.length; i++) {
+                final String file = files[i];
+                cache[i] = fs.getFileSystemManager().resolveName(fileName, file, NameScope.CHILD);
             }
+            // VFS-285: only assign the children filenames after all of them have been
+            // resolved successfully to prevent an inconsistent internal state
+            children = cache;
+        }
 
-            return resolveFiles(children);
+        return null;
+    }
+
+    /**
+     * Returns a checksum of the content of this file computed by the file system.
+     *
+     * @return The checksum, or null if this file is not a regular file or the file system does not provide one.
+     * @throws FileSystemException if an error occurs.
+     * @see CopyPolicies#SKIP_IF_SAME_CHECKSUM
+     * @since 2.3
+     */
+    public String getChecksum() throws FileSystemException {
+        if (getType() != FileType.FILE) {
+            return null;
+        }
+        try {
+            return doGetChecksum();
+        } catch (final FileSystemException exc) {
+            throw exc;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/get-checksum.error", exc, fileName);
         }
     }
 
@@ -1061,15 +1913,38 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileContent getContent() throws FileSystemException {
-        synchronized (fs) {
-            attach();
-            if (content == null) {
-                content = doCreateFileContent();
+        if (lock == null) {
+            synchronized (fs) {
+                return getContentLocked();
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            final FileContent fileContent = content;
+            if (attached && fileContent != null) {
+                return fileContent;
             }
-            return content;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            return getContentLocked();
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
+    private FileContent getContentLocked() throws FileSystemException {
+        attach();
+        if (content == null) {
+            content = doCreateFileContent();
+        }
+        return content;
+    }
+
     /**
      * Creates the FileContentInfo factory.
      *
@@ -1180,14 +2055,11 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             throw new FileSystemException("vfs.provider/write-append-not-supported.error", fileName);
         }
 
-        if (getType() == FileType.IMAGINARY) {
-            // Does not exist - make sure parent does
-            final FileObject parent = getParent();
-            if (parent != null) {
-                parent.createFolder();
-            }
-        }
+        createParentFolder();
+        return openOutputStream(bAppend);
+    }
 
+    private OutputStream openOutputStream(final boolean bAppend) throws FileSystemException {
         // Get the raw output stream
         try {
             return doGetOutputStream(bAppend);
@@ -1216,17 +2088,32 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             return fs.getParentLayer().getParent();
         }
 
-        synchronized (fs) {
-            // Locate the parent of this file
-            if (parent == null) {
-                final FileName name = fileName.getParent();
-                if (name == null) {
-                    return null;
+        if (lock == null) {
+            synchronized (fs) {
+                // Locate the parent of this file
+                if (parent == null) {
+                    final FileName name = fileName.getParent();
+                    if (name == null) {
+                        return null;
+                    }
+                    parent = fs.resolveFile(name);
                 }
-                parent = fs.resolveFile(name);
+                return parent;
+            }
+        }
+
+        // Locate the parent of this file. Racing threads resolve the same (cached) file object, so the last
+        // assignment wins without harm.
+        FileObject parentObject = parent;
+        if (parentObject == null) {
+            final FileName name = fileName.getParent();
+            if (name == null) {
+                return null;
             }
-            return parent;
+            parentObject = fs.resolveFile(name);
+            parent = parentObject;
         }
+        return parentObject;
     }
 
     /**
@@ -1276,22 +2163,69 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileType getType() throws FileSystemException {
-        synchronized (fs) {
-            attach();
+        if (lock == null) {
+            synchronized (fs) {
+                return getTypeLocked();
+            }
+        }
 
-            // VFS-210: get the type only if requested for
-            try {
-                if (type == null) {
-                    setFileType(doGetType());
-                }
-                if (type == null) {
-                    setFileType(FileType.IMAGINARY);
-                }
-            } catch (final Exception e) {
-                throw new FileSystemException("vfs.provider/get-type.error", e, fileName);
+        lock.readLock().lock();
+        try {
+            final FileType fileType = type;
+            if (attached && fileType != null) {
+                return fileType;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            return getTypeLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private FileType getTypeLocked() throws FileSystemException {
+        // attach even for a file known missing, as the caller may go on to create it
+        attach();
+
+        if (type == null && stat == null && fs.isKnownMissingFile(fileName)) {
+            // found missing recently, do not ask the file system again
+            return FileType.IMAGINARY;
+        }
+
+        // VFS-210: get the type only if requested for
+        try {
+            if (type != null) {
+                // known already, found missing when it was looked up
+                return type;
             }
+            final FileStat fileStat = stat;
+            setFileType(fileStat != null ? fileStat.getType() : doGetTypeMetered());
+            if (type == null) {
+                setFileType(FileType.IMAGINARY);
+            }
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/get-type.error", e, fileName);
+        }
+
+        if (type == FileType.IMAGINARY) {
+            fs.rememberMissingFile(fileName);
+        }
+        return type;
+    }
 
-            return type;
+    private FileType doGetTypeMetered() throws Exception {
+        final long start = fs.startOperation();
+        boolean succeeded = false;
+        try {
+            final FileType fileType = doGetType();
+            succeeded = true;
+            return fileType;
+        } finally {
+            fs.endOperation(MeteredOperation.GET_TYPE, start, succeeded);
         }
     }
 
@@ -1326,6 +2260,8 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void handleChanged() throws Exception {
+        stat = null;
+
         // Notify the file system
         fs.fireFileChanged(this);
     }
@@ -1337,22 +2273,34 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void handleCreate(final FileType newType) throws Exception {
-        synchronized (fs) {
-            if (attached) {
-                // Fix up state
-                injectType(newType);
+        if (lock == null) {
+            synchronized (fs) {
+                handleCreateLocked(newType);
+                notifyChange(newType);
+            }
+            return;
+        }
 
-                removeChildrenCache();
+        lock.writeLock().lock();
+        try {
+            handleCreateLocked(newType);
+            addPendingChange(newType);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        firePendingChanges();
+    }
 
-                // Notify subclass
-                onChange();
-            }
+    private void handleCreateLocked(final FileType newType) throws Exception {
+        stat = null;
+        if (attached) {
+            // Fix up state
+            injectType(newType);
 
-            // Notify parent that its child list may no longer be valid
-            notifyParent(this.getName(), newType);
+            removeChildrenCache();
 
-            // Notify the file system
-            fs.fireFileCreated(this);
+            // Notify subclass
+            onChange();
         }
     }
 
@@ -1362,21 +2310,94 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      * @throws Exception if an error occurs.
      */
     protected void handleDelete() throws Exception {
-        synchronized (fs) {
-            if (attached) {
-                // Fix up state
-                injectType(FileType.IMAGINARY);
-                removeChildrenCache();
-
-                // Notify subclass
-                onChange();
+        if (lock == null) {
+            synchronized (fs) {
+                handleDeleteLocked();
+                notifyChange(FileType.IMAGINARY);
             }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            handleDeleteLocked();
+            addPendingChange(FileType.IMAGINARY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        firePendingChanges();
+    }
+
+    private void handleDeleteLocked() throws Exception {
+        stat = null;
+        if (attached) {
+            // Fix up state
+            injectType(FileType.IMAGINARY);
+            removeChildrenCache();
+
+            // Notify subclass
+            onChange();
+        }
+    }
 
-            // Notify parent that its child list may no longer be valid
-            notifyParent(this.getName(), FileType.IMAGINARY);
+    /**
+     * Notifies the parent and the file system that this file was created or deleted.
+     *
+     * @param newType The type of the file, {@link FileType#IMAGINARY} if it was deleted.
+     * @throws Exception if an error occurs.
+     */
+    private void notifyChange(final FileType newType) throws Exception {
+        // Notify parent that its child list may no longer be valid
+        notifyParent(this.getName(), newType);
 
-            // Notify the file system
+        // Notify the file system
+        if (newType == FileType.IMAGINARY) {
             fs.fireFileDeleted(this);
+        } else {
+            fs.fireFileCreated(this);
+        }
+    }
+
+    private void addPendingChange(final FileType newType) {
+        if (pendingChanges == null) {
+            pendingChanges = new ArrayList<>(1);
+        }
+        pendingChanges.add(newType);
+    }
+
+    /**
+     * Notifies the changes recorded while the lock was held, unless the current thread still holds it: the outermost
+     * caller notifies them once it released the lock, so that the parent is never locked by the owner of this lock.
+     *
+     * @throws Exception if an error occurs.
+     */
+    private void firePendingChanges() throws Exception {
+        if (lock.isWriteLockedByCurrentThread()) {
+            return;
+        }
+
+        final List<FileType> changes;
+        lock.writeLock().lock();
+        try {
+            changes = pendingChanges;
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (changes != null) {
+            for (final FileType change : changes) {
+                notifyChange(change);
+            }
+        }
+    }
+
+    private void firePendingChanges(final String code) throws FileSystemException {
+        try {
+            firePendingChanges();
+        } catch (final RuntimeException | FileSystemException exc) {
+            throw exc;
+        } catch (final Exception exc) {
+            throw new FileSystemException(code, exc, fileName);
         }
     }
 
@@ -1431,6 +2452,10 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     @Override
     public boolean isExecutable() throws FileSystemException {
         try {
+            final FileStat fileStat = stat;
+            if (fileStat != null && fileStat.isExecutable() != null) {
+                return fileStat.isExecutable().booleanValue();
+            }
             return exists() ? doIsExecutable() : false;
         } catch (final Exception exc) {
             throw new FileSystemException("vfs.provider/check-is-executable.error", fileName, exc);
@@ -1489,6 +2514,10 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     @Override
     public boolean isReadable() throws FileSystemException {
         try {
+            final FileStat fileStat = stat;
+            if (fileStat != null && fileStat.isReadable() != null) {
+                return fileStat.isReadable().booleanValue();
+            }
             return exists() ? doIsReadable() : false;
         } catch (final Exception exc) {
             throw new FileSystemException("vfs.provider/check-is-readable.error", fileName, exc);
@@ -1517,6 +2546,10 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     @Override
     public boolean isWriteable() throws FileSystemException {
         try {
+            final FileStat fileStat = stat;
+            if (fileStat != null && fileStat.isWriteable() != null) {
+                return fileStat.isWriteable().booleanValue();
+            }
             if (exists()) {
                 return doIsWriteable();
             }
@@ -1592,7 +2625,14 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 // remember type to avoid attach
                 final FileType srcType = getType();
 
-                doRename(destFile);
+                final long start = fs.startOperation();
+                boolean renamed = false;
+                try {
+                    doRename(destFile);
+                    renamed = true;
+                } finally {
+                    fs.endOperation(MeteredOperation.RENAME, start, renamed);
+                }
 
                 FileObjectUtils.getAbstractFileObject(destFile).handleCreate(srcType);
                 destFile.close(); // now the destFile is no longer imaginary. force reattach.
@@ -1678,6 +2718,8 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void refresh() throws FileSystemException {
+        stat = null;
+
         // Detach from the file
         try {
             detach();
@@ -1688,6 +2730,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
 
     private void removeChildrenCache() {
         children = null;
+        childIndex = null;
     }
 
     private FileObject resolveFile(final FileName child) throws FileSystemException {
@@ -1737,6 +2780,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
 
     @Override
     public boolean setExecutable(final boolean readable, final boolean ownerOnly) throws FileSystemException {
+        stat = null;
         try {
             return exists() ? doSetExecutable(readable, ownerOnly) : false;
         } catch (final Exception exc) {
@@ -1744,6 +2788,33 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         }
     }
 
+    /**
+     * Sets the attributes of this file as returned by the file system, for example while listing its parent. They are
+     * used instead of asking the provider until this file is refreshed or changed, whatever the cache strategy, so
+     * attributes which may change without the file system noticing should be left unknown.
+     * <p>
+     * A type which is already cached is kept until this file is refreshed.
+     *
+     * @param fileStat The attributes, or null to discard the attributes set before.
+     * @since 2.3
+     */
+    protected void setFileStat(final FileStat fileStat) {
+        stat = fileStat;
+        if (fileStat != null && fileStat.getType() != FileType.IMAGINARY) {
+            fs.forgetMissingFile(fileName);
+        }
+    }
+
+    /**
+     * Returns the attributes of this file as set by {@link #setFileStat(FileStat)}.
+     *
+     * @return The attributes, or null if they are not known.
+     * @since 2.3
+     */
+    protected FileStat getFileStat() {
+        return stat;
+    }
+
     private void setFileType(final FileType type) {
         if (type != null && type != FileType.IMAGINARY) {
             try {
@@ -1757,6 +2828,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
 
     @Override
     public boolean setReadable(final boolean readable, final boolean ownerOnly) throws FileSystemException {
+        stat = null;
         try {
             return exists() ? doSetReadable(readable, ownerOnly) : false;
         } catch (final Exception exc) {
@@ -1768,6 +2840,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
 
     @Override
     public boolean setWritable(final boolean readable, final boolean ownerOnly) throws FileSystemException {
+        stat = null;
         try {
             return exists() ? doSetWritable(readable, ownerOnly) : false;
         } catch (final Exception exc) {
@@ -16,8 +16,11 @@
  */
 package org.apache.commons.vfs2.provider;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -38,7 +41,12 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
      * <p>
      * This is a mapping from {@link FileSystemKey} (root URI and options) to {@link FileSystem}.
      */
-    private final Map<FileSystemKey, FileSystem> fileSystems = new TreeMap<>(); // @GuardedBy("self")
+    private final ConcurrentMap<FileSystemKey, FileSystem> fileSystems = new ConcurrentHashMap<>();
+
+    /**
+     * The locks of the file systems being created, so that each one is only created once.
+     */
+    private final ConcurrentMap<FileSystemKey, Object> creationLocks = new ConcurrentHashMap<>();
 
     private FileNameParser parser;
 
@@ -59,9 +67,7 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
      */
     @Override
     public void close() {
-        synchronized (fileSystems) {
-            fileSystems.clear();
-        }
+        fileSystems.clear();
 
         super.close();
     }
@@ -95,12 +101,11 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
         // Add to the container and initialize
         addComponent(fs);
 
-        final FileSystemKey treeKey = new FileSystemKey(key, fs.getFileSystemOptions());
+        final FileSystemKey treeKey = new FileSystemKey(key,
+                ((AbstractFileSystem) fs).getFileSystemOptionsSnapshot());
         ((AbstractFileSystem) fs).setCacheKey(treeKey);
 
-        synchronized (fileSystems) {
-            fileSystems.put(treeKey, fs);
-        }
+        fileSystems.put(treeKey, fs);
     }
 
     /**
@@ -113,9 +118,30 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
     protected FileSystem findFileSystem(final Comparable<?> key, final FileSystemOptions fileSystemProps) {
         final FileSystemKey treeKey = new FileSystemKey(key, fileSystemProps);
 
-        synchronized (fileSystems) {
-            return fileSystems.get(treeKey);
-        }
+        return fileSystems.get(treeKey);
+    }
+
+    /**
+     * Returns the lock to hold while creating a file system, shared by all the threads creating a file system with the
+     * same key. Must be released with {@link #releaseCreationLock}.
+     *
+     * @param key The key of the file system.
+     * @return The lock.
+     */
+    Object acquireCreationLock(final FileSystemKey key) {
+        final Object lock = new Object();
+        final Object previous = creationLocks.putIfAbsent(key, lock);
+        return previous != null ? previous : lock;
+    }
+
+    /**
+     * Releases a lock returned by {@link #acquireCreationLock}, after the file system has been added.
+     *
+     * @param key The key of the file system.
+     * @param lock The lock.
+     */
+    void releaseCreationLock(final FileSystemKey key, final Object lock) {
+        creationLocks.remove(key, lock);
     }
 
     /**
@@ -132,13 +158,8 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
      * Free unused resources.
      */
     public void freeUnusedResources() {
-        AbstractFileSystem[] abstractFileSystems;
-        synchronized (fileSystems) {
-            // create snapshot under lock
-            abstractFileSystems = fileSystems.values().toArray(EMPTY_ABSTRACTFILESYSTEMS);
-        }
+        final AbstractFileSystem[] abstractFileSystems = fileSystems.values().toArray(EMPTY_ABSTRACTFILESYSTEMS);
 
-        // process snapshot outside lock
         for (final AbstractFileSystem fs : abstractFileSystems) {
             if (fs.isReleaseable()) {
                 fs.closeCommunicationLink();
@@ -146,6 +167,36 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
         }
     }
 
+    /**
+     * Returns the file systems which have no open stream and were not used for a given time. A file system is used
+     * when one of its files is resolved or attached, or when a stream is opened or closed.
+     *
+     * @param idleTime The idle time in milliseconds.
+     * @return The idle file systems.
+     * @since 2.3
+     */
+    public FileSystem[] getIdleFileSystems(final long idleTime) {
+        final long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTime);
+        final long now = System.nanoTime();
+        final List<FileSystem> idle = new ArrayList<>();
+        for (final FileSystem fs : fileSystems.values()) {
+            if (((AbstractFileSystem) fs).isIdle(idleNanos, now)) {
+                idle.add(fs);
+            }
+        }
+        return idle.toArray(new FileSystem[idle.size()]);
+    }
+
+    /**
+     * Returns the number of open file systems of this provider.
+     *
+     * @return The number of file systems.
+     * @since 2.3
+     */
+    public int getFileSystemCount() {
+        return fileSystems.size();
+    }
+
     /**
      * Close the FileSystem.
      *
@@ -156,9 +207,7 @@ public abstract class AbstractFileProvider extends AbstractVfsContainer implemen
 
         final FileSystemKey key = fs.getCacheKey();
         if (key != null) {
-            synchronized (fileSystems) {
-                fileSystems.remove(key);
-            }
+            fileSystems.remove(key, fs);
         }
 
         removeComponent(fs);
@@ -18,35 +18,51 @@ package org.apache.commons.vfs2.provider;
 
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.vfs2.CacheStrategy;
 import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileBatchListener;
+import org.apache.commons.vfs2.FileChangeEvent;
 import org.apache.commons.vfs2.FileListener;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystem;
-import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FilesCache;
+import org.apache.commons.vfs2.LockStrategy;
 import org.apache.commons.vfs2.VfsLog;
 import org.apache.commons.vfs2.cache.OnCallRefreshFileObject;
+import org.apache.commons.vfs2.cache.OnTimeoutRefreshFileObject;
 import org.apache.commons.vfs2.events.AbstractFileChangeEvent;
 import org.apache.commons.vfs2.events.ChangedEvent;
 import org.apache.commons.vfs2.events.CreateEvent;
 import org.apache.commons.vfs2.events.DeleteEvent;
+import org.apache.commons.vfs2.events.FileEventDispatcher;
 import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.metrics.FileOperationRecorder;
+import org.apache.commons.vfs2.metrics.FileSystemMetrics;
+import org.apache.commons.vfs2.metrics.MeteredOperation;
 import org.apache.commons.vfs2.util.Messages;
 
 /**
@@ -71,15 +87,61 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     private FileObject parentLayer;
 
     /**
-     * Map from FileName to an ArrayList of listeners for that file.
+     * Map from FileName to the listeners for that file. The arrays are replaced, never modified, so that events are
+     * fired without locking.
      */
-    private final Map<FileName, ArrayList<FileListener>> listenerMap = new HashMap<>();
+    private final ConcurrentMap<FileName, FileListener[]> listenerMap = new ConcurrentHashMap<>();
 
     /**
      * FileSystemOptions used for configuration
      */
     private final FileSystemOptions fileSystemOptions;
 
+    /**
+     * The snapshot of the options taken when this file system was created
+     */
+    private final FileSystemOptions fileSystemOptionsSnapshot;
+
+    /**
+     * How file objects of this file system guard their metadata
+     */
+    private final LockStrategy lockStrategy;
+
+    /**
+     * Whether children are looked up by name ignoring case
+     */
+    private final boolean childLookupCaseInsensitive;
+
+    /**
+     * Number of files copied concurrently into this file system
+     */
+    private final int copyParallelism;
+
+    /**
+     * Maximum number of bytes copied concurrently into this file system
+     */
+    private final long copyMaxBytesInFlight;
+
+    /**
+     * Executor used to copy files into this file system, created on demand
+     */
+    private ExecutorService copyExecutor;
+
+    /**
+     * Time in milliseconds the data of a file object is used before it is refreshed
+     */
+    private final long cacheTimeToLive;
+
+    /**
+     * Time in nanoseconds a missing file is remembered, 0 if missing files are not remembered
+     */
+    private final long negativeCacheTimeToLiveNanos;
+
+    /**
+     * Files found not to exist, with the time from {@link System#nanoTime()} they were found missing
+     */
+    private final Map<FileName, Long> missingFiles;
+
     /**
      * How many fileObjects are handed out
      */
@@ -92,17 +154,55 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     private final AtomicInteger openStreams = new AtomicInteger(0);
 
+    /**
+     * Time from {@link System#nanoTime()} this file system was last used
+     */
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    /**
+     * The value of {@link #lastUsedNanos} when this file system was last claimed idle
+     */
+    private final AtomicLong idleClaimNanos = new AtomicLong();
+
+    /**
+     * Receives the metrics of the operations on the files, null if they are not measured
+     */
+    private FileOperationRecorder recorder;
+
+    /**
+     * Delivers the events to the listeners, null to notify them from the thread firing the event
+     */
+    private FileEventDispatcher eventDispatcher;
+
     protected AbstractFileSystem(final FileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) {
         this.parentLayer = parentLayer;
         this.rootName = rootName;
         this.fileSystemOptions = fileSystemOptions;
-        final FileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
-        String uri = builder.getRootURI(fileSystemOptions);
+        this.fileSystemOptionsSnapshot = fileSystemOptions != null ? fileSystemOptions.snapshot() : null;
+        final FileSystemOptions options = fileSystemOptionsSnapshot;
+        final DefaultFileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
+        String uri = builder.getRootURI(options);
         if (uri == null) {
             uri = rootName.getURI();
         }
         this.rootURI = uri;
+        this.lockStrategy = builder.getLockStrategy(options);
+        this.childLookupCaseInsensitive = builder.isChildLookupCaseInsensitive(options);
+        this.copyParallelism = builder.getCopyParallelism(options);
+        this.copyMaxBytesInFlight = builder.getCopyMaxBytesInFlight(options);
+        this.cacheTimeToLive = builder.getCacheTimeToLive(options);
+        this.negativeCacheTimeToLiveNanos = TimeUnit.MILLISECONDS
+                .toNanos(Math.max(0, builder.getNegativeCacheTimeToLive(options)));
+        final int negativeCacheMaxSize = builder.getNegativeCacheMaxSize(options);
+        this.missingFiles = new LinkedHashMap<FileName, Long>() {
+            private static final long serialVersionUID = 20181016L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<FileName, Long> eldest) {
+                return size() > negativeCacheMaxSize;
+            }
+        };
     }
 
     /**
@@ -113,6 +213,15 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     @Override
     public void init() throws FileSystemException {
         addCapabilities(caps);
+
+        if (getContext() != null && getFileSystemManager() instanceof DefaultFileSystemManager) {
+            final DefaultFileSystemManager manager = (DefaultFileSystemManager) getFileSystemManager();
+            final FileSystemMetrics metrics = manager.getFileSystemMetrics();
+            if (metrics != null) {
+                recorder = metrics.getRecorder(this);
+            }
+            eventDispatcher = manager.getFileEventDispatcher();
+        }
     }
 
     /**
@@ -122,6 +231,16 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
     public void close() {
         closeCommunicationLink();
 
+        synchronized (this) {
+            if (copyExecutor != null) {
+                copyExecutor.shutdown();
+                copyExecutor = null;
+            }
+        }
+        synchronized (missingFiles) {
+            missingFiles.clear();
+        }
+
         parentLayer = null;
     }
 
@@ -300,13 +419,28 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return resolveFile(name, true);
     }
 
-    private synchronized FileObject resolveFile(final FileName name, final boolean useCache)
-            throws FileSystemException {
+    private FileObject resolveFile(final FileName name, final boolean useCache) throws FileSystemException {
         if (!rootName.getRootURI().equals(name.getRootURI())) {
             throw new FileSystemException("vfs.provider/mismatched-fs-for-name.error", name, rootName,
                     name.getRootURI());
         }
 
+        final FileObject file = lookupFile(name, useCache);
+
+        /**
+         * resync the file information if requested. This is done outside of the monitor as the file object might
+         * have to acquire its own lock.
+         */
+        if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_RESOLVE)) {
+            file.refresh();
+        }
+        return file;
+    }
+
+    private synchronized FileObject lookupFile(final FileName name, final boolean useCache)
+            throws FileSystemException {
+        markUsed();
+
         // imario@apache.org ==> use getFileFromCache
         FileObject file;
         if (useCache) {
@@ -329,19 +463,14 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
                 putFileToCache(file);
             }
         }
-
-        /**
-         * resync the file information if requested
-         */
-        if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_RESOLVE)) {
-            file.refresh();
-        }
         return file;
     }
 
     protected FileObject decorateFileObject(FileObject file) throws FileSystemException {
         if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_CALL)) {
             file = new OnCallRefreshFileObject(file);
+        } else if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_TIMEOUT)) {
+            file = new OnTimeoutRefreshFileObject(file, cacheTimeToLive);
         }
 
         if (getFileSystemManager().getFileObjectDecoratorConst() != null) {
@@ -394,6 +523,17 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return fileSystemOptions;
     }
 
+    /**
+     * Returns the snapshot of the FileSystemOptions taken when this file system was created. Unlike
+     * {@link #getFileSystemOptions()}, it does not reflect later changes of the options, and it is cheaper to look up.
+     *
+     * @return the snapshot of the FileSystemOptions, null if there are none.
+     * @since 2.3
+     */
+    public FileSystemOptions getFileSystemOptionsSnapshot() {
+        return fileSystemOptionsSnapshot;
+    }
+
     /**
      * Return the FileSystemManager used to instantiate this filesystem.
      *
@@ -457,13 +597,20 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     @Override
     public void addListener(final FileObject file, final FileListener listener) {
-        synchronized (listenerMap) {
-            ArrayList<FileListener> listeners = listenerMap.get(file.getName());
+        final FileName name = file.getName();
+        while (true) {
+            final FileListener[] listeners = listenerMap.get(name);
             if (listeners == null) {
-                listeners = new ArrayList<>();
-                listenerMap.put(file.getName(), listeners);
+                if (listenerMap.putIfAbsent(name, new FileListener[] { listener }) == null) {
+                    return;
+                }
+            } else {
+                final FileListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+                newListeners[listeners.length] = listener;
+                if (listenerMap.replace(name, listeners, newListeners)) {
+                    return;
+                }
             }
-            listeners.add(listener);
         }
     }
 
@@ -475,12 +622,23 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     @Override
     public void removeListener(final FileObject file, final FileListener listener) {
-        synchronized (listenerMap) {
-            final ArrayList<?> listeners = listenerMap.get(file.getName());
-            if (listeners != null) {
-                listeners.remove(listener);
-                if (listeners.isEmpty()) {
-                    listenerMap.remove(file.getName());
+        final FileName name = file.getName();
+        while (true) {
+            final FileListener[] listeners = listenerMap.get(name);
+            final int index = listeners != null ? Arrays.asList(listeners).indexOf(listener) : -1;
+            if (index == -1) {
+                return;
+            }
+            if (listeners.length == 1) {
+                if (listenerMap.remove(name, listeners)) {
+                    return;
+                }
+            } else {
+                final FileListener[] newListeners = new FileListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, index);
+                System.arraycopy(listeners, index + 1, newListeners, index, newListeners.length - index);
+                if (listenerMap.replace(name, listeners, newListeners)) {
+                    return;
                 }
             }
         }
@@ -492,6 +650,7 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      * @param file The FileObject that was created.
      */
     public void fireFileCreated(final FileObject file) {
+        forgetMissingFile(file.getName());
         fireEvent(new CreateEvent(file));
     }
 
@@ -515,6 +674,123 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         fireEvent(new ChangedEvent(file));
     }
 
+    /**
+     * Returns the strategy file objects of this file system use to guard their metadata.
+     *
+     * @return the LockStrategy.
+     * @since 2.3
+     */
+    public LockStrategy getLockStrategy() {
+        return lockStrategy;
+    }
+
+    /**
+     * Returns whether {@link FileObject#getChild(String)} matches child names ignoring case.
+     *
+     * @return true if child names are matched ignoring case.
+     * @since 2.3
+     */
+    public boolean isChildLookupCaseInsensitive() {
+        return childLookupCaseInsensitive;
+    }
+
+    /**
+     * Returns the executor used to copy files into this file system concurrently.
+     *
+     * @return the executor, or null if files are copied on the calling thread.
+     */
+    synchronized ExecutorService getCopyExecutor() {
+        if (copyParallelism <= 1) {
+            return null;
+        }
+        if (copyExecutor == null) {
+            final String namePrefix = "VFS copy to " + rootName.getFriendlyURI() + " #";
+            copyExecutor = Executors.newFixedThreadPool(copyParallelism, new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return copyExecutor;
+    }
+
+    /**
+     * Returns the maximum number of bytes copied concurrently into this file system.
+     *
+     * @return the maximum number of bytes in flight.
+     */
+    long getCopyMaxBytesInFlight() {
+        return copyMaxBytesInFlight;
+    }
+
+    /**
+     * Checks whether a file has recently been found not to exist.
+     *
+     * @param name The name of the file.
+     * @return true if the file is known to be missing.
+     * @see DefaultFileSystemConfigBuilder#setNegativeCacheTimeToLive
+     */
+    boolean isKnownMissingFile(final FileName name) {
+        if (negativeCacheTimeToLiveNanos == 0) {
+            return false;
+        }
+        synchronized (missingFiles) {
+            final Long foundMissing = missingFiles.get(name);
+            if (foundMissing == null) {
+                return false;
+            }
+            if (System.nanoTime() - foundMissing.longValue() < negativeCacheTimeToLiveNanos) {
+                return true;
+            }
+            missingFiles.remove(name);
+            return false;
+        }
+    }
+
+    /**
+     * Remembers that a file does not exist.
+     *
+     * @param name The name of the file.
+     */
+    void rememberMissingFile(final FileName name) {
+        if (negativeCacheTimeToLiveNanos == 0) {
+            return;
+        }
+        synchronized (missingFiles) {
+            // re-insert to keep the map ordered by age
+            missingFiles.remove(name);
+            missingFiles.put(name, Long.valueOf(System.nanoTime()));
+        }
+    }
+
+    /**
+     * Forgets that a file does not exist.
+     *
+     * @param name The name of the file.
+     */
+    void forgetMissingFile(final FileName name) {
+        if (negativeCacheTimeToLiveNanos == 0) {
+            return;
+        }
+        synchronized (missingFiles) {
+            missingFiles.remove(name);
+        }
+    }
+
+    /**
+     * Creates the lock guarding the metadata of a file object.
+     *
+     * @return a new lock, or null if file objects synchronize on this file system.
+     */
+    ReentrantReadWriteLock createFileObjectLock() {
+        return lockStrategy == LockStrategy.READ_WRITE ? new ReentrantReadWriteLock() : null;
+    }
+
     /**
      * Returns true if no file is using this filesystem.
      *
@@ -531,25 +807,29 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      * Fires an event.
      */
     private void fireEvent(final AbstractFileChangeEvent event) {
-        FileListener[] fileListeners = null;
         final FileObject file = event.getFile();
+        final FileListener[] fileListeners = listenerMap.get(file.getName());
+        if (fileListeners == null) {
+            return;
+        }
 
-        synchronized (listenerMap) {
-            final ArrayList<?> listeners = listenerMap.get(file.getName());
-            if (listeners != null) {
-                fileListeners = listeners.toArray(new FileListener[listeners.size()]);
-            }
+        final FileEventDispatcher dispatcher = eventDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(event, fileListeners);
+            return;
         }
 
-        if (fileListeners != null) {
-            for (final FileListener fileListener : fileListeners) {
-                try {
+        for (final FileListener fileListener : fileListeners) {
+            try {
+                if (fileListener instanceof FileBatchListener) {
+                    ((FileBatchListener) fileListener).filesChanged(Collections.<FileChangeEvent>singletonList(event));
+                } else {
                     event.notify(fileListener);
-                } catch (final Exception e) {
-                    final String message = Messages.getString("vfs.provider/notify-listener.warn", file);
-                    // getLogger().warn(message, e);
-                    VfsLog.warn(getLogger(), LOG, message, e);
                 }
+            } catch (final Exception e) {
+                final String message = Messages.getString("vfs.provider/notify-listener.warn", new Object[] { file });
+                // getLogger().warn(message, e);
+                VfsLog.warn(getLogger(), LOG, message, e);
             }
         }
     }
@@ -570,16 +850,114 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return this.cacheKey;
     }
 
+    /**
+     * Counts a stream about to be opened.
+     */
     void streamOpened() {
+        markUsed();
         openStreams.incrementAndGet();
     }
 
     void streamClosed() {
+        markUsed();
         if (openStreams.decrementAndGet() == 0) {
             notifyAllStreamsClosed();
         }
     }
 
+    /**
+     * Returns the start time of an operation to measure.
+     *
+     * @return The time from {@link System#nanoTime()}, or 0 if the operations are not measured.
+     */
+    long startOperation() {
+        return recorder != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records an operation started with {@link #startOperation()}.
+     *
+     * @param operation The operation.
+     * @param start The start time.
+     * @param succeeded false if the operation failed.
+     */
+    void endOperation(final MeteredOperation operation, final long start, final boolean succeeded) {
+        final FileOperationRecorder fileOperationRecorder = recorder;
+        if (fileOperationRecorder != null) {
+            fileOperationRecorder.recordOperation(operation, System.nanoTime() - start, !succeeded);
+        }
+    }
+
+    void recordBytesRead(final long bytes) {
+        if (recorder != null && bytes > 0) {
+            recorder.recordBytesRead(bytes);
+        }
+    }
+
+    void recordBytesWritten(final long bytes) {
+        if (recorder != null && bytes > 0) {
+            recorder.recordBytesWritten(bytes);
+        }
+    }
+
+    /**
+     * Records that a file of this file system is being used.
+     */
+    void markUsed() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns true if this file system has no open stream and was not used for a given time. A file system is used
+     * when one of its files is resolved or attached, or when a stream is opened or closed.
+     *
+     * @param idleTime The idle time in milliseconds.
+     * @return true if this file system is idle.
+     * @since 2.3
+     */
+    public boolean isIdle(final long idleTime) {
+        return isIdle(TimeUnit.MILLISECONDS.toNanos(idleTime), System.nanoTime());
+    }
+
+    boolean isIdle(final long idleNanos, final long now) {
+        return !isOpen() && now - lastUsedNanos >= idleNanos;
+    }
+
+    /**
+     * Claims this file system if it is idle, and was used since it was last claimed. Only one caller claims a given
+     * idle period, which lets it release the file system, or its link, without holding a lock while other threads
+     * keep using it.
+     *
+     * @param idleTime The idle time in milliseconds.
+     * @return true if the caller claimed this file system.
+     * @see #isIdle(long)
+     * @since 2.3
+     */
+    public boolean claimIdle(final long idleTime) {
+        final long lastUsed = lastUsedNanos;
+        final long lastClaimed = idleClaimNanos.get();
+        return lastUsed != lastClaimed && isIdle(idleTime) && idleClaimNanos.compareAndSet(lastClaimed, lastUsed)
+                // not used while claimed
+                && lastUsed == lastUsedNanos;
+    }
+
+    /**
+     * Closes the link used to access the files if this file system is idle, and was used since the link was last
+     * closed this way.
+     *
+     * @param idleTime The idle time in milliseconds.
+     * @return true if the link was closed.
+     * @see #claimIdle(long)
+     * @since 2.3
+     */
+    public boolean closeCommunicationLinkIfIdle(final long idleTime) {
+        if (!claimIdle(idleTime)) {
+            return false;
+        }
+        closeCommunicationLink();
+        return true;
+    }
+
     /**
      * will be called after all file-objects closed their streams.
      */
@@ -77,6 +77,11 @@ public abstract class AbstractOriginatingFileProvider extends AbstractFileProvid
 
     /**
      * Returns the FileSystem associated with the specified root.
+     * <p>
+     * Concurrent callers asking for a file system which is not cached yet wait for the first one to create it, and
+     * share it. If the creation fails, only that caller gets the exception, and the next waiting caller tries again
+     * at once, so a file system which cannot be reached is tried once per waiting caller, one after the other.
+     * </p>
      *
      * @param rootName The root path.
      * @param fileSystemOptions The FileSystem options.
@@ -84,13 +89,27 @@ public abstract class AbstractOriginatingFileProvider extends AbstractFileProvid
      * @throws FileSystemException if an error occurs.
      * @since 2.0
      */
-    protected synchronized FileSystem getFileSystem(final FileName rootName, final FileSystemOptions fileSystemOptions)
+    protected FileSystem getFileSystem(final FileName rootName, final FileSystemOptions fileSystemOptions)
             throws FileSystemException {
         FileSystem fs = findFileSystem(rootName, fileSystemOptions);
-        if (fs == null) {
-            // Need to create the file system, and cache it
-            fs = doCreateFileSystem(rootName, fileSystemOptions);
-            addFileSystem(rootName, fs);
+        if (fs != null) {
+            return fs;
+        }
+
+        // Need to create the file system, and cache it. Threads asking for the same file system wait for the first
+        // one, the others go on.
+        final FileSystemKey key = new FileSystemKey(rootName, fileSystemOptions);
+        final Object lock = acquireCreationLock(key);
+        try {
+            synchronized (lock) {
+                fs = findFileSystem(rootName, fileSystemOptions);
+                if (fs == null) {
+                    fs = doCreateFileSystem(rootName, fileSystemOptions);
+                    addFileSystem(rootName, fs);
+                }
+            }
+        } finally {
+            releaseCreationLock(key, lock);
         }
         return fs;
     }
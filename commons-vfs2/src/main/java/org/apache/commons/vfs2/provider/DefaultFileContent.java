@@ -30,6 +30,7 @@ import org.apache.commons.vfs2.FileContentInfoFactory;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.metrics.MeteredOperation;
 import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
 import org.apache.commons.vfs2.util.MonitorRandomAccessContent;
@@ -81,11 +82,14 @@ public final class DefaultFileContent implements FileContent {
         return data;
     }
 
+    /**
+     * Counts a stream of this content. The file system counts it before it is opened, see
+     * {@link AbstractFileSystem#streamOpened()}.
+     */
     void streamOpened() {
         synchronized (this) {
             openStreams++;
         }
-        ((AbstractFileSystem) fileObject.getFileSystem()).streamOpened();
     }
 
     void streamClosed() {
@@ -127,6 +131,11 @@ public final class DefaultFileContent implements FileContent {
          * new FileSystemException("vfs.provider/get-size-write.error", file); }
          */
 
+        final FileStat stat = fileObject.getFileStat();
+        if (stat != null && stat.getSize() != FileStat.UNKNOWN) {
+            return stat.getSize();
+        }
+
         try {
             // Get the size
             return fileObject.doGetContentSize();
@@ -150,6 +159,10 @@ public final class DefaultFileContent implements FileContent {
         if (!fileObject.getType().hasAttributes()) {
             throw new FileSystemException("vfs.provider/get-last-modified-no-exist.error", fileObject);
         }
+        final FileStat stat = fileObject.getFileStat();
+        if (stat != null && stat.getLastModifiedTime() != FileStat.UNKNOWN) {
+            return stat.getLastModifiedTime();
+        }
         try {
             return fileObject.doGetLastModifiedTime();
         } catch (final Exception e) {
@@ -172,6 +185,7 @@ public final class DefaultFileContent implements FileContent {
         if (!fileObject.getType().hasAttributes()) {
             throw new FileSystemException("vfs.provider/set-last-modified-no-exist.error", fileObject);
         }
+        fileObject.setFileStat(null);
         try {
             if (!fileObject.doSetLastModifiedTime(modTime)) {
                 throw new FileSystemException("vfs.provider/set-last-modified.error", fileObject);
@@ -346,7 +360,20 @@ public final class DefaultFileContent implements FileContent {
          */
 
         // Get the raw input stream
-        final InputStream inputStream = fileObject.getInputStream();
+        final AbstractFileSystem fs = (AbstractFileSystem) fileObject.getFileSystem();
+        fs.streamOpened();
+        final long start = fs.startOperation();
+        boolean opened = false;
+        final InputStream inputStream;
+        try {
+            inputStream = fileObject.getInputStream();
+            opened = true;
+        } finally {
+            fs.endOperation(MeteredOperation.OPEN_INPUT, start, opened);
+            if (!opened) {
+                fs.streamClosed();
+            }
+        }
 
         final InputStream wrappedInputStream = new FileContentInputStream(fileObject, inputStream);
 
@@ -371,7 +398,15 @@ public final class DefaultFileContent implements FileContent {
          */
 
         // Get the content
-        final RandomAccessContent rastr = fileObject.getRandomAccessContent(mode);
+        final AbstractFileSystem fs = (AbstractFileSystem) fileObject.getFileSystem();
+        fs.streamOpened();
+        final RandomAccessContent rastr;
+        try {
+            rastr = fileObject.getRandomAccessContent(mode);
+        } catch (final FileSystemException | RuntimeException e) {
+            fs.streamClosed();
+            throw e;
+        }
 
         final FileRandomAccessContent rac = new FileRandomAccessContent(fileObject, rastr);
 
@@ -410,7 +445,20 @@ public final class DefaultFileContent implements FileContent {
         }
 
         // Get the raw output stream
-        final OutputStream outstr = fileObject.getOutputStream(bAppend);
+        final AbstractFileSystem fs = (AbstractFileSystem) fileObject.getFileSystem();
+        fs.streamOpened();
+        final long start = fs.startOperation();
+        boolean opened = false;
+        final OutputStream outstr;
+        try {
+            outstr = fileObject.getOutputStream(bAppend);
+            opened = true;
+        } finally {
+            fs.endOperation(MeteredOperation.OPEN_OUTPUT, start, opened);
+            if (!opened) {
+                fs.streamClosed();
+            }
+        }
 
         // Create and set wrapper
         final FileContentOutputStream wrapped = new FileContentOutputStream(fileObject, outstr);
@@ -493,6 +541,8 @@ public final class DefaultFileContent implements FileContent {
      * Handles the end of random access.
      */
     private void endRandomAccess(final RandomAccessContent rac) {
+        // the content might have been written
+        fileObject.setFileStat(null);
         final FileContentThreadData fileContentThreadData = threadLocal.get();
         if (fileContentThreadData != null) {
             fileContentThreadData.removeRastr(rac);
@@ -581,6 +631,7 @@ public final class DefaultFileContent implements FileContent {
             try {
                 super.onClose();
             } finally {
+                ((AbstractFileSystem) fileObject.getFileSystem()).recordBytesRead(getCount());
                 endInput(this);
             }
         }
@@ -652,6 +703,7 @@ public final class DefaultFileContent implements FileContent {
             try {
                 super.onClose();
             } finally {
+                ((AbstractFileSystem) fileObject.getFileSystem()).recordBytesWritten(getCount());
                 try {
                     endOutput();
                 } catch (final Exception e) {
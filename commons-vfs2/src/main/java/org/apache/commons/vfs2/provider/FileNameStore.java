@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileName;
+
+/**
+ * A shared store for the absolute paths of file names.
+ * <p>
+ * Every path is interned as a tree of segments, where each node only keeps its parent and its base name. File names
+ * created while a store is installed with {@link #setDefault(FileNameStore)} share their common prefixes and derive
+ * their path, URI and decoded path on demand instead of caching their own copies. This trades some CPU for much less
+ * heap when many names are kept, for instance by {@link org.apache.commons.vfs2.cache.DefaultFilesCache}.
+ * <p>
+ * Nodes are never removed from the store, so it is bounded by a maximum number of nodes. Once the store is full, new
+ * file names keep their own path, as they do without a store.
+ *
+ * @since 2.3
+ */
+public final class FileNameStore {
+    /** The default maximum number of nodes */
+    public static final int DEFAULT_MAX_SIZE = 1000000;
+
+    private static volatile FileNameStore defaultStore;
+
+    private final ConcurrentMap<Node, Node> nodes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int maxSize;
+
+    private final Node root = new Node(null, "");
+
+    /**
+     * Creates a store holding at most {@link #DEFAULT_MAX_SIZE} nodes.
+     */
+    public FileNameStore() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param maxSize The maximum number of nodes.
+     */
+    public FileNameStore(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the store used by new file names.
+     *
+     * @return The store, or null if file names keep their own paths.
+     */
+    public static FileNameStore getDefault() {
+        return defaultStore;
+    }
+
+    /**
+     * Sets the store used by new file names. Existing names are not affected.
+     *
+     * @param store The store, or null to let file names keep their own paths.
+     */
+    public static void setDefault(final FileNameStore store) {
+        defaultStore = store;
+    }
+
+    /**
+     * Returns the number of nodes in this store.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the maximum number of nodes in this store.
+     *
+     * @return The maximum number of nodes.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all nodes. Names that already use a node keep it.
+     */
+    public void clear() {
+        nodes.clear();
+        size.set(0);
+    }
+
+    /**
+     * Interns an absolute path.
+     *
+     * @param absPath The normalised absolute path, starting with a {@link FileName#SEPARATOR_CHAR}.
+     * @return The node of the path, or null if the path is not absolute or the store is full.
+     */
+    Node intern(final String absPath) {
+        if (absPath.length() == 0 || absPath.charAt(0) != FileName.SEPARATOR_CHAR) {
+            return null;
+        }
+        Node node = root;
+        int start = 1;
+        final int len = absPath.length();
+        while (start < len || start == len && len > 1) {
+            int end = absPath.indexOf(FileName.SEPARATOR_CHAR, start);
+            if (end == -1) {
+                end = len;
+            }
+            node = child(node, absPath.substring(start, end));
+            if (node == null) {
+                return null;
+            }
+            start = end + 1;
+        }
+        return node;
+    }
+
+    private Node child(final Node parent, final String baseName) {
+        final Node probe = new Node(parent, baseName);
+        final Node node = nodes.get(probe);
+        if (node != null) {
+            return node;
+        }
+        if (size.get() >= maxSize) {
+            return null;
+        }
+        final Node previous = nodes.putIfAbsent(probe, probe);
+        if (previous != null) {
+            return previous;
+        }
+        size.incrementAndGet();
+        return probe;
+    }
+
+    /**
+     * A segment of an interned path.
+     */
+    static final class Node {
+        private final Node parent;
+        private final String baseName;
+        private final int hash;
+
+        Node(final Node parent, final String baseName) {
+            this.parent = parent;
+            this.baseName = baseName;
+            this.hash = parent == null ? 0 : 31 * System.identityHashCode(parent) + baseName.hashCode();
+        }
+
+        /**
+         * Returns the base name of the path.
+         *
+         * @return The last segment, empty for the root.
+         */
+        String getBaseName() {
+            return baseName;
+        }
+
+        /**
+         * Builds the absolute path.
+         *
+         * @return The path.
+         */
+        String getPath() {
+            if (parent == null) {
+                return FileName.ROOT_PATH;
+            }
+            int len = 0;
+            for (Node node = this; node.parent != null; node = node.parent) {
+                len += node.baseName.length() + 1;
+            }
+            final char[] chars = new char[len];
+            int pos = len;
+            for (Node node = this; node.parent != null; node = node.parent) {
+                final int nameLen = node.baseName.length();
+                pos -= nameLen;
+                node.baseName.getChars(0, nameLen, chars, pos);
+                chars[--pos] = FileName.SEPARATOR_CHAR;
+            }
+            return new String(chars);
+        }
+
+        /**
+         * Compares the paths of two nodes, which may come from different stores.
+         *
+         * @param other The other node.
+         * @return true if both nodes have the same path.
+         */
+        boolean samePath(final Node other) {
+            Node node = this;
+            Node that = other;
+            while (node != that) {
+                if (node.parent == null || that.parent == null) {
+                    // the roots of different stores
+                    return node.parent == that.parent;
+                }
+                if (!node.baseName.equals(that.baseName)) {
+                    return false;
+                }
+                node = node.parent;
+                that = that.parent;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+            final Node that = (Node) obj;
+            return parent == that.parent && baseName.equals(that.baseName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
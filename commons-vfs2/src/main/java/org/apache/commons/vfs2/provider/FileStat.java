@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import org.apache.commons.vfs2.FileType;
+
+/**
+ * An immutable snapshot of the attributes of a file, as returned by the file system in a single request, for example
+ * while listing the parent folder.
+ * <p>
+ * A provider hands the snapshot to {@link AbstractFileObject#setFileStat(FileStat)}, so that the type, size, last
+ * modified time and permissions of the file can be answered without another request until the file is refreshed or
+ * changed. Like the attributes a provider caches when a file is attached, they do not follow changes made outside of
+ * the file system, so a provider only fills in the attributes it would cache anyway, and leaves the others
+ * {@link #UNKNOWN} or null.
+ *
+ * @since 2.3
+ */
+public final class FileStat {
+    /**
+     * Value of an unknown size or last modified time.
+     */
+    public static final long UNKNOWN = -1;
+
+    private final FileType type;
+    private final long size;
+    private final long lastModifiedTime;
+    private final Boolean readable;
+    private final Boolean writeable;
+    private final Boolean executable;
+
+    /**
+     * Creates a snapshot without permissions.
+     *
+     * @param type The type of the file.
+     * @param size The size of the content, or {@link #UNKNOWN}.
+     * @param lastModifiedTime The last modified time, or {@link #UNKNOWN}.
+     */
+    public FileStat(final FileType type, final long size, final long lastModifiedTime) {
+        this(type, size, lastModifiedTime, null, null, null);
+    }
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param type The type of the file.
+     * @param size The size of the content, or {@link #UNKNOWN}.
+     * @param lastModifiedTime The last modified time, or {@link #UNKNOWN}.
+     * @param readable Whether the file can be read by the user of the file system, or null if unknown.
+     * @param writeable Whether the file can be written by the user of the file system, or null if unknown.
+     * @param executable Whether the file can be executed by the user of the file system, or null if unknown.
+     */
+    public FileStat(final FileType type, final long size, final long lastModifiedTime, final Boolean readable,
+            final Boolean writeable, final Boolean executable) {
+        if (type == null) {
+            throw new IllegalArgumentException("type");
+        }
+        this.type = type;
+        this.size = size;
+        this.lastModifiedTime = lastModifiedTime;
+        this.readable = readable;
+        this.writeable = writeable;
+        this.executable = executable;
+    }
+
+    /**
+     * @return The type of the file, never null.
+     */
+    public FileType getType() {
+        return type;
+    }
+
+    /**
+     * @return The size of the content, or {@link #UNKNOWN}.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return The last modified time, or {@link #UNKNOWN}.
+     */
+    public long getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    /**
+     * @return Whether the file can be read, or null if unknown.
+     */
+    public Boolean isReadable() {
+        return readable;
+    }
+
+    /**
+     * @return Whether the file can be written, or null if unknown.
+     */
+    public Boolean isWriteable() {
+        return writeable;
+    }
+
+    /**
+     * @return Whether the file can be executed, or null if unknown.
+     */
+    public Boolean isExecutable() {
+        return executable;
+    }
+
+    @Override
+    public String toString() {
+        return "FileStat [type=" + type + ", size=" + size + ", lastModifiedTime=" + lastModifiedTime
+                + ", readable=" + readable + ", writeable=" + writeable + ", executable=" + executable + "]";
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.commons.vfs2.provider;
 import org.apache.commons.vfs2.FileSystemOptions;
 
 /**
- * Used to identify a filesystem
+ * Used to identify a filesystem.
+ * <p>
+ * The hash code is computed once, as keys are looked up on each resolved file.
  */
 class FileSystemKey implements Comparable<FileSystemKey> {
 
@@ -27,6 +29,7 @@ class FileSystemKey implements Comparable<FileSystemKey> {
 
     private final Comparable<?> key;
     private final FileSystemOptions fileSystemOptions;
+    private final int hash;
 
     /**
      * Create the FS key.
@@ -41,6 +44,24 @@ class FileSystemKey implements Comparable<FileSystemKey> {
         } else {
             this.fileSystemOptions = EMPTY_OPTIONS;
         }
+        this.hash = 31 * key.hashCode() + this.fileSystemOptions.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileSystemKey)) {
+            return false;
+        }
+        final FileSystemKey other = (FileSystemKey) obj;
+        return hash == other.hash && key.equals(other.key) && fileSystemOptions.equals(other.fileSystemOptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
@@ -46,6 +46,13 @@ public final class UriParser {
 
     private static final char LOW_MASK = 0x0F;
 
+    private static final int MAX_KNOWN_SCHEMES = 32;
+
+    /**
+     * The interned schemes extracted so far, looked up without creating a String.
+     */
+    private static volatile String[] knownSchemes = {};
+
     private UriParser() {
     }
 
@@ -117,9 +124,11 @@ public final class UriParser {
             startFirstElem = 1;
         }
 
-        // Iterate over each element
+        // Iterate over each element, moving the kept elements to the front. A path that is already normalised is
+        // not modified at all.
+        final int maxlen = path.length();
         int startElem = startFirstElem;
-        int maxlen = path.length();
+        int endPath = startFirstElem;
         while (startElem < maxlen) {
             // Find the end of the element
             int endElem = startElem;
@@ -127,43 +136,45 @@ public final class UriParser {
             }
 
             final int elemLen = endElem - startElem;
-            if (elemLen == 0) {
-                // An empty element - axe it
-                path.delete(endElem, endElem + 1);
-                maxlen = path.length();
-                continue;
-            }
-            if (elemLen == 1 && path.charAt(startElem) == '.') {
-                // A '.' element - axe it
-                path.delete(startElem, endElem + 1);
-                maxlen = path.length();
+            if (elemLen == 0 || elemLen == 1 && path.charAt(startElem) == '.') {
+                // An empty or '.' element - axe it
+                startElem = endElem + 1;
                 continue;
             }
             if (elemLen == 2 && path.charAt(startElem) == '.' && path.charAt(startElem + 1) == '.') {
                 // A '..' element - remove the previous element
-                if (startElem == startFirstElem) {
+                if (endPath == startFirstElem) {
                     // Previous element is missing
                     throw new FileSystemException("vfs.provider/invalid-relative-path.error");
                 }
 
                 // Find start of previous element
-                int pos = startElem - 2;
+                int pos = endPath - 2;
                 for (; pos >= 0 && path.charAt(pos) != SEPARATOR_CHAR; pos--) {
                 }
-                startElem = pos + 1;
-
-                path.delete(startElem, endElem + 1);
-                maxlen = path.length();
+                endPath = pos + 1;
+                startElem = endElem + 1;
                 continue;
             }
 
-            // A regular element
-            startElem = endElem + 1;
+            // A regular element, keep it with its separator
+            final int next = Math.min(endElem + 1, maxlen);
+            if (endPath == startElem) {
+                endPath = next;
+            } else {
+                for (int pos = startElem; pos < next; pos++) {
+                    path.setCharAt(endPath++, path.charAt(pos));
+                }
+            }
+            startElem = next;
         }
 
         // Remove trailing separator
-        if (!VFS.isUriStyle() && maxlen > 1 && path.charAt(maxlen - 1) == SEPARATOR_CHAR) {
-            path.delete(maxlen - 1, maxlen);
+        if (!VFS.isUriStyle() && endPath > 1 && path.charAt(endPath - 1) == SEPARATOR_CHAR) {
+            endPath--;
+        }
+        if (endPath < maxlen) {
+            path.setLength(endPath);
         }
 
         return fileType;
@@ -206,26 +217,21 @@ public final class UriParser {
      * @return The scheme name. Returns null if there is no scheme.
      */
     public static String extractScheme(final String uri, final StringBuilder buffer) {
-        if (buffer != null) {
-            buffer.setLength(0);
-            buffer.append(uri);
-        }
-
+        String scheme = null;
+        int start = 0;
         final int maxPos = uri.length();
         for (int pos = 0; pos < maxPos; pos++) {
             final char ch = uri.charAt(pos);
 
             if (ch == ':') {
                 // Found the end of the scheme
-                final String scheme = uri.substring(0, pos);
-                if (scheme.length() <= 1 && Os.isFamily(Os.OS_FAMILY_WINDOWS)) {
+                if (pos <= 1 && Os.isFamily(Os.OS_FAMILY_WINDOWS)) {
                     // This is not a scheme, but a Windows drive letter
-                    return null;
+                    break;
                 }
-                if (buffer != null) {
-                    buffer.delete(0, pos + 1);
-                }
-                return scheme.intern();
+                scheme = internScheme(uri, pos);
+                start = pos + 1;
+                break;
             }
 
             if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) {
@@ -243,8 +249,31 @@ public final class UriParser {
             break;
         }
 
-        // No scheme in URI
-        return null;
+        if (buffer != null) {
+            // Only copy the remainder of the URI
+            buffer.setLength(0);
+            buffer.ensureCapacity(maxPos - start);
+            buffer.append(uri, start, maxPos);
+        }
+        return scheme;
+    }
+
+    private static String internScheme(final String uri, final int length) {
+        final String[] schemes = knownSchemes;
+        for (final String scheme : schemes) {
+            if (scheme.length() == length && uri.startsWith(scheme)) {
+                return scheme;
+            }
+        }
+        final String scheme = uri.substring(0, length).intern();
+        if (schemes.length < MAX_KNOWN_SCHEMES) {
+            // A lost update only costs another lookup later
+            final String[] newSchemes = new String[schemes.length + 1];
+            System.arraycopy(schemes, 0, newSchemes, 0, schemes.length);
+            newSchemes[schemes.length] = scheme;
+            knownSchemes = newSchemes;
+        }
+        return scheme;
     }
 
     /**
@@ -276,16 +305,23 @@ public final class UriParser {
      */
     public static void decode(final StringBuilder buffer, final int offset, final int length)
             throws FileSystemException {
+        // Decode in a single pass, moving the decoded characters to the front
+        final int end = offset + length;
+        int decodedEnd = offset;
         int index = offset;
-        int count = length;
-        for (; count > 0; count--, index++) {
+        while (index < end) {
             final char ch = buffer.charAt(index);
             if (ch != '%') {
+                if (decodedEnd != index) {
+                    buffer.setCharAt(decodedEnd, ch);
+                }
+                decodedEnd++;
+                index++;
                 continue;
             }
-            if (count < 3) {
+            if (end - index < 3) {
                 throw new FileSystemException("vfs.provider/invalid-escape-sequence.error",
-                        buffer.substring(index, index + count));
+                        buffer.substring(index, end));
             }
 
             // Decode
@@ -298,9 +334,11 @@ public final class UriParser {
             final char value = (char) (dig1 << BITS_IN_HALF_BYTE | dig2);
 
             // Replace
-            buffer.setCharAt(index, value);
-            buffer.delete(index + 1, index + 3);
-            count -= 2;
+            buffer.setCharAt(decodedEnd++, value);
+            index += 3;
+        }
+        if (decodedEnd < end) {
+            buffer.delete(decodedEnd, end);
         }
     }
 
@@ -326,29 +364,52 @@ public final class UriParser {
      * @param reserved characters to encode.
      */
     public static void encode(final StringBuilder buffer, final int offset, final int length, final char[] reserved) {
-        int index = offset;
-        int count = length;
-        for (; count > 0; index++, count--) {
-            final char ch = buffer.charAt(index);
-            boolean match = ch == '%';
-            if (reserved != null) {
-                for (int i = 0; !match && i < reserved.length; i++) {
-                    if (ch == reserved[i]) {
-                        match = true;
-                    }
-                }
+        final int end = offset + length;
+        int matches = 0;
+        for (int index = offset; index < end; index++) {
+            if (isReserved(buffer.charAt(index), reserved)) {
+                matches++;
             }
-            if (match) {
+        }
+        if (matches == 0) {
+            return;
+        }
+
+        // Make room for the escapes, then encode from the end of the region backwards
+        final int oldLength = buffer.length();
+        final int shift = 2 * matches;
+        buffer.setLength(oldLength + shift);
+        for (int index = oldLength - 1; index >= end; index--) {
+            buffer.setCharAt(index + shift, buffer.charAt(index));
+        }
+        int encodedEnd = end + shift;
+        for (int index = end - 1; index >= offset; index--) {
+            final char ch = buffer.charAt(index);
+            if (isReserved(ch, reserved)) {
                 // Encode
-                final char[] digits = { Character.forDigit((ch >> BITS_IN_HALF_BYTE) & LOW_MASK, HEX_BASE),
-                        Character.forDigit(ch & LOW_MASK, HEX_BASE) };
-                buffer.setCharAt(index, '%');
-                buffer.insert(index + 1, digits);
-                index += 2;
+                buffer.setCharAt(--encodedEnd, Character.forDigit(ch & LOW_MASK, HEX_BASE));
+                buffer.setCharAt(--encodedEnd, Character.forDigit((ch >> BITS_IN_HALF_BYTE) & LOW_MASK, HEX_BASE));
+                buffer.setCharAt(--encodedEnd, '%');
+            } else {
+                buffer.setCharAt(--encodedEnd, ch);
             }
         }
     }
 
+    private static boolean isReserved(final char ch, final char[] reserved) {
+        if (ch == '%') {
+            return true;
+        }
+        if (reserved != null) {
+            for (final char element : reserved) {
+                if (ch == element) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Removes %nn encodings from a string.
      *
@@ -370,6 +431,13 @@ public final class UriParser {
         if (decodedStr == null) {
             return null;
         }
+        int index = 0;
+        for (; index < decodedStr.length() && !isReserved(decodedStr.charAt(index), reserved); index++) {
+        }
+        if (index == decodedStr.length()) {
+            // Nothing to encode
+            return decodedStr;
+        }
         final StringBuilder buffer = new StringBuilder(decodedStr);
         encode(buffer, 0, buffer.length(), reserved);
         return buffer.toString();
@@ -398,7 +466,21 @@ public final class UriParser {
      * @throws FileSystemException if an error occurs.
      */
     public static void checkUriEncoding(final String uri) throws FileSystemException {
-        decode(uri);
+        if (uri == null) {
+            return;
+        }
+        // Same checks as decode, without building the decoded String
+        final int length = uri.length();
+        for (int index = uri.indexOf('%'); index != -1; index = uri.indexOf('%', index + 3)) {
+            if (length - index < 3) {
+                throw new FileSystemException("vfs.provider/invalid-escape-sequence.error", uri.substring(index));
+            }
+            if (Character.digit(uri.charAt(index + 1), HEX_BASE) == -1
+                    || Character.digit(uri.charAt(index + 2), HEX_BASE) == -1) {
+                throw new FileSystemException("vfs.provider/invalid-escape-sequence.error",
+                        uri.substring(index, index + 3));
+            }
+        }
     }
 
     public static void canonicalizePath(final StringBuilder buffer, final int offset, final int length,
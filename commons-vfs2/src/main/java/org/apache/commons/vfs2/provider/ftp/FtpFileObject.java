@@ -252,6 +252,7 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
      */
     @Override
     protected FileType doGetType() throws Exception {
+        final String link;
         // VFS-210
         synchronized (getFileSystem()) {
             if (this.fileInfo == null) {
@@ -264,29 +265,27 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
                 return FileType.FOLDER;
             } else if (this.fileInfo.isFile()) {
                 return FileType.FILE;
-            } else if (this.fileInfo.isSymbolicLink()) {
-                final FileObject linkDest = getLinkDestination();
-                // VFS-437: We need to check if the symbolic link links back to the symbolic link itself
-                if (this.isCircular(linkDest)) {
-                    // If the symbolic link links back to itself, treat it as an imaginary file to prevent following
-                    // this link. If the user tries to access the link as a file or directory, the user will end up with
-                    // a FileSystemException warning that the file cannot be accessed. This is to prevent the infinite
-                    // call back to doGetType() to prevent the StackOverFlow
-                    return FileType.IMAGINARY;
-                }
-                return linkDest.getType();
-
+            } else if (!this.fileInfo.isSymbolicLink()) {
+                throw new FileSystemException("vfs.provider.ftp/get-type.error", getName());
             }
+            link = this.fileInfo.getLink();
+        }
+
+        // Followed once the file system is released, see getLinkDestinationIfLink()
+        final FileObject linkDest = getLinkDestination(link);
+        // VFS-437: We need to check if the symbolic link links back to the symbolic link itself
+        if (this.isCircular(linkDest)) {
+            // If the symbolic link links back to itself, treat it as an imaginary file to prevent following
+            // this link. If the user tries to access the link as a file or directory, the user will end up with
+            // a FileSystemException warning that the file cannot be accessed. This is to prevent the infinite
+            // call back to doGetType() to prevent the StackOverFlow
+            return FileType.IMAGINARY;
         }
-        throw new FileSystemException("vfs.provider.ftp/get-type.error", getName());
+        return linkDest.getType();
     }
 
-    private FileObject getLinkDestination() throws FileSystemException {
+    private FileObject getLinkDestination(final String path) throws FileSystemException {
         if (linkDestination == null) {
-            final String path;
-            synchronized (getFileSystem()) {
-                path = this.fileInfo.getLink();
-            }
             FileName relativeTo = getName().getParent();
             if (relativeTo == null) {
                 relativeTo = getName();
@@ -298,19 +297,32 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
         return linkDestination;
     }
 
-    @Override
-    protected FileObject[] doListChildrenResolved() throws Exception {
+    /**
+     * Returns the destination of this file if it is a symbolic link, which does not link back to itself.
+     * <p>
+     * The destination guards its data with its own lock under {@link org.apache.commons.vfs2.LockStrategy#READ_WRITE},
+     * and a thread holding that lock may wait for the file system, so the destination is only used once the file
+     * system is released.
+     *
+     * @return The destination, or null if this file is not a symbolic link or links to itself.
+     */
+    private FileObject getLinkDestinationIfLink() throws FileSystemException {
+        final String link;
         synchronized (getFileSystem()) {
-            if (this.fileInfo != null && this.fileInfo.isSymbolicLink()) {
-                final FileObject linkDest = getLinkDestination();
-                // VFS-437: Try to avoid a recursion loop.
-                if (this.isCircular(linkDest)) {
-                    return null;
-                }
-                return linkDest.getChildren();
+            if (this.fileInfo == null || !this.fileInfo.isSymbolicLink()) {
+                return null;
             }
+            link = this.fileInfo.getLink();
         }
-        return null;
+        final FileObject linkDest = getLinkDestination(link);
+        // VFS-437: Try to avoid a recursion loop.
+        return this.isCircular(linkDest) ? null : linkDest;
+    }
+
+    @Override
+    protected FileObject[] doListChildrenResolved() throws Exception {
+        final FileObject linkDest = getLinkDestinationIfLink();
+        return linkDest != null ? linkDest.getChildren() : null;
     }
 
     /**
@@ -445,15 +457,11 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
      */
     @Override
     protected long doGetContentSize() throws Exception {
+        final FileObject linkDest = getLinkDestinationIfLink();
+        if (linkDest != null) {
+            return linkDest.getContent().getSize();
+        }
         synchronized (getFileSystem()) {
-            if (this.fileInfo.isSymbolicLink()) {
-                final FileObject linkDest = getLinkDestination();
-                // VFS-437: Try to avoid a recursion loop.
-                if (this.isCircular(linkDest)) {
-                    return this.fileInfo.getSize();
-                }
-                return linkDest.getContent().getSize();
-            }
             return this.fileInfo.getSize();
         }
     }
@@ -465,15 +473,11 @@ public class FtpFileObject extends AbstractFileObject<FtpFileSystem> {
      */
     @Override
     protected long doGetLastModifiedTime() throws Exception {
+        final FileObject linkDest = getLinkDestinationIfLink();
+        if (linkDest != null) {
+            return linkDest.getContent().getLastModifiedTime();
+        }
         synchronized (getFileSystem()) {
-            if (this.fileInfo.isSymbolicLink()) {
-                final FileObject linkDest = getLinkDestination();
-                // VFS-437: Try to avoid a recursion loop.
-                if (this.isCircular(linkDest)) {
-                    return getTimestamp();
-                }
-                return linkDest.getContent().getLastModifiedTime();
-            }
             return getTimestamp();
         }
     }
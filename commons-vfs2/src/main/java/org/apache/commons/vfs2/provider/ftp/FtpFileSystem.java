@@ -118,7 +118,7 @@ public class FtpFileSystem extends AbstractFileSystem {
      * @since 2.1
      */
     protected FTPClientWrapper createWrapper() throws FileSystemException {
-        return new FTPClientWrapper((GenericFileName) getRoot().getName(), getFileSystemOptions());
+        return new FTPClientWrapper((GenericFileName) getRoot().getName(), getFileSystemOptionsSnapshot());
     }
 
     /**
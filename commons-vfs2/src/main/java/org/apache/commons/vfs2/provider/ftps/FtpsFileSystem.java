@@ -43,6 +43,6 @@ public class FtpsFileSystem extends FtpFileSystem {
 
     @Override
     protected FtpsClientWrapper createWrapper() throws FileSystemException {
-        return new FtpsClientWrapper((GenericFileName) getRoot().getName(), getFileSystemOptions());
+        return new FtpsClientWrapper((GenericFileName) getRoot().getName(), getFileSystemOptionsSnapshot());
     }
 }
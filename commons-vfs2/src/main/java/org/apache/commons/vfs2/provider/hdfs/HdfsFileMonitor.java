@@ -0,0 +1,464 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.hdfs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileMonitor;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.DefaultFileMonitor;
+import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.Messages;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.hdfs.DFSInotifyEventInputStream;
+import org.apache.hadoop.hdfs.client.HdfsAdmin;
+import org.apache.hadoop.hdfs.inotify.Event;
+import org.apache.hadoop.hdfs.inotify.MissingEventsException;
+
+/**
+ * A {@link FileMonitor} that reads the inotify event stream of the NameNode for the files of the HDFS provider.
+ * <p>
+ * Instead of listing every monitored folder at each pass, the changes of the whole namespace are read from the edit
+ * log of the NameNode, and those of the monitored files are reported as they happen:
+ * <ul>
+ * <li>a created file or folder is reported as created;</li>
+ * <li>a file closed after being appended to, or whose modification time is set, is reported as changed;</li>
+ * <li>a deleted file or folder is reported as deleted;</li>
+ * <li>a renamed file or folder is reported as deleted under its old name, and created under its new name.</li>
+ * </ul>
+ * A new file is only reported once, when it is created. The content of a deleted or renamed folder is not listed, so
+ * only its monitored files are reported along with it. Events are read once the NameNode has synced them to its edit
+ * log, which it may delay for a modification time set on its own until the next change.
+ * <p>
+ * Reading the event stream requires the privileges of the HDFS superuser. Files of other providers, and HDFS files
+ * whose event stream cannot be read, are polled as by {@link DefaultFileMonitor}.
+ *
+ * <h2>Example usage:</h2>
+ *
+ * <pre>
+ * FileSystemManager fsManager = VFS.getManager();
+ * FileObject listendir = fsManager.resolveFile("hdfs://namenode:8020/user/monitored/");
+ *
+ * DefaultFileMonitor fm = new HdfsFileMonitor(new CustomFileListener());
+ * fm.setRecursive(true);
+ * fm.addFile(listendir);
+ * fm.start();
+ * </pre>
+ *
+ * @since 2.3
+ */
+public class HdfsFileMonitor extends DefaultFileMonitor {
+    private static final Log LOG = LogFactory.getLog(HdfsFileMonitor.class);
+
+    /**
+     * How long to wait for an event before checking whether the monitor was stopped, in milliseconds.
+     */
+    private static final long POLL_TIMEOUT = 1000;
+
+    /**
+     * How long {@link #stop()} waits for a thread reading events to end, in milliseconds.
+     */
+    private static final long STOP_TIMEOUT = 10 * POLL_TIMEOUT;
+
+    /**
+     * Guards the event streams.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Map from a file system to the event stream of its cluster. The streams are kept while the monitor is stopped, so
+     * that the changes made in the meantime are reported when it is started again.
+     */
+    private final Map<HdfsFileSystem, EventStream> streams = new HashMap<>();
+
+    private boolean running;
+
+    /**
+     * Creates a monitor.
+     *
+     * @param listener The listener notified of the creation, deletion and changes of the monitored files.
+     */
+    public HdfsFileMonitor(final FileListener listener) {
+        super(listener);
+    }
+
+    /**
+     * Adds a file to be monitored. HDFS files are reported from the event stream, other files are polled.
+     *
+     * @param file The FileObject to monitor.
+     */
+    @Override
+    public void addFile(final FileObject file) {
+        if (file.getFileSystem() instanceof HdfsFileSystem) {
+            synchronized (lock) {
+                try {
+                    getStream((HdfsFileSystem) file.getFileSystem()).add(file);
+                    return;
+                } catch (final IOException e) {
+                    LOG.warn(Messages.getString("vfs.provider.hdfs/watch-file.warn", new Object[] { file }), e);
+                }
+            }
+        }
+        super.addFile(file);
+    }
+
+    /**
+     * Removes a file from being monitored.
+     *
+     * @param file The FileObject to remove from monitoring.
+     */
+    @Override
+    public void removeFile(final FileObject file) {
+        synchronized (lock) {
+            final EventStream stream = streams.get(file.getFileSystem());
+            if (stream != null) {
+                try {
+                    stream.remove(file);
+                } catch (final FileSystemException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                if (stream.files.isEmpty()) {
+                    // Its thread ends at its next event, or poll timeout.
+                    stream.closed = true;
+                    streams.remove(file.getFileSystem());
+                }
+            }
+        }
+        super.removeFile(file);
+    }
+
+    /**
+     * Starts monitoring the files that have been added. When started again, the changes made while the monitor was
+     * stopped are reported.
+     */
+    @Override
+    public void start() {
+        super.start();
+        synchronized (lock) {
+            running = true;
+            for (final EventStream stream : streams.values()) {
+                stream.start();
+            }
+        }
+    }
+
+    /**
+     * Stops monitoring the files that have been added. The event streams keep their position, and their threads end.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        final List<Thread> threads = new ArrayList<>();
+        synchronized (lock) {
+            running = false;
+            for (final EventStream stream : streams.values()) {
+                if (stream.thread != null) {
+                    threads.add(stream.thread);
+                }
+            }
+        }
+
+        // Wake up the threads, and wait for them outside of the lock they take to end.
+        for (final Thread thread : threads) {
+            if (thread != Thread.currentThread()) {
+                thread.interrupt();
+                try {
+                    thread.join(STOP_TIMEOUT);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the event stream of a cluster on first use, so that the changes made from now on are reported.
+     */
+    private EventStream getStream(final HdfsFileSystem fileSystem) throws IOException {
+        EventStream stream = streams.get(fileSystem);
+        if (stream == null) {
+            final FileSystem hdfs = fileSystem.getHdfs();
+            if (hdfs == null) {
+                throw new IOException("No HDFS client for " + fileSystem.getRootURI());
+            }
+            final HdfsAdmin admin = new HdfsAdmin(hdfs.getUri(), hdfs.getConf());
+            stream = new EventStream(fileSystem, admin.getInotifyEventStream());
+            streams.put(fileSystem, stream);
+            if (running) {
+                stream.start();
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Returns the parent of an absolute HDFS path.
+     *
+     * @return The parent, or null for the root.
+     */
+    private static String getParent(final String path) {
+        final int index = path.lastIndexOf('/');
+        if (index < 0 || path.length() == 1) {
+            return null;
+        }
+        return index == 0 ? "/" : path.substring(0, index);
+    }
+
+    /**
+     * The event stream of a cluster, with the monitored files of that cluster.
+     */
+    private final class EventStream implements Runnable {
+        private final HdfsFileSystem fileSystem;
+        private final DFSInotifyEventInputStream events;
+
+        /**
+         * Map from the path of a monitored file to the file, sorted so that the files in a folder are found by the
+         * path of the folder.
+         */
+        private final NavigableMap<String, FileObject> files = new TreeMap<>();
+
+        /**
+         * The monitored paths of the files created and not closed yet.
+         */
+        private final Set<String> created = new HashSet<>();
+
+        /**
+         * The thread reading the events, or null once it has stopped. There is at most one, as the stream is not
+         * thread safe.
+         */
+        private Thread thread;
+
+        /**
+         * The event read when the monitor was stopped, handled once it is started again.
+         */
+        private Event unhandled;
+
+        /**
+         * Whether the stream was dropped as it has no monitored files anymore.
+         */
+        private boolean closed;
+
+        private EventStream(final HdfsFileSystem fileSystem, final DFSInotifyEventInputStream events) {
+            this.fileSystem = fileSystem;
+            this.events = events;
+        }
+
+        private void add(final FileObject file) throws FileSystemException {
+            files.put(file.getName().getPathDecoded(), file);
+        }
+
+        private void remove(final FileObject file) throws FileSystemException {
+            files.remove(file.getName().getPathDecoded());
+            final Iterator<String> iterator = created.iterator();
+            while (iterator.hasNext()) {
+                if (!isMonitored(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        private void start() {
+            if (thread == null) {
+                thread = new Thread(this, "VFS HDFS file monitor " + fileSystem.getRootURI());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        /**
+         * Reads the events until the monitor is stopped.
+         */
+        @Override
+        public void run() {
+            try {
+                Event event = null;
+                while (!exitIfStopped(event)) {
+                    synchronized (lock) {
+                        event = unhandled;
+                        unhandled = null;
+                    }
+                    if (event == null) {
+                        try {
+                            event = events.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                        } catch (final MissingEventsException e) {
+                            // The stream resumes after the lost events.
+                            LOG.warn(Messages.getString("vfs.provider.hdfs/missing-events.warn",
+                                    new Object[] { fileSystem.getRootURI() }), e);
+                            continue;
+                        } catch (final IOException e) {
+                            LOG.error(Messages.getString("vfs.provider.hdfs/read-events.error",
+                                    new Object[] { fileSystem.getRootURI() }), e);
+                            Thread.sleep(POLL_TIMEOUT);
+                            continue;
+                        }
+                        if (event == null) {
+                            continue;
+                        }
+                    }
+                    final List<PendingEvent> pending = new ArrayList<>();
+                    synchronized (lock) {
+                        if (!running) {
+                            continue;
+                        }
+                        handleEvent(event, pending);
+                        event = null;
+                    }
+                    fireEvents(pending);
+                }
+            } catch (final InterruptedException e) {
+                // Stopped.
+            } finally {
+                synchronized (lock) {
+                    if (thread == Thread.currentThread()) {
+                        thread = null;
+                        if (running && !closed) {
+                            // Interrupted by a stop, and started again before it ended.
+                            start();
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ends the thread if the monitor is stopped, in the same lock as {@link #start()}, so that a new thread is
+         * only started once this one is gone.
+         *
+         * @param event The event read and not handled yet, or null.
+         * @return Whether the thread ends.
+         */
+        private boolean exitIfStopped(final Event event) {
+            synchronized (lock) {
+                if (running && !closed) {
+                    return false;
+                }
+                if (event != null) {
+                    unhandled = event;
+                }
+                thread = null;
+                return true;
+            }
+        }
+
+        private void handleEvent(final Event event, final List<PendingEvent> pending) {
+            switch (event.getEventType()) {
+            case CREATE:
+                final Event.CreateEvent createEvent = (Event.CreateEvent) event;
+                if (createEvent.getiNodeType() == Event.CreateEvent.INodeType.FILE
+                        && isMonitored(createEvent.getPath())) {
+                    // The close of the new file is part of its creation.
+                    created.add(createEvent.getPath());
+                }
+                addEvent(createEvent.getPath(), PendingEvent.Kind.CREATED, pending);
+                break;
+            case CLOSE:
+                final String closedPath = ((Event.CloseEvent) event).getPath();
+                if (!created.remove(closedPath)) {
+                    addEvent(closedPath, PendingEvent.Kind.CHANGED, pending);
+                }
+                break;
+            case METADATA:
+                final Event.MetadataUpdateEvent updateEvent = (Event.MetadataUpdateEvent) event;
+                // Only the access time is set when the modification time is negative.
+                if (updateEvent.getMetadataType() == Event.MetadataUpdateEvent.MetadataType.TIMES
+                        && updateEvent.getMtime() >= 0) {
+                    addEvent(updateEvent.getPath(), PendingEvent.Kind.CHANGED, pending);
+                }
+                break;
+            case RENAME:
+                final Event.RenameEvent renameEvent = (Event.RenameEvent) event;
+                if (created.remove(renameEvent.getSrcPath()) && isMonitored(renameEvent.getDstPath())) {
+                    created.add(renameEvent.getDstPath());
+                }
+                addTreeEvents(renameEvent.getSrcPath(), PendingEvent.Kind.DELETED, pending);
+                addTreeEvents(renameEvent.getDstPath(), PendingEvent.Kind.CREATED, pending);
+                break;
+            case UNLINK:
+                final String deleted = ((Event.UnlinkEvent) event).getPath();
+                created.remove(deleted);
+                addTreeEvents(deleted, PendingEvent.Kind.DELETED, pending);
+                break;
+            default:
+                // An append is reported when the file is closed.
+                break;
+            }
+        }
+
+        /**
+         * Reports a file or folder which was added or removed along with its content, and its monitored files.
+         */
+        private void addTreeEvents(final String path, final PendingEvent.Kind kind, final List<PendingEvent> pending) {
+            final Set<String> paths = new LinkedHashSet<>();
+            paths.add(path);
+            final String prefix = path.endsWith("/") ? path : path + "/";
+            paths.addAll(files.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet());
+            for (final String file : paths) {
+                addEvent(file, kind, pending);
+            }
+        }
+
+        private void addEvent(final String path, final PendingEvent.Kind kind, final List<PendingEvent> pending) {
+            if (!isMonitored(path)) {
+                return;
+            }
+            try {
+                pending.add(new PendingEvent(fileSystem.resolveFile(UriParser.encode(path)), kind));
+            } catch (final FileSystemException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+
+        /**
+         * Tells whether a path is monitored, or is a child of a monitored folder, as with
+         * {@link DefaultFileMonitor#addFile(FileObject)}.
+         */
+        private boolean isMonitored(final String path) {
+            if (files.containsKey(path)) {
+                return true;
+            }
+            String parent = getParent(path);
+            if (parent != null && files.containsKey(parent)) {
+                return true;
+            }
+            if (isRecursive()) {
+                while (parent != null) {
+                    if (files.containsKey(parent)) {
+                        return true;
+                    }
+                    parent = getParent(parent);
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -17,9 +17,11 @@
 package org.apache.commons.vfs2.provider.hdfs;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.vfs2.FileNotFolderException;
 import org.apache.commons.vfs2.FileObject;
@@ -28,10 +30,16 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.provider.FileStat;
+import org.apache.commons.vfs2.util.CloseableIterator;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 
 /**
  * A VFS representation of an HDFS file.
@@ -73,6 +81,10 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
      */
     @Override
     protected void doAttach() throws Exception {
+        if (this.stat != null) {
+            // provided by the listing of the parent
+            return;
+        }
         try {
             this.stat = this.hdfs.getFileStatus(this.path);
         } catch (final FileNotFoundException e) {
@@ -81,6 +93,25 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         }
     }
 
+    /**
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doDetach()
+     */
+    @Override
+    protected void doDetach() throws Exception {
+        this.stat = null;
+    }
+
+    /**
+     * Returns the checksum HDFS computes from the checksums of the blocks, which includes the name of the algorithm.
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetChecksum()
+     */
+    @Override
+    protected String doGetChecksum() throws Exception {
+        final FileChecksum checksum = this.hdfs.getFileChecksum(this.path);
+        return checksum == null ? null : checksum.toString();
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetAttributes()
      */
@@ -200,6 +231,59 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         return children;
     }
 
+    /**
+     * Pages through the listing with {@link FileSystem#listLocatedStatus(Path)}, which fetches a partial listing per
+     * call on HDFS.
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doIterateChildren()
+     */
+    @Override
+    protected CloseableIterator<String> doIterateChildren() throws Exception {
+        if (this.doGetType() != FileType.FOLDER) {
+            return null;
+        }
+
+        final RemoteIterator<LocatedFileStatus> files = this.hdfs.listLocatedStatus(this.path);
+        return new CloseableIterator<String>() {
+            private boolean closed;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    closed = closed || !files.hasNext();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(
+                            new FileSystemException("vfs.provider/list-children.error", e, getName()));
+                }
+                return !closed;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return files.next().getPath().getName();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(
+                            new FileSystemException("vfs.provider/list-children.error", e, getName()));
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                // the remaining pages are simply not requested
+                closed = true;
+            }
+        };
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doListChildrenResolved()
      */
@@ -208,11 +292,17 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         if (this.doGetType() != FileType.FOLDER) {
             return null;
         }
-        final String[] children = doListChildren();
-        final FileObject[] fo = new FileObject[children.length];
-        for (int i = 0; i < children.length; i++) {
-            final Path p = new Path(this.path, children[i]);
+        final FileStatus[] files = this.hdfs.listStatus(this.path);
+        final FileObject[] fo = new FileObject[files.length];
+        for (int i = 0; i < files.length; i++) {
+            final Path p = new Path(this.path, files[i].getPath().getName());
             fo[i] = this.fs.resolveFile(p.toUri().toString());
+
+            // the listing already returned the status of the child
+            final HdfsFileObject child = (HdfsFileObject) FileObjectUtils.getAbstractFileObject(fo[i]);
+            child.stat = files[i];
+            child.setFileStat(new FileStat(files[i].isDirectory() ? FileType.FOLDER : FileType.FILE,
+                    files[i].getLen(), files[i].getModificationTime()));
         }
         return fo;
     }
@@ -88,6 +88,15 @@ public class HdfsFileSystem extends AbstractFileSystem {
         throw new FileSystemException("Operation not supported");
     }
 
+    /**
+     * Returns the client of the cluster.
+     *
+     * @return The client, or null if no file has been resolved yet.
+     */
+    synchronized FileSystem getHdfs() {
+        return fs;
+    }
+
     /**
      * Resolve FileName into FileObject.
      *
@@ -22,6 +22,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -29,7 +39,9 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.provider.FileStat;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.CloseableIterator;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
@@ -37,6 +49,68 @@ import org.apache.commons.vfs2.util.RandomAccessMode;
  * A file object implementation which uses direct file access.
  */
 public class LocalFile extends AbstractFileObject<LocalFileSystem> {
+    /**
+     * Yields the encoded names of the entries of an open directory stream.
+     */
+    private final class ChildNameIterator implements CloseableIterator<String> {
+        private final DirectoryStream<Path> stream;
+        private final Iterator<Path> entries;
+        private boolean closed;
+
+        ChildNameIterator(final DirectoryStream<Path> stream) {
+            this.stream = stream;
+            this.entries = stream.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            final boolean next;
+            try {
+                next = entries.hasNext();
+            } catch (final DirectoryIteratorException e) {
+                throw new IllegalStateException(
+                        new FileSystemException("vfs.provider/list-children.error", e.getCause(), getName()));
+            }
+            if (!next) {
+                try {
+                    close();
+                } catch (final FileSystemException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return UriParser.encode(entries.next().getFileName().toString());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws FileSystemException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                stream.close();
+            } catch (final IOException e) {
+                throw new FileSystemException("vfs.provider/list-children.error", e, getName());
+            }
+        }
+    }
+
     private final String rootFile;
 
     private File file;
@@ -83,6 +157,20 @@ public class LocalFile extends AbstractFileObject<LocalFileSystem> {
      */
     @Override
     protected FileType doGetType() throws Exception {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (final IOException | InvalidPathException e) {
+            return getTypeFromFile();
+        }
+        final FileType type = attributes.isDirectory() ? FileType.FOLDER : FileType.FILE;
+        // only the type: the size and last modified time of a local file change without the file system noticing,
+        // so they are read again when asked for
+        setFileStat(new FileStat(type, FileStat.UNKNOWN, FileStat.UNKNOWN));
+        return type;
+    }
+
+    private FileType getTypeFromFile() {
         // JDK BUG: 6192331
         // if (!file.exists())
         if (!file.exists() && file.length() < 1) {
@@ -110,6 +198,17 @@ public class LocalFile extends AbstractFileObject<LocalFileSystem> {
         return UriParser.encode(file.list());
     }
 
+    /**
+     * Streams the children of the file from a {@link DirectoryStream}.
+     */
+    @Override
+    protected CloseableIterator<String> doIterateChildren() throws Exception {
+        if (!file.isDirectory()) {
+            return null;
+        }
+        return new ChildNameIterator(Files.newDirectoryStream(file.toPath()));
+    }
+
     /**
      * Deletes this file, and all children.
      */
@@ -120,6 +219,28 @@ public class LocalFile extends AbstractFileObject<LocalFileSystem> {
         }
     }
 
+    /**
+     * Copies another local file to this file with {@link Files#copy(Path, Path, java.nio.file.CopyOption...)}, if this
+     * file does not exist. An existing file, or symbolic link, is left to the stream copy, which writes through a
+     * symbolic link and fails on a read-only file rather than replacing them.
+     */
+    @Override
+    protected boolean doCopy(final FileObject srcFile) throws Exception {
+        final LocalFile srcLocalFile = (LocalFile) FileObjectUtils.getAbstractFileObject(srcFile);
+        final Path target = file.toPath();
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+
+        try {
+            Files.copy(srcLocalFile.getLocalFile().toPath(), target);
+        } catch (final FileAlreadyExistsException e) {
+            // created meanwhile
+            return false;
+        }
+        return true;
+    }
+
     /**
      * rename this file
      */
@@ -23,7 +23,6 @@ import java.io.OutputStream;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
-import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
@@ -240,12 +239,9 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
      */
     synchronized void resize(final long newSize) throws IOException {
         final RamFileSystem afs = getAbstractFileSystem();
-        final FileSystemOptions afsOptions = afs.getFileSystemOptions();
-        if (afsOptions != null) {
-            final long maxSize = RamFileSystemConfigBuilder.getInstance().getLongMaxSize(afsOptions);
-            if (afs.size() + newSize - this.size() > maxSize) {
-                throw new IOException("FileSystem capacity (" + maxSize + ") exceeded.");
-            }
+        final long maxSize = afs.getMaxSize();
+        if (afs.size() + newSize - this.size() > maxSize) {
+            throw new IOException("FileSystem capacity (" + maxSize + ") exceeded.");
         }
         this.data.resize(newSize);
     }
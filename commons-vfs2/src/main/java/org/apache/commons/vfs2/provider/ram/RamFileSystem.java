@@ -53,6 +53,11 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
      */
     private final Map<FileName, RamFileData> cache;
 
+    /**
+     * The maximum size of the file system, read once from the options.
+     */
+    private final long maxSize;
+
     /**
      * @param rootName The root file name.
      * @param fileSystemOptions The FileSystem options.
@@ -60,6 +65,9 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
     protected RamFileSystem(final FileName rootName, final FileSystemOptions fileSystemOptions) {
         super(rootName, null, fileSystemOptions);
         this.cache = Collections.synchronizedMap(new HashMap<FileName, RamFileData>());
+        final FileSystemOptions options = getFileSystemOptionsSnapshot();
+        this.maxSize = options != null ? RamFileSystemConfigBuilder.getInstance().getLongMaxSize(options)
+                : Long.MAX_VALUE;
         // create root
         final RamFileData rootData = new RamFileData(rootName);
         rootData.setType(FileType.FOLDER);
@@ -87,6 +95,13 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
         caps.addAll(RamFileProvider.capabilities);
     }
 
+    /**
+     * @return the maximum size of the file system, in bytes.
+     */
+    long getMaxSize() {
+        return maxSize;
+    }
+
     /**
      * @param name The name of the file.
      * @return children The names of the children.
@@ -19,9 +19,16 @@ package org.apache.commons.vfs2.provider.sftp;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.vfs2.FileNotFoundException;
 import org.apache.commons.vfs2.FileObject;
@@ -32,7 +39,9 @@ import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.VFS;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.provider.FileStat;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.CloseableIterator;
 import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
@@ -154,6 +163,21 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
         }
     }
 
+    /**
+     * Converts attributes returned by the server, or returns null if they lack the permissions needed to determine the
+     * type.
+     */
+    private static FileStat toFileStat(final SftpATTRS attrs) {
+        if ((attrs.getFlags() & SftpATTRS.SSH_FILEXFER_ATTR_PERMISSIONS) == 0) {
+            return null;
+        }
+        final long size = (attrs.getFlags() & SftpATTRS.SSH_FILEXFER_ATTR_SIZE) != 0 ? attrs.getSize()
+                : FileStat.UNKNOWN;
+        final long lastModifiedTime = (attrs.getFlags() & SftpATTRS.SSH_FILEXFER_ATTR_ACMODTIME) != 0
+                ? attrs.getMTime() * MOD_TIME_FACTOR : FileStat.UNKNOWN;
+        return new FileStat(attrs.isDir() ? FileType.FOLDER : FileType.FILE, size, lastModifiedTime);
+    }
+
     /**
      * Set attrs from listChildrenResolved
      */
@@ -377,24 +401,61 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
         final Iterator<LsEntry> iterator = (Iterator<LsEntry>) vector.iterator(); iterator.hasNext();) {
             final LsEntry stat = iterator.next();
 
-            String name = stat.getFilename();
-            if (VFS.isUriStyle() && stat.getAttrs().isDir() && name.charAt(name.length() - 1) != '/') {
-                name = name + "/";
-            }
-
-            if (name.equals(".") || name.equals("..") || name.equals("./") || name.equals("../")) {
+            final String name = getChildName(stat);
+            if (name == null) {
                 continue;
             }
 
-            final FileObject fo = getFileSystem().resolveFile(getFileSystem().getFileSystemManager()
-                    .resolveName(getName(), UriParser.encode(name), NameScope.CHILD));
+            children.add(resolveChild(name, stat));
+        }
 
-            ((SftpFileObject) FileObjectUtils.getAbstractFileObject(fo)).setStat(stat.getAttrs());
+        return children.toArray(new FileObject[children.size()]);
+    }
 
-            children.add(fo);
+    /**
+     * Streams the listing of this folder from a thread of the file system, without the round-trip fallbacks of
+     * {@link #doListChildrenResolved()}. The listing ends, and releases its channel, once the iterator is consumed,
+     * closed or no longer referenced.
+     *
+     * @since 2.3
+     */
+    @Override
+    protected CloseableIterator<FileObject> doIterateChildrenResolved() throws Exception {
+        if (!isFolder()) {
+            return null;
         }
+        final ChildIterator iterator = new ChildIterator();
+        iterator.producer = getAbstractFileSystem().startListing(iterator.listing);
+        return iterator;
+    }
 
-        return children.toArray(new FileObject[children.size()]);
+    /**
+     * Returns the encoded name of a listed child, or null for the entries of the folder itself and its parent.
+     */
+    private String getChildName(final LsEntry stat) {
+        String name = stat.getFilename();
+        if (VFS.isUriStyle() && stat.getAttrs().isDir() && name.charAt(name.length() - 1) != '/') {
+            name = name + "/";
+        }
+
+        if (name.equals(".") || name.equals("..") || name.equals("./") || name.equals("../")) {
+            return null;
+        }
+        return UriParser.encode(name);
+    }
+
+    /**
+     * Resolves a listed child and sets its attributes from the listing.
+     */
+    private FileObject resolveChild(final String name, final LsEntry stat) throws FileSystemException {
+        final FileObject fo = getFileSystem()
+                .resolveFile(getFileSystem().getFileSystemManager().resolveName(getName(), name, NameScope.CHILD));
+
+        final SftpFileObject child = (SftpFileObject) FileObjectUtils.getAbstractFileObject(fo);
+        child.setStat(stat.getAttrs());
+        child.setFileStat(toFileStat(stat.getAttrs()));
+
+        return fo;
     }
 
     /**
@@ -444,6 +505,13 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
      */
     @Override
     protected InputStream doGetInputStream() throws Exception {
+        // VFS-210: sftp allows to gather an input stream even from a directory and will
+        // fail on first read. So we need to check the type anyway, before taking the file system which a thread
+        // holding the lock of this file may wait for.
+        if (!getType().hasContent()) {
+            throw new FileSystemException("vfs.provider/read-not-file.error", getName());
+        }
+
         // VFS-113: avoid npe
         synchronized (getAbstractFileSystem()) {
             final ChannelSftp channel = getAbstractFileSystem().getChannel();
@@ -461,12 +529,6 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
 
                 InputStream is;
                 try {
-                    // VFS-210: sftp allows to gather an input stream even from a directory and will
-                    // fail on first read. So we need to check the type anyway
-                    if (!getType().hasContent()) {
-                        throw new FileSystemException("vfs.provider/read-not-file.error", getName());
-                    }
-
                     is = channel.get(relPath);
                 } catch (final SftpException e) {
                     if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
@@ -539,4 +601,139 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
         }
     }
 
+
+    /**
+     * Receives the entries of a folder from {@link ChannelSftp#ls(String, ChannelSftp.LsEntrySelector)} and hands them
+     * over to a {@link ChildIterator} through a bounded queue, so the listing is not held in memory as a whole. Only
+     * a weak reference to the iterator is kept, so that the listing stops if the iterator is dropped without being
+     * closed.
+     */
+    private class ChildNameListing implements Runnable, ChannelSftp.LsEntrySelector {
+        private static final int QUEUE_CAPACITY = 256;
+        private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Object end = new Object();
+        private final Reference<ChildIterator> consumer;
+        private volatile boolean closed;
+
+        ChildNameListing(final ChildIterator consumer) {
+            this.consumer = new WeakReference<>(consumer);
+        }
+
+        @Override
+        public void run() {
+            Object last = end;
+            try {
+                final ChannelSftp channel = getAbstractFileSystem().getChannel();
+                try {
+                    channel.ls(relPath, this);
+                } finally {
+                    getAbstractFileSystem().putChannel(channel);
+                }
+            } catch (final Exception e) {
+                last = e;
+            }
+            offer(last);
+        }
+
+        @Override
+        public int select(final LsEntry entry) {
+            if (getChildName(entry) != null) {
+                offer(entry);
+            }
+            return isClosed() ? BREAK : CONTINUE;
+        }
+
+        private boolean isClosed() {
+            if (!closed && consumer.get() == null) {
+                // the iterator was dropped without being closed
+                closed = true;
+            }
+            return closed;
+        }
+
+        private void offer(final Object element) {
+            try {
+                while (!isClosed() && !queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // wait for the consumer
+                }
+            } catch (final InterruptedException e) {
+                closed = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            // unblock the producer
+            queue.clear();
+        }
+    }
+
+    /**
+     * Yields the children received by a {@link ChildNameListing}.
+     */
+    private class ChildIterator implements CloseableIterator<FileObject> {
+        private final ChildNameListing listing = new ChildNameListing(this);
+        private Future<?> producer;
+        private boolean closed;
+        private LsEntry next;
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (next != null) {
+                return true;
+            }
+            final Object element;
+            try {
+                element = listing.queue.take();
+            } catch (final InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            if (element instanceof LsEntry) {
+                next = (LsEntry) element;
+                return true;
+            }
+            close();
+            if (element instanceof Exception) {
+                throw new IllegalStateException(
+                        new FileSystemException("vfs.provider/list-children.error", (Exception) element, getName()));
+            }
+            return false;
+        }
+
+        @Override
+        public FileObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final LsEntry stat = next;
+            next = null;
+            try {
+                return resolveChild(getChildName(stat), stat);
+            } catch (final FileSystemException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            next = null;
+            listing.close();
+            // not interrupted, as the channel goes back to the pool
+            producer.cancel(false);
+        }
+    }
 }
@@ -19,6 +19,11 @@ package org.apache.commons.vfs2.provider.sftp;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
@@ -52,8 +57,23 @@ public class SftpFileSystem extends AbstractFileSystem {
 
     private ChannelSftp idleChannel;
 
+    /**
+     * Executor streaming the listings of folders, created on demand
+     */
+    private ExecutorService listingExecutor;
+
     private final int connectTimeoutMillis;
 
+    /**
+     * Whether the channels stay in the home directory of the user, read once from the options
+     */
+    private final Boolean userDirIsRoot;
+
+    /**
+     * The encoding of the file names, null for the default, read once from the options
+     */
+    private final String fileNameEncoding;
+
     /**
      * Cache for the user ID (-1 when not set)
      */
@@ -69,11 +89,20 @@ public class SftpFileSystem extends AbstractFileSystem {
         super(rootName, null, fileSystemOptions);
         this.session = session;
         final SftpFileSystemConfigBuilder builder = SftpFileSystemConfigBuilder.getInstance();
-        this.connectTimeoutMillis = builder.getConnectTimeoutMillis(fileSystemOptions);
+        final FileSystemOptions options = getFileSystemOptionsSnapshot();
+        this.connectTimeoutMillis = builder.getConnectTimeoutMillis(options);
+        this.userDirIsRoot = builder.getUserDirIsRoot(options);
+        this.fileNameEncoding = builder.getFileNameEncoding(options);
     }
 
     @Override
     protected void doCloseCommunicationLink() {
+        if (listingExecutor != null) {
+            // the listings still running end with the iterators they feed
+            listingExecutor.shutdown();
+            listingExecutor = null;
+        }
+
         if (idleChannel != null) {
             idleChannel.disconnect();
             idleChannel = null;
@@ -85,6 +114,30 @@ public class SftpFileSystem extends AbstractFileSystem {
         }
     }
 
+    /**
+     * Starts streaming the listing of a folder. A listing runs until its iterator is consumed or closed, so the
+     * listings of nested folders run on threads of their own, which are reused once the listings end.
+     *
+     * @param listing The listing.
+     * @return The future of the listing.
+     */
+    synchronized Future<?> startListing(final Runnable listing) {
+        if (listingExecutor == null) {
+            final String namePrefix = "VFS SFTP listing of " + getRootName().getFriendlyURI() + " #";
+            listingExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return listingExecutor.submit(listing);
+    }
+
     /**
      * Returns an SFTP channel to the server.
      *
@@ -103,8 +156,6 @@ public class SftpFileSystem extends AbstractFileSystem {
             } else {
                 channel = (ChannelSftp) session.openChannel("sftp");
                 channel.connect(connectTimeoutMillis);
-                final Boolean userDirIsRoot = SftpFileSystemConfigBuilder.getInstance()
-                        .getUserDirIsRoot(getFileSystemOptions());
                 final String workingDirectory = getRootName().getPath();
                 if (workingDirectory != null && (userDirIsRoot == null || !userDirIsRoot.booleanValue())) {
                     try {
@@ -116,9 +167,6 @@ public class SftpFileSystem extends AbstractFileSystem {
                 }
             }
 
-            final String fileNameEncoding = SftpFileSystemConfigBuilder.getInstance()
-                    .getFileNameEncoding(getFileSystemOptions());
-
             if (fileNameEncoding != null) {
                 try {
                     channel.setFilenameEncoding(fileNameEncoding);
@@ -147,7 +195,7 @@ public class SftpFileSystem extends AbstractFileSystem {
             try {
                 final GenericFileName rootName = (GenericFileName) getRootName();
 
-                authData = UserAuthenticatorUtils.authenticate(getFileSystemOptions(),
+                authData = UserAuthenticatorUtils.authenticate(getFileSystemOptionsSnapshot(),
                         SftpFileProvider.AUTHENTICATOR_TYPES);
 
                 session = SftpClientFactory.createConnection(rootName.getHostName(), rootName.getPort(),
@@ -155,7 +203,7 @@ public class SftpFileSystem extends AbstractFileSystem {
                                 UserAuthenticatorUtils.toChar(rootName.getUserName())),
                         UserAuthenticatorUtils.getData(authData, UserAuthenticationData.PASSWORD,
                                 UserAuthenticatorUtils.toChar(rootName.getPassword())),
-                        getFileSystemOptions());
+                        getFileSystemOptionsSnapshot());
             } catch (final Exception e) {
                 throw new FileSystemException("vfs.provider.sftp/connect.error", getRootName(), e);
             } finally {
@@ -84,8 +84,6 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final String _PREFIX = SftpFileSystemConfigBuilder.class.getName();
 
-    private static final SftpFileSystemConfigBuilder BUILDER = new SftpFileSystemConfigBuilder();
-
     private static final String COMPRESSION = _PREFIX + "COMPRESSION";
 
     private static final String CONNECT_TIMEOUT_MILLIS = _PREFIX + ".CONNECT_TIMEOUT_MILLIS";
@@ -126,6 +124,13 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
     private static final String STRICT_HOST_KEY_CHECKING = _PREFIX + ".STRICT_HOST_KEY_CHECKING";
     private static final String USER_DIR_IS_ROOT = _PREFIX + ".USER_DIR_IS_ROOT";
 
+    // after the option names, which the handles of the builder refer to
+    private static final SftpFileSystemConfigBuilder BUILDER = new SftpFileSystemConfigBuilder();
+
+    private final Option<Integer> connectTimeoutMillis = createOption(CONNECT_TIMEOUT_MILLIS, Integer.class);
+    private final Option<String> fileNameEncoding = createOption(ENCODING, String.class);
+    private final Option<Boolean> userDirIsRoot = createOption(USER_DIR_IS_ROOT, Boolean.class);
+
     /**
      * Gets the singleton builder.
      *
@@ -160,7 +165,7 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
      * @since 2.3
      */
     public Integer getConnectTimeoutMillis(final FileSystemOptions opts) {
-        return this.getInteger(opts, CONNECT_TIMEOUT_MILLIS, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+        return this.getParam(opts, connectTimeoutMillis, DEFAULT_CONNECT_TIMEOUT_MILLIS);
     }
 
     /**
@@ -170,7 +175,7 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
      * @return the file name encoding
      */
     public String getFileNameEncoding(final FileSystemOptions opts) {
-        return this.getString(opts, ENCODING);
+        return this.getParam(opts, fileNameEncoding, null);
     }
 
     /**
@@ -363,7 +368,7 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
      * @see #setUserDirIsRoot
      */
     public Boolean getUserDirIsRoot(final FileSystemOptions opts) {
-        return this.getBoolean(opts, USER_DIR_IS_ROOT, Boolean.TRUE);
+        return this.getParam(opts, userDirIsRoot, Boolean.TRUE);
     }
 
     /**
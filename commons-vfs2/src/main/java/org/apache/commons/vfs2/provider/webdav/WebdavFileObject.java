@@ -53,6 +53,7 @@ import org.apache.jackrabbit.webdav.MultiStatus;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
 import org.apache.jackrabbit.webdav.client.methods.CheckinMethod;
 import org.apache.jackrabbit.webdav.client.methods.CheckoutMethod;
+import org.apache.jackrabbit.webdav.client.methods.CopyMethod;
 import org.apache.jackrabbit.webdav.client.methods.DavMethod;
 import org.apache.jackrabbit.webdav.client.methods.DeleteMethod;
 import org.apache.jackrabbit.webdav.client.methods.MkColMethod;
@@ -408,6 +409,19 @@ public class WebdavFileObject extends HttpFileObject<WebdavFileSystem> {
         }
     }
 
+    /**
+     * Copies another resource of this server with the WebDAV COPY method.
+     */
+    @Override
+    protected boolean doCopy(final FileObject srcFile) throws Exception {
+        final String url = encodePath(toUrlString((URLFileName) srcFile.getName()));
+        final String dest = toUrlString((URLFileName) getName(), false);
+        final DavMethod method = new CopyMethod(url, dest, true);
+        setupMethod(method);
+        execute(method);
+        return true;
+    }
+
     /**
      * Rename the file.
      */
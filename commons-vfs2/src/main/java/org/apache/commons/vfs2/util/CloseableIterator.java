@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+import org.apache.commons.vfs2.FileSystemException;
+
+/**
+ * An iterator over a resource which has to be released when the caller is done with it, like an open directory
+ * listing.
+ * <p>
+ * Errors raised while fetching the next element are reported as {@link IllegalStateException} wrapping the
+ * {@link FileSystemException}. Implementations release their resources once the last element has been returned, but
+ * callers stopping early must call {@link #close()}.
+ * </p>
+ *
+ * @param <E> the type of elements returned by this iterator.
+ * @since 2.3
+ */
+public interface CloseableIterator<E> extends Iterator<E>, Closeable {
+
+    /**
+     * Releases the underlying resource. Calling this method more than once has no effect.
+     *
+     * @throws FileSystemException if the resource cannot be released.
+     */
+    @Override
+    void close() throws FileSystemException;
+}
@@ -16,7 +16,13 @@
  */
 package org.apache.commons.vfs2.util;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.vfs2.CopyPolicy;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.impl.DecoratedFileObject;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
@@ -76,4 +82,111 @@ public final class FileObjectUtils {
 
         return false;
     }
+
+    /**
+     * Copies a file, and all its descendants, to another file, keeping existing files according to a policy.
+     * <p>
+     * Behaves like {@link FileObject#copyFrom(FileObject, FileSelector)}, but an existing file of the same type is
+     * only overwritten if the policy requires it. The policy is evaluated before any stream is opened.
+     * </p>
+     *
+     * @param destFile The file to copy to, an {@link AbstractFileObject} or a {@link DecoratedFileObject}.
+     * @param srcFile The source file to copy.
+     * @param selector The selector to use to select which files to copy.
+     * @param policy The policy deciding which existing files are overwritten.
+     * @throws FileSystemException If the destination file is read-only, or if the source file does not exist, or on
+     *             error copying the file.
+     * @see org.apache.commons.vfs2.CopyPolicies
+     * @since 2.3
+     */
+    public static void copyFrom(final FileObject destFile, final FileObject srcFile, final FileSelector selector,
+            final CopyPolicy policy) throws FileSystemException {
+        if (destFile instanceof DecoratedFileObject) {
+            ((DecoratedFileObject) destFile).copyFrom(srcFile, selector, policy);
+        } else {
+            getAbstractFileObject(destFile).copyFrom(srcFile, selector, policy);
+        }
+    }
+
+    /**
+     * Traverses the descendants of a file using a fork/join pool, and builds a list of selected files.
+     * <p>
+     * The child folders of each folder are traversed concurrently, so the {@code selector} must be thread-safe. The
+     * selected files are added in the same order as with {@link FileObject#findFiles(FileSelector, boolean, List)}.
+     * The tree is traversed on the calling thread instead if its file system uses the default
+     * {@link org.apache.commons.vfs2.LockStrategy#FILE_SYSTEM} lock strategy, or if the file is neither an
+     * {@link AbstractFileObject} nor a {@link DecoratedFileObject}.
+     * </p>
+     *
+     * @param fileObject The FileObject.
+     * @param selector The FileSelector.
+     * @param depthwise if true files are added after their descendants, before otherwise.
+     * @param selected A List of the located FileObjects.
+     * @param pool The pool to run the traversal in.
+     * @throws FileSystemException if an error occurs.
+     * @see AbstractFileObject#findFiles(FileSelector, boolean, List, ForkJoinPool)
+     * @since 2.3
+     */
+    public static void findFiles(final FileObject fileObject, final FileSelector selector, final boolean depthwise,
+            final List<FileObject> selected, final ForkJoinPool pool) throws FileSystemException {
+        if (fileObject instanceof AbstractFileObject) {
+            ((AbstractFileObject<?>) fileObject).findFiles(selector, depthwise, selected, pool);
+        } else if (fileObject instanceof DecoratedFileObject) {
+            ((DecoratedFileObject) fileObject).findFiles(selector, depthwise, selected, pool);
+        } else {
+            fileObject.findFiles(selector, depthwise, selected);
+        }
+    }
+
+    /**
+     * Lists the children of a file incrementally.
+     * <p>
+     * Unlike {@link FileObject#getChildren()} the listing is not materialized, so providers supporting it can hand out
+     * the first child before the whole folder has been read. Files which are neither an {@link AbstractFileObject} nor
+     * a {@link DecoratedFileObject} are listed with {@link FileObject#getChildren()}.
+     * </p>
+     *
+     * @param fileObject The FileObject.
+     * @return An iterator over the children of the file, in no particular order, which has to be closed if it is not
+     *         consumed to the end.
+     * @throws FileSystemException If the file does not exist, or is not a folder, or on error listing its children.
+     * @since 2.3
+     */
+    public static CloseableIterator<FileObject> iterateChildren(final FileObject fileObject)
+            throws FileSystemException {
+        if (fileObject instanceof AbstractFileObject) {
+            return ((AbstractFileObject<?>) fileObject).iterateChildren();
+        }
+        if (fileObject instanceof DecoratedFileObject) {
+            return ((DecoratedFileObject) fileObject).iterateChildren();
+        }
+
+        final FileObject[] children = fileObject.getChildren();
+        return new CloseableIterator<FileObject>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < children.length;
+            }
+
+            @Override
+            public FileObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return children[index++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                index = children.length;
+            }
+        };
+    }
 }
@@ -20,6 +20,7 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.vfs2.FileSystemException;
 
@@ -28,6 +29,7 @@ import org.apache.commons.vfs2.FileSystemException;
  */
 public class MonitorOutputStream extends BufferedOutputStream {
     private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final AtomicLong atomicCount = new AtomicLong(0);
 
     public MonitorOutputStream(final OutputStream out) {
         super(out);
@@ -89,6 +91,7 @@ public class MonitorOutputStream extends BufferedOutputStream {
     public synchronized void write(final int b) throws IOException {
         assertOpen();
         super.write(b);
+        atomicCount.incrementAndGet();
     }
 
     /**
@@ -102,6 +105,7 @@ public class MonitorOutputStream extends BufferedOutputStream {
     public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
         assertOpen();
         super.write(b, off, len);
+        atomicCount.addAndGet(len);
     }
 
     /**
@@ -150,4 +154,14 @@ public class MonitorOutputStream extends BufferedOutputStream {
     // IOException is needed because subclasses may need to throw it
     protected void onClose() throws IOException {
     }
+
+    /**
+     * Get the number of bytes written to this output stream.
+     *
+     * @return The number of bytes written to this output stream.
+     * @since 2.3
+     */
+    public long getCount() {
+        return atomicCount.get();
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link CopyPolicies} with
+ * {@link FileObjectUtils#copyFrom(FileObject, FileObject, FileSelector, CopyPolicy)}.
+ */
+public class CopyPoliciesTest {
+    private static final long KEPT_TIME = 1000000000L;
+
+    private FileObject baseFolder;
+
+    private FileObject srcFolder;
+
+    private FileObject destFolder;
+
+    @Before
+    public void setUp() throws Exception {
+        baseFolder = VFS.getManager().resolveFile("ram://" + CopyPoliciesTest.class.getName());
+        srcFolder = baseFolder.resolveFile("src");
+        destFolder = baseFolder.resolveFile("dest");
+
+        write(srcFolder.resolveFile("same.txt"), "same");
+        write(srcFolder.resolveFile("changed.txt"), "new content");
+        write(srcFolder.resolveFile("added.txt"), "added");
+
+        write(destFolder.resolveFile("same.txt"), "same");
+        write(destFolder.resolveFile("changed.txt"), "old content");
+        destFolder.resolveFile("same.txt").getContent().setLastModifiedTime(KEPT_TIME);
+        destFolder.resolveFile("changed.txt").getContent().setLastModifiedTime(KEPT_TIME);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (baseFolder != null) {
+            baseFolder.deleteAll();
+        }
+    }
+
+    private static void write(final FileObject file, final String content) throws IOException {
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content.getBytes("UTF-8"));
+        }
+    }
+
+    private String read(final String name) throws IOException {
+        final FileObject file = destFolder.resolveFile(name);
+        try (final InputStream in = file.getContent().getInputStream()) {
+            return IOUtils.toString(in, "UTF-8");
+        }
+    }
+
+    private boolean isKept(final String name) throws FileSystemException {
+        return destFolder.resolveFile(name).getContent().getLastModifiedTime() == KEPT_TIME;
+    }
+
+    @Test
+    public void testAlways() throws Exception {
+        FileObjectUtils.copyFrom(destFolder, srcFolder, Selectors.SELECT_ALL, CopyPolicies.ALWAYS);
+
+        Assert.assertFalse(isKept("same.txt"));
+        Assert.assertEquals("new content", read("changed.txt"));
+        Assert.assertEquals("added", read("added.txt"));
+    }
+
+    @Test
+    public void testSkipIfExists() throws Exception {
+        FileObjectUtils.copyFrom(destFolder, srcFolder, Selectors.SELECT_ALL, CopyPolicies.SKIP_IF_EXISTS);
+
+        Assert.assertTrue(isKept("same.txt"));
+        Assert.assertEquals("old content", read("changed.txt"));
+        Assert.assertEquals("added", read("added.txt"));
+    }
+
+    @Test
+    public void testSkipIfSameSizeAndLastModified() throws Exception {
+        srcFolder.resolveFile("same.txt").getContent().setLastModifiedTime(KEPT_TIME - 1);
+        srcFolder.resolveFile("changed.txt").getContent().setLastModifiedTime(KEPT_TIME + 1);
+
+        FileObjectUtils.copyFrom(destFolder, srcFolder, Selectors.SELECT_ALL, CopyPolicies.SKIP_IF_SAME_SIZE_AND_LAST_MODIFIED);
+
+        Assert.assertTrue(isKept("same.txt"));
+        Assert.assertEquals("new content", read("changed.txt"));
+        Assert.assertEquals("added", read("added.txt"));
+    }
+
+    @Test
+    public void testSkipIfSameChecksum() throws Exception {
+        // without checksums, the files are compared by size and last modified time
+        srcFolder.resolveFile("same.txt").getContent().setLastModifiedTime(KEPT_TIME - 1);
+        srcFolder.resolveFile("changed.txt").getContent().setLastModifiedTime(KEPT_TIME + 1);
+
+        FileObjectUtils.copyFrom(destFolder, srcFolder, Selectors.SELECT_ALL, CopyPolicies.SKIP_IF_SAME_CHECKSUM);
+
+        Assert.assertTrue(isKept("same.txt"));
+        Assert.assertEquals("new content", read("changed.txt"));
+        Assert.assertEquals("added", read("added.txt"));
+    }
+}
@@ -52,9 +52,79 @@ public class FileSystemOptionsTest {
         Assert.assertEquals(expected.hashCode(), actual.hashCode());
     }
 
+    @Test
+    public void testSnapshot() {
+        final JUnitConfigBuilder builder = JUnitConfigBuilder.getInstance();
+        final FileSystemOptions opts = new FileSystemOptions();
+        builder.setId(opts, "Test");
+        builder.setNames(opts, new String[] { "A", "B" });
+
+        final FileSystemOptions snapshot = opts.snapshot();
+        Assert.assertFalse(opts.isSnapshot());
+        Assert.assertTrue(snapshot.isSnapshot());
+        Assert.assertSame(snapshot, snapshot.snapshot());
+        Assert.assertEquals("Test", builder.getId(snapshot));
+        Assert.assertEquals(opts, snapshot);
+        Assert.assertEquals(snapshot, opts);
+        Assert.assertEquals(opts.hashCode(), snapshot.hashCode());
+        Assert.assertEquals(0, snapshot.compareTo(opts));
+        Assert.assertNotEquals(new FileSystemOptions().snapshot(), snapshot);
+
+        try {
+            builder.setId(snapshot, "Other");
+            Assert.fail("snapshot modified");
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+
+        // later changes are not seen by the snapshot
+        builder.setId(opts, "Other");
+        Assert.assertEquals("Test", builder.getId(snapshot));
+        Assert.assertNotEquals(opts, snapshot);
+        Assert.assertNotEquals(opts.snapshot(), snapshot);
+
+        // the clone of a snapshot can be modified
+        final FileSystemOptions clone = (FileSystemOptions) snapshot.clone();
+        Assert.assertFalse(clone.isSnapshot());
+        builder.setId(clone, "Clone");
+        Assert.assertEquals("Clone", builder.getId(clone));
+    }
+
+    @Test
+    public void testSystemProperty() {
+        final JUnitConfigBuilder builder = JUnitConfigBuilder.getInstance();
+        final FileSystemOptions snapshot = new FileSystemOptions().snapshot();
+        Assert.assertNull(builder.getId(snapshot));
+        System.setProperty("vfs.id", "FromProperty");
+        try {
+            Assert.assertEquals("FromProperty", builder.getId(snapshot));
+            Assert.assertEquals("FromProperty", builder.getId(null));
+        } finally {
+            System.clearProperty("vfs.id");
+        }
+    }
+
+    @Test
+    public void testTypedOption() {
+        final JUnitConfigBuilder builder = JUnitConfigBuilder.getInstance();
+        final FileSystemOptions opts = new FileSystemOptions();
+        Assert.assertEquals(Integer.valueOf(1), builder.getCount(opts));
+        System.setProperty("vfs.count", "2");
+        try {
+            Assert.assertEquals(Integer.valueOf(2), builder.getCount(opts));
+            builder.setCount(opts, Integer.valueOf(3));
+            Assert.assertEquals(Integer.valueOf(3), builder.getCount(opts));
+            Assert.assertEquals(Integer.valueOf(3), builder.getCount(opts.snapshot()));
+        } finally {
+            System.clearProperty("vfs.count");
+        }
+    }
+
     public static class JUnitConfigBuilder extends FileSystemConfigBuilder {
         private static final JUnitConfigBuilder BUILDER = new JUnitConfigBuilder();
 
+        private final Option<Integer> count = createOption("count", Integer.class);
+
         public static JUnitConfigBuilder getInstance() {
             return BUILDER;
         }
@@ -67,6 +137,18 @@ public class FileSystemOptionsTest {
             setParam(opts, "names", names);
         }
 
+        public String getId(final FileSystemOptions opts) {
+            return getString(opts, "id");
+        }
+
+        public void setCount(final FileSystemOptions opts, final Integer value) {
+            setParam(opts, count, value);
+        }
+
+        public Integer getCount(final FileSystemOptions opts) {
+            return getParam(opts, count, Integer.valueOf(1));
+        }
+
         @Override
         protected Class<? extends FileSystem> getConfigClass() {
             return JUnitFS.class;
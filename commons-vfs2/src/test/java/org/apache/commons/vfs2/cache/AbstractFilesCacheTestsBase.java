@@ -16,6 +16,11 @@
  */
 package org.apache.commons.vfs2.cache;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystem;
@@ -74,6 +79,55 @@ public abstract class AbstractFilesCacheTestsBase extends AbstractProviderTestCa
         assertTrue(cache.putFileIfAbsent(fo));
     }
 
+    /**
+     * Tests the statistics of the cache.
+     */
+    public void testStatistics() throws Exception {
+        final AbstractFilesCache cache = (AbstractFilesCache) getManager().getFilesCache();
+        final FileObject fo = getWriteFolder().resolveFile("dir1");
+        final FileName fn = fo.getName();
+        final FileSystem fs = fo.getFileSystem();
+
+        cache.clear(fs);
+        FilesCacheStatistics statistics = cache.getStatistics(fs);
+        assertEquals(0, statistics.getRequestCount());
+        assertEquals(0, statistics.getPutCount());
+        assertEquals(0, statistics.getSize());
+        final FilesCacheStatistics totals = cache.getStatistics();
+
+        assertNull(cache.getFile(fs, fn));
+        cache.putFile(fo);
+        assertSame(fo, cache.getFile(fs, fn));
+
+        statistics = cache.getStatistics(fs);
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(0.5, statistics.getHitRate(), 0.0);
+        assertEquals(1, statistics.getPutCount());
+        assertEquals(1, statistics.getSize());
+        assertEquals(totals.getHitCount() + 1, cache.getStatistics().getHitCount());
+        assertEquals(totals.getMissCount() + 1, cache.getStatistics().getMissCount());
+    }
+
+    /**
+     * Tests the statistics MBean of the cache.
+     */
+    public void testStatisticsMBean() throws Exception {
+        final AbstractFilesCache cache = (AbstractFilesCache) getManager().getFilesCache();
+        final String name = "org.apache.commons.vfs2:type=FilesCache,name=" + getClass().getSimpleName();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        cache.registerStatisticsMBean(name);
+        try {
+            final ObjectName objectName = new ObjectName(name);
+            assertTrue(server.isRegistered(objectName));
+            assertEquals(cache.getStatistics().getPutCount(), server.getAttribute(objectName, "PutCount"));
+        } finally {
+            cache.unregisterStatisticsMBean();
+        }
+        assertFalse(server.isRegistered(new ObjectName(name)));
+    }
+
     /** Helper method, may be used in cache specific tests. */
     protected int getFileHashCode() throws FileSystemException {
         final FileObject fo = getWriteFolder().resolveFile("file2");
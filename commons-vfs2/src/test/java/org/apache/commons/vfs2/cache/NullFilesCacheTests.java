@@ -56,6 +56,25 @@ public class NullFilesCacheTests extends AbstractFilesCacheTestsBase {
         assertNull(cache.getFile(fs, fn));
     }
 
+    @Override
+    public void testStatistics() throws Exception {
+        // a null cache misses every lookup:
+
+        final AbstractFilesCache cache = (AbstractFilesCache) getManager().getFilesCache();
+        final FileObject fo = getWriteFolder().resolveFile("dir1");
+        final FileSystem fs = fo.getFileSystem();
+        final FilesCacheStatistics before = cache.getStatistics(fs);
+
+        cache.putFile(fo);
+        assertNull(cache.getFile(fs, fo.getName()));
+
+        final FilesCacheStatistics after = cache.getStatistics(fs);
+        assertEquals(before.getMissCount() + 1, after.getMissCount());
+        assertEquals(0, after.getHitCount());
+        assertEquals(0, after.getPutCount());
+        assertEquals(0, after.getSize());
+    }
+
     public void testClass() {
         assertTrue(getManager().getFilesCache() instanceof NullFilesCache);
     }
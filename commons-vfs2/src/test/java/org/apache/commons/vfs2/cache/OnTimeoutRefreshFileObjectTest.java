@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.CacheStrategy;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DecoratedFileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link CacheStrategy#ON_TIMEOUT}.
+ */
+public class OnTimeoutRefreshFileObjectTest {
+    private static final long TIME_TO_LIVE = 200;
+
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    private FileObject folder;
+
+    /**
+     * The clock of the decorators created by {@link #decorate(FileObject)}, in nanoseconds.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-ontimeout", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.setCacheStrategy(CacheStrategy.ON_TIMEOUT);
+        manager.init();
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setCacheTimeToLive(opts, TIME_TO_LIVE);
+        folder = manager.resolveFile(baseDir.toURI().toString(), opts);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    @Test
+    public void testDecorated() {
+        Assert.assertTrue(folder instanceof OnTimeoutRefreshFileObject);
+    }
+
+    /**
+     * Decorates the file object underlying a file of the manager, with a time to live measured by {@link #clock}.
+     */
+    private FileObject decorate(final FileObject file) {
+        final FileObject decorated = ((DecoratedFileObject) file).getDecoratedFileObject();
+        return new OnTimeoutRefreshFileObject(decorated, TIME_TO_LIVE) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+    }
+
+    private void advance(final long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testChildrenRefreshedAfterTimeout() throws Exception {
+        final FileObject fileObject = decorate(folder);
+        Assert.assertEquals(0, fileObject.getChildren().length);
+
+        FileUtils.writeStringToFile(new File(baseDir, "file1.txt"), "content", "UTF-8");
+        advance(TIME_TO_LIVE - 1);
+        Assert.assertEquals("still cached", 0, fileObject.getChildren().length);
+
+        advance(1);
+        Assert.assertEquals(1, fileObject.getChildren().length);
+    }
+
+    @Test
+    public void testTypeRefreshedAfterTimeout() throws Exception {
+        final File file = new File(baseDir, "file1.txt");
+        FileUtils.writeStringToFile(file, "content", "UTF-8");
+        final FileObject fileObject = decorate(folder.resolveFile("file1.txt"));
+        Assert.assertTrue(fileObject.exists());
+
+        Assert.assertTrue(file.delete());
+        advance(TIME_TO_LIVE - 1);
+        Assert.assertTrue("still cached", fileObject.exists());
+
+        advance(1);
+        Assert.assertFalse(fileObject.exists());
+    }
+}
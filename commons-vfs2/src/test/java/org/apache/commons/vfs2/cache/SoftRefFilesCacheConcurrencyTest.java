@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the concurrent use of {@link SoftRefFilesCache} and {@link WeakRefFilesCache}.
+ */
+public class SoftRefFilesCacheConcurrencyTest {
+    private static final int THREADS = 32;
+
+    private DefaultFileSystemManager manager;
+
+    private WeakRefFilesCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new WeakRefFilesCache();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(cache);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testConcurrentResolveReturnsSameInstance() throws Exception {
+        final FileObject root = manager.resolveFile("ram:///");
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<List<FileObject>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<List<FileObject>>() {
+                    @Override
+                    public List<FileObject> call() throws Exception {
+                        final List<FileObject> files = new ArrayList<>();
+                        for (int i = 0; i < 100; i++) {
+                            files.add(root.resolveFile("file" + i));
+                        }
+                        return files;
+                    }
+                }));
+            }
+
+            final List<FileObject> first = futures.get(0).get();
+            for (final Future<List<FileObject>> future : futures) {
+                final List<FileObject> files = future.get();
+                for (int i = 0; i < files.size(); i++) {
+                    Assert.assertSame(first.get(i), files.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCollectedFileRemoved() throws Exception {
+        FileObject file = manager.resolveFile("ram:///collected");
+        final FileSystem fileSystem = file.getFileSystem();
+        final FileName name = file.getName();
+        Assert.assertSame(file, cache.getFile(fileSystem, name));
+
+        file = null;
+        for (int i = 0; i < 50 && cache.getFile(fileSystem, name) != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(cache.getFile(fileSystem, name));
+
+        // the collected entry is replaced
+        final FileObject again = manager.resolveFile("ram:///collected");
+        Assert.assertSame(again, cache.getFile(fileSystem, name));
+        Assert.assertFalse(cache.putFileIfAbsent(again));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        final FileObject file = manager.resolveFile("ram:///cleared");
+        cache.clear(file.getFileSystem());
+        Assert.assertNull(cache.getFile(file.getFileSystem(), file.getName()));
+
+        Assert.assertTrue(cache.putFileIfAbsent(file));
+        Assert.assertSame(file, cache.getFile(file.getFileSystem(), file.getName()));
+        cache.removeFile(file.getFileSystem(), file.getName());
+        Assert.assertNull(cache.getFile(file.getFileSystem(), file.getName()));
+    }
+}
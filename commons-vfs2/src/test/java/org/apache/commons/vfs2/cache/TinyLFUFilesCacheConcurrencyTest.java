@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the concurrent use of {@link TinyLFUFilesCache}.
+ */
+public class TinyLFUFilesCacheConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int FILES = 64;
+    private static final int OPERATIONS = 50000;
+
+    private DefaultFileSystemManager manager;
+
+    private TinyLFUFilesCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new TinyLFUFilesCache();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(cache);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testConcurrentPutAndGet() throws Exception {
+        final FileObject[] files = new FileObject[FILES];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = manager.resolveFile("ram:///file" + i);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final Random random = new Random(t);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < OPERATIONS; i++) {
+                            final FileObject file = files[random.nextInt(FILES)];
+                            if ((i & 1) == 0) {
+                                cache.putFile(file);
+                            } else if (!cache.putFileIfAbsent(file)) {
+                                cache.removeFile(file.getFileSystem(), file.getName());
+                            }
+                            cache.getFile(file.getFileSystem(), files[random.nextInt(FILES)].getName());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (final FileObject file : files) {
+            cache.putFile(file);
+            Assert.assertSame(file, cache.getFile(file.getFileSystem(), file.getName()));
+        }
+        Assert.assertTrue(cache.getWeight() <= cache.getMaximumWeight());
+    }
+}
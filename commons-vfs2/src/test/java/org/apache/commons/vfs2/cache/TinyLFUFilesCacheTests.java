@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import org.apache.commons.vfs2.FileObject;
+
+/**
+ * Tests for {@link TinyLFUFilesCache} used by {@link TinyLFUFilesCacheTestCase}.
+ */
+public class TinyLFUFilesCacheTests extends AbstractFilesCacheTestsBase {
+    public void testFilesCache() throws Exception {
+        final FileObject scratchFolder = getWriteFolder();
+
+        final FileObject dir1 = scratchFolder.resolveFile("dir1");
+        final FileObject dir1_2 = scratchFolder.resolveFile("dir1");
+
+        assertSame(dir1, dir1_2);
+    }
+
+    public void testWeightBounded() throws Exception {
+        final TinyLFUFilesCache cache = (TinyLFUFilesCache) getManager().getFilesCache();
+        final FileObject scratchFolder = getWriteFolder();
+
+        for (int i = 0; i < 500; i++) {
+            scratchFolder.resolveFile("bounded" + i);
+            assertTrue(cache.getWeight() <= cache.getMaximumWeight());
+        }
+    }
+
+    public void testScanDoesNotFlushHotFiles() throws Exception {
+        final FileObject scratchFolder = getWriteFolder();
+
+        final FileObject hot = scratchFolder.resolveFile("hot");
+        for (int i = 0; i < 1000; i++) {
+            assertSame(hot, scratchFolder.resolveFile("hot"));
+        }
+
+        // one-off files, many more than fit into the cache, while the hot file is still used now and then
+        for (int i = 0; i < 1000; i++) {
+            scratchFolder.resolveFile("scan" + i);
+            if (i % 100 == 0) {
+                assertSame(hot, scratchFolder.resolveFile("hot"));
+            }
+        }
+
+        assertSame(hot, scratchFolder.resolveFile("hot"));
+    }
+
+    public void testClass() {
+        assertTrue(getManager().getFilesCache() instanceof TinyLFUFilesCache);
+    }
+}
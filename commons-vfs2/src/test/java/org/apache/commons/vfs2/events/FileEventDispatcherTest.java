@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileBatchListener;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileEventDispatcherTest {
+    private DefaultFileSystemManager manager;
+
+    /**
+     * Records the batches of events as lists of "kind name".
+     */
+    private static class RecordingListener implements FileBatchListener {
+        private final List<List<String>> batches = new ArrayList<>();
+        private final CountDownLatch blocked;
+
+        RecordingListener(final CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public synchronized void filesChanged(final List<FileChangeEvent> events) throws Exception {
+            blocked.await();
+            final List<String> batch = new ArrayList<>();
+            for (final FileChangeEvent event : events) {
+                batch.add(event.getClass().getSimpleName() + " " + event.getFile().getName().getBaseName());
+            }
+            batches.add(batch);
+        }
+
+        @Override
+        public void fileCreated(final FileChangeEvent event) throws Exception {
+            Assert.fail();
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) throws Exception {
+            Assert.fail();
+        }
+
+        @Override
+        public void fileChanged(final FileChangeEvent event) throws Exception {
+            Assert.fail();
+        }
+
+        synchronized List<List<String>> getBatches() {
+            return batches;
+        }
+    }
+
+    private void init(final FileEventDispatcher dispatcher) throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFileEventDispatcher(dispatcher);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testSynchronous() throws Exception {
+        init(null);
+        final RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        file.getFileSystem().addListener(file, listener);
+        file.createFile();
+        file.delete();
+        Assert.assertEquals(Arrays.asList(Arrays.asList("CreateEvent file.txt"), Arrays.asList("DeleteEvent file.txt")),
+                listener.getBatches());
+    }
+
+    @Test
+    public void testSlowListener() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher();
+        init(dispatcher);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final RecordingListener listener = new RecordingListener(blocked);
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        file.getFileSystem().addListener(file, listener);
+
+        // the listener does not hold up the file operations
+        file.createFile();
+        file.delete();
+        file.createFile();
+        blocked.countDown();
+        dispatcher.flush();
+
+        final List<String> events = new ArrayList<>();
+        for (final List<String> batch : listener.getBatches()) {
+            events.addAll(batch);
+        }
+        Assert.assertEquals(Arrays.asList("CreateEvent file.txt", "DeleteEvent file.txt", "CreateEvent file.txt"),
+                events);
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher(100, TimeUnit.SECONDS.toMillis(1));
+        init(dispatcher);
+        final RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        final FileObject other = manager.resolveFile("ram:///other.txt");
+        file.getFileSystem().addListener(file, listener);
+        file.getFileSystem().addListener(other, listener);
+
+        final AbstractFileSystem fileSystem = (AbstractFileSystem) file.getFileSystem();
+        file.createFile();
+        fileSystem.fireFileChanged(file);
+        fileSystem.fireFileChanged(other);
+        fileSystem.fireFileChanged(other);
+        fileSystem.fireFileChanged(file);
+        dispatcher.flush();
+
+        Assert.assertEquals(
+                Arrays.asList(Arrays.asList("CreateEvent file.txt", "ChangedEvent other.txt")),
+                listener.getBatches());
+    }
+
+    @Test
+    public void testRemoveListener() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher();
+        init(dispatcher);
+        final RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        file.getFileSystem().addListener(file, listener);
+        file.getFileSystem().addListener(file, listener);
+        file.getFileSystem().removeListener(file, listener);
+        file.createFile();
+        file.getFileSystem().removeListener(file, listener);
+        file.delete();
+
+        // pending events are delivered on close
+        manager.close();
+        Assert.assertEquals(Arrays.asList(Arrays.asList("CreateEvent file.txt")), listener.getBatches());
+    }
+
+    @Test(timeout = 10000)
+    public void testListenerFiringEvents() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher(1, 0);
+        init(dispatcher);
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        final FileObject other = manager.resolveFile("ram:///other.txt");
+        final AbstractFileSystem fileSystem = (AbstractFileSystem) file.getFileSystem();
+        final RecordingListener otherListener = new RecordingListener(new CountDownLatch(0));
+        fileSystem.addListener(other, otherListener);
+        fileSystem.addListener(file, new RecordingListener(new CountDownLatch(0)) {
+            @Override
+            public synchronized void filesChanged(final List<FileChangeEvent> events) throws Exception {
+                // more events than the queue holds, fired from the thread of the dispatcher
+                for (int i = 0; i < 3; i++) {
+                    fileSystem.fireFileChanged(other);
+                }
+            }
+        });
+
+        file.createFile();
+        dispatcher.flush();
+        // and the event queued by the listener
+        dispatcher.flush();
+
+        int count = 0;
+        for (final List<String> batch : otherListener.getBatches()) {
+            count += batch.size();
+        }
+        Assert.assertEquals(3, count);
+    }
+
+    @Test
+    public void testStripes() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher(100, 0, 4);
+        init(dispatcher);
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        final List<RecordingListener> listeners = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+            file.getFileSystem().addListener(file, listener);
+            listeners.add(listener);
+        }
+        file.createFile();
+        file.delete();
+        dispatcher.flush();
+
+        // each listener receives its events in order, whatever its stripe
+        for (final RecordingListener listener : listeners) {
+            final List<String> events = new ArrayList<>();
+            for (final List<String> batch : listener.getBatches()) {
+                events.addAll(batch);
+            }
+            Assert.assertEquals(Arrays.asList("CreateEvent file.txt", "DeleteEvent file.txt"), events);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testDispatchWhileClosing() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher();
+        init(dispatcher);
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        file.getFileSystem().addListener(file, new FileListener() {
+            @Override
+            public void fileCreated(final FileChangeEvent event) throws Exception {
+                blocked.await();
+                events.add("created");
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) throws Exception {
+                events.add("deleted");
+            }
+
+            @Override
+            public void fileChanged(final FileChangeEvent event) throws Exception {
+                events.add("changed");
+            }
+        });
+        file.createFile();
+
+        // the close waits for the queued event, and the event fired meanwhile waits for it too
+        final Thread closer = new Thread() {
+            @Override
+            public void run() {
+                dispatcher.close();
+            }
+        };
+        closer.start();
+        Thread.sleep(200);
+        final Thread deleter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    file.delete();
+                } catch (final Exception e) {
+                    events.add(e.toString());
+                }
+            }
+        };
+        deleter.start();
+        Thread.sleep(200);
+        blocked.countDown();
+        closer.join();
+        deleter.join();
+        Assert.assertEquals(Arrays.asList("created", "deleted"), events);
+    }
+
+    @Test
+    public void testDispatchAfterClose() throws Exception {
+        final FileEventDispatcher dispatcher = new FileEventDispatcher();
+        init(dispatcher);
+        final RecordingListener listener = new RecordingListener(new CountDownLatch(0));
+        final FileObject file = manager.resolveFile("ram:///file.txt");
+        file.getFileSystem().addListener(file, listener);
+        file.createFile();
+        dispatcher.close();
+
+        // delivered by the firing thread
+        file.delete();
+        Assert.assertEquals(Arrays.asList(Arrays.asList("CreateEvent file.txt"), Arrays.asList("DeleteEvent file.txt")),
+                listener.getBatches());
+    }
+}
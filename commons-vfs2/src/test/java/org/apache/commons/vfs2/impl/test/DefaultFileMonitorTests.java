@@ -18,6 +18,9 @@ package org.apache.commons.vfs2.impl.test;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.commons.AbstractVfsTestCase;
 import org.apache.commons.vfs2.FileChangeEvent;
@@ -26,6 +29,10 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemManager;
 import org.apache.commons.vfs2.VFS;
 import org.apache.commons.vfs2.impl.DefaultFileMonitor;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.metrics.DefaultFileSystemMetrics;
+import org.apache.commons.vfs2.metrics.MeteredOperation;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
 
 /**
  * Test to verify DefaultFileMonitor
@@ -92,6 +99,27 @@ public class DefaultFileMonitorTests extends AbstractVfsTestCase {
         }
     }
 
+    public void testRestart() throws Exception {
+        final FileObject fileObj = fsManager.resolveFile(testFile.toURI().toString());
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+        // TestFileListener manipulates changeStatus
+        monitor.setDelay(100);
+        monitor.addFile(fileObj);
+        monitor.start();
+        monitor.stop();
+        writeToFile(testFile);
+        Thread.sleep(300);
+        assertEquals("Event while stopped", 0, changeStatus);
+        monitor.start();
+        try {
+            Thread.sleep(300);
+            assertTrue("No event occurred", changeStatus != 0);
+            assertTrue("Incorrect event", changeStatus == 3);
+        } finally {
+            monitor.stop();
+        }
+    }
+
     public void testFileModified() throws Exception {
         writeToFile(testFile);
         final FileObject fileObj = fsManager.resolveFile(testFile.toURI().toURL().toString());
@@ -169,6 +197,134 @@ public class DefaultFileMonitorTests extends AbstractVfsTestCase {
         }
     }
 
+    public void testMultipleThreads() throws Exception {
+        final FileObject dir = fsManager.resolveFile("ram:///" + getName());
+        final FileObject[] files = new FileObject[20];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = dir.resolveFile("file" + i);
+            files[i].createFile();
+        }
+        final Set<String> changed = Collections.synchronizedSet(new HashSet<String>());
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new FileListener() {
+            @Override
+            public void fileChanged(final FileChangeEvent event) throws Exception {
+                changed.add(event.getFile().getName().getBaseName());
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) throws Exception {
+            }
+
+            @Override
+            public void fileCreated(final FileChangeEvent event) throws Exception {
+            }
+        });
+        monitor.setDelay(100);
+        monitor.setThreadCount(4);
+        monitor.addFile(dir);
+        monitor.start();
+        try {
+            Thread.sleep(300);
+            for (final FileObject file : files) {
+                file.getContent().setLastModifiedTime(file.getContent().getLastModifiedTime() - 10000);
+            }
+            Thread.sleep(500);
+            assertEquals(files.length, changed.size());
+
+            // removed files are no longer checked
+            monitor.removeFile(files[0]);
+            changed.clear();
+            files[0].getContent().setLastModifiedTime(System.currentTimeMillis());
+            files[1].getContent().setLastModifiedTime(System.currentTimeMillis());
+            Thread.sleep(500);
+            assertEquals(Collections.singleton("file1"), changed);
+        } finally {
+            monitor.stop();
+            dir.deleteAll();
+        }
+    }
+
+    public void testStopEndsThreads() throws Exception {
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+        monitor.setDelay(100);
+        monitor.setThreadCount(4);
+        monitor.addFile(fsManager.resolveFile(testDir.toURI().toString()));
+        monitor.start();
+        Thread.sleep(200);
+        monitor.stop();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName(), thread.getName().startsWith("VFS file monitor ") && thread.isAlive());
+        }
+    }
+
+    public void testUnchangedFolderNotListed() throws Exception {
+        final DefaultFileSystemMetrics metrics = new DefaultFileSystemMetrics();
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFileSystemMetrics(metrics);
+        manager.init();
+        try {
+            final FileObject dir = manager.resolveFile("ram:///dir");
+            dir.resolveFile("file1").createFile();
+            // older than the resolution of last modified times
+            dir.getContent().setLastModifiedTime(System.currentTimeMillis() - 10000);
+
+            final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+            monitor.setDelay(100);
+            monitor.addFile(dir);
+            monitor.start();
+            try {
+                Thread.sleep(500);
+                final long listed = metrics.getStatistics("ram:///", MeteredOperation.LIST).getCount();
+                Thread.sleep(500);
+                assertEquals(listed, metrics.getStatistics("ram:///", MeteredOperation.LIST).getCount());
+
+                // a new child changes the last modified time of the folder
+                dir.resolveFile("file2").createFile();
+                Thread.sleep(300);
+                assertTrue("Incorrect event " + changeStatus, changeStatus == 3);
+            } finally {
+                monitor.stop();
+            }
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void testMaxDelay() throws Exception {
+        final DefaultFileSystemMetrics metrics = new DefaultFileSystemMetrics();
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFileSystemMetrics(metrics);
+        manager.init();
+        try {
+            final FileObject file = manager.resolveFile("ram:///file");
+            file.createFile();
+
+            final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+            monitor.setDelay(50);
+            monitor.setMaxDelay(800);
+            monitor.addFile(file);
+            monitor.start();
+            try {
+                // backs off to the maximum delay
+                Thread.sleep(2000);
+                final long checks = metrics.getStatistics("ram:///", MeteredOperation.ATTACH).getCount();
+                Thread.sleep(1000);
+                final long quietChecks = metrics.getStatistics("ram:///", MeteredOperation.ATTACH).getCount() - checks;
+                assertTrue("Too many checks " + quietChecks, quietChecks <= 3);
+
+                file.getContent().setLastModifiedTime(System.currentTimeMillis() - 10000);
+                Thread.sleep(1000);
+                assertTrue("Incorrect event " + changeStatus, changeStatus == 1);
+            } finally {
+                monitor.stop();
+            }
+        } finally {
+            manager.close();
+        }
+    }
+
     private void writeToFile(final File file) throws Exception {
         final FileWriter out = new FileWriter(file);
         out.write("string=value1");
@@ -17,11 +17,21 @@
 package org.apache.commons.vfs2.impl.test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.cache.FilesCacheStatistics;
+import org.apache.commons.vfs2.cache.NullFilesCache;
+import org.apache.commons.vfs2.cache.SoftRefFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class DefaultFileSystemManagerTest {
@@ -62,4 +72,137 @@ public class DefaultFileSystemManagerTest {
     public void testResolveFileNameNull() throws FileSystemException {
         VFS.getManager().resolveName((FileName) null, "../");
     }
+
+    @Test
+    public void testNameCache() throws FileSystemException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        Assert.assertNull(manager.getNameCacheStatistics());
+        manager.setNameCacheMaxSize(2);
+        manager.init();
+        try {
+            final FileName base = manager.resolveURI("ram:///dir");
+            final FileName child = manager.resolveName(base, "child", NameScope.CHILD);
+            Assert.assertEquals("ram:///dir/child", child.getURI());
+            Assert.assertSame(child, manager.resolveName(base, "child", NameScope.CHILD));
+            Assert.assertSame(child, manager.resolveName(manager.resolveURI("ram:///dir"), "child", NameScope.CHILD));
+            Assert.assertNotSame(child, manager.resolveName(base, "child", NameScope.DESCENDENT));
+
+            // invalid names are not cached
+            try {
+                manager.resolveName(base, "../other", NameScope.CHILD);
+                Assert.fail();
+            } catch (final FileSystemException e) {
+                Assert.assertEquals("vfs.provider/invalid-descendent-name.error", e.getCode());
+            }
+
+            manager.resolveName(base, "other", NameScope.CHILD);
+            final FilesCacheStatistics statistics = manager.getNameCacheStatistics();
+            Assert.assertEquals(2, statistics.getHitCount());
+            Assert.assertEquals(4, statistics.getMissCount());
+            Assert.assertEquals(3, statistics.getPutCount());
+            Assert.assertEquals(1, statistics.getEvictionCount());
+            Assert.assertEquals(2, statistics.getSize());
+        } finally {
+            manager.close();
+        }
+        Assert.assertEquals(0, manager.getNameCacheStatistics().getSize());
+    }
+
+    @Test
+    public void testFilesCacheStatistics() throws FileSystemException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(new SoftRefFilesCache());
+        manager.init();
+        try {
+            final FileObject file = manager.resolveFile("ram:///file.txt");
+            Assert.assertSame(file, manager.resolveFile("ram:///file.txt"));
+            final FilesCacheStatistics statistics = manager.getFilesCacheStatistics();
+            Assert.assertEquals(1, statistics.getHitCount());
+            Assert.assertTrue(statistics.getSize() > 0);
+            Assert.assertEquals(statistics.getHitCount(),
+                    manager.getFilesCacheStatistics(file.getFileSystem()).getHitCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testCloseIdleFileSystems() throws IOException, InterruptedException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+        try {
+            final FileObject file = manager.resolveFile("ram:///file.txt");
+            final FileSystem fs = file.getFileSystem();
+            Assert.assertEquals(1, manager.getFileSystemCount());
+            Assert.assertEquals(0, manager.closeIdleFileSystems(60000));
+
+            // not idle while a stream is open
+            final OutputStream out = file.getContent().getOutputStream();
+            Thread.sleep(20);
+            Assert.assertEquals(0, manager.closeIdleFileSystems(10));
+            out.close();
+            Thread.sleep(20);
+
+            // the file still uses the file system, only its link is closed
+            Assert.assertEquals(1, manager.closeIdleFileSystems(10));
+            Assert.assertEquals(1, manager.getFileSystemCount());
+            Assert.assertEquals(1, manager.getIdleFileSystemsClosedCount());
+
+            // nothing to release until the file system is used again
+            Thread.sleep(20);
+            Assert.assertEquals(0, manager.closeIdleFileSystems(10));
+            Assert.assertSame(fs, manager.resolveFile("ram:///file.txt").getFileSystem());
+            Assert.assertTrue(file.exists());
+            Thread.sleep(20);
+            Assert.assertEquals(1, manager.closeIdleFileSystems(10));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testCloseReleaseableIdleFileSystems() throws IOException, InterruptedException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(new NullFilesCache());
+        manager.init();
+        try {
+            manager.resolveFile("ram:///file.txt").createFile();
+            Assert.assertEquals(1, manager.getFileSystemCount());
+
+            // closed and deregistered once no file object uses it anymore
+            final long timeout = System.currentTimeMillis() + 10000;
+            while (manager.getFileSystemCount() > 0 && System.currentTimeMillis() < timeout) {
+                System.gc();
+                System.runFinalization();
+                Thread.sleep(20);
+                manager.closeIdleFileSystems(10);
+            }
+            Assert.assertEquals(0, manager.getFileSystemCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testFileSystemReaper() throws FileSystemException, InterruptedException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFileSystemIdleTimeout(50);
+        manager.setFileSystemReaperInterval(10);
+        manager.init();
+        try {
+            manager.resolveFile("ram:///file.txt");
+            final long timeout = System.currentTimeMillis() + 10000;
+            while (manager.getIdleFileSystemsClosedCount() == 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, manager.getIdleFileSystemsClosedCount());
+        } finally {
+            manager.close();
+        }
+    }
 }
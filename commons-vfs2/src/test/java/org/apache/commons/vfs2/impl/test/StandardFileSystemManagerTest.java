@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StandardFileSystemManagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A provider counting its instances.
+     */
+    public static class CountingFileProvider extends RamFileProvider {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public CountingFileProvider() {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testLazyProviders() throws IOException {
+        final File config = folder.newFile("providers.xml");
+        final OutputStream out = new FileOutputStream(config);
+        try {
+            out.write(("<providers>"
+                    + "<provider class-name=\"" + CountingFileProvider.class.getName() + "\">"
+                    + "<scheme name=\"counting\"/></provider>"
+                    + "<provider class-name=\"" + CountingFileProvider.class.getName() + "\">"
+                    + "<scheme name=\"missing\"/><if-available class-name=\"does.not.Exist\"/></provider>"
+                    + "</providers>").getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        manager.setConfiguration(config.toURI().toURL());
+        manager.setLazyProviders(true);
+        CountingFileProvider.INSTANCES.set(0);
+        manager.init();
+        try {
+            Assert.assertEquals(0, CountingFileProvider.INSTANCES.get());
+            // listed before their required classes are checked
+            final String[] schemes = manager.getSchemes();
+            Arrays.sort(schemes);
+            Assert.assertArrayEquals(new String[] { "counting", "missing" }, schemes);
+            Assert.assertEquals(0, CountingFileProvider.INSTANCES.get());
+
+            // the required class is checked on first use
+            try {
+                manager.resolveFile("missing:///file.txt");
+                Assert.fail();
+            } catch (final FileSystemException e) {
+                Assert.assertEquals("vfs.impl/unknown-scheme.error", e.getCode());
+            }
+            Assert.assertFalse(manager.hasProvider("missing"));
+            Assert.assertEquals(0, CountingFileProvider.INSTANCES.get());
+
+            final FileObject file = manager.resolveFile("counting:///file.txt");
+            file.createFile();
+            Assert.assertTrue(manager.resolveFile("counting:///file.txt").exists());
+            Assert.assertTrue(manager.hasProvider("counting"));
+            Assert.assertEquals(1, CountingFileProvider.INSTANCES.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testLazyProviderCheckedByHasProvider() throws IOException {
+        final File config = folder.newFile("providers.xml");
+        final OutputStream out = new FileOutputStream(config);
+        try {
+            out.write(("<providers>"
+                    + "<provider class-name=\"" + CountingFileProvider.class.getName() + "\">"
+                    + "<scheme name=\"counting\"/></provider>"
+                    + "<provider class-name=\"" + CountingFileProvider.class.getName() + "\">"
+                    + "<scheme name=\"missing\"/><if-available class-name=\"does.not.Exist\"/></provider>"
+                    + "</providers>").getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        manager.setConfiguration(config.toURI().toURL());
+        manager.setLazyProviders(true);
+        CountingFileProvider.INSTANCES.set(0);
+        manager.init();
+        try {
+            Assert.assertFalse(manager.hasProvider("missing"));
+            Assert.assertEquals(0, CountingFileProvider.INSTANCES.get());
+            Assert.assertTrue(manager.hasProvider("counting"));
+            Assert.assertEquals(1, CountingFileProvider.INSTANCES.get());
+            Assert.assertArrayEquals(new String[] { "counting" }, manager.getSchemes());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testLazyDefaultConfiguration() throws FileSystemException {
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        manager.setLazyProviders(true);
+        manager.init();
+        try {
+            Assert.assertTrue(manager.hasProvider("file"));
+            Assert.assertTrue(manager.hasProvider("tgz"));
+            Assert.assertTrue(manager.toFileObject(new File(".")).exists());
+
+            // loads the required gz and tar providers
+            Assert.assertTrue(manager.getProviderCapabilities("tgz").size() > 0);
+
+            final FileObject file = manager.resolveFile("ram:///file.txt");
+            file.createFile();
+            Assert.assertTrue(file.exists());
+        } finally {
+            manager.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.impl.WatchServiceFileMonitor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WatchServiceFileMonitorTest {
+    /** Long enough for the polling thread to never run during a test of local files */
+    private static final long NO_POLLING_DELAY = 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileSystemManager manager;
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    private final FileListener listener = new FileListener() {
+        @Override
+        public void fileCreated(final FileChangeEvent event) throws Exception {
+            events.add("created " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) throws Exception {
+            events.add("deleted " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileChanged(final FileChangeEvent event) throws Exception {
+            events.add("changed " + event.getFile().getName().getBaseName());
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        manager = VFS.getManager();
+    }
+
+    private void assertEvent(final String expected) throws InterruptedException {
+        Assert.assertEquals(expected, events.poll(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Writes a file in a single step, so that its creation is not followed by a change.
+     */
+    private void write(final File file) throws IOException {
+        final File tmp = File.createTempFile("tmp", null, folder.newFolder());
+        final FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write("content".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    public void testFolderChildren() throws Exception {
+        final File dir = folder.newFolder("dir");
+        final File existing = new File(dir, "existing.txt");
+        write(existing);
+
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(listener);
+        monitor.setDelay(NO_POLLING_DELAY);
+        monitor.addFile(manager.toFileObject(dir));
+        monitor.start();
+        try {
+            final File file = new File(dir, "file.txt");
+            write(file);
+            assertEvent("created file.txt");
+
+            Assert.assertTrue(existing.setLastModified(existing.lastModified() - 10000));
+            assertEvent("changed existing.txt");
+
+            Assert.assertTrue(file.delete());
+            assertEvent("deleted file.txt");
+        } finally {
+            monitor.stop();
+        }
+        Assert.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFileCreatedLater() throws Exception {
+        final File file = new File(folder.getRoot(), "later.txt");
+
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(listener);
+        monitor.setDelay(NO_POLLING_DELAY);
+        monitor.addFile(manager.toFileObject(file));
+        monitor.start();
+        try {
+            // other files in the same folder are not monitored
+            write(new File(folder.getRoot(), "other.txt"));
+            write(file);
+            assertEvent("created later.txt");
+            Assert.assertTrue(file.delete());
+            assertEvent("deleted later.txt");
+        } finally {
+            monitor.stop();
+        }
+        Assert.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRecursive() throws Exception {
+        final File dir = folder.newFolder("dir");
+
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(listener);
+        monitor.setDelay(NO_POLLING_DELAY);
+        monitor.setRecursive(true);
+        monitor.addFile(manager.toFileObject(dir));
+        monitor.start();
+        try {
+            final File subDir = new File(dir, "sub");
+            Assert.assertTrue(subDir.mkdir());
+            assertEvent("created sub");
+
+            final File file = new File(subDir, "file.txt");
+            write(file);
+            assertEvent("created file.txt");
+
+            Assert.assertTrue(file.delete());
+            assertEvent("deleted file.txt");
+            Assert.assertTrue(subDir.delete());
+            assertEvent("deleted sub");
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        final File dir = folder.newFolder("dir");
+
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(listener);
+        monitor.setDelay(NO_POLLING_DELAY);
+        monitor.addFile(manager.toFileObject(dir));
+        monitor.start();
+        monitor.stop();
+
+        // changes made while stopped are reported when started again
+        write(new File(dir, "stopped.txt"));
+        Assert.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        monitor.start();
+        try {
+            assertEvent("created stopped.txt");
+            write(new File(dir, "started.txt"));
+            assertEvent("created started.txt");
+        } finally {
+            monitor.stop();
+        }
+        Assert.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPollingFallback() throws Exception {
+        final FileObject dir = manager.resolveFile("ram:///" + getClass().getSimpleName());
+        dir.createFolder();
+
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(listener);
+        monitor.setDelay(100);
+        monitor.addFile(dir);
+        monitor.start();
+        try {
+            final FileObject file = dir.resolveFile("file.txt");
+            file.createFile();
+            assertEvent("created file.txt");
+            file.delete();
+            assertEvent("deleted file.txt");
+        } finally {
+            monitor.stop();
+            dir.deleteAll();
+        }
+    }
+}
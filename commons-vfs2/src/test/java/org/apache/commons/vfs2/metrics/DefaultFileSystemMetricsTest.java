@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.metrics;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.util.CloseableIterator;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultFileSystemMetricsTest {
+    private static final String ROOT = "ram:///";
+
+    private DefaultFileSystemMetrics metrics;
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        metrics = new DefaultFileSystemMetrics();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.setFileSystemMetrics(metrics);
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        metrics.clear();
+    }
+
+    @Test
+    public void testOperations() throws Exception {
+        final FileObject file = manager.resolveFile("ram:///dir/file.txt");
+        final OutputStream out = file.getContent().getOutputStream();
+        out.write("hello".getBytes("UTF-8"));
+        out.close();
+
+        final InputStream in = file.getContent().getInputStream();
+        final byte[] buffer = new byte[16];
+        Assert.assertEquals(5, in.read(buffer));
+        in.close();
+
+        Assert.assertEquals(1, file.getParent().getChildren().length);
+        file.moveTo(manager.resolveFile("ram:///dir/moved.txt"));
+        manager.resolveFile("ram:///dir/moved.txt").delete();
+
+        Assert.assertEquals(Collections.singleton(ROOT), metrics.getRootURIs());
+        Assert.assertEquals(5, metrics.getBytesWritten(ROOT));
+        Assert.assertEquals(5, metrics.getBytesRead(ROOT));
+        Assert.assertEquals(1, metrics.getStatistics(ROOT, MeteredOperation.OPEN_OUTPUT).getCount());
+        Assert.assertEquals(1, metrics.getStatistics(ROOT, MeteredOperation.OPEN_INPUT).getCount());
+        Assert.assertEquals(1, metrics.getStatistics(ROOT, MeteredOperation.LIST).getCount());
+        Assert.assertEquals(1, metrics.getStatistics(ROOT, MeteredOperation.RENAME).getCount());
+        Assert.assertEquals(1, metrics.getStatistics(ROOT, MeteredOperation.DELETE).getCount());
+        Assert.assertTrue(metrics.getStatistics(ROOT, MeteredOperation.ATTACH).getCount() > 0);
+        Assert.assertTrue(metrics.getStatistics(ROOT, MeteredOperation.GET_TYPE).getCount() > 0);
+
+        final FileOperationStatistics statistics = metrics.getStatistics(ROOT, MeteredOperation.ATTACH);
+        Assert.assertEquals(0, statistics.getFailureCount());
+        Assert.assertTrue(statistics.getMedianTime() <= statistics.getP99Time());
+        Assert.assertTrue(statistics.getP99Time() <= statistics.getMaxTime());
+        Assert.assertNull(metrics.getStatistics("file:///", MeteredOperation.ATTACH));
+    }
+
+    @Test
+    public void testIterateChildren() throws Exception {
+        final File dir = File.createTempFile("vfs-metrics", "");
+        dir.delete();
+        try {
+            FileUtils.writeStringToFile(new File(dir, "file.txt"), "file", "UTF-8");
+            final FileObject folder = manager.resolveFile(dir.toURI().toString());
+            final String root = folder.getFileSystem().getRootURI();
+
+            // streamed by the local provider
+            final CloseableIterator<FileObject> iterator = FileObjectUtils.iterateChildren(folder);
+            try {
+                Assert.assertTrue(iterator.hasNext());
+                Assert.assertEquals("file.txt", iterator.next().getName().getBaseName());
+                Assert.assertFalse(iterator.hasNext());
+            } finally {
+                iterator.close();
+            }
+            Assert.assertEquals(1, metrics.getStatistics(root, MeteredOperation.LIST).getCount());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        try {
+            manager.resolveFile("ram:///missing.txt").getContent().getInputStream();
+            Assert.fail();
+        } catch (final Exception e) {
+            // expected
+        }
+        final FileOperationStatistics statistics = metrics.getStatistics(ROOT, MeteredOperation.OPEN_INPUT);
+        Assert.assertEquals(1, statistics.getCount());
+        Assert.assertEquals(1, statistics.getFailureCount());
+    }
+
+    @Test
+    public void testMBeans() throws Exception {
+        metrics.registerMBeans("org.apache.commons.vfs2.test");
+        final OutputStream out = manager.resolveFile("ram:///file.txt").getContent().getOutputStream();
+        out.write(new byte[42]);
+        out.close();
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(
+                "org.apache.commons.vfs2.test:type=FileSystemMetrics,scheme=\"ram\",root=\"ram:///\"");
+        Assert.assertEquals(Long.valueOf(42), server.getAttribute(name, "BytesWritten"));
+        final TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+        final CompositeData openOutput = (CompositeData) operations.get(new Object[] { "OPEN_OUTPUT" })
+                .get("value");
+        Assert.assertEquals(Long.valueOf(1), openOutput.get("count"));
+
+        metrics.unregisterMBeans();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+}
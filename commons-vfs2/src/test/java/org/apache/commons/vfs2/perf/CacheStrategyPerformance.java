@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.CacheStrategy;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.commons.vfs2.provider.local.LocalFileName;
+import org.apache.commons.vfs2.provider.local.LocalFileSystem;
+
+/**
+ * Compares the number of requests a polling client sends to the file system with {@link CacheStrategy#ON_CALL} and
+ * {@link CacheStrategy#ON_TIMEOUT}.
+ * <p>
+ * The client polls a folder every 10ms for its children and their size and last modified time, like an application
+ * waiting for new or changed files. Every request for the type, children, size or last modified time of a file is
+ * counted.
+ */
+public class CacheStrategyPerformance {
+    private final static int FILES = 50;
+    private final static long POLL_INTERVAL = 10;
+    private final static long DURATION = 5000;
+    private final static long TIME_TO_LIVE = 1000;
+
+    private static final AtomicLong REQUESTS = new AtomicLong();
+
+    public static void main(final String[] args) throws Exception {
+        final File baseDir = File.createTempFile("vfs-cache-perf", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+        try {
+            for (int i = 0; i < FILES; i++) {
+                FileUtils.writeStringToFile(new File(baseDir, "file" + i + ".txt"), "content " + i, "UTF-8");
+            }
+
+            for (final CacheStrategy strategy : new CacheStrategy[] { CacheStrategy.ON_CALL,
+                    CacheStrategy.ON_TIMEOUT }) {
+                REQUESTS.set(0);
+                final long polls = run(baseDir, strategy);
+                System.err.println(String.format("%s: %d requests for %d polls, %.2f requests/poll", strategy,
+                        REQUESTS.get(), polls, REQUESTS.get() / (double) Math.max(1, polls)));
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static long run(final File baseDir, final CacheStrategy strategy) throws Exception {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new CountingLocalFileProvider());
+        manager.setCacheStrategy(strategy);
+        manager.init();
+        try {
+            final FileSystemOptions opts = new FileSystemOptions();
+            DefaultFileSystemConfigBuilder.getInstance().setCacheTimeToLive(opts, TIME_TO_LIVE);
+            final FileObject folder = manager.resolveFile(baseDir.toURI().toString(), opts);
+
+            long polls = 0;
+            final long end = System.currentTimeMillis() + DURATION;
+            while (System.currentTimeMillis() < end) {
+                for (final FileObject child : folder.getChildren()) {
+                    if (child.isFile()) {
+                        child.getContent().getSize();
+                        child.getContent().getLastModifiedTime();
+                    }
+                }
+                polls++;
+                Thread.sleep(POLL_INTERVAL);
+            }
+            return polls;
+        } finally {
+            manager.close();
+        }
+    }
+
+    /**
+     * A local file provider counting the requests of its files.
+     */
+    private static class CountingLocalFileProvider extends DefaultLocalFileProvider {
+        @Override
+        protected FileSystem doCreateFileSystem(final FileName name, final FileSystemOptions fileSystemOptions)
+                throws FileSystemException {
+            final LocalFileName rootName = (LocalFileName) name;
+            return new LocalFileSystem(rootName, rootName.getRootFile(), fileSystemOptions) {
+                @Override
+                protected FileObject createFile(final AbstractFileName fileName) throws FileSystemException {
+                    return new CountingLocalFile(this, rootName.getRootFile(), fileName);
+                }
+            };
+        }
+    }
+
+    private static class CountingLocalFile extends LocalFile {
+        CountingLocalFile(final LocalFileSystem fileSystem, final String rootFile, final AbstractFileName name)
+                throws FileSystemException {
+            super(fileSystem, rootFile, name);
+        }
+
+        @Override
+        protected FileType doGetType() throws Exception {
+            REQUESTS.incrementAndGet();
+            return super.doGetType();
+        }
+
+        @Override
+        protected String[] doListChildren() throws Exception {
+            REQUESTS.incrementAndGet();
+            return super.doListChildren();
+        }
+
+        @Override
+        protected long doGetContentSize() throws Exception {
+            REQUESTS.incrementAndGet();
+            return super.doGetContentSize();
+        }
+
+        @Override
+        protected long doGetLastModifiedTime() throws FileSystemException {
+            REQUESTS.incrementAndGet();
+            return super.doGetLastModifiedTime();
+        }
+    }
+}
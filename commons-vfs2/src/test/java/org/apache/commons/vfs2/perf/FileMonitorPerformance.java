@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.impl.DefaultFileMonitor;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+
+/**
+ * Measures the time {@link DefaultFileMonitor} takes to detect a change, for an increasing number of monitored files
+ * of the RAM provider and an increasing number of threads.
+ */
+public class FileMonitorPerformance {
+    private final static int FILES_PER_FOLDER = 1000;
+    private final static int NUOF_CHANGES = 21;
+    private final static long DELAY = 100;
+
+    private static volatile String expected;
+    private static volatile CountDownLatch detected;
+
+    public static void main(final String[] args) throws Exception {
+        final int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        for (int files = 1000; files <= 100000; files *= 10) {
+            final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+            manager.addProvider("ram", new RamFileProvider());
+            manager.init();
+            try {
+                final FileObject[] fileObjects = createFiles(manager, files);
+                for (int threads = 1; threads <= maxThreads; threads *= 4) {
+                    System.err.println(files + " files with " + threads + " threads: median detection "
+                            + run(manager, fileObjects, threads) + "ms");
+                }
+            } finally {
+                manager.close();
+            }
+        }
+    }
+
+    private static FileObject[] createFiles(final DefaultFileSystemManager manager, final int count)
+            throws Exception {
+        final FileObject[] files = new FileObject[count];
+        for (int i = 0; i < count; i++) {
+            files[i] = manager.resolveFile("ram:///folder" + i / FILES_PER_FOLDER + "/file" + i);
+            files[i].createFile();
+        }
+        return files;
+    }
+
+    private static long run(final DefaultFileSystemManager manager, final FileObject[] files, final int threads)
+            throws Exception {
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new FileListener() {
+            @Override
+            public void fileChanged(final FileChangeEvent event) throws Exception {
+                if (event.getFile().getName().getBaseName().equals(expected)) {
+                    detected.countDown();
+                }
+            }
+
+            @Override
+            public void fileDeleted(final FileChangeEvent event) throws Exception {
+            }
+
+            @Override
+            public void fileCreated(final FileChangeEvent event) throws Exception {
+            }
+        });
+        monitor.setDelay(DELAY);
+        monitor.setChecksPerRun(0);
+        monitor.setThreadCount(threads);
+        for (int i = 0; i < files.length; i += FILES_PER_FOLDER) {
+            monitor.addFile(files[i].getParent());
+        }
+        monitor.start();
+        try {
+            // let the first pass complete
+            Thread.sleep(DELAY * 10);
+
+            final Random random = new Random(42);
+            final long[] times = new long[NUOF_CHANGES];
+            for (int i = 0; i < NUOF_CHANGES; i++) {
+                // change at a random point of the polling cycle
+                Thread.sleep(random.nextInt((int) DELAY));
+                final FileObject file = files[random.nextInt(files.length)];
+                expected = file.getName().getBaseName();
+                detected = new CountDownLatch(1);
+                final long start = System.nanoTime();
+                file.getContent().setLastModifiedTime(System.currentTimeMillis() + i * 1000 + 1000);
+                if (!detected.await(1, TimeUnit.MINUTES)) {
+                    throw new IllegalStateException("Change of " + file + " not detected");
+                }
+                times[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            Arrays.sort(times);
+            return times[NUOF_CHANGES / 2];
+        } finally {
+            monitor.stop();
+            // let the threads notice the stop before the next run
+            Thread.sleep(DELAY * 2);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.provider.FileNameStore;
+
+/**
+ * Measures the heap used by many file names kept in a set, with and without a {@link FileNameStore}.
+ */
+public class FileNameHeapPerformance {
+    private final static int NUOF_DIRS = 1000;
+    private final static int NUOF_FILES = 500;
+
+    public static void main(final String[] args) throws FileSystemException {
+        final FileSystemManager mgr = VFS.getManager();
+        final FileName rootName = mgr.resolveFile("ram:///").getName();
+
+        // warmup jvm
+        testNames(mgr, rootName, 10);
+
+        FileNameStore.setDefault(null);
+        testNames(mgr, rootName, NUOF_DIRS);
+
+        final FileNameStore store = new FileNameStore();
+        FileNameStore.setDefault(store);
+        testNames(mgr, rootName, NUOF_DIRS);
+        System.err.println("nodes in store: " + store.size());
+        FileNameStore.setDefault(null);
+    }
+
+    private static void testNames(final FileSystemManager mgr, final FileName rootName, final int dirs)
+            throws FileSystemException {
+        final long before = usedMemory();
+        final long start = System.currentTimeMillis();
+
+        final Set<FileName> names = new HashSet<>();
+        for (int i = 0; i < dirs; i++) {
+            for (int j = 0; j < NUOF_FILES; j++) {
+                final FileName name = mgr.resolveName(rootName,
+                        "/many/path/elements/with%25esc/any%25where/dir" + i + "/file" + j + ".txt");
+                // the uri is cached by plain names
+                name.getURI();
+                names.add(name);
+            }
+        }
+        final long end = System.currentTimeMillis();
+
+        final long used = usedMemory() - before;
+        System.err.println((FileNameStore.getDefault() == null ? "plain" : "store") + ": " + names.size()
+                + " names in " + (end - start) + "ms, " + used / names.size() + " bytes per name");
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
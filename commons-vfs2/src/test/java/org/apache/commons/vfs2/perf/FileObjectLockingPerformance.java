@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.LockStrategy;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+
+/**
+ * Compares the throughput of concurrent metadata access with {@link LockStrategy#FILE_SYSTEM} and
+ * {@link LockStrategy#READ_WRITE} for an increasing number of threads.
+ * <p>
+ * Every thread refreshes and re-reads the type, children and size of the files in its own folder, so that with the
+ * file system wide monitor the threads serialize while with per-file locks they can use all cores.
+ */
+public class FileObjectLockingPerformance {
+    private final static int FILES = 100;
+    private final static int NUOF_ROUNDS = 200;
+
+    public static void main(final String[] args) throws Exception {
+        final int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+        final File baseDir = File.createTempFile("vfs-lock-perf", "");
+        baseDir.delete();
+        try {
+            for (int i = 0; i < maxThreads; i++) {
+                final File folder = new File(baseDir, "folder" + i);
+                folder.mkdirs();
+                for (int j = 0; j < FILES; j++) {
+                    FileUtils.writeStringToFile(new File(folder, "file" + j), "content" + j, "UTF-8");
+                }
+            }
+
+            for (final LockStrategy strategy : LockStrategy.values()) {
+                for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                    // warmup jvm
+                    run(baseDir, strategy, threads, NUOF_ROUNDS / 10);
+
+                    final long ops = threads * (long) NUOF_ROUNDS * (FILES + 1);
+                    final long time = run(baseDir, strategy, threads, NUOF_ROUNDS);
+                    System.err.println(strategy + " with " + threads + " threads: " + ops + " operations in " + time
+                            + "ms, " + ops * 1000 / Math.max(1, time) + " ops/s");
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static long run(final File baseDir, final LockStrategy strategy, final int threads, final int rounds)
+            throws Exception {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+        try {
+            final FileSystemOptions opts = new FileSystemOptions();
+            DefaultFileSystemConfigBuilder.getInstance().setLockStrategy(opts, strategy);
+            final FileObject root = manager.resolveFile(baseDir.toURI().toString(), opts);
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(threads);
+            final AtomicLong errors = new AtomicLong();
+            for (int t = 0; t < threads; t++) {
+                final FileObject folder = root.resolveFile("folder" + t);
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (int round = 0; round < rounds; round++) {
+                                folder.refresh();
+                                for (final FileObject child : folder.getChildren()) {
+                                    child.refresh();
+                                    child.getContent().getSize();
+                                }
+                            }
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (final FileSystemException e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }.start();
+            }
+
+            final long begin = System.currentTimeMillis();
+            start.countDown();
+            done.await();
+            final long end = System.currentTimeMillis();
+            if (errors.get() > 0) {
+                throw new IOException(errors.get() + " threads failed");
+            }
+            return end - begin;
+        } finally {
+            manager.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FilesCache;
+import org.apache.commons.vfs2.cache.DefaultFilesCache;
+import org.apache.commons.vfs2.cache.SoftRefFilesCache;
+import org.apache.commons.vfs2.cache.TinyLFUFilesCache;
+import org.apache.commons.vfs2.cache.WeakRefFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+
+/**
+ * Measures the throughput of concurrent file resolution through the {@link FilesCache} implementations for an
+ * increasing number of threads, up to at least 32.
+ * <p>
+ * Every thread resolves the same set of files of a RAM file system by name, so that almost every call hits the cache.
+ */
+public class FilesCachePerformance {
+    private final static int FILES = 1000;
+    private final static int NUOF_RESOLVES = 200000;
+
+    public static void main(final String[] args) throws Exception {
+        final int maxThreads = Math.max(32, Runtime.getRuntime().availableProcessors() * 2);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (final Class<?> cacheClass : new Class<?>[] { SoftRefFilesCache.class, WeakRefFilesCache.class,
+                    DefaultFilesCache.class, TinyLFUFilesCache.class }) {
+                // warmup jvm
+                run((FilesCache) cacheClass.getDeclaredConstructor().newInstance(), threads, NUOF_RESOLVES / 10);
+
+                final long ops = threads * (long) NUOF_RESOLVES;
+                final long time = run((FilesCache) cacheClass.getDeclaredConstructor().newInstance(), threads,
+                        NUOF_RESOLVES);
+                System.err.println(cacheClass.getSimpleName() + " with " + threads + " threads: " + ops
+                        + " resolves in " + time + "ms, " + ops * 1000 / Math.max(1, time) + " resolves/s");
+            }
+        }
+    }
+
+    private static long run(final FilesCache cache, final int threads, final int resolves) throws Exception {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(cache);
+        manager.init();
+        try {
+            final FileObject root = manager.resolveFile("ram:///");
+            final FileName[] names = new FileName[FILES];
+            // keep the files strongly reachable, so that the reference caches do not lose them
+            final FileObject[] files = new FileObject[FILES];
+            for (int i = 0; i < FILES; i++) {
+                files[i] = root.resolveFile("folder" + i % 10 + "/file" + i + ".txt");
+                names[i] = files[i].getName();
+            }
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(threads);
+            final AtomicLong errors = new AtomicLong();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t * 7;
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (int i = 0; i < resolves; i++) {
+                                root.getFileSystem().resolveFile(names[(offset + i) % FILES]);
+                            }
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (final FileSystemException e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }.start();
+            }
+
+            final long begin = System.currentTimeMillis();
+            start.countDown();
+            done.await();
+            final long end = System.currentTimeMillis();
+            if (errors.get() > 0) {
+                throw new IOException(errors.get() + " threads failed");
+            }
+            if (files.length != FILES) {
+                throw new IllegalStateException();
+            }
+            return end - begin;
+        } finally {
+            manager.close();
+        }
+    }
+}
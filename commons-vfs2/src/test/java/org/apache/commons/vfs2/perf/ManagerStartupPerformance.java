@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+
+/**
+ * Measures the start-up time of {@link VFS#getManager()}, followed by the resolution of a local file, with eager and
+ * lazy providers. As most of the time goes into class loading, each run uses a new JVM.
+ */
+public class ManagerStartupPerformance {
+    private final static int NUOF_RUNS = 7;
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length > 0) {
+            // a single run in this JVM
+            final long start = System.nanoTime();
+            final FileSystemManager manager = VFS.getManager();
+            final long init = System.nanoTime();
+            manager.resolveFile(new File(".").getAbsolutePath()).exists();
+            final long end = System.nanoTime();
+            System.out.println((init - start) / 1000000 + " " + (end - start) / 1000000);
+            return;
+        }
+
+        // warmup disk caches
+        run(false);
+        run(true);
+
+        report(false);
+        report(true);
+    }
+
+    private static void report(final boolean lazy) throws IOException, InterruptedException {
+        final long[] init = new long[NUOF_RUNS];
+        final long[] total = new long[NUOF_RUNS];
+        for (int i = 0; i < NUOF_RUNS; i++) {
+            final String[] times = run(lazy).split(" ");
+            init[i] = Long.parseLong(times[0]);
+            total[i] = Long.parseLong(times[1]);
+        }
+        Arrays.sort(init);
+        Arrays.sort(total);
+        System.err.println((lazy ? "lazy" : "eager") + " providers: median getManager() " + init[NUOF_RUNS / 2]
+                + "ms, with first local file " + total[NUOF_RUNS / 2] + "ms");
+    }
+
+    private static String run(final boolean lazy) throws IOException, InterruptedException {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java,
+                "-D" + StandardFileSystemManager.LAZY_PROVIDERS_PROPERTY + "=" + lazy, "-cp",
+                System.getProperty("java.class.path"), ManagerStartupPerformance.class.getName(), "run")
+                        .redirectErrorStream(true).start();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+        try {
+            String line;
+            String last = null;
+            while ((line = reader.readLine()) != null) {
+                last = line;
+            }
+            process.waitFor();
+            return last;
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+
+/**
+ * Measures repeated listings of a large directory on the ram provider, with and without the name cache of the
+ * manager.
+ */
+public class NameCachePerformance {
+    private final static int NUOF_FILES = 10000;
+    private final static int NUOF_LISTINGS = 200;
+
+    public static void main(final String[] args) throws FileSystemException {
+        // warmup jvm
+        testListings(0);
+        testListings(2 * NUOF_FILES);
+
+        testListings(0);
+        testListings(2 * NUOF_FILES);
+    }
+
+    private static void testListings(final int nameCacheSize) throws FileSystemException {
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setNameCacheMaxSize(nameCacheSize);
+        manager.init();
+        try {
+            // the names are resolved once to create the files and once more as children of the directory
+            final FileObject dir = manager.resolveFile("ram:///dir");
+            for (int i = 0; i < NUOF_FILES; i++) {
+                dir.resolveFile("file" + i + ".txt").createFile();
+            }
+
+            final long bytes = allocatedBytes();
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < NUOF_LISTINGS; i++) {
+                dir.refresh();
+                dir.getChildren();
+            }
+            final long end = System.currentTimeMillis();
+
+            System.err.println("name cache " + nameCacheSize + ": " + NUOF_LISTINGS + " listings of " + NUOF_FILES
+                    + " files in " + (end - start) + "ms, "
+                    + (bytes < 0 ? "?" : String.valueOf((allocatedBytes() - bytes) / NUOF_LISTINGS / NUOF_FILES))
+                    + " bytes per child");
+            if (manager.getNameCacheStatistics() != null) {
+                System.err.println("  hit rate " + manager.getNameCacheStatistics().getHitRate());
+            }
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
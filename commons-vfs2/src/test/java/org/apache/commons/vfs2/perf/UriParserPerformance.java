@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+
+/**
+ * Measures the time and the bytes allocated to resolve local, sftp and http names, absolute and relative.
+ */
+public class UriParserPerformance {
+    private final static int NUOF_RESOLVES = 1000000;
+
+    private static final String[][] URIS = {
+            {"file:///home/vfsusr/many/path/elements/to/file.txt", "sub/dir/file.txt"},
+            {"sftp://vfsusr@10.0.1.54/home/vfsusr/many/path/elements/to/file.txt", "sub/dir/file.txt"},
+            {"http://www.apache.org/many/path/elements/to/file.txt", "sub/dir/file.txt"},
+            {"file:///home/vfsusr/with%25esc/./to/../file.txt", "sub\\dir/../file.txt"}};
+
+    public static void main(final String[] args) throws FileSystemException {
+        final FileSystemManager mgr = VFS.getManager();
+
+        for (final String[] uris : URIS) {
+            final FileName base = mgr.resolveURI(uris[0]);
+            for (int i = 0; i < NUOF_RESOLVES / 10; i++) {
+                // warmup jvm
+                mgr.resolveURI(uris[0]);
+                mgr.resolveName(base, uris[1]);
+            }
+            testResolveUri(mgr, uris[0]);
+            testResolveName(mgr, base, uris[1]);
+        }
+    }
+
+    private static void testResolveUri(final FileSystemManager mgr, final String uri) throws FileSystemException {
+        final long bytes = allocatedBytes();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < NUOF_RESOLVES; i++) {
+            mgr.resolveURI(uri);
+        }
+        final long end = System.currentTimeMillis();
+        report("uri " + uri, end - start, allocatedBytes() - bytes);
+    }
+
+    private static void testResolveName(final FileSystemManager mgr, final FileName base, final String name)
+            throws FileSystemException {
+        final long bytes = allocatedBytes();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < NUOF_RESOLVES; i++) {
+            mgr.resolveName(base, name);
+        }
+        final long end = System.currentTimeMillis();
+        report("name " + name + " in " + base.getScheme(), end - start, allocatedBytes() - bytes);
+    }
+
+    private static void report(final String what, final long time, final long bytes) {
+        System.err.println(what + ": " + time + "ms, "
+                + (bytes < 0 ? "?" : String.valueOf(bytes / NUOF_RESOLVES)) + " bytes per resolve");
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the concurrent and the native copy of {@link AbstractFileObject#copyFrom}.
+ */
+public class AbstractFileObjectCopyFromTest {
+    private File baseDir;
+
+    private File srcDir;
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-copyfrom", "");
+        baseDir.delete();
+        srcDir = new File(baseDir, "src");
+        createTree(srcDir, 2);
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+    }
+
+    private static void createTree(final File dir, final int levels) throws IOException {
+        dir.mkdirs();
+        for (int i = 0; i < 10; i++) {
+            FileUtils.writeStringToFile(new File(dir, "file" + i + ".txt"), dir.getName() + " content " + i,
+                    "UTF-8");
+        }
+        if (levels > 0) {
+            for (int i = 0; i < 3; i++) {
+                createTree(new File(dir, "dir" + i), levels - 1);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    private FileObject resolveConcurrent(final File file) throws FileSystemException {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setCopyParallelism(opts, 4);
+        // smaller than most files, so they are copied one at a time
+        DefaultFileSystemConfigBuilder.getInstance().setCopyMaxBytesInFlight(opts, 16);
+        return manager.resolveFile(file.toURI().toString(), opts);
+    }
+
+    private void assertSameTree(final File expected, final File actual) throws IOException {
+        Assert.assertTrue(actual.getPath(), actual.isDirectory());
+        final String[] names = expected.list();
+        Assert.assertEquals(names.length, actual.list().length);
+        for (final String name : names) {
+            final File expectedChild = new File(expected, name);
+            final File actualChild = new File(actual, name);
+            if (expectedChild.isDirectory()) {
+                assertSameTree(expectedChild, actualChild);
+            } else {
+                Assert.assertEquals(FileUtils.readFileToString(expectedChild, "UTF-8"),
+                        FileUtils.readFileToString(actualChild, "UTF-8"));
+            }
+        }
+    }
+
+    /**
+     * Whether the default file system has POSIX permissions and symbolic links, which some tests need.
+     */
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    @Test
+    public void testConcurrentCopy() throws Exception {
+        final File destDir = new File(baseDir, "dest");
+        final FileObject src = manager.resolveFile(srcDir.toURI().toString());
+        final FileObject dest = resolveConcurrent(destDir);
+        Assert.assertNotSame(src.getFileSystem(), dest.getFileSystem());
+
+        dest.copyFrom(src, Selectors.SELECT_ALL);
+
+        assertSameTree(srcDir, destDir);
+        Assert.assertTrue(dest.resolveFile("dir2/dir1/file9.txt").exists());
+    }
+
+    @Test
+    public void testNativeCopy() throws Exception {
+        final File destDir = new File(baseDir, "dest");
+        final FileObject base = manager.resolveFile(baseDir.toURI().toString());
+        final FileObject src = base.resolveFile("src");
+        final FileObject dest = base.resolveFile("dest");
+        Assert.assertSame(src.getFileSystem(), dest.getFileSystem());
+        Assert.assertFalse(dest.resolveFile("file0.txt").exists());
+
+        dest.copyFrom(src, Selectors.SELECT_ALL);
+
+        assertSameTree(srcDir, destDir);
+        // the cached state of the copies has been updated
+        final FileObject copy = dest.resolveFile("file0.txt");
+        Assert.assertTrue(copy.exists());
+        Assert.assertEquals(new File(srcDir, "file0.txt").length(), copy.getContent().getSize());
+    }
+
+    @Test
+    public void testNativeCopyThroughSymbolicLink() throws Exception {
+        Assume.assumeTrue(isPosix());
+        final File target = new File(baseDir, "target.txt");
+        FileUtils.writeStringToFile(target, "target", "UTF-8");
+        final Path link = new File(baseDir, "link.txt").toPath();
+        Files.createSymbolicLink(link, target.toPath());
+        final FileObject base = manager.resolveFile(baseDir.toURI().toString());
+
+        base.resolveFile("link.txt").copyFrom(base.resolveFile("src/file0.txt"), Selectors.SELECT_SELF);
+
+        // written through the link, as with streams
+        Assert.assertTrue(Files.isSymbolicLink(link));
+        Assert.assertEquals("src content 0", FileUtils.readFileToString(target, "UTF-8"));
+    }
+
+    @Test
+    public void testNativeCopyOntoReadOnlyFile() throws Exception {
+        Assume.assumeTrue(isPosix());
+        final File readOnly = new File(baseDir, "read-only.txt");
+        FileUtils.writeStringToFile(readOnly, "read-only", "UTF-8");
+        Assert.assertTrue(readOnly.setReadOnly());
+        final Object fileKey = Files.readAttributes(readOnly.toPath(), BasicFileAttributes.class).fileKey();
+        final FileObject base = manager.resolveFile(baseDir.toURI().toString());
+
+        try {
+            base.resolveFile("read-only.txt").copyFrom(base.resolveFile("src/file0.txt"), Selectors.SELECT_SELF);
+            // only possible with the privilege to write read-only files, which were written in place
+            Assert.assertEquals(fileKey,
+                    Files.readAttributes(readOnly.toPath(), BasicFileAttributes.class).fileKey());
+        } catch (final FileSystemException e) {
+            Assert.assertEquals("read-only", FileUtils.readFileToString(readOnly, "UTF-8"));
+        }
+        // not replaced by a writable copy
+        Assert.assertFalse(Files.getPosixFilePermissions(readOnly.toPath()).contains(PosixFilePermission.OWNER_WRITE));
+    }
+
+    @Test
+    public void testConcurrentCopyFailure() throws Exception {
+        final FileObject src = manager.resolveFile(srcDir.toURI().toString());
+        final FileObject dest = resolveConcurrent(new File(baseDir, "dest"));
+        final File missing = new File(srcDir, "dir1/file5.txt");
+
+        try {
+            dest.copyFrom(src, new DeletingSelector(missing));
+            Assert.fail("missing source file copied");
+        } catch (final FileSystemException e) {
+            Assert.assertEquals("vfs.provider/copy-file.error", e.getCode());
+        }
+    }
+
+    /**
+     * Selects all files, and deletes one of them while the files are selected.
+     */
+    private static final class DeletingSelector implements FileSelector {
+        private final File toDelete;
+
+        DeletingSelector(final File toDelete) {
+            this.toDelete = toDelete;
+        }
+
+        @Override
+        public boolean includeFile(final FileSelectInfo fileInfo) throws Exception {
+            if (fileInfo.getFile().getName().getPath().endsWith("/src/dir1/file5.txt")) {
+                fileInfo.getFile().getType();
+                Assert.assertTrue(toDelete.delete());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+            return true;
+        }
+    }
+}
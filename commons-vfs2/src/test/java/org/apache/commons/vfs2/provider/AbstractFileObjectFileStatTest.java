@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link FileStat} snapshot kept by {@link AbstractFileObject}.
+ */
+public class AbstractFileObjectFileStatTest {
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-filestat", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+        FileUtils.writeStringToFile(new File(baseDir, "file.txt"), "12345", "UTF-8");
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    @Test
+    public void testStatFilledByGetType() throws Exception {
+        final File file = new File(baseDir, "file.txt");
+        file.setLastModified(1000000000L);
+        final FileObject fileObject = manager.toFileObject(file);
+
+        Assert.assertEquals(FileType.FILE, fileObject.getType());
+        final FileStat stat = FileObjectUtils.getAbstractFileObject(fileObject).getFileStat();
+        Assert.assertNotNull(stat);
+        Assert.assertEquals(FileType.FILE, stat.getType());
+        Assert.assertEquals(FileStat.UNKNOWN, stat.getSize());
+        Assert.assertEquals(FileStat.UNKNOWN, stat.getLastModifiedTime());
+
+        Assert.assertEquals(5, fileObject.getContent().getSize());
+        Assert.assertEquals(1000000000L, fileObject.getContent().getLastModifiedTime());
+    }
+
+    @Test
+    public void testLocalSizeNotKept() throws Exception {
+        final File file = new File(baseDir, "file.txt");
+        final FileObject fileObject = manager.toFileObject(file);
+        Assert.assertEquals(5, fileObject.getContent().getSize());
+
+        FileUtils.writeStringToFile(file, "1234567890", "UTF-8");
+        Assert.assertEquals(10, fileObject.getContent().getSize());
+    }
+
+    @Test
+    public void testStatKeptUntilRefresh() throws Exception {
+        final File file = new File(baseDir, "file.txt");
+        final FileObject fileObject = manager.toFileObject(file);
+        Assert.assertEquals(FileType.FILE, fileObject.getType());
+        // as filled from a listing
+        FileObjectUtils.getAbstractFileObject(fileObject).setFileStat(new FileStat(FileType.FILE, 42, 1000000000L));
+        Assert.assertEquals(42, fileObject.getContent().getSize());
+        Assert.assertEquals(1000000000L, fileObject.getContent().getLastModifiedTime());
+
+        fileObject.refresh();
+        Assert.assertEquals(5, fileObject.getContent().getSize());
+    }
+
+    @Test
+    public void testStatClearedByWrite() throws Exception {
+        final FileObject fileObject = manager.toFileObject(new File(baseDir, "file.txt"));
+        Assert.assertEquals(5, fileObject.getContent().getSize());
+
+        try (final OutputStream out = fileObject.getContent().getOutputStream()) {
+            out.write("123".getBytes("UTF-8"));
+        }
+        Assert.assertEquals(3, fileObject.getContent().getSize());
+
+        fileObject.getContent().setLastModifiedTime(2000000000L);
+        Assert.assertEquals(2000000000L, fileObject.getContent().getLastModifiedTime());
+    }
+
+    @Test
+    public void testStatClearedByDelete() throws Exception {
+        final FileObject fileObject = manager.toFileObject(new File(baseDir, "file.txt"));
+        Assert.assertTrue(fileObject.exists());
+
+        fileObject.delete();
+        Assert.assertFalse(fileObject.exists());
+        Assert.assertNull(FileObjectUtils.getAbstractFileObject(fileObject).getFileStat());
+    }
+}
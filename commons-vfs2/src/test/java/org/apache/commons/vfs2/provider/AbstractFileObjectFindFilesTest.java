@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileDepthSelector;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.LockStrategy;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the fork/join traversal of {@link AbstractFileObject#findFiles(FileSelector, boolean, List, ForkJoinPool)}.
+ */
+public class AbstractFileObjectFindFilesTest {
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    private FileObject sequential;
+
+    private FileObject parallel;
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-findfiles", "");
+        baseDir.delete();
+        createTree(baseDir, 3);
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        sequential = manager.resolveFile(baseDir.toURI().toString());
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setLockStrategy(opts, LockStrategy.READ_WRITE);
+        parallel = manager.resolveFile(baseDir.toURI().toString(), opts);
+        Assert.assertNotSame(sequential.getFileSystem(), parallel.getFileSystem());
+
+        pool = new ForkJoinPool(4);
+    }
+
+    private static void createTree(final File dir, final int levels) throws IOException {
+        dir.mkdirs();
+        for (int i = 0; i < 5; i++) {
+            FileUtils.writeStringToFile(new File(dir, "file" + i + ".txt"), "content", "UTF-8");
+        }
+        if (levels > 0) {
+            for (int i = 0; i < 4; i++) {
+                createTree(new File(dir, "dir" + i), levels - 1);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    private List<String> findFiles(final FileObject base, final FileSelector selector, final boolean depthwise)
+            throws FileSystemException {
+        final List<FileObject> selected = new ArrayList<>();
+        if (base == parallel) {
+            FileObjectUtils.findFiles(base, selector, depthwise, selected, pool);
+        } else {
+            base.findFiles(selector, depthwise, selected);
+        }
+        final List<String> names = new ArrayList<>(selected.size());
+        for (final FileObject file : selected) {
+            names.add(base.getName().getRelativeName(file.getName()));
+        }
+        return names;
+    }
+
+    private void assertSameResult(final FileSelector selector) throws FileSystemException {
+        for (final boolean depthwise : new boolean[] { true, false }) {
+            final List<String> expected = findFiles(sequential, selector, depthwise);
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(expected, findFiles(parallel, selector, depthwise));
+        }
+    }
+
+    @Test
+    public void testSameOrderAsSequential() throws Exception {
+        assertSameResult(Selectors.SELECT_ALL);
+        assertSameResult(Selectors.SELECT_FILES);
+        assertSameResult(Selectors.SELECT_FOLDERS);
+        assertSameResult(Selectors.EXCLUDE_SELF);
+        assertSameResult(new FileDepthSelector(1, 2));
+    }
+
+    @Test
+    public void testTraverseDescendents() throws Exception {
+        final FileSelector selector = new FileSelector() {
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                return !fileInfo.getFile().getName().getBaseName().equals("dir1");
+            }
+
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) {
+                return true;
+            }
+        };
+        assertSameResult(selector);
+        for (final String name : findFiles(parallel, selector, true)) {
+            Assert.assertFalse(name, name.contains("dir1/"));
+        }
+    }
+
+    @Test
+    public void testFileSystemLockTraversesOnCallingThread() throws Exception {
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final FileSelector selector = new FileSelector() {
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                threads.add(Thread.currentThread());
+                return true;
+            }
+
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) {
+                threads.add(Thread.currentThread());
+                return true;
+            }
+        };
+        final List<FileObject> selected = new ArrayList<>();
+        FileObjectUtils.findFiles(sequential, selector, true, selected, pool);
+        Assert.assertEquals(findFiles(sequential, Selectors.SELECT_ALL, true).size(), selected.size());
+        Assert.assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void testSelectorException() throws Exception {
+        final FileSelector selector = new FileSelector() {
+            @Override
+            public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+                return true;
+            }
+
+            @Override
+            public boolean includeFile(final FileSelectInfo fileInfo) throws Exception {
+                if (fileInfo.getDepth() == 2) {
+                    throw new IllegalStateException("test");
+                }
+                return true;
+            }
+        };
+        try {
+            findFiles(parallel, selector, true);
+            Assert.fail();
+        } catch (final FileSystemException e) {
+            Assert.assertEquals("vfs.provider/find-files.error", e.getCode());
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the indexed lookup of {@link AbstractFileObject#getChild(String)}.
+ */
+public class AbstractFileObjectGetChildTest {
+    private static final int FILES = 2000;
+
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-getchild", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+        for (int i = 0; i < FILES; i++) {
+            new File(baseDir, "File" + i + ".txt").createNewFile();
+        }
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    private FileObject resolveBaseDir(final boolean caseInsensitive) throws FileSystemException {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setChildLookupCaseInsensitive(opts, caseInsensitive);
+        return manager.resolveFile(baseDir.toURI().toString(), opts);
+    }
+
+    @Test
+    public void testGetChild() throws Exception {
+        final FileObject folder = resolveBaseDir(false);
+        for (int i = 0; i < FILES; i++) {
+            final FileObject child = folder.getChild("File" + i + ".txt");
+            Assert.assertNotNull(child);
+            Assert.assertEquals("File" + i + ".txt", child.getName().getBaseName());
+        }
+        Assert.assertNull(folder.getChild("file0.txt"));
+        Assert.assertNull(folder.getChild("missing.txt"));
+    }
+
+    @Test
+    public void testGetChildIgnoreCase() throws Exception {
+        final FileObject folder = resolveBaseDir(true);
+        final FileObject child = folder.getChild("FILE42.TXT");
+        Assert.assertNotNull(child);
+        Assert.assertEquals("File42.txt", child.getName().getBaseName());
+        Assert.assertNull(folder.getChild("missing.txt"));
+    }
+
+    @Test
+    public void testGetChildAfterChange() throws Exception {
+        final FileObject folder = resolveBaseDir(false);
+        Assert.assertNull(folder.getChild("new.txt"));
+
+        folder.resolveFile("new.txt").createFile();
+        Assert.assertNotNull(folder.getChild("new.txt"));
+
+        folder.getChild("File0.txt").delete();
+        Assert.assertNull(folder.getChild("File0.txt"));
+
+        new File(baseDir, "external.txt").createNewFile();
+        Assert.assertNull(folder.getChild("external.txt"));
+        folder.refresh();
+        Assert.assertNotNull(folder.getChild("external.txt"));
+    }
+}
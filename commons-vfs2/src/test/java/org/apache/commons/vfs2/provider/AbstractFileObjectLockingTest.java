@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.CacheStrategy;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.LockStrategy;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stress tests {@link LockStrategy#READ_WRITE} with many threads reading and modifying the same file system.
+ */
+public class AbstractFileObjectLockingTest {
+    private static final int THREADS = 16;
+
+    private static final int FOLDERS = 8;
+
+    private static final int FILES = 50;
+
+    private static final int ROUNDS = 200;
+
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    private FileObject root;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-locking", "");
+        baseDir.delete();
+        for (int i = 0; i < FOLDERS; i++) {
+            final File folder = new File(baseDir, "folder" + i);
+            folder.mkdirs();
+            for (int j = 0; j < FILES; j++) {
+                FileUtils.writeStringToFile(new File(folder, "file" + j + ".txt"), "file" + j, "UTF-8");
+            }
+        }
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setLockStrategy(opts, LockStrategy.READ_WRITE);
+        root = manager.resolveFile(baseDir.toURI().toString(), opts);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    @Test
+    public void testLockStrategyOption() {
+        final AbstractFileSystem fs = (AbstractFileSystem) root.getFileSystem();
+        Assert.assertEquals(LockStrategy.READ_WRITE, fs.getLockStrategy());
+        Assert.assertEquals(LockStrategy.FILE_SYSTEM,
+                DefaultFileSystemConfigBuilder.getInstance().getLockStrategy(new FileSystemOptions()));
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int id = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final FileObject folder = root.resolveFile("folder" + id % FOLDERS);
+                        for (int round = 0; round < ROUNDS; round++) {
+                            if (id % 4 == 0) {
+                                // writer: create and delete a private file in a shared folder
+                                final FileObject file = folder.resolveFile("tmp" + id + ".txt");
+                                file.createFile();
+                                Assert.assertEquals(FileType.FILE, file.getType());
+                                Assert.assertTrue(file.delete());
+                                Assert.assertFalse(file.exists());
+                            } else {
+                                Assert.assertEquals(FileType.FOLDER, folder.getType());
+                                final FileObject[] children = folder.getChildren();
+                                Assert.assertTrue(children.length >= FILES);
+                                final FileObject child = folder.getChild("file" + round % FILES + ".txt");
+                                Assert.assertNotNull(child);
+                                Assert.assertTrue(child.getContent().getSize() > 0);
+                                Assert.assertEquals(folder, child.getParent());
+                                if (round % 10 == 0) {
+                                    folder.refresh();
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < FOLDERS; i++) {
+            final FileObject folder = root.resolveFile("folder" + i);
+            folder.refresh();
+            Assert.assertEquals(FILES, folder.getChildren().length);
+        }
+    }
+
+    @Test
+    public void testCreateWhileListing() throws Exception {
+        // resolving a file refreshes it, so listing a folder locks its children
+        final DefaultFileSystemManager resolvingManager = new DefaultFileSystemManager();
+        resolvingManager.addProvider("file", new DefaultLocalFileProvider());
+        resolvingManager.setCacheStrategy(CacheStrategy.ON_RESOLVE);
+        resolvingManager.init();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final FileSystemOptions opts = new FileSystemOptions();
+            DefaultFileSystemConfigBuilder.getInstance().setLockStrategy(opts, LockStrategy.READ_WRITE);
+            final FileObject folder = resolvingManager.resolveFile(baseDir.toURI().toString(), opts)
+                    .resolveFile("created");
+
+            final Future<Void> creator = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        final FileObject child = folder.resolveFile("child" + round % FOLDERS + "/file.txt");
+                        child.createFile();
+                        if (round % FOLDERS == FOLDERS - 1) {
+                            folder.deleteAll();
+                        }
+                    }
+                    return null;
+                }
+            });
+            final Future<Void> lister = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        if (folder.exists()) {
+                            for (final FileObject child : folder.getChildren()) {
+                                child.getType();
+                                child.refresh();
+                            }
+                        }
+                        folder.refresh();
+                    }
+                    return null;
+                }
+            });
+            creator.get(60, TimeUnit.SECONDS);
+            lister.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            resolvingManager.close();
+        }
+    }
+
+    @Test
+    public void testListenersNotifiedWithoutLock() throws Exception {
+        final FileObject file = root.resolveFile("folder0/notified.txt");
+        final AtomicReference<Future<FileType>> typeSeenByListener = new AtomicReference<>();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            root.getFileSystem().addListener(file, new FileListener() {
+                @Override
+                public void fileChanged(final FileChangeEvent event) {
+                    // nothing to do
+                }
+
+                @Override
+                public void fileCreated(final FileChangeEvent event) throws Exception {
+                    // another thread can lock the file and its parent while the listener runs
+                    final Future<FileType> future = executor.submit(new Callable<FileType>() {
+                        @Override
+                        public FileType call() throws Exception {
+                            file.getParent().refresh();
+                            file.getParent().getChildren();
+                            file.refresh();
+                            return file.getType();
+                        }
+                    });
+                    future.get(10, TimeUnit.SECONDS);
+                    typeSeenByListener.set(future);
+                }
+
+                @Override
+                public void fileDeleted(final FileChangeEvent event) {
+                    // nothing to do
+                }
+            });
+            file.createFile();
+            Assert.assertNotNull(typeSeenByListener.get());
+            Assert.assertEquals(FileType.FILE, typeSeenByListener.get().get());
+            Assert.assertEquals(1, file.delete(Selectors.SELECT_SELF));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
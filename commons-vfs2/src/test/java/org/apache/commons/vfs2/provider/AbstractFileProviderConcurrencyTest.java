@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the file system registry of {@link AbstractFileProvider} with many threads.
+ */
+public class AbstractFileProviderConcurrencyTest {
+    private static final int THREADS = 16;
+
+    private DefaultFileSystemManager manager;
+
+    private SlowRamFileProvider provider;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        provider = new SlowRamFileProvider();
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", provider);
+        manager.init();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        manager.close();
+    }
+
+    private static FileSystemOptions options(final long timeToLive) {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setCacheTimeToLive(opts, timeToLive);
+        return opts;
+    }
+
+    private Future<FileSystem> resolve(final String uri, final FileSystemOptions opts) {
+        return executor.submit(new Callable<FileSystem>() {
+            @Override
+            public FileSystem call() throws Exception {
+                return manager.resolveFile(uri, opts).getFileSystem();
+            }
+        });
+    }
+
+    @Test
+    public void testSameFileSystemCreatedOnce() throws Exception {
+        provider.delay = new CountDownLatch(1);
+        final List<Future<FileSystem>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // equal options, but not the same instance
+            results.add(resolve("ram:///file" + i, options(5000)));
+        }
+        Thread.sleep(100);
+        provider.delay.countDown();
+
+        final FileSystem fs = results.get(0).get(10, TimeUnit.SECONDS);
+        for (final Future<FileSystem> result : results) {
+            Assert.assertSame(fs, result.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, provider.created.get());
+    }
+
+    @Test
+    public void testCreationRetriedAfterFailure() throws Exception {
+        provider.delay = new CountDownLatch(1);
+        provider.failures.set(1);
+        final List<Future<FileSystem>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(resolve("ram:///file" + i, options(5000)));
+        }
+        Thread.sleep(100);
+        provider.delay.countDown();
+
+        // the caller which failed is alone to get the exception, the next one creates the file system for the others
+        FileSystem fs = null;
+        int failed = 0;
+        for (final Future<FileSystem> result : results) {
+            try {
+                final FileSystem resultFs = result.get(10, TimeUnit.SECONDS);
+                Assert.assertTrue(fs == null || fs == resultFs);
+                fs = resultFs;
+            } catch (final ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof FileSystemException);
+                failed++;
+            }
+        }
+        Assert.assertEquals(1, failed);
+        Assert.assertEquals(2, provider.created.get());
+    }
+
+    @Test
+    public void testDifferentFileSystemsCreatedConcurrently() throws Exception {
+        // each creation waits for the other one
+        provider.delay = new CountDownLatch(2);
+        provider.countDownOnCreate = true;
+        final Future<FileSystem> first = resolve("ram:///file", options(1000));
+        final Future<FileSystem> second = resolve("ram:///file", options(2000));
+
+        Assert.assertNotSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, provider.created.get());
+    }
+
+    @Test
+    public void testCloseFileSystem() throws Exception {
+        final FileSystem fs = manager.resolveFile("ram:///file").getFileSystem();
+        Assert.assertSame(fs, manager.resolveFile("ram:///other").getFileSystem());
+
+        manager.closeFileSystem(fs);
+        Assert.assertNotSame(fs, manager.resolveFile("ram:///file").getFileSystem());
+        Assert.assertEquals(2, provider.created.get());
+    }
+
+    @Test
+    public void testFileSystemKey() {
+        final FileSystemKey key = new FileSystemKey("root", options(1000));
+        Assert.assertEquals(key, new FileSystemKey("root", options(1000)));
+        Assert.assertEquals(key.hashCode(), new FileSystemKey("root", options(1000)).hashCode());
+        Assert.assertFalse(key.equals(new FileSystemKey("root", options(2000))));
+        Assert.assertFalse(key.equals(new FileSystemKey("other", options(1000))));
+        Assert.assertEquals(new FileSystemKey("root", null), new FileSystemKey("root", new FileSystemOptions()));
+    }
+
+    /**
+     * Counts the file systems it creates, which takes until a latch is released.
+     */
+    private static final class SlowRamFileProvider extends RamFileProvider {
+        private final AtomicInteger created = new AtomicInteger();
+
+        private volatile CountDownLatch delay = new CountDownLatch(0);
+
+        private volatile boolean countDownOnCreate;
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        protected FileSystem doCreateFileSystem(final FileName name, final FileSystemOptions fileSystemOptions)
+                throws FileSystemException {
+            created.incrementAndGet();
+            if (countDownOnCreate) {
+                delay.countDown();
+            }
+            try {
+                if (!delay.await(5, TimeUnit.SECONDS)) {
+                    throw new FileSystemException("timed out");
+                }
+            } catch (final InterruptedException e) {
+                throw new FileSystemException(e);
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new FileSystemException("failed");
+            }
+            return super.doCreateFileSystem(name, fileSystemOptions);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.cache.NullFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the negative cache of {@link AbstractFileSystem}.
+ */
+public class AbstractFileSystemNegativeCacheTest {
+    private File baseDir;
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("vfs-negative", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    private FileObject resolveFolder(final long timeToLive, final int maxSize) throws FileSystemException {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setNegativeCacheTimeToLive(opts, timeToLive);
+        DefaultFileSystemConfigBuilder.getInstance().setNegativeCacheMaxSize(opts, maxSize);
+        return manager.resolveFile(baseDir.toURI().toString(), opts);
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        final FileObject file = manager.resolveFile(baseDir.toURI().toString()).resolveFile("marker");
+        Assert.assertFalse(file.exists());
+
+        FileUtils.touch(new File(baseDir, "marker"));
+        file.refresh();
+        Assert.assertTrue(file.exists());
+    }
+
+    @Test
+    public void testMissingFileRemembered() throws Exception {
+        final FileObject file = resolveFolder(60000, 100).resolveFile("marker");
+        Assert.assertFalse(file.exists());
+
+        FileUtils.touch(new File(baseDir, "marker"));
+        file.refresh();
+        Assert.assertFalse("still known missing", file.exists());
+    }
+
+    @Test
+    public void testForgottenOnCreate() throws Exception {
+        final FileObject file = resolveFolder(60000, 100).resolveFile("marker");
+        Assert.assertFalse(file.exists());
+
+        file.createFile();
+        Assert.assertTrue(file.exists());
+        file.refresh();
+        Assert.assertTrue(file.exists());
+
+        file.delete();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCreateAfterNegativeHit() throws Exception {
+        final DefaultFileSystemManager uncached = new DefaultFileSystemManager();
+        uncached.addProvider("file", new DefaultLocalFileProvider());
+        uncached.setFilesCache(new NullFilesCache());
+        uncached.init();
+        try {
+            final FileSystemOptions opts = new FileSystemOptions();
+            DefaultFileSystemConfigBuilder.getInstance().setNegativeCacheTimeToLive(opts, 60000);
+            final FileObject folder = uncached.resolveFile(baseDir.toURI().toString(), opts);
+            Assert.assertFalse(folder.resolveFile("marker").exists());
+
+            // a new file object, answered from the negative cache
+            final FileObject file = folder.resolveFile("marker");
+            Assert.assertFalse(file.exists());
+            file.createFile();
+            Assert.assertTrue(file.exists());
+            Assert.assertTrue(new File(baseDir, "marker").isFile());
+        } finally {
+            uncached.close();
+        }
+    }
+
+    @Test
+    public void testForgottenAfterTimeToLive() throws Exception {
+        final FileObject file = resolveFolder(100, 100).resolveFile("marker");
+        Assert.assertFalse(file.exists());
+
+        FileUtils.touch(new File(baseDir, "marker"));
+        Thread.sleep(150);
+        file.refresh();
+        Assert.assertTrue(file.exists());
+    }
+
+    @Test
+    public void testTimeToLiveNotExtendedByCachedType() throws Exception {
+        final FileObject file = resolveFolder(200, 100).resolveFile("marker");
+        Assert.assertFalse(file.exists());
+        final long found = System.nanoTime();
+
+        FileUtils.touch(new File(baseDir, "marker"));
+        // answered from the cached type, which does not remember the file again
+        while (System.nanoTime() - found < TimeUnit.MILLISECONDS.toNanos(300)) {
+            Assert.assertFalse(file.exists());
+            Thread.sleep(20);
+        }
+        file.refresh();
+        Assert.assertTrue(file.exists());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        final FileObject folder = resolveFolder(60000, 1);
+        final FileObject file1 = folder.resolveFile("marker1");
+        final FileObject file2 = folder.resolveFile("marker2");
+        Assert.assertFalse(file1.exists());
+        Assert.assertFalse(file2.exists());
+
+        FileUtils.touch(new File(baseDir, "marker1"));
+        FileUtils.touch(new File(baseDir, "marker2"));
+        file1.refresh();
+        file2.refresh();
+        Assert.assertTrue("dropped from the cache", file1.exists());
+        Assert.assertFalse("still known missing", file2.exists());
+    }
+}
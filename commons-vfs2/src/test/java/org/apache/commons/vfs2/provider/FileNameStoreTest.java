@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests file names using a {@link FileNameStore}.
+ */
+public class FileNameStoreTest {
+
+    @After
+    public void tearDown() {
+        FileNameStore.setDefault(null);
+    }
+
+    private static FileName name(final String path) {
+        return new GenericFileName("ftp", "host", 21, 21, "user", "pass", path, FileType.FILE);
+    }
+
+    @Test
+    public void testSharedPrefixes() {
+        final FileNameStore store = new FileNameStore();
+        FileNameStore.setDefault(store);
+
+        name("/a/b/c/file1.txt");
+        Assert.assertEquals(4, store.size());
+        name("/a/b/c/file2.txt");
+        name("/a/b/d");
+        Assert.assertEquals(6, store.size());
+        name("/a/b/");
+        Assert.assertEquals(6, store.size());
+    }
+
+    @Test
+    public void testSameAsPlainNames() throws Exception {
+        final String[] paths = {"/", "/a", "/a/b.txt", "/a/.bashrc", "/dir/with%25esc/file.tar.gz", "/a//b"};
+        final FileName[] plain = new FileName[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            plain[i] = name(paths[i]);
+        }
+        FileNameStore.setDefault(new FileNameStore());
+        for (int i = 0; i < paths.length; i++) {
+            final FileName stored = name(paths[i]);
+            Assert.assertEquals(plain[i].getPath(), stored.getPath());
+            Assert.assertEquals(plain[i].getURI(), stored.getURI());
+            Assert.assertEquals(plain[i].getFriendlyURI(), stored.getFriendlyURI());
+            Assert.assertEquals(plain[i].getBaseName(), stored.getBaseName());
+            Assert.assertEquals(plain[i].getExtension(), stored.getExtension());
+            Assert.assertEquals(plain[i].getPathDecoded(), stored.getPathDecoded());
+            Assert.assertEquals(plain[i].getDepth(), stored.getDepth());
+            Assert.assertEquals(plain[i].getParent(), stored.getParent());
+            Assert.assertEquals(plain[i], stored);
+            Assert.assertEquals(stored, plain[i]);
+            Assert.assertEquals(plain[i].hashCode(), stored.hashCode());
+            Assert.assertEquals(0, stored.compareTo(plain[i]));
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        FileNameStore.setDefault(new FileNameStore());
+        final FileName name = name("/a/b");
+        Assert.assertEquals(name, name("/a/b"));
+        Assert.assertFalse(name.equals(name("/a/c")));
+        Assert.assertFalse(name.equals(name("/b")));
+        Assert.assertFalse(name.equals(new GenericFileName("ftp", "other", 21, 21, "user", "pass", "/a/b",
+                FileType.FILE)));
+
+        // names from different stores
+        FileNameStore.setDefault(new FileNameStore());
+        Assert.assertEquals(name, name("/a/b"));
+        Assert.assertTrue(name.isDescendent(name("/a/b/c"), NameScope.CHILD));
+    }
+
+    @Test
+    public void testMaxSize() {
+        final FileNameStore store = new FileNameStore(3);
+        FileNameStore.setDefault(store);
+
+        final FileName name = name("/a/b/c/d");
+        Assert.assertEquals(3, store.size());
+        Assert.assertEquals("/a/b/c/d", name.getPath());
+        Assert.assertEquals(name, name("/a/b/c/d"));
+
+        store.clear();
+        Assert.assertEquals(0, store.size());
+        Assert.assertEquals(name, name("/a/b/c/d"));
+    }
+}
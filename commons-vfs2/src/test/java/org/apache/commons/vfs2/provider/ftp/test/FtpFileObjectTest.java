@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ftp.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.parser.FTPFileEntryParserFactory;
+import org.apache.commons.net.ftp.parser.UnixFTPEntryParser;
+import org.apache.commons.vfs2.FileNotFolderException;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.LockStrategy;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ftp.FtpFileProvider;
+import org.apache.commons.vfs2.provider.ftp.FtpFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests FTP file objects against an embedded server, with symbolic links reported by a client side entry parser as
+ * the embedded server does not list them.
+ */
+public class FtpFileObjectTest {
+    /**
+     * The prefix of the name of an entry which the parser reports as a symbolic link to the rest of the name.
+     */
+    private static final String LINK_PREFIX = "link-to-";
+
+    private static final FTPFileEntryParserFactory PARSER_FACTORY = new FTPFileEntryParserFactory() {
+        @Override
+        public FTPFileEntryParser createFileEntryParser(final String key) {
+            return new LinkParser();
+        }
+
+        @Override
+        public FTPFileEntryParser createFileEntryParser(final FTPClientConfig config) {
+            return new LinkParser();
+        }
+    };
+
+    private static File rootDir;
+
+    private DefaultFileSystemManager manager;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        rootDir = File.createTempFile("vfs-ftp", "");
+        rootDir.delete();
+        final File dir = new File(rootDir, "dir");
+        FileUtils.writeStringToFile(new File(dir, "target.txt"), "content", "UTF-8");
+        FileUtils.writeStringToFile(new File(dir, LINK_PREFIX + "target.txt"), "", "UTF-8");
+        FtpProviderTestCase.setUpClass(rootDir.getAbsolutePath(), null);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        FtpProviderTestCase.tearDownClass();
+        FileUtils.deleteDirectory(rootDir);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ftp", new FtpFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        if (manager != null) {
+            manager.close();
+        }
+    }
+
+    private FileObject resolve(final String path, final LockStrategy lockStrategy) throws FileSystemException {
+        final FileSystemOptions opts = new FileSystemOptions();
+        final FtpFileSystemConfigBuilder builder = FtpFileSystemConfigBuilder.getInstance();
+        builder.setPassiveMode(opts, true);
+        builder.setEntryParserFactory(opts, PARSER_FACTORY);
+        DefaultFileSystemConfigBuilder.getInstance().setLockStrategy(opts, lockStrategy);
+        return manager.resolveFile(FtpProviderTestCase.getConnectionUri() + path, opts);
+    }
+
+    @Test
+    public void testSymbolicLink() throws Exception {
+        final FileObject link = resolve("/dir/" + LINK_PREFIX + "target.txt", LockStrategy.READ_WRITE);
+        Assert.assertEquals(FileType.FILE, link.getType());
+        Assert.assertEquals(7, link.getContent().getSize());
+    }
+
+    @Test
+    public void testGetChildOfFile() throws Exception {
+        for (final LockStrategy lockStrategy : LockStrategy.values()) {
+            // the server lists a file as its only child
+            final FileObject file = resolve("/dir/target.txt", lockStrategy);
+            try {
+                file.getChild("target.txt");
+                Assert.fail(lockStrategy.toString());
+            } catch (final FileNotFolderException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * The link follows its destination, which has a lock of its own, while the destination waits for the file system
+     * to find its type.
+     */
+    @Test
+    public void testSymbolicLinkWithConcurrentDestination() throws Exception {
+        final FileObject link = resolve("/dir/" + LINK_PREFIX + "target.txt", LockStrategy.READ_WRITE);
+        final FileObject target = resolve("/dir/target.txt", LockStrategy.READ_WRITE);
+        Assert.assertSame(link.getFileSystem(), target.getFileSystem());
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] threads = { new RefreshThread(link, failure), new RefreshThread(target, failure) };
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join(30000);
+            if (thread.isAlive()) {
+                // closing the manager would wait for the deadlocked threads
+                manager = null;
+                Assert.fail("deadlock");
+            }
+        }
+        Assert.assertNull(failure.get());
+    }
+
+    /**
+     * Refreshes a file and gets its type again and again.
+     */
+    private static final class RefreshThread extends Thread {
+        private final FileObject file;
+        private final AtomicReference<Throwable> failure;
+
+        private RefreshThread(final FileObject file, final AtomicReference<Throwable> failure) {
+            this.file = file;
+            this.failure = failure;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    file.refresh();
+                    Assert.assertEquals(FileType.FILE, file.getType());
+                }
+            } catch (final Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    /**
+     * Reports the entries named with {@link FtpFileObjectTest#LINK_PREFIX} as symbolic links.
+     */
+    private static final class LinkParser extends UnixFTPEntryParser {
+        @Override
+        public FTPFile parseFTPEntry(final String entry) {
+            final FTPFile file = super.parseFTPEntry(entry);
+            if (file != null && file.getName().startsWith(LINK_PREFIX)) {
+                file.setType(FTPFile.SYMBOLIC_LINK_TYPE);
+                file.setLink(file.getName().substring(LINK_PREFIX.length()));
+            }
+            return file;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.hdfs.test;
+
+import java.io.File;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.hdfs.HdfsFileMonitor;
+import org.apache.commons.vfs2.provider.hdfs.HdfsFileProvider;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the {@link HdfsFileMonitor} with the events of an embedded Hadoop cluster.
+ * <P>
+ * This will only work on systems that Hadoop supports.
+ */
+public class HdfsFileMonitorTest {
+
+    // Turn off the MiniDFSCluster logging
+    static {
+        System.setProperty("org.apache.commons.logging.Log", "org.apache.commons.logging.impl.NoOpLog");
+    }
+
+    private static final int PORT = 8740;
+    private static final String HDFS_URI = "hdfs://localhost:" + PORT;
+    private static final Path DIR_PATH = new Path("/monitor-dir");
+    private static final String TEST_DIR = HDFS_URI + DIR_PATH;
+
+    /** Long enough for the polling thread to never run during a test */
+    private static final long NO_POLLING_DELAY = 60 * 1000;
+
+    private static DefaultFileSystemManager manager;
+    private static MiniDFSCluster cluster;
+    private static FileSystem hdfs;
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    private final FileListener listener = new FileListener() {
+        @Override
+        public void fileCreated(final FileChangeEvent event) throws Exception {
+            events.add("created " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) throws Exception {
+            events.add("deleted " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileChanged(final FileChangeEvent event) throws Exception {
+            events.add("changed " + event.getFile().getName().getBaseName());
+        }
+    };
+
+    private HdfsFileMonitor monitor;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Logger.getRootLogger().setLevel(Level.ERROR);
+
+        // Put the MiniDFSCluster directory in the target directory
+        final File data = new File("target/test/hdfsmonitordata").getAbsoluteFile();
+        data.mkdirs();
+        System.setProperty("test.build.data", data.toString());
+        FileUtils.cleanDirectory(data);
+
+        final Configuration conf = new Configuration();
+        conf.set(FileSystem.FS_DEFAULT_NAME_KEY, HDFS_URI);
+        conf.set("hadoop.security.token.service.use_ip", "true");
+        HdfsFileProviderTest.setUmask(conf);
+
+        cluster = new MiniDFSCluster(PORT, conf, 1, true, true, true, null, null, null, null);
+        cluster.waitActive();
+        hdfs = cluster.getFileSystem();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("hdfs", new HdfsFileProvider());
+        manager.init();
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        if (manager != null) {
+            manager.close();
+        }
+        if (cluster != null) {
+            cluster.shutdown();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        hdfs.mkdirs(DIR_PATH);
+        monitor = new HdfsFileMonitor(listener);
+        monitor.setDelay(NO_POLLING_DELAY);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        monitor.stop();
+        hdfs.delete(DIR_PATH, true);
+    }
+
+    private void assertEvent(final String expected) throws InterruptedException {
+        Assert.assertEquals(expected, events.poll(10, TimeUnit.SECONDS));
+    }
+
+    private void assertNoEvent() throws InterruptedException {
+        Assert.assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+
+    private static void write(final Path path) throws Exception {
+        final FSDataOutputStream out = hdfs.create(path);
+        try {
+            out.write("content".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void testFolderChildren() throws Exception {
+        final Path existing = new Path(DIR_PATH, "existing.txt");
+        write(existing);
+
+        monitor.addFile(manager.resolveFile(TEST_DIR));
+        monitor.start();
+
+        final Path file = new Path(DIR_PATH, "file.txt");
+        write(file);
+        assertEvent("created file.txt");
+
+        // the edit log is not synced when the times are set, but when the file is appended to
+        hdfs.setTimes(existing, System.currentTimeMillis() - 10000, -1);
+        hdfs.append(existing).close();
+        assertEvent("changed existing.txt");
+        assertEvent("changed existing.txt");
+
+        final Path renamed = new Path(DIR_PATH, "renamed.txt");
+        Assert.assertTrue(hdfs.rename(file, renamed));
+        assertEvent("deleted file.txt");
+        assertEvent("created renamed.txt");
+
+        // the content of a child folder is not monitored
+        final Path subDir = new Path(DIR_PATH, "sub");
+        Assert.assertTrue(hdfs.mkdirs(subDir));
+        assertEvent("created sub");
+        write(new Path(subDir, "nested.txt"));
+
+        // neither are the other folders
+        write(new Path("/other.txt"));
+        hdfs.delete(new Path("/other.txt"), false);
+
+        Assert.assertTrue(hdfs.delete(renamed, false));
+        assertEvent("deleted renamed.txt");
+        assertNoEvent();
+    }
+
+    @Test
+    public void testRecursive() throws Exception {
+        monitor.setRecursive(true);
+        monitor.addFile(manager.resolveFile(TEST_DIR));
+        monitor.start();
+
+        final Path subDir = new Path(DIR_PATH, "sub");
+        Assert.assertTrue(hdfs.mkdirs(subDir));
+        assertEvent("created sub");
+
+        final Path file = new Path(subDir, "file.txt");
+        write(file);
+        assertEvent("created file.txt");
+
+        Assert.assertTrue(hdfs.delete(DIR_PATH, true));
+        assertEvent("deleted monitor-dir");
+        assertNoEvent();
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        monitor.addFile(manager.resolveFile(TEST_DIR));
+        monitor.start();
+        monitor.stop();
+
+        // changes made while stopped are reported when started again
+        write(new Path(DIR_PATH, "stopped.txt"));
+        assertNoEvent();
+        monitor.start();
+        assertEvent("created stopped.txt");
+        write(new Path(DIR_PATH, "started.txt"));
+        assertEvent("created started.txt");
+        assertNoEvent();
+    }
+
+    @Test
+    public void testFileCreatedLater() throws Exception {
+        final Path file = new Path(DIR_PATH, "later.txt");
+
+        monitor.addFile(manager.resolveFile(TEST_DIR + "/later.txt"));
+        monitor.start();
+
+        // other files in the same folder are not monitored
+        write(new Path(DIR_PATH, "other.txt"));
+        write(file);
+        assertEvent("created later.txt");
+        Assert.assertTrue(hdfs.delete(DIR_PATH, true));
+        assertEvent("deleted later.txt");
+        assertNoEvent();
+    }
+}
@@ -247,4 +247,22 @@ public class CustomRamProviderTest {
         }
 
     }
+
+    @Test
+    public void testMaxSizeReadOnCreation() throws Exception {
+        final FileSystemOptions options = new FileSystemOptions();
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(options, 10L);
+        final FileObject file = manager.resolveFile("ram:/file", options);
+
+        // a later change of the options does not affect the file system
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(options, 100L);
+        try {
+            final OutputStream os = file.getContent().getOutputStream();
+            os.write(new byte[11]);
+            os.close();
+            fail("It shouldn't save such a big file");
+        } catch (final FileSystemException e) {
+            // Expected
+        }
+    }
 }
@@ -29,6 +29,8 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.util.CloseableIterator;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.junit.Assert;
 
 /**
@@ -300,6 +302,38 @@ public class ProviderReadTests extends AbstractProviderTestCase {
         }
     }
 
+    /**
+     * Tests that iterateChildren() yields the same children as getChildren().
+     */
+    public void testIterateChildren() throws Exception {
+        final FileObject folder = getReadFolderDir1();
+        folder.refresh();
+
+        final List<FileObject> iterated = new ArrayList<>();
+        final CloseableIterator<FileObject> iterator = FileObjectUtils.iterateChildren(folder);
+        try {
+            while (iterator.hasNext()) {
+                iterated.add(iterator.next());
+            }
+        } finally {
+            iterator.close();
+        }
+        assertFalse(iterator.hasNext());
+
+        final List<FileObject> expected = new ArrayList<>(Arrays.asList(folder.getChildren()));
+        Collections.sort(iterated);
+        Collections.sort(expected);
+        assertEquals(expected, iterated);
+
+        // stop early
+        folder.refresh();
+        final CloseableIterator<FileObject> partial = FileObjectUtils.iterateChildren(folder);
+        assertTrue(partial.hasNext());
+        assertTrue(expected.contains(partial.next()));
+        partial.close();
+        assertFalse(partial.hasNext());
+    }
+
     /**
      * Tests that findFiles() works.
      */